@@ -0,0 +1,71 @@
+package de.johnsoneyo.mapper.jmh;
+
+import de.johnsoneyo.mapper.jmh.model.Renamed;
+import de.johnsoneyo.mapper.jmh.model.RenamedDto;
+import de.johnsoneyo.mapper.jmh.model.Transformed;
+import de.johnsoneyo.mapper.jmh.model.TransformedDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warm mapping of classes whose fields are all converted by type adapters or all renamed by class field mappings
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnnotatedMappingBenchmark {
+
+    private final Transformed transformed = Transformed.sample(7);
+    private final Renamed renamed = Renamed.sample(7);
+
+    @Benchmark
+    public TransformedDto transformToTypeMapper(final MapperState state) {
+        return state.mapper.map(transformed, TransformedDto.class);
+    }
+
+    @Benchmark
+    public TransformedDto transformToTypeHandwritten() {
+        TransformedDto target = new TransformedDto();
+        target.requesterId = UUID.fromString(transformed.requesterId);
+        target.accountId = UUID.fromString(transformed.accountId);
+        target.orderId = UUID.fromString(transformed.orderId);
+        target.sessionId = UUID.fromString(transformed.sessionId);
+        target.quantity = String.valueOf(transformed.quantity);
+        target.rank = String.valueOf(transformed.rank);
+        target.version = String.valueOf(transformed.version);
+        target.retries = String.valueOf(transformed.retries);
+        return target;
+    }
+
+    @Benchmark
+    public RenamedDto classFieldMappingMapper(final MapperState state) {
+        return state.mapper.map(renamed, RenamedDto.class);
+    }
+
+    @Benchmark
+    public RenamedDto classFieldMappingHandwritten() {
+        RenamedDto target = new RenamedDto();
+        target.identifier = renamed.id;
+        target.givenName = renamed.firstName;
+        target.familyName = renamed.lastName;
+        target.streetName = renamed.street;
+        target.town = renamed.city;
+        target.countryCode = renamed.country;
+        target.phoneNumber = renamed.phone;
+        target.emailAddress = renamed.email;
+        return target;
+    }
+}
@@ -0,0 +1,33 @@
+package de.johnsoneyo.mapper.jmh;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of {@code benchmarks.jar}, runs the benchmarks selected on the command line with the GC profiler, so
+ * every result comes with its allocation rate ({@code gc.alloc.rate.norm} in bytes per operation)
+ * <p>
+ * Accepts the regular JMH options, {@code java -jar target/benchmarks.jar Flat -p engine=BYTECODE} runs the flat
+ * benchmarks of one engine.
+ * </p>
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    /**
+     * @param args JMH command line options
+     * @throws Exception when the options are invalid or a benchmark fails
+     */
+    public static void main(final String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
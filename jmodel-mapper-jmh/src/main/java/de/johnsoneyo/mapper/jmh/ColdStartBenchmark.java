@@ -0,0 +1,54 @@
+package de.johnsoneyo.mapper.jmh;
+
+import de.johnsoneyo.mapper.JModelMapper;
+import de.johnsoneyo.mapper.MappingEngine;
+import de.johnsoneyo.mapper.jmh.model.Person;
+import de.johnsoneyo.mapper.jmh.model.PersonDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First mapping of a class pair, including plan creation and, for {@link MappingEngine#BYTECODE}, class generation
+ * <p>
+ * {@link #firstMapInFreshJvm()} measures a single call per forked JVM, as on application start. {@link #firstMapOnFreshMapper()}
+ * creates a new mapper per call in a warm JVM, isolating the plan creation cost from class loading and JIT warm up.
+ * Compare both to the warm {@code NestedMappingBenchmark.mapper} of one address.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ColdStartBenchmark {
+
+    @Param({"REFLECTION", "METHOD_HANDLE", "BYTECODE"})
+    public MappingEngine engine;
+
+    private final Person source = Person.sample(1);
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    public PersonDto firstMapInFreshJvm() {
+        return JModelMapper.builder().engine(engine).build().map(source, PersonDto.class);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Fork(1)
+    public PersonDto firstMapOnFreshMapper() {
+        return JModelMapper.builder().engine(engine).build().map(source, PersonDto.class);
+    }
+}
@@ -0,0 +1,50 @@
+package de.johnsoneyo.mapper.jmh;
+
+import de.johnsoneyo.mapper.jmh.model.Flat;
+import de.johnsoneyo.mapper.jmh.model.FlatDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warm mapping of a flat class of ten fields of identical names and types
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlatMappingBenchmark {
+
+    private final Flat source = Flat.sample(7);
+
+    @Benchmark
+    public FlatDto mapper(final MapperState state) {
+        return state.mapper.map(source, FlatDto.class);
+    }
+
+    @Benchmark
+    public FlatDto handwritten() {
+        FlatDto target = new FlatDto();
+        target.id = source.id;
+        target.name = source.name;
+        target.quantity = source.quantity;
+        target.total = source.total;
+        target.price = source.price;
+        target.active = source.active;
+        target.category = source.category;
+        target.rank = source.rank;
+        target.created = source.created;
+        target.note = source.note;
+        return target;
+    }
+}
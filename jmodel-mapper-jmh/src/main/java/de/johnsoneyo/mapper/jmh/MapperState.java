@@ -0,0 +1,28 @@
+package de.johnsoneyo.mapper.jmh;
+
+import de.johnsoneyo.mapper.JModelMapper;
+import de.johnsoneyo.mapper.MappingEngine;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Warm mapper of every engine, shared by the threads of a benchmark
+ * <p>
+ * Kept apart from the sources so the hand written baselines do not run once per engine.
+ * </p>
+ */
+@State(Scope.Benchmark)
+public class MapperState {
+
+    @Param({"REFLECTION", "METHOD_HANDLE", "BYTECODE"})
+    public MappingEngine engine;
+
+    public JModelMapper mapper;
+
+    @Setup
+    public void setUp() {
+        mapper = JModelMapper.builder().engine(engine).build();
+    }
+}
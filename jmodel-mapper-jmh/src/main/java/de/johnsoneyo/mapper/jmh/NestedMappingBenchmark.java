@@ -0,0 +1,66 @@
+package de.johnsoneyo.mapper.jmh;
+
+import de.johnsoneyo.mapper.jmh.model.Person;
+import de.johnsoneyo.mapper.jmh.model.PersonDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warm mapping of a person with nested addresses and extra info, a single address measures the nesting depth and a
+ * thousand addresses a large list field
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NestedMappingBenchmark {
+
+    @Param({"1", "1000"})
+    public int addresses;
+
+    private Person source;
+
+    @Setup
+    public void setUp() {
+        source = Person.sample(addresses);
+    }
+
+    @Benchmark
+    public PersonDto mapper(final MapperState state) {
+        return state.mapper.map(source, PersonDto.class);
+    }
+
+    @Benchmark
+    public PersonDto handwritten() {
+        PersonDto target = new PersonDto();
+        target.name = source.name;
+        target.age = source.age;
+        target.sex = source.sex;
+        target.addresses = new ArrayList<>(source.addresses.size());
+        for (Person.Address address : source.addresses) {
+            PersonDto.AddressDto addressDto = new PersonDto.AddressDto();
+            addressDto.streetName = address.streetName;
+            addressDto.zipCode = address.zipCode;
+            if (address.extraInfo != null) {
+                addressDto.extraInfo = new PersonDto.AddressDto.ExtraInfoDto();
+                addressDto.extraInfo.coordinates = address.extraInfo.coordinates;
+            }
+            target.addresses.add(addressDto);
+        }
+        return target;
+    }
+}
@@ -0,0 +1,100 @@
+package de.johnsoneyo.mapper.jmh;
+
+import de.johnsoneyo.mapper.JModelMapper;
+import de.johnsoneyo.mapper.MappingEngine;
+import de.johnsoneyo.mapper.jmh.model.Flat;
+import de.johnsoneyo.mapper.jmh.model.FlatDto;
+import de.johnsoneyo.mapper.jmh.model.Person;
+import de.johnsoneyo.mapper.jmh.model.PersonDto;
+import de.johnsoneyo.mapper.jmh.model.Renamed;
+import de.johnsoneyo.mapper.jmh.model.RenamedDto;
+import de.johnsoneyo.mapper.jmh.model.Transformed;
+import de.johnsoneyo.mapper.jmh.model.TransformedDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warm up of the benchmark class pairs in a fresh JVM, resolved reflectively or read from a plan snapshot
+ * <p>
+ * The snapshot is written by a separate JVM before the trial, so the measured JVM has not touched the fields and
+ * annotations of the model classes when the single call runs, as on application start.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class PlanSnapshotBenchmark {
+
+    @Param({"REFLECTION", "METHOD_HANDLE", "BYTECODE"})
+    public MappingEngine engine;
+
+    private Path snapshot;
+
+    @Setup(Level.Trial)
+    public void writeSnapshot() throws Exception {
+        snapshot = Files.createTempFile("jmodel-mapper", ".snapshot");
+        Files.delete(snapshot);
+        Process process = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"), PlanSnapshotBenchmark.class.getName(), engine.name(),
+                snapshot.toString())
+                .inheritIO()
+                .start();
+        if (process.waitFor() != 0 || !Files.exists(snapshot)) {
+            throw new IllegalStateException("plan snapshot not written to " + snapshot);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteSnapshot() throws Exception {
+        Files.deleteIfExists(snapshot);
+    }
+
+    @Benchmark
+    public JModelMapper reflectiveDiscovery() {
+        return warmUp(JModelMapper.builder().engine(engine).build());
+    }
+
+    @Benchmark
+    public JModelMapper fromSnapshot() {
+        return warmUp(JModelMapper.builder().engine(engine).planSnapshot(snapshot).build());
+    }
+
+    private static JModelMapper warmUp(final JModelMapper mapper) {
+        mapper.register(Flat.class, FlatDto.class)
+                .register(Person.class, PersonDto.class)
+                .register(Transformed.class, TransformedDto.class)
+                .register(Renamed.class, RenamedDto.class)
+                .warmUp();
+        return mapper;
+    }
+
+    /**
+     * Writes the snapshot of the benchmark class pairs
+     *
+     * @param args engine and snapshot file
+     * @throws Exception when the plans cannot be built or the file cannot be written
+     */
+    public static void main(final String[] args) throws Exception {
+        warmUp(JModelMapper.builder().engine(MappingEngine.valueOf(args[0])).build())
+                .writePlanSnapshot(Paths.get(args[1]));
+    }
+}
@@ -0,0 +1,37 @@
+package de.johnsoneyo.mapper.jmh.model;
+
+/**
+ * Flat source of ten java runtime fields
+ */
+public class Flat {
+
+    public String id;
+    public String name;
+    public int quantity;
+    public long total;
+    public double price;
+    public boolean active;
+    public String category;
+    public Integer rank;
+    public long created;
+    public String note;
+
+    /**
+     * @param seed value distinguishing the created instances
+     * @return populated instance
+     */
+    public static Flat sample(final int seed) {
+        Flat flat = new Flat();
+        flat.id = "id-" + seed;
+        flat.name = "name-" + seed;
+        flat.quantity = seed;
+        flat.total = seed * 100L;
+        flat.price = seed * 1.5d;
+        flat.active = seed % 2 == 0;
+        flat.category = "category-" + seed % 10;
+        flat.rank = seed % 100;
+        flat.created = 1_700_000_000_000L + seed;
+        flat.note = "note-" + seed;
+        return flat;
+    }
+}
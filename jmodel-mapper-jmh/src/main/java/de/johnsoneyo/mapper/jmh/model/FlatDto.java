@@ -0,0 +1,18 @@
+package de.johnsoneyo.mapper.jmh.model;
+
+/**
+ * Destination of {@link Flat} with the same field names and types
+ */
+public class FlatDto {
+
+    public String id;
+    public String name;
+    public int quantity;
+    public long total;
+    public double price;
+    public boolean active;
+    public String category;
+    public Integer rank;
+    public long created;
+    public String note;
+}
@@ -0,0 +1,48 @@
+package de.johnsoneyo.mapper.jmh.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deeply nested source, person to addresses to extra info as in the mapper tests
+ */
+public class Person {
+
+    public String name;
+    public Integer age;
+    public String sex;
+    public List<Address> addresses;
+
+    /**
+     * @param addresses number of addresses of the person
+     * @return populated instance
+     */
+    public static Person sample(final int addresses) {
+        Person person = new Person();
+        person.name = "test-name";
+        person.age = 42;
+        person.sex = "test-sex";
+        person.addresses = new ArrayList<>(addresses);
+        for (int i = 0; i < addresses; i++) {
+            Address address = new Address();
+            address.streetName = "street-" + i;
+            address.zipCode = "zip-" + i;
+            address.extraInfo = new Address.ExtraInfo();
+            address.extraInfo.coordinates = i + ".000111";
+            person.addresses.add(address);
+        }
+        return person;
+    }
+
+    public static class Address {
+
+        public String streetName;
+        public String zipCode;
+        public ExtraInfo extraInfo;
+
+        public static class ExtraInfo {
+
+            public String coordinates;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package de.johnsoneyo.mapper.jmh.model;
+
+import java.util.List;
+
+/**
+ * Destination of {@link Person}
+ */
+public class PersonDto {
+
+    public String name;
+    public Integer age;
+    public String sex;
+    public List<AddressDto> addresses;
+
+    public static class AddressDto {
+
+        public String streetName;
+        public String zipCode;
+        public ExtraInfoDto extraInfo;
+
+        public static class ExtraInfoDto {
+
+            public String coordinates;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package de.johnsoneyo.mapper.jmh.model;
+
+/**
+ * Source whose fields are all mapped onto differently named fields through
+ * {@link de.johnsoneyo.mapper.decorator.ClassFieldMapping}
+ */
+public class Renamed {
+
+    public String id;
+    public String firstName;
+    public String lastName;
+    public String street;
+    public String city;
+    public String country;
+    public String phone;
+    public String email;
+
+    /**
+     * @param seed value distinguishing the created instances
+     * @return populated instance
+     */
+    public static Renamed sample(final int seed) {
+        Renamed renamed = new Renamed();
+        renamed.id = "id-" + seed;
+        renamed.firstName = "first-" + seed;
+        renamed.lastName = "last-" + seed;
+        renamed.street = "street-" + seed;
+        renamed.city = "city-" + seed;
+        renamed.country = "country-" + seed;
+        renamed.phone = "phone-" + seed;
+        renamed.email = "email-" + seed;
+        return renamed;
+    }
+}
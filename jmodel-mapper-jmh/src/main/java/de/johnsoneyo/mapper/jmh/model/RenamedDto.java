@@ -0,0 +1,27 @@
+package de.johnsoneyo.mapper.jmh.model;
+
+import de.johnsoneyo.mapper.decorator.ClassFieldMapping;
+import de.johnsoneyo.mapper.decorator.SourceFieldMapping;
+
+/**
+ * Destination of {@link Renamed}
+ */
+public class RenamedDto {
+
+    @ClassFieldMapping(fields = {@SourceFieldMapping(sourceField = "id")})
+    public String identifier;
+    @ClassFieldMapping(fields = {@SourceFieldMapping(sourceField = "firstName")})
+    public String givenName;
+    @ClassFieldMapping(fields = {@SourceFieldMapping(sourceField = "lastName")})
+    public String familyName;
+    @ClassFieldMapping(fields = {@SourceFieldMapping(sourceField = "street")})
+    public String streetName;
+    @ClassFieldMapping(fields = {@SourceFieldMapping(sourceField = "city")})
+    public String town;
+    @ClassFieldMapping(fields = {@SourceFieldMapping(sourceField = "country")})
+    public String countryCode;
+    @ClassFieldMapping(fields = {@SourceFieldMapping(sourceField = "phone")})
+    public String phoneNumber;
+    @ClassFieldMapping(fields = {@SourceFieldMapping(sourceField = "email")})
+    public String emailAddress;
+}
@@ -0,0 +1,33 @@
+package de.johnsoneyo.mapper.jmh.model;
+
+/**
+ * Source whose fields are all converted by a {@link de.johnsoneyo.mapper.decorator.TransformToType} adapter
+ */
+public class Transformed {
+
+    public String requesterId;
+    public String accountId;
+    public String orderId;
+    public String sessionId;
+    public Integer quantity;
+    public Integer rank;
+    public Integer version;
+    public Integer retries;
+
+    /**
+     * @param seed value distinguishing the created instances
+     * @return populated instance
+     */
+    public static Transformed sample(final int seed) {
+        Transformed transformed = new Transformed();
+        transformed.requesterId = "a0200f66-f5b2-4cc7-accd-9810f1b1471f";
+        transformed.accountId = "b0200f66-f5b2-4cc7-accd-9810f1b1471f";
+        transformed.orderId = "c0200f66-f5b2-4cc7-accd-9810f1b1471f";
+        transformed.sessionId = "d0200f66-f5b2-4cc7-accd-9810f1b1471f";
+        transformed.quantity = seed;
+        transformed.rank = seed % 100;
+        transformed.version = 3;
+        transformed.retries = seed % 5;
+        return transformed;
+    }
+}
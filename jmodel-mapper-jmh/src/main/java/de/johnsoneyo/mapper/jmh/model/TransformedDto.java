@@ -0,0 +1,30 @@
+package de.johnsoneyo.mapper.jmh.model;
+
+import de.johnsoneyo.mapper.decorator.IntegerToStringTypeAdapter;
+import de.johnsoneyo.mapper.decorator.StringToUUIDTypeAdapter;
+import de.johnsoneyo.mapper.decorator.TransformToType;
+
+import java.util.UUID;
+
+/**
+ * Destination of {@link Transformed}
+ */
+public class TransformedDto {
+
+    @TransformToType(typeAdapter = StringToUUIDTypeAdapter.class)
+    public UUID requesterId;
+    @TransformToType(typeAdapter = StringToUUIDTypeAdapter.class)
+    public UUID accountId;
+    @TransformToType(typeAdapter = StringToUUIDTypeAdapter.class)
+    public UUID orderId;
+    @TransformToType(typeAdapter = StringToUUIDTypeAdapter.class)
+    public UUID sessionId;
+    @TransformToType(typeAdapter = IntegerToStringTypeAdapter.class)
+    public String quantity;
+    @TransformToType(typeAdapter = IntegerToStringTypeAdapter.class)
+    public String rank;
+    @TransformToType(typeAdapter = IntegerToStringTypeAdapter.class)
+    public String version;
+    @TransformToType(typeAdapter = IntegerToStringTypeAdapter.class)
+    public String retries;
+}
@@ -0,0 +1,154 @@
+package de.johnsoneyo.mapper.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.FilerException;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Generates a plain java {@code de.johnsoneyo.mapper.GeneratedMapper} for every
+ * {@code @GenerateMapper(source = ..., target = ...)} declaration and lists it in
+ * {@code META-INF/services/de.johnsoneyo.mapper.GeneratedMapper}
+ * <p>
+ * The annotations are read through their mirrors only, the processor has no dependency on the mapper at compile time.
+ * </p>
+ */
+@SupportedAnnotationTypes({GenerateMapperProcessor.GENERATE_MAPPER, GenerateMapperProcessor.GENERATE_MAPPERS})
+public class GenerateMapperProcessor extends AbstractProcessor {
+
+    static final String GENERATE_MAPPER = "de.johnsoneyo.mapper.decorator.GenerateMapper";
+    static final String GENERATE_MAPPERS = "de.johnsoneyo.mapper.decorator.GenerateMappers";
+    static final String SERVICE_FILE = "META-INF/services/de.johnsoneyo.mapper.GeneratedMapper";
+
+    /**
+     * Qualified names of the mappers generated so far, written to the service file in the last round
+     */
+    private final Set<String> generated = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+
+        Set<Element> declarations = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            declarations.addAll(roundEnv.getElementsAnnotatedWith(annotation));
+        }
+
+        for (Element declaration : declarations) {
+            for (AnnotationMirror mirror : declaration.getAnnotationMirrors()) {
+                String annotationName = ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+                if (GENERATE_MAPPER.equals(annotationName)) {
+                    generate(declaration, mirror);
+                } else if (GENERATE_MAPPERS.equals(annotationName)) {
+                    for (AnnotationValue value : Mirrors.<List<AnnotationValue>>value(processingEnv, mirror, "value")) {
+                        generate(declaration, (AnnotationMirror) value.getValue());
+                    }
+                }
+            }
+        }
+
+        if (roundEnv.processingOver()) {
+            writeServiceFile();
+        }
+        return true;
+    }
+
+    private void generate(final Element declaration, final AnnotationMirror mirror) {
+
+        TypeMirror source = Mirrors.value(processingEnv, mirror, "source");
+        TypeMirror target = Mirrors.value(processingEnv, mirror, "target");
+        TypeElement sourceElement = (TypeElement) ((DeclaredType) source).asElement();
+        TypeElement targetElement = (TypeElement) ((DeclaredType) target).asElement();
+
+        MapperSourceWriter writer = new MapperSourceWriter(processingEnv, sourceElement, targetElement);
+        String className = writer.qualifiedName();
+        if (generated.contains(className)) {
+            return;
+        }
+
+        String code;
+        try {
+            code = writer.write();
+        } catch (UnsupportedMappingException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "no mapper generated for "
+                    + sourceElement.getQualifiedName() + " -> " + targetElement.getQualifiedName() + ", "
+                    + e.getMessage() + ". The pair is mapped reflectively", declaration, mirror);
+            return;
+        }
+
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(className, declaration, sourceElement,
+                    targetElement);
+            try (Writer out = file.openWriter()) {
+                out.write(code);
+            }
+            generated.add(className);
+        } catch (FilerException e) {
+            // declared more than once, the first declaration already produced the mapper
+            generated.add(className);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "error occurred writing mapper "
+                    + className + ": " + e.getMessage(), declaration, mirror);
+        }
+    }
+
+    private void writeServiceFile() {
+        if (generated.isEmpty()) {
+            return;
+        }
+
+        Filer filer = processingEnv.getFiler();
+        Set<String> providers = new TreeSet<>(generated);
+        try {
+            // keep providers of an earlier incremental compilation
+            FileObject existing = filer.getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (Reader reader = existing.openReader(true); BufferedReader lines = new BufferedReader(reader)) {
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    if (!line.isBlank()) {
+                        providers.add(line.trim());
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // no service file written yet
+        }
+
+        try {
+            FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (Writer out = file.openWriter()) {
+                for (String provider : providers) {
+                    out.write(provider);
+                    out.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "error occurred writing " + SERVICE_FILE
+                    + ": " + e.getMessage());
+        }
+    }
+}
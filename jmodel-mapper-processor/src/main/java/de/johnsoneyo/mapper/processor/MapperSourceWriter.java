@@ -0,0 +1,445 @@
+package de.johnsoneyo.mapper.processor;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the java source of the mapper generated for one source and target class pair
+ * <p>
+ * Follows the rules of the reflective mapping plan: fields are matched by name, {@code @ClassFieldMapping} redirects
+ * unmatched java runtime fields, {@code @TransformToType} adapters convert fields of different types, nested beans
+ * without counterpart are mapped onto the target itself and {@code List} fields get their bean elements mapped. Every
+ * nested class pair becomes a private static method of the same mapper. Pairs declaring dotted field paths, arrays,
+ * maps or collections other than lists are left to the reflective plan, which copies them.
+ * </p>
+ */
+final class MapperSourceWriter {
+
+    private static final String CLASS_FIELD_MAPPING = "de.johnsoneyo.mapper.decorator.ClassFieldMapping";
+    private static final String TRANSFORM_TO_TYPE = "de.johnsoneyo.mapper.decorator.TransformToType";
+    private static final String TYPE_ADAPTER = "de.johnsoneyo.mapper.decorator.TypeAdapter";
+    private static final String GENERATED_MAPPER = "de.johnsoneyo.mapper.GeneratedMapper";
+
+    private final ProcessingEnvironment processingEnv;
+    private final Elements elements;
+    private final Types types;
+    private final TypeElement source;
+    private final TypeElement target;
+    private final String packageName;
+    private final String simpleName;
+
+    private final Map<String, String> methods = new HashMap<>();
+    private final Deque<TypeElement[]> pending = new ArrayDeque<>();
+    private final Map<String, String> adapters = new LinkedHashMap<>();
+    private final StringBuilder body = new StringBuilder();
+
+    MapperSourceWriter(final ProcessingEnvironment processingEnv, final TypeElement source, final TypeElement target) {
+        this.processingEnv = processingEnv;
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+        this.source = source;
+        this.target = target;
+        this.packageName = elements.getPackageOf(target).getQualifiedName().toString();
+        this.simpleName = flatName(target) + "From" + flatName(source) + "Mapper";
+    }
+
+    /**
+     * @return qualified name of the generated mapper, placed in the package of the target
+     */
+    String qualifiedName() {
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
+
+    /**
+     * @return java source of the mapper
+     * @throws UnsupportedMappingException when a field of the class pair cannot be mapped with plain java code
+     */
+    String write() throws UnsupportedMappingException {
+
+        requireAccessible(source);
+        requireInstantiable(target);
+        if (!source.getTypeParameters().isEmpty() || !target.getTypeParameters().isEmpty()) {
+            throw new UnsupportedMappingException("generic classes are not supported");
+        }
+
+        String rootMethod = method(source, target);
+        while (!pending.isEmpty()) {
+            TypeElement[] pair = pending.poll();
+            writeMethod(pair[0], pair[1]);
+        }
+
+        String sourceName = source.getQualifiedName().toString();
+        String targetName = target.getQualifiedName().toString();
+
+        StringBuilder code = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            code.append("package ").append(packageName).append(";\n\n");
+        }
+        code.append("@javax.annotation.processing.Generated(\"").append(GenerateMapperProcessor.class.getName()).append("\")\n");
+        code.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        code.append("public final class ").append(simpleName).append(" implements ").append(GENERATED_MAPPER)
+                .append('<').append(sourceName).append(", ").append(targetName).append("> {\n\n");
+        for (Map.Entry<String, String> adapter : adapters.entrySet()) {
+            code.append("    private static final ").append(adapter.getKey()).append(' ').append(adapter.getValue())
+                    .append(" = new ").append(adapter.getKey()).append("();\n");
+        }
+        if (!adapters.isEmpty()) {
+            code.append('\n');
+        }
+        code.append("    public ").append(simpleName).append("() {\n    }\n\n");
+        code.append("    @Override\n    public Class<").append(sourceName).append("> sourceType() {\n        return ")
+                .append(sourceName).append(".class;\n    }\n\n");
+        code.append("    @Override\n    public Class<").append(targetName).append("> targetType() {\n        return ")
+                .append(targetName).append(".class;\n    }\n\n");
+        code.append("    @Override\n    public ").append(targetName).append(" newTarget() {\n        return new ")
+                .append(targetName).append("();\n    }\n\n");
+        if (!adapters.isEmpty()) {
+            code.append("    @Override\n    public java.util.Set<Class<?>> adapterTypes() {\n        return java.util.Set.of(")
+                    .append(String.join(".class, ", adapters.keySet())).append(".class);\n    }\n\n");
+        }
+        code.append("    @Override\n    public void map(").append(sourceName).append(" source, ").append(targetName)
+                .append(" target) {\n        ").append(rootMethod).append("(source, target);\n    }\n");
+        code.append(body);
+        code.append("}\n");
+        return code.toString();
+    }
+
+    /**
+     * @return name of the method mapping the class pair, queued for writing on first use
+     */
+    private String method(final TypeElement sourceType, final TypeElement targetType) {
+        String key = sourceType.getQualifiedName() + "->" + targetType.getQualifiedName();
+        String name = methods.get(key);
+        if (name == null) {
+            name = "map" + methods.size();
+            methods.put(key, name);
+            pending.add(new TypeElement[]{sourceType, targetType});
+        }
+        return name;
+    }
+
+    private void writeMethod(final TypeElement sourceType, final TypeElement targetType)
+            throws UnsupportedMappingException {
+
+        requireAccessible(sourceType);
+        requireAccessible(targetType);
+
+        Map<String, VariableElement> targetFields = fields(targetType);
+        Map<String, List<VariableElement>> redirects = redirects(targetFields.values());
+        // field paths of the source class write into nested target beans, left to the reflective plan as well
+        redirects(fields(sourceType).values());
+
+        body.append("\n    private static void ").append(methods.get(sourceType.getQualifiedName() + "->"
+                        + targetType.getQualifiedName())).append('(').append(sourceType.getQualifiedName())
+                .append(" source, ").append(targetType.getQualifiedName()).append(" target) {\n");
+
+        for (VariableElement sourceField : fields(sourceType).values()) {
+            requireAccessible(sourceField);
+            String name = sourceField.getSimpleName().toString();
+            TypeMirror sourceFieldType = sourceField.asType();
+            VariableElement targetField = targetFields.get(name);
+            if (targetField != null) {
+                requireWritable(targetField);
+            }
+
+            if (isCollection(sourceFieldType)) {
+                if (targetField != null) {
+                    requireSupportedContainer(sourceFieldType, name);
+                    requireSupportedContainer(targetField.asType(), name);
+                    writeList(sourceField, targetField);
+                }
+                continue;
+            }
+
+            if (targetField == null) {
+                if (isJavaType(sourceFieldType)) {
+                    for (VariableElement redirect : redirects.getOrDefault(name, List.of())) {
+                        requireWritable(redirect);
+                        requireSupportedContainer(sourceFieldType, name);
+                        requireSupportedContainer(redirect.asType(), redirect.getSimpleName().toString());
+                        requireAssignable(sourceField, redirect);
+                        line("target." + redirect.getSimpleName() + " = source." + name + ";");
+                    }
+                } else {
+                    String flatten = method(typeElement(sourceFieldType), targetType);
+                    line("if (source." + name + " != null) {");
+                    line("    " + flatten + "(source." + name + ", target);");
+                    line("}");
+                }
+                continue;
+            }
+
+            if (isJavaType(sourceFieldType)) {
+                requireSupportedContainer(sourceFieldType, name);
+                requireSupportedContainer(targetField.asType(), name);
+                writeValue(sourceField, targetField);
+            } else {
+                TypeElement nestedTarget = typeElement(targetField.asType());
+                requireInstantiable(nestedTarget);
+                String nested = method(typeElement(sourceFieldType), nestedTarget);
+                line("if (source." + name + " == null) {");
+                line("    target." + name + " = null;");
+                line("} else {");
+                line("    " + nestedTarget.getQualifiedName() + " nested = new " + nestedTarget.getQualifiedName() + "();");
+                line("    target." + name + " = nested;");
+                line("    " + nested + "(source." + name + ", nested);");
+                line("}");
+            }
+        }
+
+        body.append("    }\n");
+    }
+
+    private void writeValue(final VariableElement sourceField, final VariableElement targetField)
+            throws UnsupportedMappingException {
+
+        String name = sourceField.getSimpleName().toString();
+        TypeMirror sourceType = sourceField.asType();
+        TypeMirror targetType = targetField.asType();
+        AnnotationMirror transformToType = Mirrors.annotation(targetField, TRANSFORM_TO_TYPE);
+
+        if (transformToType == null || types.isSameType(boxed(sourceType), boxed(targetType))) {
+            requireAssignable(sourceField, targetField);
+            line("target." + name + " = source." + name + ";");
+            return;
+        }
+
+        if (targetType.getKind().isPrimitive()) {
+            throw new UnsupportedMappingException("type adapter of primitive field " + name + " is not supported");
+        }
+        TypeElement adapterType = typeElement(Mirrors.value(processingEnv, transformToType, "typeAdapter"));
+        requireInstantiable(adapterType);
+        String adapter = adapters.computeIfAbsent(adapterType.getQualifiedName().toString(),
+                adapterName -> "ADAPTER_" + adapters.size());
+        String converted = "((" + TYPE_ADAPTER + ") " + adapter + ").convert(source." + name + ")";
+        String value = sourceType.getKind().isPrimitive() ? converted : "source." + name + " == null ? null : " + converted;
+        line("target." + name + " = (" + types.erasure(targetType) + ") (" + value + ");");
+    }
+
+    private void writeList(final VariableElement sourceField, final VariableElement targetField)
+            throws UnsupportedMappingException {
+
+        String name = sourceField.getSimpleName().toString();
+        TypeMirror sourceElement = elementType(sourceField.asType(), name);
+        TypeMirror targetElement = elementType(targetField.asType(), name);
+
+        line("if (source." + name + " == null) {");
+        line("    target." + name + " = null;");
+        line("} else {");
+        line("    " + targetField.asType() + " collection = new java.util.ArrayList<>(source." + name + ".size());");
+        line("    target." + name + " = collection;");
+        line("    for (" + sourceElement + " element : source." + name + ") {");
+        line("        if (element == null) {");
+        line("            continue;");
+        line("        }");
+        if (isJavaType(targetElement)) {
+            if (isCollection(targetElement) || isMap(targetElement)) {
+                throw new UnsupportedMappingException("nested containers of field " + name
+                        + " are only copied by the reflective mapping plan");
+            }
+            if (!types.isAssignable(sourceElement, targetElement)) {
+                throw new UnsupportedMappingException("elements of field " + name + " are of different types");
+            }
+            line("        collection.add(element);");
+        } else {
+            TypeElement elementTarget = typeElement(targetElement);
+            requireInstantiable(elementTarget);
+            String nested = method(typeElement(sourceElement), elementTarget);
+            line("        " + elementTarget.getQualifiedName() + " mapped = new " + elementTarget.getQualifiedName() + "();");
+            line("        collection.add(mapped);");
+            line("        " + nested + "(element, mapped);");
+        }
+        line("    }");
+        line("}");
+    }
+
+    private void line(final String line) {
+        body.append("        ").append(line).append('\n');
+    }
+
+    /**
+     * @return instance fields of the class and its superclasses outside the java runtime by name, superclass fields
+     * first, as resolved by the runtime plans
+     */
+    private Map<String, VariableElement> fields(final TypeElement type) {
+        Deque<TypeElement> hierarchy = new ArrayDeque<>();
+        for (Element current = type; current instanceof TypeElement
+                && !elements.getPackageOf(current).getQualifiedName().toString().startsWith("java");
+             current = types.asElement(((TypeElement) current).getSuperclass())) {
+            hierarchy.push((TypeElement) current);
+        }
+        Map<String, VariableElement> fields = new LinkedHashMap<>();
+        for (TypeElement declaringType : hierarchy) {
+            for (VariableElement field : ElementFilter.fieldsIn(declaringType.getEnclosedElements())) {
+                if (!field.getModifiers().contains(Modifier.STATIC)) {
+                    fields.put(field.getSimpleName().toString(), field);
+                }
+            }
+        }
+        return fields;
+    }
+
+    private Map<String, List<VariableElement>> redirects(final Iterable<VariableElement> targetFields)
+            throws UnsupportedMappingException {
+        Map<String, List<VariableElement>> redirects = new HashMap<>();
+        for (VariableElement targetField : targetFields) {
+            AnnotationMirror classFieldMapping = Mirrors.annotation(targetField, CLASS_FIELD_MAPPING);
+            if (classFieldMapping == null) {
+                continue;
+            }
+            List<AnnotationValue> mappings = Mirrors.value(processingEnv, classFieldMapping, "fields");
+            for (AnnotationValue mapping : mappings) {
+                String sourceField = Mirrors.value(processingEnv, (AnnotationMirror) mapping.getValue(), "sourceField");
+                if (sourceField.indexOf('.') >= 0) {
+                    throw new UnsupportedMappingException("field path " + sourceField + " of field "
+                            + targetField.getSimpleName() + " is only resolved by the reflective mapping plan");
+                }
+                redirects.computeIfAbsent(sourceField, name -> new ArrayList<>()).add(targetField);
+            }
+        }
+        return redirects;
+    }
+
+    private TypeMirror elementType(final TypeMirror collectionType, final String name)
+            throws UnsupportedMappingException {
+        List<? extends TypeMirror> arguments = ((DeclaredType) collectionType).getTypeArguments();
+        if (arguments.size() != 1 || arguments.get(0).getKind() != TypeKind.DECLARED) {
+            throw new UnsupportedMappingException("element type of field " + name + " cannot be resolved");
+        }
+        return arguments.get(0);
+    }
+
+    private boolean isCollection(final TypeMirror type) {
+        TypeElement collection = elements.getTypeElement("java.util.Collection");
+        return type.getKind() == TypeKind.DECLARED && types.isAssignable(types.erasure(type), types.erasure(collection.asType()));
+    }
+
+    private boolean isMap(final TypeMirror type) {
+        TypeElement map = elements.getTypeElement("java.util.Map");
+        return type.getKind() == TypeKind.DECLARED && types.isAssignable(types.erasure(type), types.erasure(map.asType()));
+    }
+
+    private boolean isList(final TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED
+                && ((TypeElement) types.asElement(type)).getQualifiedName().contentEquals("java.util.List");
+    }
+
+    /**
+     * @return true when the type is a primitive, an array or a java runtime class, which ends the mapping chain
+     */
+    private boolean isJavaType(final TypeMirror type) {
+        if (type.getKind().isPrimitive() || type.getKind() == TypeKind.ARRAY) {
+            return true;
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        return elements.getPackageOf(types.asElement(type)).getQualifiedName().toString().startsWith("java");
+    }
+
+    private TypeMirror boxed(final TypeMirror type) {
+        return type.getKind().isPrimitive() ? types.boxedClass(types.getPrimitiveType(type.getKind())).asType() : type;
+    }
+
+    private TypeElement typeElement(final TypeMirror type) throws UnsupportedMappingException {
+        if (type.getKind() != TypeKind.DECLARED) {
+            throw new UnsupportedMappingException("type " + type + " is not a class");
+        }
+        return (TypeElement) types.asElement(type);
+    }
+
+    private void requireAssignable(final VariableElement sourceField, final VariableElement targetField)
+            throws UnsupportedMappingException {
+        if (!types.isAssignable(sourceField.asType(), targetField.asType())) {
+            throw new UnsupportedMappingException("field " + sourceField.getSimpleName() + " of type "
+                    + sourceField.asType() + " cannot be assigned to " + targetField.getSimpleName() + " of type "
+                    + targetField.asType());
+        }
+    }
+
+    /**
+     * Rejects arrays, maps and collections other than lists, which the reflective plan copies instead of sharing them
+     * between source and target
+     */
+    private void requireSupportedContainer(final TypeMirror type, final String name) throws UnsupportedMappingException {
+        if (type.getKind() == TypeKind.ARRAY) {
+            throw new UnsupportedMappingException("array field " + name + " is only copied by the reflective mapping plan");
+        }
+        if (isMap(type)) {
+            throw new UnsupportedMappingException("map field " + name + " is only copied by the reflective mapping plan");
+        }
+        if (isCollection(type) && !isList(type)) {
+            throw new UnsupportedMappingException("collection field " + name
+                    + " other than a list is only mapped by the reflective mapping plan");
+        }
+    }
+
+    private void requireWritable(final VariableElement targetField) throws UnsupportedMappingException {
+        requireAccessible(targetField);
+        if (targetField.getModifiers().contains(Modifier.FINAL)) {
+            throw new UnsupportedMappingException("field " + targetField.getSimpleName() + " is final");
+        }
+    }
+
+    private void requireInstantiable(final TypeElement type) throws UnsupportedMappingException {
+        requireAccessible(type);
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new UnsupportedMappingException(type.getQualifiedName() + " is not a concrete class");
+        }
+        if (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC)) {
+            throw new UnsupportedMappingException(type.getQualifiedName() + " is an inner class");
+        }
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty()) {
+                requireAccessible(constructor);
+                return;
+            }
+        }
+        throw new UnsupportedMappingException(type.getQualifiedName() + " has no no arg constructor");
+    }
+
+    /**
+     * Requires the element and all its enclosing classes to be visible from the package of the mapper
+     */
+    private void requireAccessible(final Element element) throws UnsupportedMappingException {
+        boolean samePackage = elements.getPackageOf(element).getQualifiedName().contentEquals(packageName);
+        for (Element current = element; !(current instanceof PackageElement); current = current.getEnclosingElement()) {
+            if (current.getModifiers().contains(Modifier.PRIVATE)
+                    || (!samePackage && !current.getModifiers().contains(Modifier.PUBLIC))) {
+                throw new UnsupportedMappingException(element.getSimpleName() + " is not accessible from package "
+                        + packageName);
+            }
+        }
+    }
+
+    private static String flatName(final TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        for (Element enclosing = type.getEnclosingElement(); enclosing instanceof TypeElement;
+             enclosing = enclosing.getEnclosingElement()) {
+            name.insert(0, enclosing.getSimpleName() + "_");
+        }
+        return name.toString();
+    }
+}
@@ -0,0 +1,52 @@
+package de.johnsoneyo.mapper.processor;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import java.util.Map;
+
+/**
+ * Helper class reading annotation values through their mirrors
+ */
+final class Mirrors {
+
+    private Mirrors() {
+    }
+
+    /**
+     * @param element        annotated element
+     * @param annotationName qualified name of the annotation
+     * @return mirror of the annotation, null when the element is not annotated with it
+     */
+    static AnnotationMirror annotation(final Element element, final String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(annotationName)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param processingEnv processing environment
+     * @param mirror        annotation mirror
+     * @param name          annotation member
+     * @param <T>           member value type, {@link javax.lang.model.type.TypeMirror} for class members
+     * @return value of the member, its default when not declared
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T value(final ProcessingEnvironment processingEnv, final AnnotationMirror mirror, final String name) {
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+                processingEnv.getElementUtils().getElementValuesWithDefaults(mirror);
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return (T) entry.getValue().getValue();
+            }
+        }
+        throw new IllegalArgumentException("annotation member " + name + " not found");
+    }
+}
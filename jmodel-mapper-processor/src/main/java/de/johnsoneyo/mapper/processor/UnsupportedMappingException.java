@@ -0,0 +1,14 @@
+package de.johnsoneyo.mapper.processor;
+
+/**
+ * Raised while writing a mapper for a class pair that cannot be mapped with plain java code
+ */
+class UnsupportedMappingException extends Exception {
+
+    /**
+     * @param message reason reported as compiler warning
+     */
+    UnsupportedMappingException(String message) {
+        super(message);
+    }
+}
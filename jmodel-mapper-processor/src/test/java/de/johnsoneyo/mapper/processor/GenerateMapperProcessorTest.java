@@ -0,0 +1,321 @@
+package de.johnsoneyo.mapper.processor;
+
+import de.johnsoneyo.mapper.GeneratedMapper;
+import de.johnsoneyo.mapper.JModelMapper;
+import de.johnsoneyo.mapper.decorator.TypeAdapter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ *
+ */
+class GenerateMapperProcessorTest {
+
+    private static final String ORDER = "package sample;\n"
+            + "import java.util.List;\n"
+            + "public class Order {\n"
+            + "    String id;\n"
+            + "    String customerId;\n"
+            + "    int quantity;\n"
+            + "    Customer customer;\n"
+            + "    List<Line> lines;\n"
+            + "    public Order() {}\n"
+            + "    public Order(String id, String customerId, int quantity, Customer customer, List<Line> lines) {\n"
+            + "        this.id = id; this.customerId = customerId; this.quantity = quantity;\n"
+            + "        this.customer = customer; this.lines = lines;\n"
+            + "    }\n"
+            + "    public static class Customer {\n"
+            + "        String name;\n"
+            + "        public Customer(String name) { this.name = name; }\n"
+            + "    }\n"
+            + "    public static class Line {\n"
+            + "        String sku;\n"
+            + "        public Line(String sku) { this.sku = sku; }\n"
+            + "    }\n"
+            + "}\n";
+
+    private static final String ORDER_DTO = "package sample;\n"
+            + "import de.johnsoneyo.mapper.decorator.*;\n"
+            + "import java.util.List;\n"
+            + "import java.util.UUID;\n"
+            + "public class OrderDto {\n"
+            + "    @ClassFieldMapping(fields = {@SourceFieldMapping(sourceField = \"id\")})\n"
+            + "    public String reference;\n"
+            + "    @TransformToType(typeAdapter = StringToUUIDTypeAdapter.class)\n"
+            + "    public UUID customerId;\n"
+            + "    public long quantity;\n"
+            + "    public CustomerDto customer;\n"
+            + "    public List<LineDto> lines;\n"
+            + "    public static class CustomerDto {\n"
+            + "        public String name;\n"
+            + "    }\n"
+            + "    public static class LineDto {\n"
+            + "        public String sku;\n"
+            + "    }\n"
+            + "}\n";
+
+    private static final String SECRET = "package sample;\n"
+            + "public class Secret {\n"
+            + "    private String value;\n"
+            + "}\n";
+
+    private static final String SECRET_DTO = "package sample;\n"
+            + "public class SecretDto {\n"
+            + "    String value;\n"
+            + "}\n";
+
+    private static final String CONTAINERS = "package sample;\n"
+            + "import java.util.Map;\n"
+            + "import java.util.Set;\n"
+            + "public class Containers {\n"
+            + "    public static class Tags {\n"
+            + "        Set<Order.Line> lines;\n"
+            + "    }\n"
+            + "    public static class TagsDto {\n"
+            + "        public Set<OrderDto.LineDto> lines;\n"
+            + "    }\n"
+            + "    public static class Matrix {\n"
+            + "        int[] cells;\n"
+            + "    }\n"
+            + "    public static class MatrixDto {\n"
+            + "        public int[] cells;\n"
+            + "    }\n"
+            + "    public static class Headers {\n"
+            + "        Map<String, String> values;\n"
+            + "    }\n"
+            + "    public static class HeadersDto {\n"
+            + "        public Map<String, String> values;\n"
+            + "    }\n"
+            + "}\n";
+
+    private static final String LABELS = "package sample;\n"
+            + "import de.johnsoneyo.mapper.decorator.*;\n"
+            + "public class Labels {\n"
+            + "    public static class Label {\n"
+            + "        String code;\n"
+            + "    }\n"
+            + "    public static class LabelDto {\n"
+            + "        @TransformToType(typeAdapter = PrefixAdapter.class)\n"
+            + "        public CharSequence code;\n"
+            + "    }\n"
+            + "    public static class PrefixAdapter implements TypeAdapter<String, CharSequence> {\n"
+            + "        private final String prefix;\n"
+            + "        public PrefixAdapter() { this(\"default-\"); }\n"
+            + "        public PrefixAdapter(String prefix) { this.prefix = prefix; }\n"
+            + "        @Override\n"
+            + "        public CharSequence convert(String input) { return prefix + input; }\n"
+            + "    }\n"
+            + "}\n";
+
+    private static final String CONFIGURATION = "package sample;\n"
+            + "import de.johnsoneyo.mapper.decorator.GenerateMapper;\n"
+            + "@GenerateMapper(source = Order.class, target = OrderDto.class)\n"
+            + "@GenerateMapper(source = Secret.class, target = SecretDto.class)\n"
+            + "@GenerateMapper(source = Containers.Tags.class, target = Containers.TagsDto.class)\n"
+            + "@GenerateMapper(source = Containers.Matrix.class, target = Containers.MatrixDto.class)\n"
+            + "@GenerateMapper(source = Containers.Headers.class, target = Containers.HeadersDto.class)\n"
+            + "@GenerateMapper(source = Labels.Label.class, target = Labels.LabelDto.class)\n"
+            + "public class MapperConfiguration {\n"
+            + "}\n";
+
+    @TempDir
+    Path output;
+
+    @Test
+    void process_ShouldGenerateServiceLoadedMapper_WhenGenerateMapperIsDeclared() throws Exception {
+
+        // given
+        DiagnosticCollector<JavaFileObject> diagnostics = compile();
+
+        // when
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{output.toUri().toURL()}, getClass().getClassLoader())) {
+            Class<?> orderType = classLoader.loadClass("sample.Order");
+            Class<?> customerType = classLoader.loadClass("sample.Order$Customer");
+            Class<?> lineType = classLoader.loadClass("sample.Order$Line");
+            Class<?> orderDtoType = classLoader.loadClass("sample.OrderDto");
+            String customerId = "a0200f66-f5b2-4cc7-accd-9810f1b1471f";
+            Object order = orderType.getConstructor(String.class, String.class, int.class, customerType, List.class)
+                    .newInstance("order-1", customerId, 3, customerType.getConstructor(String.class).newInstance("test-name"),
+                            List.of(lineType.getConstructor(String.class).newInstance("sku-1")));
+
+            List<String> generated = ServiceLoader.load(GeneratedMapper.class, classLoader).stream()
+                    .map(provider -> provider.type().getName())
+                    .collect(Collectors.toList());
+
+            Thread thread = Thread.currentThread();
+            ClassLoader contextClassLoader = thread.getContextClassLoader();
+            thread.setContextClassLoader(classLoader);
+            Object orderDto;
+            try {
+                JModelMapper mapper = new JModelMapper();
+                orderDto = mapper.map(order, orderDtoType);
+                // mapped into again, the lines are created anew instead of appended
+                mapper.mapInto(order, orderDto);
+            } finally {
+                thread.setContextClassLoader(contextClassLoader);
+            }
+
+            // then
+            assertThat(generated).containsExactlyInAnyOrder("sample.OrderDtoFromOrderMapper",
+                    "sample.Labels_LabelDtoFromLabels_LabelMapper");
+            assertThat(orderDto)
+                    .hasFieldOrPropertyWithValue("reference", "order-1")
+                    .hasFieldOrPropertyWithValue("customerId", UUID.fromString(customerId))
+                    .hasFieldOrPropertyWithValue("quantity", 3L)
+                    .hasFieldOrPropertyWithValue("customer.name", "test-name");
+            assertThat((List<?>) orderDtoType.getField("lines").get(orderDto))
+                    .singleElement()
+                    .hasFieldOrPropertyWithValue("sku", "sku-1");
+        }
+        assertThat(diagnostics.getDiagnostics())
+                .filteredOn(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.WARNING)
+                .extracting(diagnostic -> diagnostic.getMessage(null))
+                .anySatisfy(message -> assertThat(message).startsWith("no mapper generated for sample.Secret -> sample.SecretDto"));
+    }
+
+    @Test
+    void process_ShouldLeaveContainersToReflectivePlan_WhenFieldsAreSetsArraysOrMaps() throws Exception {
+
+        // given
+        DiagnosticCollector<JavaFileObject> diagnostics = compile();
+
+        // when
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{output.toUri().toURL()}, getClass().getClassLoader())) {
+            Class<?> lineType = classLoader.loadClass("sample.Order$Line");
+            Object tags = instance(classLoader, "sample.Containers$Tags", "lines",
+                    Set.of(lineType.getConstructor(String.class).newInstance("sku-1")));
+            int[] cells = {1, 2};
+            Object matrix = instance(classLoader, "sample.Containers$Matrix", "cells", cells);
+            Map<String, String> values = new HashMap<>(Map.of("trace", "t-1"));
+            Object headers = instance(classLoader, "sample.Containers$Headers", "values", values);
+
+            Thread thread = Thread.currentThread();
+            ClassLoader contextClassLoader = thread.getContextClassLoader();
+            thread.setContextClassLoader(classLoader);
+            Object tagsDto;
+            Object matrixDto;
+            Object headersDto;
+            try {
+                JModelMapper mapper = new JModelMapper();
+                tagsDto = mapper.map(tags, classLoader.loadClass("sample.Containers$TagsDto"));
+                matrixDto = mapper.map(matrix, classLoader.loadClass("sample.Containers$MatrixDto"));
+                headersDto = mapper.map(headers, classLoader.loadClass("sample.Containers$HeadersDto"));
+            } finally {
+                thread.setContextClassLoader(contextClassLoader);
+            }
+
+            // then
+            assertThat((Set<?>) tagsDto.getClass().getField("lines").get(tagsDto))
+                    .singleElement()
+                    .hasFieldOrPropertyWithValue("sku", "sku-1");
+            assertThat((int[]) matrixDto.getClass().getField("cells").get(matrixDto))
+                    .isNotSameAs(cells)
+                    .containsExactly(1, 2);
+            assertThat((Map<?, ?>) headersDto.getClass().getField("values").get(headersDto))
+                    .isNotSameAs(values)
+                    .isEqualTo(values);
+        }
+        assertThat(diagnostics.getDiagnostics())
+                .filteredOn(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.WARNING)
+                .extracting(diagnostic -> diagnostic.getMessage(null))
+                .anySatisfy(message -> assertThat(message)
+                        .startsWith("no mapper generated for sample.Containers.Tags -> sample.Containers.TagsDto")
+                        .contains("collection field lines"))
+                .anySatisfy(message -> assertThat(message)
+                        .startsWith("no mapper generated for sample.Containers.Matrix -> sample.Containers.MatrixDto")
+                        .contains("array field cells"))
+                .anySatisfy(message -> assertThat(message)
+                        .startsWith("no mapper generated for sample.Containers.Headers -> sample.Containers.HeadersDto")
+                        .contains("map field values"));
+    }
+
+    @Test
+    void map_ShouldUseRegisteredTypeAdapter_WhenGeneratedMapperCreatesItsOwn() throws Exception {
+
+        // given
+        compile();
+
+        // when
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{output.toUri().toURL()}, getClass().getClassLoader())) {
+            Object label = instance(classLoader, "sample.Labels$Label", "code", "A");
+            Class<?> labelDtoType = classLoader.loadClass("sample.Labels$LabelDto");
+            TypeAdapter<?, ?> registered = (TypeAdapter<?, ?>) classLoader.loadClass("sample.Labels$PrefixAdapter")
+                    .getConstructor(String.class).newInstance("registered-");
+
+            Thread thread = Thread.currentThread();
+            ClassLoader contextClassLoader = thread.getContextClassLoader();
+            thread.setContextClassLoader(classLoader);
+            Object generatedDto;
+            Object registeredDto;
+            try {
+                generatedDto = new JModelMapper().map(label, labelDtoType);
+                registeredDto = JModelMapper.builder().typeAdapter(registered).build().map(label, labelDtoType);
+            } finally {
+                thread.setContextClassLoader(contextClassLoader);
+            }
+
+            // then
+            assertThat(generatedDto).hasFieldOrPropertyWithValue("code", "default-A");
+            assertThat(registeredDto).hasFieldOrPropertyWithValue("code", "registered-A");
+        }
+    }
+
+    private static Object instance(ClassLoader classLoader, String className, String field, Object value)
+            throws Exception {
+        Class<?> type = classLoader.loadClass(className);
+        Object instance = type.getConstructor().newInstance();
+        Field declaredField = type.getDeclaredField(field);
+        declaredField.setAccessible(true);
+        declaredField.set(instance, value);
+        return instance;
+    }
+
+    private DiagnosticCollector<JavaFileObject> compile() throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+            List<JavaFileObject> sources = List.of(source("Order", ORDER), source("OrderDto", ORDER_DTO),
+                    source("Secret", SECRET), source("SecretDto", SECRET_DTO), source("Containers", CONTAINERS),
+                    source("Labels", LABELS), source("MapperConfiguration", CONFIGURATION));
+            List<String> options = List.of("-d", output.toString(), "-classpath", System.getProperty("java.class.path"));
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null, sources);
+            task.setProcessors(List.of(new GenerateMapperProcessor()));
+
+            assertThat(task.call()).as(diagnostics.getDiagnostics().toString()).isTrue();
+        }
+        assertThat(Files.exists(output.resolve(GenerateMapperProcessor.SERVICE_FILE))).isTrue();
+        return diagnostics;
+    }
+
+    private static JavaFileObject source(String name, String code) {
+        return new SimpleJavaFileObject(URI.create("string:///sample/" + name + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+}
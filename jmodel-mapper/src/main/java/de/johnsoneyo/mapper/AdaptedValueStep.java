@@ -0,0 +1,32 @@
+package de.johnsoneyo.mapper;
+
+import de.johnsoneyo.mapper.decorator.TypeAdapter;
+
+/**
+ * Copies a java runtime value through the {@link TypeAdapter} declared with
+ * {@link de.johnsoneyo.mapper.decorator.TransformToType} on the destination field
+ */
+final class AdaptedValueStep implements CopyStep {
+
+    private final FieldAccessor sourceField;
+    private final FieldAccessor destinationField;
+    private final Class<?> destinationType;
+    private final TypeAdapter<Object, Object> typeAdapter;
+
+    AdaptedValueStep(final FieldAccessor sourceField, final FieldAccessor destinationField,
+                     final TypeAdapter<Object, Object> typeAdapter) {
+        this.sourceField = sourceField;
+        this.destinationField = destinationField;
+        this.destinationType = destinationField.field().getType();
+        this.typeAdapter = typeAdapter;
+    }
+
+    @Override
+    public void copy(final Object source, final Object destination) throws Exception {
+        Object value = sourceField.get(source);
+        if (value != null && destinationType != value.getClass()) {
+            value = typeAdapter.convert(value);
+        }
+        destinationField.set(destination, value);
+    }
+}
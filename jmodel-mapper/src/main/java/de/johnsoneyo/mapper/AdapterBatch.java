@@ -0,0 +1,147 @@
+package de.johnsoneyo.mapper;
+
+import de.johnsoneyo.mapper.decorator.BatchTypeAdapter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conversions of {@link BatchTypeAdapter}s deferred by the steps of a bulk mapping until every element is mapped
+ * <p>
+ * Every bulk mapping enters a batch of its own on the calling thread, slices mapped on other threads enter batches of
+ * their own that are merged into it afterwards, so a worker helping out with another mapping never mixes them up. Each adapter is then invoked once with the distinct inputs of all its fields and the results
+ * are written into the destinations waiting for them. Steps running while no batch is open convert right away.
+ * </p>
+ */
+final class AdapterBatch {
+
+    private static final ThreadLocal<AdapterBatch> CURRENT = new ThreadLocal<>();
+
+    private final Map<BatchTypeAdapter<Object, Object>, Pending> pending = new IdentityHashMap<>();
+
+    /**
+     * Makes the batch the one of the calling thread, every call has to be paired with {@link #exit(AdapterBatch)}
+     *
+     * @param batch batch collecting the conversions of the steps running on the thread
+     * @return batch of the thread so far, null when there was none
+     */
+    static AdapterBatch enter(final AdapterBatch batch) {
+        AdapterBatch previous = CURRENT.get();
+        CURRENT.set(batch);
+        return previous;
+    }
+
+    /**
+     * @param previous batch returned by {@link #enter(AdapterBatch)}, restored as the batch of the calling thread
+     */
+    static void exit(final AdapterBatch previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * @return batch of the calling thread, null when conversions run right away
+     */
+    static AdapterBatch current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @param adapter     adapter converting the input
+     * @param field       destination field of the converted value
+     * @param destination destination object, or argument array, owning the field
+     * @param input       non null source value
+     */
+    void defer(final BatchTypeAdapter<Object, Object> adapter, final FieldAccessor field, final Object destination,
+               final Object input) {
+        pending.computeIfAbsent(adapter, key -> new Pending()).add(field, destination, input);
+    }
+
+    /**
+     * @param other batch of a slice mapped on another thread, exited and no longer used by it
+     */
+    void merge(final AdapterBatch other) {
+        for (Map.Entry<BatchTypeAdapter<Object, Object>, Pending> entry : other.pending.entrySet()) {
+            pending.computeIfAbsent(entry.getKey(), key -> new Pending()).addAll(entry.getValue());
+        }
+    }
+
+    /**
+     * Invokes every adapter once with its distinct pending inputs and writes the results
+     *
+     * @throws Exception when an adapter or a destination field fails
+     */
+    void flush() throws Exception {
+        for (Map.Entry<BatchTypeAdapter<Object, Object>, Pending> entry : pending.entrySet()) {
+            entry.getValue().flush(entry.getKey());
+        }
+        pending.clear();
+    }
+
+    /**
+     * Destinations waiting for the conversions of one adapter, kept in parallel arrays
+     */
+    private static final class Pending {
+
+        private FieldAccessor[] fields = new FieldAccessor[16];
+        private Object[] destinations = new Object[16];
+        private Object[] inputs = new Object[16];
+        private int size;
+
+        private void add(final FieldAccessor field, final Object destination, final Object input) {
+            if (size == inputs.length) {
+                grow(size * 2);
+            }
+            fields[size] = field;
+            destinations[size] = destination;
+            inputs[size] = input;
+            size++;
+        }
+
+        private void addAll(final Pending other) {
+            if (size + other.size > inputs.length) {
+                grow(Math.max(size + other.size, size * 2));
+            }
+            System.arraycopy(other.fields, 0, fields, size, other.size);
+            System.arraycopy(other.destinations, 0, destinations, size, other.size);
+            System.arraycopy(other.inputs, 0, inputs, size, other.size);
+            size += other.size;
+        }
+
+        private void grow(final int capacity) {
+            fields = Arrays.copyOf(fields, capacity);
+            destinations = Arrays.copyOf(destinations, capacity);
+            inputs = Arrays.copyOf(inputs, capacity);
+        }
+
+        private void flush(final BatchTypeAdapter<Object, Object> adapter) throws Exception {
+            Map<Object, Integer> positions = new HashMap<>();
+            List<Object> distinct = new ArrayList<>();
+            int[] slots = new int[size];
+            for (int i = 0; i < size; i++) {
+                Integer position = positions.putIfAbsent(inputs[i], distinct.size());
+                if (position == null) {
+                    position = distinct.size();
+                    distinct.add(inputs[i]);
+                }
+                slots[i] = position;
+            }
+            List<Object> outputs = adapter.convertAll(distinct);
+            if (outputs == null || outputs.size() != distinct.size()) {
+                throw new IllegalStateException(adapter.getClass().getName() + " returned "
+                        + (outputs == null ? "no" : String.valueOf(outputs.size())) + " values for "
+                        + distinct.size() + " inputs");
+            }
+            for (int i = 0; i < size; i++) {
+                fields[i].set(destinations[i], outputs.get(slots[i]));
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package de.johnsoneyo.mapper;
+
+import java.lang.reflect.Field;
+
+/**
+ * {@link FieldAccessor} of a destination field collected into the argument array of a {@link ConstructorLayout}
+ * <p>
+ * Steps of a plan creating its destination through a constructor write into the argument array instead of the
+ * destination instance, primitive values are kept boxed.
+ * </p>
+ */
+final class ArgumentSlot implements FieldAccessor {
+
+    private final Field field;
+    private final int slot;
+
+    ArgumentSlot(final Field field, final int slot) {
+        this.field = field;
+        this.slot = slot;
+    }
+
+    @Override
+    public Object get(final Object target) {
+        return ((Object[]) target)[slot];
+    }
+
+    @Override
+    public void set(final Object target, final Object value) {
+        ((Object[]) target)[slot] = value;
+    }
+
+    @Override
+    public boolean getBoolean(final Object target) {
+        return (Boolean) get(target);
+    }
+
+    @Override
+    public byte getByte(final Object target) {
+        return ((Number) get(target)).byteValue();
+    }
+
+    @Override
+    public char getChar(final Object target) {
+        return (Character) get(target);
+    }
+
+    @Override
+    public short getShort(final Object target) {
+        Object value = get(target);
+        return value instanceof Character ? (short) (char) (Character) value : ((Number) value).shortValue();
+    }
+
+    @Override
+    public int getInt(final Object target) {
+        Object value = get(target);
+        return value instanceof Character ? (Character) value : ((Number) value).intValue();
+    }
+
+    @Override
+    public long getLong(final Object target) {
+        Object value = get(target);
+        return value instanceof Character ? (Character) value : ((Number) value).longValue();
+    }
+
+    @Override
+    public float getFloat(final Object target) {
+        Object value = get(target);
+        return value instanceof Character ? (Character) value : ((Number) value).floatValue();
+    }
+
+    @Override
+    public double getDouble(final Object target) {
+        Object value = get(target);
+        return value instanceof Character ? (Character) value : ((Number) value).doubleValue();
+    }
+
+    @Override
+    public void setBoolean(final Object target, final boolean value) {
+        set(target, value);
+    }
+
+    @Override
+    public void setByte(final Object target, final byte value) {
+        set(target, value);
+    }
+
+    @Override
+    public void setChar(final Object target, final char value) {
+        set(target, value);
+    }
+
+    @Override
+    public void setShort(final Object target, final short value) {
+        set(target, value);
+    }
+
+    @Override
+    public void setInt(final Object target, final int value) {
+        set(target, value);
+    }
+
+    @Override
+    public void setLong(final Object target, final long value) {
+        set(target, value);
+    }
+
+    @Override
+    public void setFloat(final Object target, final float value) {
+        set(target, value);
+    }
+
+    @Override
+    public void setDouble(final Object target, final double value) {
+        set(target, value);
+    }
+
+    @Override
+    public Field field() {
+        return field;
+    }
+}
@@ -0,0 +1,79 @@
+package de.johnsoneyo.mapper;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+
+/**
+ * Maps the elements of a source array or collection into a new destination array of the same length
+ * <p>
+ * Arrays of the same primitive type and arrays of assignable java runtime elements are copied in bulk with
+ * {@link System#arraycopy(Object, int, Object, int, int)}, primitive elements of other types are unboxed and widened
+ * one by one, bean elements are mapped into new instances of the destination component type. Null elements keep their
+ * position, nulls of a collection copied into a primitive array leave the default value.
+ * </p>
+ */
+final class ArrayStep implements CopyStep {
+
+    private final FieldAccessor sourceField;
+    private final FieldAccessor destinationField;
+    private final Class<?> componentType;
+    private final ElementPlan elementPlan;
+    private final boolean bulk;
+
+    /**
+     * @param componentType component type of the destination array
+     * @param elementPlan   plan of the destination component type, null for java runtime components
+     * @param bulk          true when the source is an array whose elements can be copied with a single
+     *                      {@link System#arraycopy(Object, int, Object, int, int)}
+     */
+    ArrayStep(final FieldAccessor sourceField, final FieldAccessor destinationField, final Class<?> componentType,
+              final ElementPlan elementPlan, final boolean bulk) {
+        this.sourceField = sourceField;
+        this.destinationField = destinationField;
+        this.componentType = componentType;
+        this.elementPlan = elementPlan;
+        this.bulk = bulk;
+    }
+
+    @Override
+    public void copy(final Object source, final Object destination) throws Exception {
+        Object values = sourceField.get(source);
+        if (values == null) {
+            destinationField.set(destination, null);
+            return;
+        }
+
+        Object array;
+        if (bulk) {
+            int length = Array.getLength(values);
+            array = Array.newInstance(componentType, length);
+            System.arraycopy(values, 0, array, 0, length);
+        } else {
+            Object[] elements = values instanceof Collection ? ((Collection<?>) values).toArray() : boxed(values);
+            array = Array.newInstance(componentType, elements.length);
+            for (int i = 0; i < elements.length; i++) {
+                Object value = elements[i];
+                if (value == null) {
+                    continue;
+                }
+                Array.set(array, i, elementPlan == null ? value : elementPlan.map(value, null));
+            }
+        }
+        destinationField.set(destination, array);
+    }
+
+    /**
+     * @param array array of any component type
+     * @return the array itself when it holds objects, its boxed elements otherwise
+     */
+    static Object[] boxed(final Object array) {
+        if (array instanceof Object[]) {
+            return (Object[]) array;
+        }
+        Object[] boxed = new Object[Array.getLength(array)];
+        for (int i = 0; i < boxed.length; i++) {
+            boxed[i] = Array.get(array, i);
+        }
+        return boxed;
+    }
+}
@@ -0,0 +1,47 @@
+package de.johnsoneyo.mapper;
+
+import de.johnsoneyo.mapper.decorator.BatchTypeAdapter;
+import de.johnsoneyo.mapper.metrics.MapperMetrics.PairMetrics;
+
+/**
+ * Copies a java runtime value through a {@link BatchTypeAdapter}, deferring the conversion to the {@link AdapterBatch}
+ * of the thread while a bulk mapping runs
+ */
+final class BatchedValueStep implements CopyStep {
+
+    private final FieldAccessor sourceField;
+    private final FieldAccessor destinationField;
+    private final Class<?> destinationType;
+    private final BatchTypeAdapter<Object, Object> typeAdapter;
+    private final PairMetrics metrics;
+
+    /**
+     * @param metrics recorder of the pair counting the converted values, null when the mapper has no metrics
+     */
+    BatchedValueStep(final FieldAccessor sourceField, final FieldAccessor destinationField,
+                     final BatchTypeAdapter<Object, Object> typeAdapter, final PairMetrics metrics) {
+        this.sourceField = sourceField;
+        this.destinationField = destinationField;
+        this.destinationType = destinationField.field().getType();
+        this.typeAdapter = typeAdapter;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void copy(final Object source, final Object destination) throws Exception {
+        Object value = sourceField.get(source);
+        if (value == null || destinationType == value.getClass()) {
+            destinationField.set(destination, value);
+            return;
+        }
+        if (metrics != null) {
+            metrics.adapterInvoked();
+        }
+        AdapterBatch batch = AdapterBatch.current();
+        if (batch != null) {
+            batch.defer(typeAdapter, destinationField, destination, value);
+        } else {
+            destinationField.set(destination, typeAdapter.convert(value));
+        }
+    }
+}
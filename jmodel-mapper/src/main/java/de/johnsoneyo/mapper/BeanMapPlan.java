@@ -0,0 +1,168 @@
+package de.johnsoneyo.mapper;
+
+import de.johnsoneyo.mapper.decorator.TypeAdapter;
+
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compiled mapping of a bean class to and from a {@code Map<String, Object>}, such as message headers, JDBC rows or
+ * dynamic configuration
+ * <p>
+ * Every instance field of the class, including inherited fields, is one key named after the field. The keys are
+ * resolved once per class and shared by every map the plan creates, maps are created with the capacity for all keys
+ * so they never rehash. Nested beans become nested maps and are read back from them, other values are kept as they
+ * are. Values read from a map are assigned when they fit the field, widened to a primitive field or converted by a
+ * converter of the mapper, keys without field are ignored and missing or null values leave the field at its default.
+ * </p>
+ */
+final class BeanMapPlan {
+
+    private final Class<?> beanType;
+    private final String[] keys;
+    private final FieldAccessor[] fields;
+    private final FieldAccessor[] destinations;
+    private final Class<?>[] types;
+    private final boolean[] beans;
+    private final Conversion[] conversions;
+    private final Instantiator instantiator;
+    private final ConstructorInstantiator constructor;
+    private final int capacity;
+    private final MappingPlanCache plans;
+    private final ConverterRegistry converters;
+
+    /**
+     * @param keys         field names in declaration order, superclass fields first
+     * @param fields       accessors of the fields in the order of the keys
+     * @param destinations accessors the values read from a map are written through, argument slots of the constructor
+     *                     for a constructed bean and null for final fields outside of it
+     * @param types        field types in the order of the keys
+     * @param beans        true for the fields holding nested beans, which become nested maps
+     * @param instantiator creates the bean through its no arg constructor, null when the bean is constructed
+     * @param constructor  creates the bean from the argument array, null when it has a no arg constructor
+     */
+    BeanMapPlan(final Class<?> beanType, final String[] keys, final FieldAccessor[] fields,
+                final FieldAccessor[] destinations, final Class<?>[] types, final boolean[] beans,
+                final Instantiator instantiator, final ConstructorInstantiator constructor,
+                final MappingPlanCache plans, final ConverterRegistry converters) {
+        this.beanType = beanType;
+        this.keys = keys;
+        this.fields = fields;
+        this.destinations = destinations;
+        this.types = types;
+        this.beans = beans;
+        this.conversions = new Conversion[keys.length];
+        this.instantiator = instantiator;
+        this.constructor = constructor;
+        // the default load factor of a hash map, so all keys fit without a resize
+        this.capacity = (int) (keys.length / 0.75f) + 1;
+        this.plans = plans;
+        this.converters = converters;
+    }
+
+    /**
+     * @param bean bean to read, an instance of the bean class
+     * @return new insertion ordered map holding every field of the bean by its name
+     * @throws Exception when a field cannot be read
+     */
+    Map<String, Object> toMap(final Object bean) throws Exception {
+        Map<String, Object> map = new LinkedHashMap<>(capacity);
+        for (int i = 0; i < keys.length; i++) {
+            Object value = fields[i].get(bean);
+            if (value != null && beans[i]) {
+                value = plans.beanMap(value.getClass()).toMap(value);
+            }
+            map.put(keys[i], value);
+        }
+        return map;
+    }
+
+    /**
+     * @param map values by field name
+     * @return new bean holding the values of the map
+     * @throws Exception when the bean cannot be created or a value fits its field in no way
+     */
+    Object fromMap(final Map<String, ?> map) throws Exception {
+        Object target;
+        if (constructor != null) {
+            target = constructor.newArguments();
+        } else if (instantiator != null) {
+            target = instantiator.newInstance();
+        } else {
+            // surfaces the same error a plain reflective lookup would
+            target = beanType.getDeclaredConstructor().newInstance();
+        }
+        for (int i = 0; i < keys.length; i++) {
+            Object value = map.get(keys[i]);
+            if (value != null && destinations[i] != null) {
+                destinations[i].set(target, value(i, value));
+            }
+        }
+        return constructor != null ? constructor.newInstance((Object[]) target) : target;
+    }
+
+    /**
+     * @param bean       bean to compare, an instance of the bean class
+     * @param other      other instance of the bean class
+     * @param comparison comparison of the field values, nested beans included
+     * @return true when every field of both beans holds an equivalent value
+     * @throws Exception when a field cannot be read
+     */
+    boolean equivalent(final Object bean, final Object other, final ContentComparison comparison) throws Exception {
+        for (FieldAccessor field : fields) {
+            if (!comparison.equivalent(field.get(bean), field.get(other))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    Class<?> beanType() {
+        return beanType;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object value(final int index, final Object value) throws Exception {
+        Class<?> type = types[index];
+        if (Primitives.wrap(type).isInstance(value)) {
+            return value;
+        }
+        if (beans[index] && value instanceof Map) {
+            return plans.beanMap(type).fromMap((Map<String, ?>) value);
+        }
+
+        // resolved once per field and value class, fields of mixed value classes resolve on every change
+        Conversion conversion = conversions[index];
+        if (conversion == null || conversion.valueType.get() != value.getClass()) {
+            conversion = new Conversion(value.getClass(), type, converters);
+            conversions[index] = conversion;
+        }
+        if (conversion.converter != null) {
+            return conversion.converter.convert(value);
+        }
+        if (conversion.widening) {
+            return Primitives.widen(value, Primitives.unwrap(type));
+        }
+        throw new IllegalArgumentException("value of key " + keys[index] + " (" + value.getClass().getName()
+                + ") cannot be assigned to field " + keys[index] + " of " + beanType.getName() + " ("
+                + type.getName() + ")");
+    }
+
+    /**
+     * Conversion of the values of one class to the type of a field, holding the value class weakly so a plan of a
+     * resident bean never pins the class loader of a value
+     */
+    private static final class Conversion {
+
+        private final WeakReference<Class<?>> valueType;
+        private final TypeAdapter<Object, Object> converter;
+        private final boolean widening;
+
+        private Conversion(final Class<?> valueType, final Class<?> fieldType, final ConverterRegistry converters) {
+            this.valueType = new WeakReference<>(valueType);
+            this.converter = converters.find(valueType, fieldType);
+            this.widening = converter == null && ConverterRegistry.isPrimitiveConversion(valueType, fieldType);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package de.johnsoneyo.mapper;
+
+/**
+ * Merges a nested source bean into the bean already present on the destination, recording its changes as nested
+ * change set of the field
+ * <p>
+ * A missing destination bean, a null source value and an immutable destination bean are left to the replacing step,
+ * which maps a new bean and compares it as a whole.
+ * </p>
+ */
+final class BeanMergeStep implements MergeStep {
+
+    private final FieldAccessor sourceField;
+    private final FieldAccessor destinationField;
+    private final MergeStep replace;
+    private final MergeReference nestedMerge;
+    private final int slot;
+
+    BeanMergeStep(final FieldAccessor sourceField, final FieldAccessor destinationField, final MergeStep replace,
+                  final MergeReference nestedMerge, final int slot) {
+        this.sourceField = sourceField;
+        this.destinationField = destinationField;
+        this.replace = replace;
+        this.nestedMerge = nestedMerge;
+        this.slot = slot;
+    }
+
+    @Override
+    public void merge(final Object source, final Object destination, final Object[] scratch,
+                      final ChangeSet changes) throws Exception {
+        Object value = sourceField.get(source);
+        Object existing = value == null ? null : destinationField.get(destination);
+        if (existing != null) {
+            MergePlan plan = nestedMerge.forPair(value.getClass(), existing.getClass());
+            if (!plan.isImmutable()) {
+                ChangeSet nested = plan.merge(value, existing);
+                if (!nested.isEmpty()) {
+                    changes.nested(slot, nested);
+                }
+                return;
+            }
+        }
+        replace.merge(source, destination, scratch, changes);
+    }
+}
@@ -0,0 +1,92 @@
+package de.johnsoneyo.mapper;
+
+/**
+ * Creates a new destination bean for a nested source bean and maps it through its nested plan
+ * <p>
+ * Unless the {@link ReusePolicy} is {@link ReusePolicy#NONE}, a bean already present on the destination is updated in
+ * place instead. A mapper preserving references maps a source bean referenced from several places once and assigns the
+ * same destination bean to every reference.
+ * </p>
+ */
+final class BeanStep implements CopyStep {
+
+    private final FieldAccessor sourceField;
+    private final FieldAccessor destinationField;
+    private final PlanReference nestedPlan;
+    private final boolean reuse;
+    private final boolean preserveReferences;
+
+    /**
+     * @param preserveReferences true to look up and register the source bean in the {@link ReferenceTable} of the
+     *                           running mapping
+     */
+    BeanStep(final FieldAccessor sourceField, final FieldAccessor destinationField, final PlanReference nestedPlan,
+             final ReusePolicy reusePolicy, final boolean preserveReferences) {
+        this.sourceField = sourceField;
+        this.destinationField = destinationField;
+        this.nestedPlan = nestedPlan;
+        this.reuse = reusePolicy != ReusePolicy.NONE;
+        this.preserveReferences = preserveReferences;
+    }
+
+    @Override
+    public void copy(final Object source, final Object destination) throws Exception {
+        Object value = sourceField.get(source);
+        if (value == null) {
+            destinationField.set(destination, null);
+            return;
+        }
+
+        if (preserveReferences) {
+            copyReference(value, destination);
+            return;
+        }
+
+        MappingPlan plan = nestedPlan.forSource(value.getClass());
+        if (plan.isConstructed()) {
+            // an immutable bean present on the destination cannot be updated and is replaced
+            destinationField.set(destination, plan.construct(value));
+            return;
+        }
+        if (reuse) {
+            Object existing = destinationField.get(destination);
+            if (existing != null) {
+                plan.executeNested(value, existing);
+                return;
+            }
+        }
+
+        Object nested = plan.newDestination();
+        // set a bean field in the object before it is further updated by reference
+        destinationField.set(destination, nested);
+        plan.executeNested(value, nested);
+    }
+
+    private void copyReference(final Object value, final Object destination) throws Exception {
+        ReferenceTable references = ReferenceTable.current();
+        Class<?> destinationType = nestedPlan.destinationType();
+        Object mapped = references.get(value, destinationType);
+        if (mapped != null) {
+            destinationField.set(destination, mapped);
+            return;
+        }
+
+        MappingPlan plan = nestedPlan.forSource(value.getClass());
+        if (plan.isConstructed()) {
+            // created once its fields are mapped, a cycle back to the value fails on the placeholder
+            references.constructing(value, destinationType);
+            mapped = plan.construct(value);
+            references.put(value, destinationType, mapped);
+            destinationField.set(destination, mapped);
+            return;
+        }
+        Object nested = reuse ? destinationField.get(destination) : null;
+        if (nested == null) {
+            nested = plan.newDestination();
+            destinationField.set(destination, nested);
+        }
+        // registered before the fields are mapped so a cycle back to the value ends here
+        references.put(value, destinationType, nested);
+        plan.executeNested(value, nested);
+    }
+}
@@ -0,0 +1,206 @@
+package de.johnsoneyo.mapper;
+
+import de.johnsoneyo.mapper.exception.BulkMappingException;
+import de.johnsoneyo.mapper.exception.JModelMapperException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Maps every element of a source array into a new destination instance
+ * <p>
+ * The plan of the element class is resolved once per slice and only looked up again when the runtime class of an
+ * element changes. Batches reaching the parallel threshold are split into contiguous slices mapped on the executor,
+ * every slice writes into its own range of the pre-sized result array so the source order is kept without
+ * synchronization. The first failing element stops the remaining slices and is reported with its index. Conversions
+ * of batch adapters are collected per slice and run once for the whole batch after every element is mapped.
+ * </p>
+ */
+final class BulkMapping {
+
+    private static final String GEN_ERROR_MESSAGE = "error occurred while mapping entity";
+
+    /**
+     * Slices per worker, a few more than one balances slices of elements with uneven mapping costs
+     */
+    private static final int SLICES_PER_WORKER = 4;
+
+    private final MappingPlanCache plans;
+    private final int parallelThreshold;
+    private final Executor executor;
+
+    /**
+     * @param plans             plan cache of the calling mapper
+     * @param parallelThreshold minimum number of elements mapped in parallel
+     * @param executor          executor running the slices, the common {@link ForkJoinPool} when null
+     */
+    BulkMapping(final MappingPlanCache plans, final int parallelThreshold, final Executor executor) {
+        this.plans = plans;
+        this.parallelThreshold = parallelThreshold;
+        this.executor = executor;
+    }
+
+    /**
+     * @param sources     source elements, not modified
+     * @param outputClass destination class of every element
+     * @param <OUTPUT>    destination output param
+     * @return fixed size list of the mapped elements in source order
+     * @throws BulkMappingException when an element is null or cannot be mapped
+     */
+    <OUTPUT> List<OUTPUT> mapAll(final Object[] sources, final Class<OUTPUT> outputClass) {
+        return mapAll(sources, outputClass, MappingOptions.DEFAULT);
+    }
+
+    /**
+     * @param options fields left out and null handling of every element
+     * @see #mapAll(Object[], Class)
+     */
+    @SuppressWarnings("unchecked")
+    <OUTPUT> List<OUTPUT> mapAll(final Object[] sources, final Class<OUTPUT> outputClass,
+                                 final MappingOptions options) {
+
+        Object[] outputs = new Object[sources.length];
+        AdapterBatch batch = new AdapterBatch();
+        Executor workers = executor != null ? executor : ForkJoinPool.commonPool();
+        int parallelism = parallelism(workers);
+        if (sources.length < parallelThreshold || parallelism < 2) {
+            AtomicReference<BulkMappingException> failure = new AtomicReference<>();
+            mapSlice(sources, outputs, outputClass, options, 0, sources.length, failure, batch);
+            rethrow(failure);
+            flush(batch);
+            return (List<OUTPUT>) Arrays.asList(outputs);
+        }
+
+        int slices = Math.min(sources.length, parallelism * SLICES_PER_WORKER);
+        int sliceSize = (sources.length + slices - 1) / slices;
+        AtomicReference<BulkMappingException> failure = new AtomicReference<>();
+        CompletableFuture<?>[] pending = new CompletableFuture<?>[slices - 1];
+        AdapterBatch[] sliceBatches = new AdapterBatch[slices - 1];
+        int submitted = 0;
+        for (int from = sliceSize; from < sources.length; from += sliceSize) {
+            int start = from;
+            int end = Math.min(sources.length, from + sliceSize);
+            AdapterBatch sliceBatch = new AdapterBatch();
+            sliceBatches[submitted] = sliceBatch;
+            pending[submitted++] = CompletableFuture.runAsync(
+                    () -> mapSlice(sources, outputs, outputClass, options, start, end, failure, sliceBatch), workers);
+        }
+
+        // the calling thread maps the first slice instead of idling
+        mapSlice(sources, outputs, outputClass, options, 0, Math.min(sources.length, sliceSize), failure, batch);
+        try {
+            CompletableFuture.allOf(Arrays.copyOf(pending, submitted)).join();
+        } catch (CompletionException e) {
+            // mapping failures are collected by the slices, only errors end up here
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+        rethrow(failure);
+        // the slices are done, their batches are no longer touched by the workers
+        for (int i = 0; i < submitted; i++) {
+            batch.merge(sliceBatches[i]);
+        }
+        flush(batch);
+        return (List<OUTPUT>) Arrays.asList(outputs);
+    }
+
+    /**
+     * @param source      source object
+     * @param outputClass destination class
+     * @param <OUTPUT>    destination output param
+     * @return the mapped object, conversions of batch adapters across its nested beans and elements run once per adapter
+     */
+    <OUTPUT> OUTPUT map(final Object source, final Class<OUTPUT> outputClass) {
+        AdapterBatch batch = new AdapterBatch();
+        AdapterBatch previous = AdapterBatch.enter(batch);
+        OUTPUT output;
+        try {
+            output = JModelMapperUtils.map(source, outputClass, plans);
+        } finally {
+            AdapterBatch.exit(previous);
+        }
+        flush(batch);
+        return output;
+    }
+
+    /**
+     * Invokes every {@link de.johnsoneyo.mapper.decorator.BatchTypeAdapter} once with the inputs of the whole batch
+     */
+    private static void flush(final AdapterBatch batch) {
+        try {
+            batch.flush();
+        } catch (Exception exception) {
+            throw new JModelMapperException(GEN_ERROR_MESSAGE, exception);
+        }
+    }
+
+    private void mapSlice(final Object[] sources, final Object[] outputs, final Class<?> outputClass,
+                          final MappingOptions options, final int from, final int to,
+                          final AtomicReference<BulkMappingException> failure, final AdapterBatch batch) {
+        AdapterBatch previous = AdapterBatch.enter(batch);
+        try {
+            mapSlice(sources, outputs, outputClass, options, from, to, failure);
+        } finally {
+            AdapterBatch.exit(previous);
+        }
+    }
+
+    private void mapSlice(final Object[] sources, final Object[] outputs, final Class<?> outputClass,
+                          final MappingOptions options, final int from, final int to,
+                          final AtomicReference<BulkMappingException> failure) {
+
+        MappingPlan plan = null;
+        for (int index = from; index < to; index++) {
+            if (failure.get() != null) {
+                return;
+            }
+            Object source = sources[index];
+            try {
+                if (source == null) {
+                    throw new NullPointerException("source object is required and cannot be null");
+                }
+                if (plan == null || plan.sourceType() != source.getClass()) {
+                    plan = plans.plan(source.getClass(), outputClass, ReusePolicy.NONE, options);
+                }
+                outputs[index] = outputClass.cast(plan.mapTopLevel(source));
+            } catch (Exception exception) {
+                fail(failure, new BulkMappingException(GEN_ERROR_MESSAGE, index, exception));
+                return;
+            }
+        }
+    }
+
+    private static void fail(final AtomicReference<BulkMappingException> failure,
+                             final BulkMappingException exception) {
+        // keep the lowest failing index when several slices fail at once
+        BulkMappingException current;
+        do {
+            current = failure.get();
+            if (current != null && current.getIndex() <= exception.getIndex()) {
+                return;
+            }
+        } while (!failure.compareAndSet(current, exception));
+    }
+
+    private static void rethrow(final AtomicReference<BulkMappingException> failure) {
+        BulkMappingException exception = failure.get();
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    private static int parallelism(final Executor executor) {
+        if (executor instanceof ForkJoinPool) {
+            // the caller maps a slice too
+            return ((ForkJoinPool) executor).getParallelism() + 1;
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -0,0 +1,463 @@
+package de.johnsoneyo.mapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Generates a mapper class per class pair for the {@link MappingEngine#BYTECODE} engine
+ * <p>
+ * Every {@link ValueStep} copying a field between identical types and every {@link PrimitiveStep} widening a primitive
+ * field that the generated class is allowed to access is fused into a single {@link BiConsumer} implementation made of
+ * plain {@code getfield}/{@code putfield} instructions, with a widening instruction in between where needed.
+ * The class is defined next to the destination class, as a hidden nestmate when the runtime supports hidden classes
+ * (Java 15+) and as a regular class of the destination package otherwise. Steps that cannot be fused stay as they are
+ * and read and write their fields through {@link MethodHandleAccess}.
+ * </p>
+ */
+final class BytecodeMapperGenerator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BytecodeMapperGenerator.class);
+
+    private static final String CLASS_SUFFIX = "$$JModelMapper$$";
+    private static final AtomicLong CLASS_COUNTER = new AtomicLong();
+
+    /**
+     * {@code Lookup#defineHiddenClass} and the {@code NESTMATE} class option, null before Java 15
+     */
+    private static final Method DEFINE_HIDDEN_CLASS;
+    private static final Object NESTMATE_OPTIONS;
+
+    static {
+        Method defineHiddenClass = null;
+        Object nestmateOptions = null;
+        try {
+            Class<?> classOption = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+            nestmateOptions = Array.newInstance(classOption, 1);
+            Array.set(nestmateOptions, 0, enumConstant(classOption, "NESTMATE"));
+            defineHiddenClass = MethodHandles.Lookup.class.getMethod("defineHiddenClass", byte[].class, boolean.class,
+                    nestmateOptions.getClass());
+        } catch (ReflectiveOperationException e) {
+            LOG.debug("hidden classes not supported, generated mappers are defined as regular classes");
+        }
+        DEFINE_HIDDEN_CLASS = defineHiddenClass;
+        NESTMATE_OPTIONS = nestmateOptions;
+    }
+
+    private BytecodeMapperGenerator() {
+    }
+
+    /**
+     * @param sourceType      source class of the plan
+     * @param destinationType destination class of the plan
+     * @param steps           steps resolved for the class pair
+     * @return steps with every accessible value copy replaced by one generated step, the given steps when nothing can
+     * be generated
+     */
+    static CopyStep[] fuse(final Class<?> sourceType, final Class<?> destinationType, final List<CopyStep> steps) {
+
+        MethodHandles.Lookup lookup = MethodHandleAccess.lookup(destinationType);
+        if (lookup == null || !isVisible(destinationType, sourceType)) {
+            return steps.toArray(new CopyStep[0]);
+        }
+
+        boolean hidden = DEFINE_HIDDEN_CLASS != null;
+        BiConsumer<Object, Object> copier = null;
+        List<CopyStep> fused = fusable(steps, sourceType, destinationType, hidden);
+        try {
+            copier = define(lookup, sourceType, destinationType, fused, hidden);
+        } catch (IllegalAccessException e) {
+            // nestmate classes need full privilege access, retry without private fields as a regular class
+            fused = fusable(steps, sourceType, destinationType, false);
+            try {
+                copier = define(lookup, sourceType, destinationType, fused, false);
+            } catch (Throwable throwable) {
+                // a class the generator wrote but the JVM rejects is a generator bug costing the pair its fused copies
+                LOG.warn("fuse: mapper class not generated for {} -> {}", sourceType, destinationType, throwable);
+            }
+        } catch (Throwable throwable) {
+            LOG.warn("fuse: mapper class not generated for {} -> {}", sourceType, destinationType, throwable);
+        }
+
+        if (copier == null) {
+            return steps.toArray(new CopyStep[0]);
+        }
+
+        // generated copies take the position of the first fused step
+        List<CopyStep> compiled = new ArrayList<>(steps.size() - fused.size() + 1);
+        for (CopyStep step : steps) {
+            if (step == fused.get(0)) {
+                compiled.add(new GeneratedCopyStep(copier));
+            } else if (!fused.contains(step)) {
+                compiled.add(step);
+            }
+        }
+        return compiled.toArray(new CopyStep[0]);
+    }
+
+    /**
+     * @param type class to instantiate
+     * @return instantiator calling the no arg constructor through a {@link LambdaMetafactory} generated supplier,
+     * null when the constructor is not available to the metafactory
+     */
+    static Instantiator instantiator(final Class<?> type) {
+        MethodHandles.Lookup lookup = MethodHandleAccess.lookup(type);
+        if (lookup == null || type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            return null;
+        }
+        try {
+            MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class));
+            CallSite site = LambdaMetafactory.metafactory(lookup, "get", MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class), constructor, MethodType.methodType(type));
+            Supplier<?> supplier = (Supplier<?>) site.getTarget().invoke();
+            return supplier::get;
+        } catch (Throwable throwable) {
+            LOG.debug("instantiator: no generated constructor for {}", type, throwable);
+            return null;
+        }
+    }
+
+    private static List<CopyStep> fusable(final List<CopyStep> steps, final Class<?> sourceType,
+                                          final Class<?> destinationType, final boolean nestmate) {
+        List<CopyStep> fusable = new ArrayList<>();
+        for (CopyStep step : steps) {
+            Field sourceField;
+            Field destinationField;
+            if (step instanceof ValueStep) {
+                sourceField = ((ValueStep) step).sourceField().field();
+                destinationField = ((ValueStep) step).destinationField().field();
+                if (sourceField.getType() != destinationField.getType()) {
+                    continue;
+                }
+            } else if (step instanceof PrimitiveStep && ((PrimitiveStep) step).isUnboxed()) {
+                sourceField = ((PrimitiveStep) step).sourceField().field();
+                destinationField = ((PrimitiveStep) step).destinationField().field();
+            } else {
+                continue;
+            }
+            if (!Modifier.isFinal(destinationField.getModifiers())
+                    && isAccessible(destinationType, sourceType, sourceField, nestmate)
+                    && isAccessible(destinationType, destinationType, destinationField, nestmate)) {
+                fusable.add(step);
+            }
+        }
+        return fusable;
+    }
+
+    private static BiConsumer<Object, Object> define(final MethodHandles.Lookup lookup, final Class<?> sourceType,
+                                                     final Class<?> destinationType, final List<CopyStep> fused,
+                                                     final boolean hidden) throws Throwable {
+        if (fused.isEmpty()) {
+            return null;
+        }
+
+        String className = destinationType.getName() + CLASS_SUFFIX + CLASS_COUNTER.incrementAndGet();
+        byte[] bytes = generate(internalName(className), sourceType, destinationType, fused);
+
+        Class<?> mapperClass;
+        if (hidden) {
+            try {
+                MethodHandles.Lookup hiddenLookup = (MethodHandles.Lookup) DEFINE_HIDDEN_CLASS.invoke(lookup, bytes,
+                        true, NESTMATE_OPTIONS);
+                mapperClass = hiddenLookup.lookupClass();
+            } catch (java.lang.reflect.InvocationTargetException e) {
+                throw e.getCause();
+            }
+        } else {
+            mapperClass = lookup.defineClass(bytes);
+        }
+
+        @SuppressWarnings("unchecked")
+        BiConsumer<Object, Object> copier = (BiConsumer<Object, Object>) mapperClass.getDeclaredConstructor().newInstance();
+        LOG.debug("define: generated {} fusing {} field copies of {} -> {}", mapperClass.getName(), fused.size(),
+                sourceType.getName(), destinationType.getName());
+        return copier;
+    }
+
+    /**
+     * Writes a class implementing {@link BiConsumer#accept(Object, Object)} as
+     * <pre>
+     *     S source = (S) arg1;
+     *     D destination = (D) arg2;
+     *     destination.field = source.field; // per fused step, widened for primitive steps
+     * </pre>
+     */
+    private static byte[] generate(final String className, final Class<?> sourceType, final Class<?> destinationType,
+                           final List<CopyStep> fused) throws IOException {
+
+        ConstantPool pool = new ConstantPool();
+        int thisClass = pool.classRef(className);
+        int superClass = pool.classRef("java/lang/Object");
+        int consumer = pool.classRef("java/util/function/BiConsumer");
+        int objectInit = pool.methodRef("java/lang/Object", "<init>", "()V");
+        int sourceClass = pool.classRef(internalName(sourceType.getName()));
+        int destinationClass = pool.classRef(internalName(destinationType.getName()));
+        int code = pool.utf8("Code");
+        int init = pool.utf8("<init>");
+        int initDescriptor = pool.utf8("()V");
+        int accept = pool.utf8("accept");
+        int acceptDescriptor = pool.utf8("(Ljava/lang/Object;Ljava/lang/Object;)V");
+
+        ByteArrayOutputStream acceptCode = new ByteArrayOutputStream();
+        DataOutputStream instructions = new DataOutputStream(acceptCode);
+        instructions.writeByte(0x2b); // aload_1
+        instructions.writeByte(0xc0); // checkcast
+        instructions.writeShort(sourceClass);
+        instructions.writeByte(0x4e); // astore_3
+        instructions.writeByte(0x2c); // aload_2
+        instructions.writeByte(0xc0); // checkcast
+        instructions.writeShort(destinationClass);
+        instructions.writeByte(0x3a); // astore
+        instructions.writeByte(4);
+
+        int maxStack = 2;
+        for (CopyStep step : fused) {
+            Field sourceField;
+            Field destinationField;
+            if (step instanceof ValueStep) {
+                sourceField = ((ValueStep) step).sourceField().field();
+                destinationField = ((ValueStep) step).destinationField().field();
+            } else {
+                sourceField = ((PrimitiveStep) step).sourceField().field();
+                destinationField = ((PrimitiveStep) step).destinationField().field();
+            }
+
+            instructions.writeByte(0x19); // aload
+            instructions.writeByte(4);
+            instructions.writeByte(0x2d); // aload_3
+            instructions.writeByte(0xb4); // getfield
+            instructions.writeShort(pool.fieldRef(internalName(sourceField.getDeclaringClass().getName()),
+                    sourceField.getName(), descriptor(sourceField.getType())));
+            int widening = widening(sourceField.getType(), destinationField.getType());
+            if (widening != 0) {
+                instructions.writeByte(widening);
+            }
+            instructions.writeByte(0xb5); // putfield
+            instructions.writeShort(pool.fieldRef(internalName(destinationField.getDeclaringClass().getName()),
+                    destinationField.getName(), descriptor(destinationField.getType())));
+
+            // two references plus a two slot value, read from the source or written to the destination
+            if (isWide(sourceField.getType()) || isWide(destinationField.getType())) {
+                maxStack = 3;
+            }
+        }
+        instructions.writeByte(0xb1); // return
+
+        ByteArrayOutputStream classFile = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(classFile);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(55); // java 11
+        pool.write(out);
+        out.writeShort(0x0001 | 0x0010 | 0x0020); // public final super
+        out.writeShort(thisClass);
+        out.writeShort(superClass);
+        out.writeShort(1);
+        out.writeShort(consumer);
+        out.writeShort(0); // fields
+        out.writeShort(2); // methods
+
+        byte[] initCode = {0x2a, (byte) 0xb7, (byte) (objectInit >> 8), (byte) objectInit, (byte) 0xb1};
+        writeMethod(out, init, initDescriptor, code, 1, 1, initCode);
+        writeMethod(out, accept, acceptDescriptor, code, maxStack, 5, acceptCode.toByteArray());
+
+        out.writeShort(0); // attributes
+        return classFile.toByteArray();
+    }
+
+    private static boolean isWide(final Class<?> type) {
+        return type == long.class || type == double.class;
+    }
+
+    private static void writeMethod(final DataOutputStream out, final int name, final int descriptor, final int code,
+                                    final int maxStack, final int maxLocals, final byte[] instructions) throws IOException {
+        out.writeShort(0x0001); // public
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1);
+        out.writeShort(code);
+        out.writeInt(12 + instructions.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(instructions.length);
+        out.write(instructions);
+        out.writeShort(0); // exception table
+        out.writeShort(0); // attributes
+    }
+
+    /**
+     * @return opcode of the widening primitive conversion, 0 when the JVM stores both types as the same computational
+     * type
+     */
+    private static int widening(final Class<?> sourceType, final Class<?> destinationType) {
+        boolean intSource = sourceType != long.class && sourceType != float.class && sourceType != double.class;
+        if (sourceType == destinationType || intSource && (destinationType == int.class || destinationType == short.class)) {
+            return 0;
+        }
+        if (intSource) {
+            if (destinationType == long.class) return 0x85; // i2l
+            if (destinationType == float.class) return 0x86; // i2f
+            return 0x87; // i2d
+        }
+        if (sourceType == long.class) {
+            return destinationType == float.class ? 0x89 : 0x8a; // l2f, l2d
+        }
+        return 0x8d; // f2d
+    }
+
+    /**
+     * @return true when the generated class, defined by the loader of the host, resolves the same type
+     */
+    private static boolean isVisible(final Class<?> host, final Class<?> type) {
+        if (host.getClassLoader() == type.getClassLoader()) {
+            return true;
+        }
+        try {
+            return Class.forName(type.getName(), false, host.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static boolean isAccessible(final Class<?> host, final Class<?> type, final Field field,
+                                        final boolean nestmate) {
+        Class<?> declaringClass = field.getDeclaringClass();
+        boolean samePackage = isSameRuntimePackage(host, declaringClass) && isSameRuntimePackage(host, type);
+        int modifiers = field.getModifiers();
+        if (Modifier.isPrivate(modifiers)) {
+            return nestmate && declaringClass.getNestHost() == host.getNestHost() && samePackage;
+        }
+        if (samePackage) {
+            return true;
+        }
+        return Modifier.isPublic(modifiers) && Modifier.isPublic(declaringClass.getModifiers())
+                && Modifier.isPublic(type.getModifiers())
+                && declaringClass.getModule().isExported(declaringClass.getPackageName(), host.getModule());
+    }
+
+    private static boolean isSameRuntimePackage(final Class<?> host, final Class<?> type) {
+        return host.getClassLoader() == type.getClassLoader() && host.getPackageName().equals(type.getPackageName());
+    }
+
+    private static String internalName(final String className) {
+        return className.replace('.', '/');
+    }
+
+    private static String descriptor(final Class<?> type) {
+        if (type == int.class) return "I";
+        if (type == long.class) return "J";
+        if (type == double.class) return "D";
+        if (type == float.class) return "F";
+        if (type == boolean.class) return "Z";
+        if (type == byte.class) return "B";
+        if (type == char.class) return "C";
+        if (type == short.class) return "S";
+        if (type.isArray()) return internalName(type.getName());
+        return "L" + internalName(type.getName()) + ";";
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object enumConstant(final Class<?> enumType, final String name) {
+        return Enum.valueOf((Class) enumType, name);
+    }
+
+    /**
+     * Deduplicating constant pool of the generated class
+     */
+    private static final class ConstantPool {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final Map<String, Integer> entries = new HashMap<>();
+        private int size = 1;
+
+        int utf8(final String value) throws IOException {
+            Integer index = entries.get("U" + value);
+            if (index == null) {
+                out.writeByte(1);
+                out.writeUTF(value);
+                index = add("U" + value);
+            }
+            return index;
+        }
+
+        int classRef(final String internalName) throws IOException {
+            Integer index = entries.get("C" + internalName);
+            if (index == null) {
+                int name = utf8(internalName);
+                out.writeByte(7);
+                out.writeShort(name);
+                index = add("C" + internalName);
+            }
+            return index;
+        }
+
+        int fieldRef(final String owner, final String name, final String descriptor) throws IOException {
+            return memberRef(9, owner, name, descriptor);
+        }
+
+        int methodRef(final String owner, final String name, final String descriptor) throws IOException {
+            return memberRef(10, owner, name, descriptor);
+        }
+
+        private int memberRef(final int tag, final String owner, final String name, final String descriptor)
+                throws IOException {
+            String key = tag + owner + '.' + name + ':' + descriptor;
+            Integer index = entries.get(key);
+            if (index == null) {
+                int ownerClass = classRef(owner);
+                int nameAndType = nameAndType(name, descriptor);
+                out.writeByte(tag);
+                out.writeShort(ownerClass);
+                out.writeShort(nameAndType);
+                index = add(key);
+            }
+            return index;
+        }
+
+        private int nameAndType(final String name, final String descriptor) throws IOException {
+            String key = "N" + name + ':' + descriptor;
+            Integer index = entries.get(key);
+            if (index == null) {
+                int nameIndex = utf8(name);
+                int descriptorIndex = utf8(descriptor);
+                out.writeByte(12);
+                out.writeShort(nameIndex);
+                out.writeShort(descriptorIndex);
+                index = add(key);
+            }
+            return index;
+        }
+
+        private int add(final String key) {
+            int index = size++;
+            entries.put(key, index);
+            return index;
+        }
+
+        void write(final DataOutputStream target) throws IOException {
+            out.flush();
+            target.writeShort(size);
+            bytes.writeTo(target);
+        }
+    }
+}
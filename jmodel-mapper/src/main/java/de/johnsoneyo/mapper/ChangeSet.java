@@ -0,0 +1,95 @@
+package de.johnsoneyo.mapper;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Fields written by {@link JModelMapper#merge(Object, Object)}, one bit per field of the destination class
+ * <p>
+ * Bits follow the declaration order of the destination fields, fields of super classes first. A nested bean merged in
+ * place carries a change set of its own, its changed fields are reported as dotted paths such as {@code address.city}.
+ * A nested bean that was replaced, created or cleared is reported by its own name.
+ * </p>
+ */
+public final class ChangeSet {
+
+    private final String[] fields;
+    private final BitSet changed;
+    private ChangeSet[] nested;
+
+    /**
+     * @param fields names of the destination fields in the order of their bits
+     */
+    ChangeSet(final String[] fields) {
+        this.fields = fields;
+        this.changed = new BitSet(fields.length);
+    }
+
+    void mark(final int slot) {
+        changed.set(slot);
+    }
+
+    void nested(final int slot, final ChangeSet changes) {
+        changed.set(slot);
+        if (nested == null) {
+            nested = new ChangeSet[fields.length];
+        }
+        nested[slot] = changes;
+    }
+
+    /**
+     * @return true when the merge left the destination untouched
+     */
+    public boolean isEmpty() {
+        return changed.isEmpty();
+    }
+
+    /**
+     * @param path destination field path, nested fields separated by dots
+     * @return true when the field, one of its nested fields or the nested bean holding it was written
+     */
+    public boolean contains(final String path) {
+        int dot = path.indexOf('.');
+        String name = dot < 0 ? path : path.substring(0, dot);
+        for (int slot = changed.nextSetBit(0); slot >= 0; slot = changed.nextSetBit(slot + 1)) {
+            if (fields[slot].equals(name)) {
+                ChangeSet changes = nested == null ? null : nested[slot];
+                return dot < 0 || changes == null || changes.contains(path.substring(dot + 1));
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return copy of the bits of the changed destination fields, without the fields of nested beans
+     */
+    public BitSet bits() {
+        return (BitSet) changed.clone();
+    }
+
+    /**
+     * @return paths of the written fields in declaration order, nested fields separated by dots
+     */
+    public List<String> paths() {
+        List<String> paths = new ArrayList<>(changed.cardinality());
+        collect("", paths);
+        return paths;
+    }
+
+    private void collect(final String prefix, final List<String> paths) {
+        for (int slot = changed.nextSetBit(0); slot >= 0; slot = changed.nextSetBit(slot + 1)) {
+            ChangeSet changes = nested == null ? null : nested[slot];
+            if (changes == null) {
+                paths.add(prefix + fields[slot]);
+            } else {
+                changes.collect(prefix + fields[slot] + '.', paths);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeSet" + paths();
+    }
+}
@@ -0,0 +1,133 @@
+package de.johnsoneyo.mapper;
+
+import de.johnsoneyo.mapper.JModelMapperUtils.ImmutableCollectionFactory;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Maps the elements of a source collection or array into a destination collection
+ * <p>
+ * The destination collection is created for the type of the destination field and pre-sized to the number of source
+ * elements. Elements of a java runtime type are added as is, null elements are skipped, bean elements are mapped into
+ * new instances of the destination element type resolved from the generic type of the destination field. An immutable
+ * collection of java runtime elements is assigned as is when the mapper shares immutable collections. A collection
+ * already present on the destination is replaced with {@link ReusePolicy#NONE}, cleared and refilled with
+ * {@link ReusePolicy#REFILL} and has its elements updated position by position with {@link ReusePolicy#UPDATE}.
+ * </p>
+ */
+final class CollectionStep implements CopyStep {
+
+    private final FieldAccessor sourceField;
+    private final FieldAccessor destinationField;
+    private final Class<?> collectionType;
+    private final IntFunction<Collection<Object>> collectionFactory;
+    private final ElementPlan elementPlan;
+    private final ReusePolicy reusePolicy;
+    private final boolean shareImmutable;
+
+    /**
+     * @param collectionType    declared type of the destination field
+     * @param collectionFactory creates a destination collection for the given number of elements
+     * @param elementPlan       plan of the destination element type, null for java runtime elements
+     * @param reusePolicy       treatment of a collection already present on the destination
+     * @param shareImmutable    true to assign immutable source collections instead of copying them, only honoured for
+     *                          java runtime elements
+     */
+    CollectionStep(final FieldAccessor sourceField, final FieldAccessor destinationField, final Class<?> collectionType,
+                   final IntFunction<Collection<Object>> collectionFactory, final ElementPlan elementPlan,
+                   final ReusePolicy reusePolicy, final boolean shareImmutable) {
+        this.sourceField = sourceField;
+        this.destinationField = destinationField;
+        this.collectionType = collectionType;
+        this.collectionFactory = collectionFactory;
+        this.elementPlan = elementPlan;
+        this.reusePolicy = reusePolicy;
+        this.shareImmutable = shareImmutable && elementPlan == null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void copy(final Object source, final Object destination) throws Exception {
+        Object values = sourceField.get(source);
+        if (values == null) {
+            destinationField.set(destination, null);
+            return;
+        }
+
+        Collection<Object> collection = (Collection<Object>) destinationField.get(destination);
+        // a collection present on the destination is replaced unless the reuse policy keeps it
+        if (collection == null || reusePolicy == ReusePolicy.NONE) {
+            if (shareImmutable && ImmutableCollectionFactory.isImmutable(values) && collectionType.isInstance(values)) {
+                destinationField.set(destination, values);
+                return;
+            }
+            collection = collectionFactory.apply(size(values));
+            destinationField.set(destination, collection);
+        } else if (reusePolicy == ReusePolicy.UPDATE && collection instanceof List) {
+            update(values, (List<Object>) collection);
+            return;
+        } else {
+            collection.clear();
+            if (collection instanceof ArrayList) {
+                ((ArrayList<Object>) collection).ensureCapacity(size(values));
+            }
+        }
+
+        if (values instanceof Collection) {
+            for (Object value : (Collection<Object>) values) {
+                if (value != null) {
+                    collection.add(element(value, null));
+                }
+            }
+            return;
+        }
+        for (int i = 0, length = Array.getLength(values); i < length; i++) {
+            Object value = Array.get(values, i);
+            if (value != null) {
+                collection.add(element(value, null));
+            }
+        }
+    }
+
+    /**
+     * Overwrites the list position by position, mapping bean values onto the element already present
+     */
+    @SuppressWarnings("unchecked")
+    private void update(final Object values, final List<Object> list) throws Exception {
+        Iterable<Object> elements = values instanceof Collection
+                ? (Collection<Object>) values : Arrays.asList(ArrayStep.boxed(values));
+        int size = list.size();
+        int index = 0;
+        for (Object value : elements) {
+            if (value == null) {
+                continue;
+            }
+            if (index < size) {
+                Object existing = list.get(index);
+                Object element = element(value, existing);
+                if (element != existing) {
+                    list.set(index, element);
+                }
+            } else {
+                list.add(element(value, null));
+            }
+            index++;
+        }
+        if (index < size) {
+            list.subList(index, size).clear();
+        }
+    }
+
+    private Object element(final Object value, final Object existing) throws Exception {
+        return elementPlan == null ? value : elementPlan.map(value, existing);
+    }
+
+    private static int size(final Object values) {
+        return values instanceof Collection ? ((Collection<?>) values).size() : Array.getLength(values);
+    }
+}
@@ -0,0 +1,65 @@
+package de.johnsoneyo.mapper;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Arrays;
+
+/**
+ * Creates destination instances of a {@link ConstructorLayout} from the argument array the steps of a plan filled
+ * <p>
+ * The constructor is invoked through a spreading {@link MethodHandle} unless the engine is
+ * {@link MappingEngine#REFLECTION} or the handle cannot be resolved. Non final fields outside the constructor are
+ * written to the created instance afterwards, slots left empty keep the value the constructor assigned.
+ * </p>
+ */
+final class ConstructorInstantiator {
+
+    private final ConstructorLayout layout;
+    private final MethodHandle handle;
+    private final FieldAccessor[] deferred;
+
+    /**
+     * @param handle   spreading constructor handle, null to invoke the reflective constructor
+     * @param deferred accessors of the deferred fields of the layout, in slot order
+     */
+    ConstructorInstantiator(final ConstructorLayout layout, final MethodHandle handle,
+                            final FieldAccessor[] deferred) {
+        this.layout = layout;
+        this.handle = handle;
+        this.deferred = deferred;
+    }
+
+    /**
+     * @return argument array for the steps of a plan to write into
+     */
+    Object[] newArguments() {
+        return layout.newArguments();
+    }
+
+    /**
+     * @param arguments argument array filled by the steps of a plan
+     * @return new destination instance
+     * @throws Exception when the constructor or a deferred field fails
+     */
+    Object newInstance(final Object[] arguments) throws Exception {
+        int offset = layout.parameterCount();
+        // the constructor takes exactly its parameters, the slots of the deferred fields are cut off
+        Object[] parameters = deferred.length == 0 ? arguments : Arrays.copyOf(arguments, offset);
+        Object destination;
+        if (handle == null) {
+            destination = layout.constructor().newInstance(parameters);
+        } else {
+            try {
+                destination = (Object) handle.invokeExact(parameters);
+            } catch (Throwable throwable) {
+                throw MethodHandleAccess.rethrow(throwable);
+            }
+        }
+        for (int i = 0; i < deferred.length; i++) {
+            Object value = arguments[offset + i];
+            if (value != null) {
+                deferred[i].set(destination, value);
+            }
+        }
+        return destination;
+    }
+}
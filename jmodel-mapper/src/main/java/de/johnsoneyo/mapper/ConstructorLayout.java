@@ -0,0 +1,168 @@
+package de.johnsoneyo.mapper;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Constructor of a destination class without no arg constructor, such as a record or an immutable value class, with
+ * the field behind every parameter
+ * <p>
+ * The fields of a plan for such a class are first collected into an argument array, one slot per constructor parameter
+ * followed by one slot per remaining non final field, and the instance is created from it once all fields are mapped.
+ * Parameters are matched to fields by name when the class was compiled with parameter names, records and other
+ * classes without them are matched by position when the parameter types follow the leading declared field types, as
+ * for the canonical constructor of a record. The layout is resolved once per class, the constructor taking the most fields wins.
+ * </p>
+ */
+final class ConstructorLayout {
+
+    private static final ClassValue<Optional<ConstructorLayout>> LAYOUTS = new ClassValue<>() {
+        @Override
+        protected Optional<ConstructorLayout> computeValue(final Class<?> type) {
+            return Optional.ofNullable(resolve(type));
+        }
+    };
+
+    private final Constructor<?> constructor;
+    private final Map<Field, Integer> slots;
+    private final Field[] deferred;
+    private final Object[] defaults;
+
+    private ConstructorLayout(final Constructor<?> constructor, final Field[] parameters, final Field[] deferred) {
+        this.constructor = constructor;
+        this.deferred = deferred;
+        this.slots = new HashMap<>();
+        this.defaults = new Object[parameters.length + deferred.length];
+        for (int i = 0; i < parameters.length; i++) {
+            slots.put(parameters[i], i);
+            defaults[i] = Primitives.zero(parameters[i].getType());
+        }
+        for (int i = 0; i < deferred.length; i++) {
+            slots.put(deferred[i], parameters.length + i);
+        }
+    }
+
+    /**
+     * @param type destination class
+     * @return layout of the constructor taking the most fields of the class, null when no constructor parameter list
+     * matches its fields
+     */
+    static ConstructorLayout of(final Class<?> type) {
+        return LAYOUTS.get(type).orElse(null);
+    }
+
+    /**
+     * @return constructor creating the destination instance, accessible
+     */
+    Constructor<?> constructor() {
+        return constructor;
+    }
+
+    /**
+     * @return number of constructor parameters, the slots of the deferred fields follow them
+     */
+    int parameterCount() {
+        return constructor.getParameterCount();
+    }
+
+    /**
+     * @return non final fields outside the constructor, written once the instance is created
+     */
+    Field[] deferred() {
+        return deferred;
+    }
+
+    /**
+     * @param field destination field
+     * @return slot of the field in the argument array, -1 for final fields set by the constructor itself
+     */
+    int slot(final Field field) {
+        return slots.getOrDefault(field, -1);
+    }
+
+    /**
+     * @return argument array holding the default values of primitive parameters
+     */
+    Object[] newArguments() {
+        return defaults.clone();
+    }
+
+    private static ConstructorLayout resolve(final Class<?> type) {
+        if (type.isInterface() || type.isArray() || type.isPrimitive() || Modifier.isAbstract(type.getModifiers())) {
+            return null;
+        }
+        Map<String, Field> fields = FieldHierarchy.fields(type);
+        List<Field> declared = new ArrayList<>();
+        for (Field field : fields.values()) {
+            if (field.getDeclaringClass() == type) {
+                declared.add(field);
+            }
+        }
+
+        Constructor<?> best = null;
+        Field[] bestParameters = null;
+        for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+            if (constructor.isSynthetic() || constructor.getParameterCount() == 0
+                    || bestParameters != null && constructor.getParameterCount() <= bestParameters.length) {
+                continue;
+            }
+            Field[] parameters = byName(constructor, fields);
+            if (parameters == null) {
+                parameters = byPosition(constructor, new ArrayList<>(fields.values()));
+            }
+            if (parameters == null) {
+                parameters = byPosition(constructor, declared);
+            }
+            if (parameters != null) {
+                best = constructor;
+                bestParameters = parameters;
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        best.setAccessible(true);
+
+        List<Field> deferred = new ArrayList<>();
+        List<Field> parameters = List.of(bestParameters);
+        for (Field field : fields.values()) {
+            if (!parameters.contains(field) && !Modifier.isFinal(field.getModifiers())) {
+                deferred.add(field);
+            }
+        }
+        return new ConstructorLayout(best, bestParameters, deferred.toArray(new Field[0]));
+    }
+
+    private static Field[] byName(final Constructor<?> constructor, final Map<String, Field> fields) {
+        Parameter[] parameters = constructor.getParameters();
+        Field[] matched = new Field[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            Field field = parameters[i].isNamePresent() ? fields.get(parameters[i].getName()) : null;
+            if (field == null || field.getType() != parameters[i].getType()) {
+                return null;
+            }
+            matched[i] = field;
+        }
+        return matched;
+    }
+
+    private static Field[] byPosition(final Constructor<?> constructor, final List<Field> fields) {
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        if (parameterTypes.length > fields.size()) {
+            return null;
+        }
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (fields.get(i).getType() != parameterTypes[i]) {
+                return null;
+            }
+        }
+        return fields.subList(0, parameterTypes.length).toArray(new Field[0]);
+    }
+}
@@ -0,0 +1,131 @@
+package de.johnsoneyo.mapper;
+
+import de.johnsoneyo.mapper.JModelMapperUtils.Utils;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Compares a value mapped for a merge with the value present on the destination by content
+ * <p>
+ * Mapped beans are new instances and rarely override {@code equals}, so beans are compared field by field through the
+ * {@link BeanMapPlan} of their class. Lists, other ordered collections and arrays compare element by element, sets look
+ * up an equivalent element and maps the equivalent value of the same key. Java runtime values compare with
+ * {@link Objects#deepEquals(Object, Object)}. A bean reached again while it is compared, as in a cyclic graph, counts as
+ * equal so the comparison ends.
+ * </p>
+ */
+final class ContentComparison {
+
+    private final MappingPlanCache plans;
+    private Map<Object, Object> comparing;
+
+    ContentComparison(final MappingPlanCache plans) {
+        this.plans = plans;
+    }
+
+    /**
+     * @return true when both values hold the same content
+     * @throws Exception when a field of a bean cannot be read
+     */
+    boolean equivalent(final Object value, final Object other) throws Exception {
+        if (value == other) {
+            return true;
+        }
+        if (value == null || other == null) {
+            return false;
+        }
+        if (value instanceof Set && other instanceof Set) {
+            return equivalentSets((Set<?>) value, (Set<?>) other);
+        }
+        if (value instanceof Collection && other instanceof Collection) {
+            Collection<?> values = (Collection<?>) value;
+            Collection<?> others = (Collection<?>) other;
+            return values.size() == others.size() && equivalentInOrder(values.iterator(), others.iterator());
+        }
+        if (value instanceof Map && other instanceof Map) {
+            return equivalentMaps((Map<?, ?>) value, (Map<?, ?>) other);
+        }
+        if (value instanceof Object[] && other instanceof Object[]) {
+            return equivalentArrays((Object[]) value, (Object[]) other);
+        }
+        Class<?> type = value.getClass();
+        if (type != other.getClass() || type.isArray() || type.isEnum() || Utils.isJavaType(type)
+                || value.equals(other)) {
+            return Objects.deepEquals(value, other);
+        }
+
+        if (comparing == null) {
+            comparing = new IdentityHashMap<>();
+        }
+        if (comparing.put(value, other) != null) {
+            return true;
+        }
+        try {
+            return plans.beanMap(type).equivalent(value, other, this);
+        } finally {
+            comparing.remove(value);
+        }
+    }
+
+    private boolean equivalentInOrder(final Iterator<?> values, final Iterator<?> others) throws Exception {
+        while (values.hasNext()) {
+            if (!others.hasNext() || !equivalent(values.next(), others.next())) {
+                return false;
+            }
+        }
+        return !others.hasNext();
+    }
+
+    private boolean equivalentSets(final Set<?> values, final Set<?> others) throws Exception {
+        if (values.size() != others.size()) {
+            return false;
+        }
+        if (values.equals(others)) {
+            return true;
+        }
+        // elements without equals of their own, matched pairwise
+        for (Object value : values) {
+            boolean found = false;
+            for (Object other : others) {
+                if (equivalent(value, other)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean equivalentMaps(final Map<?, ?> values, final Map<?, ?> others) throws Exception {
+        if (values.size() != others.size()) {
+            return false;
+        }
+        for (Map.Entry<?, ?> entry : values.entrySet()) {
+            Object other = others.get(entry.getKey());
+            if (other == null && !others.containsKey(entry.getKey()) || !equivalent(entry.getValue(), other)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean equivalentArrays(final Object[] values, final Object[] others) throws Exception {
+        if (values.length != others.length) {
+            return false;
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (!equivalent(values[i], others[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
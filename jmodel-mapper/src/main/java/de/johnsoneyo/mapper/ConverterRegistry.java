@@ -0,0 +1,79 @@
+package de.johnsoneyo.mapper;
+
+import de.johnsoneyo.mapper.MappingPlanCache.ClassPair;
+import de.johnsoneyo.mapper.decorator.IntegerToStringTypeAdapter;
+import de.johnsoneyo.mapper.decorator.StringToUUIDTypeAdapter;
+import de.johnsoneyo.mapper.decorator.TypeAdapter;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Project wide converters of a {@link JModelMapper} keyed by source and target type
+ * <p>
+ * Converters apply to every field pair of the registered types without a
+ * {@link de.johnsoneyo.mapper.decorator.TransformToType} declaration. Primitive and wrapper pairs allowing a widening
+ * conversion, such as {@code int} to {@code long} or {@code Integer} to {@code long}, are built in and mapped by
+ * {@link PrimitiveStep} without boxing.
+ * </p>
+ */
+final class ConverterRegistry {
+
+    private final Map<ClassPair, TypeAdapter<Object, Object>> converters = new ConcurrentHashMap<>();
+
+    /**
+     * @return registry with {@link IntegerToStringTypeAdapter} and {@link StringToUUIDTypeAdapter} registered
+     */
+    static ConverterRegistry defaults() {
+        ConverterRegistry registry = new ConverterRegistry();
+        registry.register(Integer.class, String.class, new IntegerToStringTypeAdapter());
+        registry.register(String.class, UUID.class, new StringToUUIDTypeAdapter());
+        return registry;
+    }
+
+    /**
+     * @return registry holding the converters registered so far, unaffected by later registrations on this one
+     */
+    ConverterRegistry copy() {
+        ConverterRegistry registry = new ConverterRegistry();
+        registry.converters.putAll(converters);
+        return registry;
+    }
+
+    /**
+     * @param sourceType source field type, primitive types are registered under their wrapper
+     * @param targetType target field type, primitive types are registered under their wrapper
+     * @param converter  converter of the pair, replaces an earlier registration
+     */
+    @SuppressWarnings("unchecked")
+    <S, T> void register(final Class<S> sourceType, final Class<T> targetType,
+                         final TypeAdapter<? super S, ? extends T> converter) {
+        converters.put(key(sourceType, targetType), (TypeAdapter<Object, Object>) converter);
+    }
+
+    /**
+     * @param sourceType source field type
+     * @param targetType target field type
+     * @return converter registered for the pair, null when none is registered
+     */
+    TypeAdapter<Object, Object> find(final Class<?> sourceType, final Class<?> targetType) {
+        return converters.get(key(sourceType, targetType));
+    }
+
+    /**
+     * @param sourceType source field type
+     * @param targetType target field type
+     * @return true when the pair is converted by a built-in primitive converter
+     */
+    static boolean isPrimitiveConversion(final Class<?> sourceType, final Class<?> targetType) {
+        Class<?> source = Primitives.unwrap(sourceType);
+        Class<?> target = Primitives.unwrap(targetType);
+        return source.isPrimitive() && target.isPrimitive() && sourceType != targetType
+                && Primitives.isAssignable(source, target);
+    }
+
+    private static ClassPair key(final Class<?> sourceType, final Class<?> targetType) {
+        return new ClassPair(Primitives.wrap(sourceType), Primitives.wrap(targetType));
+    }
+}
@@ -0,0 +1,14 @@
+package de.johnsoneyo.mapper;
+
+/**
+ * A single pre-resolved instruction of a {@link MappingPlan}, copying one source field onto the destination
+ */
+interface CopyStep {
+
+    /**
+     * @param source      source object the step reads from
+     * @param destination destination object the step writes to
+     * @throws Exception when reading, converting or writing the field fails
+     */
+    void copy(Object source, Object destination) throws Exception;
+}
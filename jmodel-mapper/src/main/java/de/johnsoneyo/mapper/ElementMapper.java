@@ -0,0 +1,46 @@
+package de.johnsoneyo.mapper;
+
+import de.johnsoneyo.mapper.exception.JModelMapperException;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Maps one element of a stream or a publisher into a new destination instance
+ * <p>
+ * The plan of the element class is kept in a {@link PlanReference}, a stream of elements of the same class resolves
+ * it once and then only runs its copy steps, sequential and parallel streams alike.
+ * </p>
+ *
+ * @param <OUTPUT> destination output param
+ */
+final class ElementMapper<OUTPUT> implements Function<Object, OUTPUT> {
+
+    private static final String GEN_ERROR_MESSAGE = "error occurred while mapping entity";
+
+    private final Class<OUTPUT> outputClass;
+    private final PlanReference plan;
+
+    ElementMapper(final MappingPlanCache plans, final Class<OUTPUT> outputClass) {
+        this.outputClass = Objects.requireNonNull(outputClass, "output class is required and cannot be null");
+        this.plan = new PlanReference(plans, outputClass);
+    }
+
+    /**
+     * @param element source element
+     * @return mapped element
+     * @throws JModelMapperException when the element is null or cannot be mapped
+     */
+    @Override
+    public OUTPUT apply(final Object element) {
+
+        Objects.requireNonNull(element, "source object is required and cannot be null");
+
+        try {
+            MappingPlan elementPlan = plan.forSource(element.getClass());
+            return outputClass.cast(elementPlan.mapTopLevel(element));
+        } catch (Exception exception) {
+            throw new JModelMapperException(GEN_ERROR_MESSAGE, exception);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package de.johnsoneyo.mapper;
+
+/**
+ * Maps the bean elements of collections, arrays and map values through the plan of the destination element type
+ * <p>
+ * Shared by {@link CollectionStep}, {@link ArrayStep} and {@link MapStep}. A mapper preserving references maps every
+ * source element once and returns the same destination element for every further occurrence.
+ * </p>
+ */
+final class ElementPlan {
+
+    private final PlanReference plan;
+    private final boolean preserveReferences;
+
+    ElementPlan(final PlanReference plan, final boolean preserveReferences) {
+        this.plan = plan;
+        this.preserveReferences = preserveReferences;
+    }
+
+    /**
+     * @param value    source element, not null
+     * @param existing destination element to update, null to create a new one
+     * @return mapped destination element
+     * @throws Exception when the element cannot be mapped
+     */
+    Object map(final Object value, final Object existing) throws Exception {
+        ReferenceTable references = preserveReferences ? ReferenceTable.current() : null;
+        if (references != null) {
+            Object mapped = references.get(value, plan.destinationType());
+            if (mapped != null) {
+                return mapped;
+            }
+        }
+
+        MappingPlan elementPlan = plan.forSource(value.getClass());
+        if (elementPlan.isConstructed()) {
+            if (references != null) {
+                references.constructing(value, plan.destinationType());
+            }
+            Object element = elementPlan.construct(value);
+            if (references != null) {
+                references.put(value, plan.destinationType(), element);
+            }
+            return element;
+        }
+        Object element = existing != null && elementPlan.destinationType().isInstance(existing)
+                ? existing : elementPlan.newDestination();
+        if (references != null) {
+            references.put(value, plan.destinationType(), element);
+        }
+        elementPlan.executeNested(value, element);
+        return element;
+    }
+}
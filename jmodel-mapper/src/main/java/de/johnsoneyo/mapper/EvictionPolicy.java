@@ -0,0 +1,19 @@
+package de.johnsoneyo.mapper;
+
+/**
+ * Defines which plan a {@link JModelMapper} with a bounded plan cache drops once the cache is full, see
+ * {@link JModelMapper.Builder#planCacheSize(int)}
+ */
+public enum EvictionPolicy {
+
+    /**
+     * Drops the plan looked up least recently, so class pairs mapped steadily stay cached while rarely mapped ones
+     * rotate
+     */
+    LEAST_RECENTLY_USED,
+
+    /**
+     * Drops the plan built first regardless of its use, at no bookkeeping cost on lookups
+     */
+    FIRST_IN_FIRST_OUT
+}
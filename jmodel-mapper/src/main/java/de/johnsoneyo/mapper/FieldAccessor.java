@@ -0,0 +1,140 @@
+package de.johnsoneyo.mapper;
+
+import java.lang.reflect.Field;
+
+/**
+ * Reads and writes one field, resolved once when a {@link MappingPlan} is built
+ */
+interface FieldAccessor {
+
+    /**
+     * @param target object declaring the field
+     * @return field value
+     * @throws Exception when the field cannot be read
+     */
+    Object get(Object target) throws Exception;
+
+    /**
+     * @param target object declaring the field
+     * @param value  value to write
+     * @throws Exception when the field cannot be written
+     */
+    void set(Object target, Object value) throws Exception;
+
+    /**
+     * @param target object declaring the field
+     * @return value of a primitive field convertible to {@code boolean} by a widening conversion
+     * @throws Exception when the field cannot be read as {@code boolean}
+     */
+    boolean getBoolean(Object target) throws Exception;
+
+    /**
+     * @param target object declaring the field
+     * @return value of a primitive field convertible to {@code byte} by a widening conversion
+     * @throws Exception when the field cannot be read as {@code byte}
+     */
+    byte getByte(Object target) throws Exception;
+
+    /**
+     * @param target object declaring the field
+     * @return value of a primitive field convertible to {@code char} by a widening conversion
+     * @throws Exception when the field cannot be read as {@code char}
+     */
+    char getChar(Object target) throws Exception;
+
+    /**
+     * @param target object declaring the field
+     * @return value of a primitive field convertible to {@code short} by a widening conversion
+     * @throws Exception when the field cannot be read as {@code short}
+     */
+    short getShort(Object target) throws Exception;
+
+    /**
+     * @param target object declaring the field
+     * @return value of a primitive field convertible to {@code int} by a widening conversion
+     * @throws Exception when the field cannot be read as {@code int}
+     */
+    int getInt(Object target) throws Exception;
+
+    /**
+     * @param target object declaring the field
+     * @return value of a primitive field convertible to {@code long} by a widening conversion
+     * @throws Exception when the field cannot be read as {@code long}
+     */
+    long getLong(Object target) throws Exception;
+
+    /**
+     * @param target object declaring the field
+     * @return value of a primitive field convertible to {@code float} by a widening conversion
+     * @throws Exception when the field cannot be read as {@code float}
+     */
+    float getFloat(Object target) throws Exception;
+
+    /**
+     * @param target object declaring the field
+     * @return value of a primitive field convertible to {@code double} by a widening conversion
+     * @throws Exception when the field cannot be read as {@code double}
+     */
+    double getDouble(Object target) throws Exception;
+
+    /**
+     * @param target object declaring the field
+     * @param value  value to write to a primitive field {@code boolean} widens to
+     * @throws Exception when the field cannot be written with a {@code boolean}
+     */
+    void setBoolean(Object target, boolean value) throws Exception;
+
+    /**
+     * @param target object declaring the field
+     * @param value  value to write to a primitive field {@code byte} widens to
+     * @throws Exception when the field cannot be written with a {@code byte}
+     */
+    void setByte(Object target, byte value) throws Exception;
+
+    /**
+     * @param target object declaring the field
+     * @param value  value to write to a primitive field {@code char} widens to
+     * @throws Exception when the field cannot be written with a {@code char}
+     */
+    void setChar(Object target, char value) throws Exception;
+
+    /**
+     * @param target object declaring the field
+     * @param value  value to write to a primitive field {@code short} widens to
+     * @throws Exception when the field cannot be written with a {@code short}
+     */
+    void setShort(Object target, short value) throws Exception;
+
+    /**
+     * @param target object declaring the field
+     * @param value  value to write to a primitive field {@code int} widens to
+     * @throws Exception when the field cannot be written with a {@code int}
+     */
+    void setInt(Object target, int value) throws Exception;
+
+    /**
+     * @param target object declaring the field
+     * @param value  value to write to a primitive field {@code long} widens to
+     * @throws Exception when the field cannot be written with a {@code long}
+     */
+    void setLong(Object target, long value) throws Exception;
+
+    /**
+     * @param target object declaring the field
+     * @param value  value to write to a primitive field {@code float} widens to
+     * @throws Exception when the field cannot be written with a {@code float}
+     */
+    void setFloat(Object target, float value) throws Exception;
+
+    /**
+     * @param target object declaring the field
+     * @param value  value to write to a primitive field {@code double} widens to
+     * @throws Exception when the field cannot be written with a {@code double}
+     */
+    void setDouble(Object target, double value) throws Exception;
+
+    /**
+     * @return field the accessor was resolved from
+     */
+    Field field();
+}
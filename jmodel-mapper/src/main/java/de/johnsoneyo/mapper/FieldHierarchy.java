@@ -0,0 +1,68 @@
+package de.johnsoneyo.mapper;
+
+import de.johnsoneyo.mapper.JModelMapperUtils.Utils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves the instance fields of a class together with the ones inherited from its superclasses
+ * <p>
+ * Fields are collected from the topmost superclass outside the java runtime down to the class itself, so a base entity
+ * contributes its fields before the ones of the subclass. A field hiding a superclass field of the same name replaces
+ * it at the position of the superclass field. Fields are resolved once per class and made accessible.
+ * </p>
+ */
+final class FieldHierarchy {
+
+    private static final ClassValue<Map<String, Field>> FIELDS = new ClassValue<>() {
+        @Override
+        protected Map<String, Field> computeValue(final Class<?> type) {
+            return resolve(type);
+        }
+    };
+
+    private FieldHierarchy() {
+    }
+
+    /**
+     * @param type class to resolve fields for
+     * @return instance fields of the class and its superclasses by name, superclass fields first
+     */
+    static Map<String, Field> fields(final Class<?> type) {
+        return FIELDS.get(type);
+    }
+
+    /**
+     * @param type class to resolve the hierarchy for
+     * @return the class and its superclasses declaring the resolved fields, the class itself first
+     */
+    static List<Class<?>> hierarchy(final Class<?> type) {
+        List<Class<?>> hierarchy = new ArrayList<>(2);
+        for (Class<?> current = type; current != null && !Utils.isJavaType(current);
+             current = current.getSuperclass()) {
+            hierarchy.add(current);
+        }
+        return hierarchy;
+    }
+
+    private static Map<String, Field> resolve(final Class<?> type) {
+        List<Class<?>> hierarchy = hierarchy(type);
+        Map<String, Field> fields = new LinkedHashMap<>();
+        for (int i = hierarchy.size() - 1; i >= 0; i--) {
+            for (Field field : hierarchy.get(i).getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                    continue;
+                }
+                field.setAccessible(true);
+                fields.put(field.getName(), field);
+            }
+        }
+        return Collections.unmodifiableMap(fields);
+    }
+}
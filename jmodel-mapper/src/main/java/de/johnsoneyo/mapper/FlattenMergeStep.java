@@ -0,0 +1,25 @@
+package de.johnsoneyo.mapper;
+
+/**
+ * Merges the fields of a nested source bean without a matching destination field into the destination itself, into
+ * the change set of the destination
+ */
+final class FlattenMergeStep implements MergeStep {
+
+    private final FieldAccessor sourceField;
+    private final MergeReference nestedMerge;
+
+    FlattenMergeStep(final FieldAccessor sourceField, final MergeReference nestedMerge) {
+        this.sourceField = sourceField;
+        this.nestedMerge = nestedMerge;
+    }
+
+    @Override
+    public void merge(final Object source, final Object destination, final Object[] scratch,
+                      final ChangeSet changes) throws Exception {
+        Object value = sourceField.get(source);
+        if (value != null) {
+            nestedMerge.forPair(value.getClass(), destination.getClass()).merge(value, destination, scratch, changes);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package de.johnsoneyo.mapper;
+
+/**
+ * Maps the fields of a nested source bean without a matching destination field onto the destination itself
+ */
+final class FlattenStep implements CopyStep {
+
+    private final FieldAccessor sourceField;
+    private final PlanReference nestedPlan;
+
+    FlattenStep(final FieldAccessor sourceField, final PlanReference nestedPlan) {
+        this.sourceField = sourceField;
+        this.nestedPlan = nestedPlan;
+    }
+
+    @Override
+    public void copy(final Object source, final Object destination) throws Exception {
+        Object value = sourceField.get(source);
+        if (value != null) {
+            nestedPlan.forSource(value.getClass()).executeNested(value, destination);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package de.johnsoneyo.mapper;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Runs the field copies fused into a class generated by {@link BytecodeMapperGenerator} or a {@link GeneratedMapper}
+ * generated at compile time
+ */
+final class GeneratedCopyStep implements CopyStep {
+
+    private final BiConsumer<Object, Object> copier;
+
+    GeneratedCopyStep(final BiConsumer<Object, Object> copier) {
+        this.copier = copier;
+    }
+
+    @Override
+    public void copy(final Object source, final Object destination) {
+        copier.accept(source, destination);
+    }
+}
@@ -0,0 +1,58 @@
+package de.johnsoneyo.mapper;
+
+import java.util.Set;
+
+/**
+ * Service provider interface of mapper classes generated at compile time for a
+ * {@link de.johnsoneyo.mapper.decorator.GenerateMapper} declaration
+ * <p>
+ * Implementations are listed in {@code META-INF/services/de.johnsoneyo.mapper.GeneratedMapper} and used by
+ * {@link JModelMapper} instead of reflection whenever a source of exactly {@link #sourceType()} is mapped to
+ * {@link #targetType()}, unless an adapter instance registered with
+ * {@link JModelMapper.Builder#typeAdapter(de.johnsoneyo.mapper.decorator.TypeAdapter)} is of one of its
+ * {@link #adapterTypes()}.
+ * </p>
+ *
+ * @param <SOURCE> source class
+ * @param <TARGET> target class
+ */
+public interface GeneratedMapper<SOURCE, TARGET> {
+
+    /**
+     * @return source class the mapper reads from
+     */
+    Class<SOURCE> sourceType();
+
+    /**
+     * @return target class the mapper writes to
+     */
+    Class<TARGET> targetType();
+
+    /**
+     * @return type adapter classes the mapper creates instances of itself
+     */
+    default Set<Class<?>> adapterTypes() {
+        return Set.of();
+    }
+
+    /**
+     * @return new target instance
+     */
+    TARGET newTarget();
+
+    /**
+     * @param source source object
+     * @param target target object updated in place
+     */
+    void map(SOURCE source, TARGET target);
+
+    /**
+     * @param source source object
+     * @return new target mapped from the source
+     */
+    default TARGET map(SOURCE source) {
+        TARGET target = newTarget();
+        map(source, target);
+        return target;
+    }
+}
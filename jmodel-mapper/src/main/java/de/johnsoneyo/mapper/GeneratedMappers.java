@@ -0,0 +1,66 @@
+package de.johnsoneyo.mapper;
+
+import de.johnsoneyo.mapper.MappingPlanCache.ClassPair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Registry of the {@link GeneratedMapper}s found through {@link ServiceLoader}
+ */
+final class GeneratedMappers {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GeneratedMappers.class);
+
+    private final ClassLoader classLoader;
+    private volatile Map<ClassPair, GeneratedMapper<?, ?>> mappers;
+
+    /**
+     * @param classLoader loader to look up generated mappers with
+     */
+    GeneratedMappers(final ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    ClassLoader classLoader() {
+        return classLoader;
+    }
+
+    /**
+     * @param sourceType      source class
+     * @param destinationType destination class
+     * @return generated mapper of the class pair, null when none was generated
+     */
+    GeneratedMapper<?, ?> find(final Class<?> sourceType, final Class<?> destinationType) {
+        Map<ClassPair, GeneratedMapper<?, ?>> loaded = mappers;
+        if (loaded == null) {
+            loaded = load();
+            mappers = loaded;
+        }
+        return loaded.isEmpty() ? null : loaded.get(new ClassPair(sourceType, destinationType));
+    }
+
+    private Map<ClassPair, GeneratedMapper<?, ?>> load() {
+        Map<ClassPair, GeneratedMapper<?, ?>> loaded = new HashMap<>();
+        Iterator<GeneratedMapper> providers = ServiceLoader.load(GeneratedMapper.class, classLoader).iterator();
+        while (true) {
+            try {
+                if (!providers.hasNext()) {
+                    break;
+                }
+                GeneratedMapper<?, ?> mapper = providers.next();
+                loaded.put(new ClassPair(mapper.sourceType(), mapper.targetType()), mapper);
+            } catch (ServiceConfigurationError error) {
+                // a broken provider only costs its own class pair the generated path
+                LOG.warn("load: skipping generated mapper", error);
+            }
+        }
+        LOG.debug("load: {} generated mappers found", loaded.size());
+        return loaded;
+    }
+}
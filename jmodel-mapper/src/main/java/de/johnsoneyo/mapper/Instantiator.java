@@ -0,0 +1,14 @@
+package de.johnsoneyo.mapper;
+
+/**
+ * Creates new destination instances for a {@link MappingPlan}
+ */
+@FunctionalInterface
+interface Instantiator {
+
+    /**
+     * @return new destination instance
+     * @throws Exception when the destination instance cannot be created
+     */
+    Object newInstance() throws Exception;
+}
@@ -0,0 +1,666 @@
+package de.johnsoneyo.mapper;
+
+import de.johnsoneyo.mapper.decorator.TransformToType;
+import de.johnsoneyo.mapper.decorator.TypeAdapter;
+import de.johnsoneyo.mapper.metrics.MapperMetrics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
+
+/**
+ * Bean class used to create model mapper
+ * <p>
+ * Every mapper keeps its own cache of mapping plans, create it once as a bean or a singleton and share it. Mappers
+ * generated at compile time for a {@link de.johnsoneyo.mapper.decorator.GenerateMapper} declaration are found through
+ * {@link java.util.ServiceLoader} and used instead of reflection for their class pair.
+ * </p>
+ */
+public class JModelMapper {
+
+    private final MappingEngine engine;
+    private final MappingPlanCache plans;
+    private final BulkMapping bulkMapping;
+    private final LazyViews lazyViews;
+    private final Executor executor;
+    private final Executor asyncExecutor;
+    private final PlanSnapshot snapshot;
+    private final Map<String, MappingOptions> projections;
+    private final Set<MappingPlanCache.ClassPair> registered = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a mapper using the {@link MappingEngine#REFLECTION} engine
+     */
+    public JModelMapper() {
+        this(builder());
+    }
+
+    private JModelMapper(final Builder builder) {
+        this.engine = builder.engine;
+        this.snapshot = builder.planSnapshot != null ? PlanSnapshot.load(builder.planSnapshot) : PlanSnapshot.NONE;
+        MapperConfiguration configuration = new MapperConfiguration(builder.engine,
+                new GeneratedMappers(classLoader()), builder.typeAdapters.copy(), builder.converters.copy(),
+                builder.metrics, snapshot, builder.preserveReferences, builder.traversal,
+                builder.shareImmutableCollections, Map.copyOf(builder.pairOptions), builder.bidirectional);
+        this.plans = new MappingPlanCache(configuration, builder.planCacheSize, builder.evictionPolicy);
+        this.lazyViews = new LazyViews(plans);
+        this.bulkMapping = new BulkMapping(plans, builder.parallelThreshold, builder.executor);
+        this.executor = builder.executor != null ? builder.executor : ForkJoinPool.commonPool();
+        this.asyncExecutor = builder.asyncExecutor != null ? builder.asyncExecutor
+                : VirtualThreads.executor() != null ? VirtualThreads.executor() : executor;
+        this.projections = Map.copyOf(builder.projections);
+    }
+
+    private static ClassLoader classLoader() {
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        return contextClassLoader != null ? contextClassLoader : JModelMapper.class.getClassLoader();
+    }
+
+    /**
+     * @return builder to configure a mapper
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     *
+     * @param input
+     * @param outputClass
+     * @return
+     * @param <INPUT>
+     * @param <OUTPUT>
+     */
+    public <INPUT, OUTPUT> OUTPUT map(INPUT input, Class<OUTPUT> outputClass) {
+        return JModelMapperUtils.map(input, outputClass, plans);
+    }
+
+    /**
+     * Maps only the fields selected by the options, e.g. a summary of an entity without its large nested collections
+     *
+     * @param input       source object
+     * @param outputClass destination class
+     * @param options     fields left out and null handling, compiled once into a plan variant of their own
+     * @param <INPUT>     source input param
+     * @param <OUTPUT>    destination output param
+     * @return mapped object, fields left out keep the value the destination class assigns
+     */
+    public <INPUT, OUTPUT> OUTPUT map(INPUT input, Class<OUTPUT> outputClass, MappingOptions options) {
+        Objects.requireNonNull(options, "mapping options are required and cannot be null");
+        return JModelMapperUtils.map(input, outputClass, options, plans);
+    }
+
+    /**
+     * @param input       source object
+     * @param outputClass destination class
+     * @param projection  name of options registered with {@link Builder#projection(String, MappingOptions)}
+     * @param <INPUT>     source input param
+     * @param <OUTPUT>    destination output param
+     * @return mapped object
+     * @throws IllegalArgumentException when no projection of the name is registered
+     * @see #map(Object, Class, MappingOptions)
+     */
+    public <INPUT, OUTPUT> OUTPUT map(INPUT input, Class<OUTPUT> outputClass, String projection) {
+        return map(input, outputClass, projection(projection));
+    }
+
+    /**
+     * Maps the source into a view of an interface type whose properties are mapped when they are first read, for large
+     * graphs of which only a few properties are used, such as projections of an API response
+     * <p>
+     * Getters of the interface read the source field of their property, {@code getName()} and {@code name()} both read
+     * {@code name}. Nested interfaces become nested views and lists of beans map an element on its first access, other
+     * bean classes are mapped eagerly when their property is read. The view implements {@link LazyView}, see
+     * {@link #materialize(Object)} to map it fully.
+     * </p>
+     *
+     * @param input    source object
+     * @param viewType interface of the view
+     * @param <INPUT>  source input param
+     * @param <OUTPUT> view type param
+     * @return lazy view of the source
+     * @throws IllegalArgumentException when the view type is not an interface or a getter cannot be read from the
+     *                                  source
+     */
+    public <INPUT, OUTPUT> OUTPUT mapLazy(INPUT input, Class<OUTPUT> viewType) {
+        Objects.requireNonNull(viewType, "view type is required and cannot be null");
+        return viewType.cast(lazyViews.view(input, viewType));
+    }
+
+    /**
+     * @param view     view of {@link #mapLazy(Object, Class)}, other objects are returned as they are
+     * @param <OUTPUT> view type param
+     * @return the view with every property mapped and the source released
+     * @throws de.johnsoneyo.mapper.exception.JModelMapperException when a property cannot be mapped
+     */
+    public static <OUTPUT> OUTPUT materialize(OUTPUT view) {
+        if (view instanceof LazyView) {
+            ((LazyView) view).materialize();
+        }
+        return view;
+    }
+
+    /**
+     * @param input    source object
+     * @param output   pre-allocated target updated in place, nested beans and collections are created anew
+     * @param <INPUT>  source input param
+     * @param <OUTPUT> destination output param
+     * @return the updated target
+     * @see #mapInto(Object, Object, ReusePolicy)
+     */
+    public <INPUT, OUTPUT> OUTPUT mapInto(INPUT input, OUTPUT output) {
+        return JModelMapperUtils.mapInto(input, output, ReusePolicy.NONE, MappingOptions.DEFAULT, plans);
+    }
+
+    /**
+     * @param input       source object
+     * @param output      pre-allocated target updated in place
+     * @param reusePolicy treatment of nested beans and collections already present on the target
+     * @param <INPUT>     source input param
+     * @param <OUTPUT>    destination output param
+     * @return the updated target
+     * @throws de.johnsoneyo.mapper.exception.JModelMapperException when a field of the source cannot be mapped
+     */
+    public <INPUT, OUTPUT> OUTPUT mapInto(INPUT input, OUTPUT output, ReusePolicy reusePolicy) {
+        return JModelMapperUtils.mapInto(input, output, reusePolicy, MappingOptions.DEFAULT, plans);
+    }
+
+    /**
+     * Updates the target with the selected fields of the source, with {@link MappingOptions#isSkipNulls()} only the
+     * fields the source holds a value for, such as a partial update of an entity from a request body
+     *
+     * @param input       source object
+     * @param output      pre-allocated target updated in place
+     * @param reusePolicy treatment of nested beans and collections already present on the target
+     * @param options     fields left out and null handling, compiled once into a plan variant of their own
+     * @param <INPUT>     source input param
+     * @param <OUTPUT>    destination output param
+     * @return the updated target
+     * @throws de.johnsoneyo.mapper.exception.JModelMapperException when a field of the source cannot be mapped
+     */
+    public <INPUT, OUTPUT> OUTPUT mapInto(INPUT input, OUTPUT output, ReusePolicy reusePolicy,
+                                          MappingOptions options) {
+        return JModelMapperUtils.mapInto(input, output, reusePolicy, options, plans);
+    }
+
+    /**
+     * @param input source bean
+     * @return new insertion ordered map holding every field of the bean by its name, nested beans as nested maps
+     * @throws de.johnsoneyo.mapper.exception.JModelMapperException when a field of the source cannot be read
+     */
+    public Map<String, Object> toMap(Object input) {
+        return JModelMapperUtils.toMap(input, plans);
+    }
+
+    /**
+     * @param inputs source beans, none of them null
+     * @return maps of the beans in source order, such as rows of a batch insert
+     * @throws de.johnsoneyo.mapper.exception.BulkMappingException with the index of the first failing bean
+     */
+    public List<Map<String, Object>> toMaps(Collection<?> inputs) {
+        return JModelMapperUtils.toMaps(inputs, plans);
+    }
+
+    /**
+     * @param input       values by field name, such as message headers or a JDBC row. Keys without field are
+     *                    ignored, values are widened or converted by the converters of the mapper when they do not fit
+     *                    their field
+     * @param outputClass destination bean class
+     * @param <OUTPUT>    destination output param
+     * @return new bean holding the values of the map
+     * @throws de.johnsoneyo.mapper.exception.JModelMapperException when the bean cannot be created or a value fits its
+     *                                                              field in no way
+     */
+    public <OUTPUT> OUTPUT fromMap(Map<String, ?> input, Class<OUTPUT> outputClass) {
+        return JModelMapperUtils.fromMap(input, outputClass, plans);
+    }
+
+    /**
+     * @param inputs      values by field name, none of them null
+     * @param outputClass destination bean class of every element
+     * @param <OUTPUT>    destination output param
+     * @return new beans in source order
+     * @throws de.johnsoneyo.mapper.exception.BulkMappingException with the index of the first failing map
+     * @see #fromMap(Map, Class)
+     */
+    public <OUTPUT> List<OUTPUT> fromMaps(Collection<? extends Map<String, ?>> inputs, Class<OUTPUT> outputClass) {
+        return JModelMapperUtils.fromMaps(inputs, outputClass, plans);
+    }
+
+    /**
+     * Updates the target with the fields of the source that differ from its current values and leaves every other
+     * field untouched, such as an entity managed by an ORM that is only dirtied by actual changes
+     *
+     * @param input    source object
+     * @param output   pre-allocated target updated in place, nested beans present on the target are merged as well
+     * @param <INPUT>  source input param
+     * @param <OUTPUT> destination output param
+     * @return fields of the target written by the merge, empty when the target already held every value
+     * @throws de.johnsoneyo.mapper.exception.JModelMapperException when a field of the source cannot be mapped
+     */
+    public <INPUT, OUTPUT> ChangeSet merge(INPUT input, OUTPUT output) {
+        return JModelMapperUtils.merge(input, output, MappingOptions.DEFAULT, plans);
+    }
+
+    /**
+     * @param input    source object
+     * @param output   pre-allocated target updated in place
+     * @param options  fields left out and null handling, with {@link MappingOptions#isSkipNulls()} null source values
+     *                 never count as change
+     * @param <INPUT>  source input param
+     * @param <OUTPUT> destination output param
+     * @return fields of the target written by the merge
+     * @throws de.johnsoneyo.mapper.exception.JModelMapperException when a field of the source cannot be mapped
+     * @see #merge(Object, Object)
+     */
+    public <INPUT, OUTPUT> ChangeSet merge(INPUT input, OUTPUT output, MappingOptions options) {
+        return JModelMapperUtils.merge(input, output, options, plans);
+    }
+
+    /**
+     * @param inputs      source objects, none of them null
+     * @param outputClass destination class of every element
+     * @param <INPUT>     source input param
+     * @param <OUTPUT>    destination output param
+     * @return fixed size list of the mapped objects in the order of the source collection, batches reaching the
+     * parallel threshold of the builder are mapped in parallel. Every
+     * {@link de.johnsoneyo.mapper.decorator.BatchTypeAdapter} is invoked once with the distinct values of the batch
+     * @throws de.johnsoneyo.mapper.exception.BulkMappingException with the index of the first failing element
+     */
+    public <INPUT, OUTPUT> List<OUTPUT> mapAll(Collection<? extends INPUT> inputs, Class<OUTPUT> outputClass) {
+        Objects.requireNonNull(inputs, "source collection is required and cannot be null");
+        return bulkMapping.mapAll(inputs.toArray(), outputClass);
+    }
+
+    /**
+     * @param inputs      source objects, none of them null
+     * @param outputClass destination class of every element
+     * @param projection  name of options registered with {@link Builder#projection(String, MappingOptions)}
+     * @param <INPUT>     source input param
+     * @param <OUTPUT>    destination output param
+     * @return fixed size list of the projections of the source objects, such as the rows of a list endpoint
+     * @throws IllegalArgumentException when no projection of the name is registered
+     * @see #mapAll(Collection, Class)
+     */
+    public <INPUT, OUTPUT> List<OUTPUT> mapAll(Collection<? extends INPUT> inputs, Class<OUTPUT> outputClass,
+                                               String projection) {
+        Objects.requireNonNull(inputs, "source collection is required and cannot be null");
+        return bulkMapping.mapAll(inputs.toArray(), outputClass, projection(projection));
+    }
+
+    /**
+     * @param inputs      source objects, none of them null
+     * @param outputClass destination class of every element
+     * @param <INPUT>     source input param
+     * @param <OUTPUT>    destination output param
+     * @return fixed size list of the mapped objects in the order of the source array
+     * @see #mapAll(Collection, Class)
+     */
+    public <INPUT, OUTPUT> List<OUTPUT> mapAll(INPUT[] inputs, Class<OUTPUT> outputClass) {
+        Objects.requireNonNull(inputs, "source array is required and cannot be null");
+        return bulkMapping.mapAll(inputs, outputClass);
+    }
+
+    /**
+     * Maps the source on the async executor of the builder, for sources whose fields are converted by
+     * {@link de.johnsoneyo.mapper.decorator.BatchTypeAdapter}s doing I/O such as lookups. Each batch adapter is invoked
+     * once for all the values of the source, its nested beans and elements.
+     *
+     * @param input       source object
+     * @param outputClass destination class
+     * @param <INPUT>     source input param
+     * @param <OUTPUT>    destination output param
+     * @return future of the mapped object, completed exceptionally with a
+     * {@link de.johnsoneyo.mapper.exception.JModelMapperException} when the source cannot be mapped
+     */
+    public <INPUT, OUTPUT> CompletableFuture<OUTPUT> mapAsync(INPUT input, Class<OUTPUT> outputClass) {
+        Objects.requireNonNull(input, "source object is required and cannot be null");
+        return CompletableFuture.supplyAsync(() -> bulkMapping.map(input, outputClass), asyncExecutor);
+    }
+
+    /**
+     * @param inputs      source objects, none of them null
+     * @param outputClass destination class of every element
+     * @param <INPUT>     source input param
+     * @param <OUTPUT>    destination output param
+     * @return future of the fixed size list of the mapped objects, see {@link #mapAll(Collection, Class)}
+     * @see #mapAsync(Object, Class)
+     */
+    public <INPUT, OUTPUT> CompletableFuture<List<OUTPUT>> mapAllAsync(Collection<? extends INPUT> inputs,
+                                                                       Class<OUTPUT> outputClass) {
+        Objects.requireNonNull(inputs, "source collection is required and cannot be null");
+        Object[] sources = inputs.toArray();
+        return CompletableFuture.supplyAsync(() -> bulkMapping.mapAll(sources, outputClass), asyncExecutor);
+    }
+
+    /**
+     * @param inputs      source objects, none of them null
+     * @param outputClass destination class of every element
+     * @param <INPUT>     source input param
+     * @param <OUTPUT>    destination output param
+     * @return lazy stream mapping every element when it is consumed, parallel when the source stream is parallel
+     * @throws de.johnsoneyo.mapper.exception.JModelMapperException from the terminal operation when an element cannot
+     *                                                              be mapped
+     */
+    public <INPUT, OUTPUT> Stream<OUTPUT> mapStream(Stream<? extends INPUT> inputs, Class<OUTPUT> outputClass) {
+        Objects.requireNonNull(inputs, "source stream is required and cannot be null");
+        return inputs.map(new ElementMapper<>(plans, outputClass));
+    }
+
+    /**
+     * @param outputClass destination class of every item
+     * @param <INPUT>     source input param
+     * @param <OUTPUT>    destination output param
+     * @return processor for a single subscriber mapping every item of the publisher it subscribes to, demand of the
+     * subscriber is passed on to the publisher so no item is buffered
+     */
+    public <INPUT, OUTPUT> Flow.Processor<INPUT, OUTPUT> mappingProcessor(Class<OUTPUT> outputClass) {
+        return new MappingProcessor<>(new ElementMapper<>(plans, outputClass));
+    }
+
+    /**
+     * @param sourceType source class
+     * @param targetType destination class
+     * @return this mapper, the plan of the pair is built and validated by the next {@link #warmUp(String...)}
+     */
+    public JModelMapper register(Class<?> sourceType, Class<?> targetType) {
+        registered.add(new MappingPlanCache.ClassPair(
+                Objects.requireNonNull(sourceType, "source type is required and cannot be null"),
+                Objects.requireNonNull(targetType, "target type is required and cannot be null")));
+        return this;
+    }
+
+    /**
+     * Builds the plans of the registered class pairs, of the pairs declared with
+     * {@link de.johnsoneyo.mapper.decorator.GenerateMapper} on classes of the given packages and of every nested pair
+     * they reach, in parallel on the executor of the builder. Call it at startup so the first mappings run at steady
+     * state speed and mapping mistakes fail the startup.
+     *
+     * @param packages packages scanned for {@link de.johnsoneyo.mapper.decorator.GenerateMapper} declarations,
+     *                 including sub packages
+     * @throws de.johnsoneyo.mapper.exception.MappingValidationException listing every missing no arg constructor,
+     *                                                                   incompatible field pair and plan that could
+     *                                                                   not be built
+     */
+    public void warmUp(String... packages) {
+        List<MappingPlanCache.ClassPair> pairs = new ArrayList<>(registered);
+        for (String packageName : packages) {
+            pairs.addAll(PackageScanner.declaredPairs(classLoader(), packageName));
+        }
+        PlanWarmUp.warmUp(plans, pairs, executor);
+        // first run or changed classes, the plan snapshot of the builder is written for the next start
+        snapshot.updateIfIncomplete(plans.recipes());
+    }
+
+    /**
+     * Writes the field pairs of every plan built so far, e.g. at build time after a {@link #warmUp(String...)}, to a
+     * file a mapper reads back with {@link Builder#planSnapshot(Path)}
+     *
+     * @param path snapshot file, replaced when it exists
+     * @throws IOException when the file cannot be written
+     */
+    public void writePlanSnapshot(Path path) throws IOException {
+        PlanSnapshot.write(Objects.requireNonNull(path, "snapshot path is required and cannot be null"),
+                plans.recipes());
+    }
+
+    /**
+     * Drops every plan and every adapter created for the plans of this mapper, e.g. before a plugin or module class
+     * loader is discarded or after classes were redefined. Plans are built anew on their next use, registered
+     * adapters, converters and class pairs are kept
+     */
+    public void clear() {
+        plans.clear();
+    }
+
+    /**
+     * @return engine used to read and write fields
+     */
+    public MappingEngine getEngine() {
+        return engine;
+    }
+
+    private MappingOptions projection(final String name) {
+        MappingOptions options = projections.get(Objects.requireNonNull(name, "projection is required and cannot be null"));
+        if (options == null) {
+            throw new IllegalArgumentException("no projection named " + name + " is registered");
+        }
+        return options;
+    }
+
+    /**
+     * Builder of {@link JModelMapper} instances
+     */
+    public static final class Builder {
+
+        private MappingEngine engine = MappingEngine.REFLECTION;
+        private final TypeAdapterRegistry typeAdapters = new TypeAdapterRegistry();
+        private final ConverterRegistry converters = ConverterRegistry.defaults();
+        private int parallelThreshold = 10_000;
+        private Executor executor;
+        private Executor asyncExecutor;
+        private MapperMetrics metrics = MapperMetrics.none();
+        private Path planSnapshot;
+        private boolean preserveReferences;
+        private Traversal traversal = Traversal.RECURSIVE;
+        private boolean shareImmutableCollections;
+        private boolean bidirectional;
+        private int planCacheSize = Integer.MAX_VALUE;
+        private EvictionPolicy evictionPolicy = EvictionPolicy.LEAST_RECENTLY_USED;
+        private final Map<String, MappingOptions> projections = new HashMap<>();
+        private final Map<MappingPlanCache.ClassPair, MappingOptions> pairOptions = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * @param engine engine used to read and write fields, defaults to {@link MappingEngine#REFLECTION}
+         * @return this builder
+         */
+        public Builder engine(final MappingEngine engine) {
+            this.engine = Objects.requireNonNull(engine, "engine is required and cannot be null");
+            return this;
+        }
+
+        /**
+         * @param typeAdapter pre-built, possibly stateful adapter used for every field decorated with
+         *                    {@link TransformToType} of its class instead of a new instance
+         * @return this builder
+         */
+        public Builder typeAdapter(final TypeAdapter<?, ?> typeAdapter) {
+            typeAdapters.register(Objects.requireNonNull(typeAdapter, "type adapter is required and cannot be null"));
+            return this;
+        }
+
+        /**
+         * @param sourceType source field type
+         * @param targetType target field type
+         * @param converter  converter applied to every field pair of the types without a {@link TransformToType}
+         *                   declaration, {@code Integer} to {@code String} and {@code String} to {@code UUID} are
+         *                   registered by default
+         * @param <S>        source field type
+         * @param <T>        target field type
+         * @return this builder
+         */
+        public <S, T> Builder converter(final Class<S> sourceType, final Class<T> targetType,
+                                        final TypeAdapter<? super S, ? extends T> converter) {
+            converters.register(Objects.requireNonNull(sourceType, "source type is required and cannot be null"),
+                    Objects.requireNonNull(targetType, "target type is required and cannot be null"),
+                    Objects.requireNonNull(converter, "converter is required and cannot be null"));
+            return this;
+        }
+
+        /**
+         * @param parallelThreshold minimum number of elements a bulk mapping splits across threads, defaults to 10000
+         * @return this builder
+         */
+        public Builder parallelThreshold(final int parallelThreshold) {
+            if (parallelThreshold < 1) {
+                throw new IllegalArgumentException("parallel threshold must be positive");
+            }
+            this.parallelThreshold = parallelThreshold;
+            return this;
+        }
+
+        /**
+         * @param executor executor running the slices of parallel bulk mappings, defaults to the common
+         *                 {@link java.util.concurrent.ForkJoinPool}
+         * @return this builder
+         */
+        public Builder executor(final Executor executor) {
+            this.executor = Objects.requireNonNull(executor, "executor is required and cannot be null");
+            return this;
+        }
+
+        /**
+         * @param asyncExecutor executor running {@link #mapAsync(Object, Class)} and
+         *                      {@link #mapAllAsync(Collection, Class)}, defaults to a virtual thread per mapping on
+         *                      Java 21 and later and to the executor of the bulk mappings otherwise
+         * @return this builder
+         */
+        public Builder asyncExecutor(final Executor asyncExecutor) {
+            this.asyncExecutor = Objects.requireNonNull(asyncExecutor, "async executor is required and cannot be null");
+            return this;
+        }
+
+        /**
+         * @param metrics recorder of the mapping events, such as {@link de.johnsoneyo.mapper.metrics.InMemoryMapperMetrics},
+         *                defaults to {@link MapperMetrics#none()} which leaves the plans uninstrumented
+         * @return this builder
+         */
+        public Builder metrics(final MapperMetrics metrics) {
+            this.metrics = Objects.requireNonNull(metrics, "metrics is required and cannot be null");
+            return this;
+        }
+
+        /**
+         * @param shareImmutableCollections true to assign immutable collections and maps of the java runtime, such as
+         *                                  the ones of {@code List.of} or {@code Map.copyOf}, holding java runtime
+         *                                  elements to the destination instead of copying them. Defaults to false, so
+         *                                  every destination collection is a new mutable one
+         * @return this builder
+         */
+        public Builder shareImmutableCollections(final boolean shareImmutableCollections) {
+            this.shareImmutableCollections = shareImmutableCollections;
+            return this;
+        }
+
+        /**
+         * @param bidirectional true to build the plan of the opposite direction together with every plan, derived from
+         *                      the same field pairs without scanning the classes again. Renames declared with
+         *                      {@link de.johnsoneyo.mapper.decorator.ClassFieldMapping} map back onto their source
+         *                      field and adapters declared with {@link TransformToType} are applied in reverse when
+         *                      they implement {@link de.johnsoneyo.mapper.decorator.BidirectionalTypeAdapter}.
+         *                      Defaults to false
+         * @return this builder
+         */
+        public Builder bidirectional(final boolean bidirectional) {
+            this.bidirectional = bidirectional;
+            return this;
+        }
+
+        /**
+         * @param name    name passed to {@link #map(Object, Class, String)}, such as {@code summary} or {@code detail}
+         * @param options fields left out and null handling of the projection
+         * @return this builder
+         */
+        public Builder projection(final String name, final MappingOptions options) {
+            projections.put(Objects.requireNonNull(name, "projection name is required and cannot be null"),
+                    Objects.requireNonNull(options, "mapping options are required and cannot be null"));
+            return this;
+        }
+
+        /**
+         * @param sourceType source class
+         * @param targetType destination class
+         * @param options    options applied whenever the pair is mapped without options of its own, including as a
+         *                   nested bean or element of another mapping
+         * @return this builder
+         */
+        public Builder options(final Class<?> sourceType, final Class<?> targetType, final MappingOptions options) {
+            pairOptions.put(new MappingPlanCache.ClassPair(
+                            Objects.requireNonNull(sourceType, "source type is required and cannot be null"),
+                            Objects.requireNonNull(targetType, "target type is required and cannot be null")),
+                    Objects.requireNonNull(options, "mapping options are required and cannot be null"));
+            return this;
+        }
+
+        /**
+         * @param traversal order in which nested beans are mapped, {@link Traversal#ITERATIVE} for graphs deeper than
+         *                  the thread stack allows, defaults to {@link Traversal#RECURSIVE}
+         * @return this builder
+         */
+        public Builder traversal(final Traversal traversal) {
+            this.traversal = Objects.requireNonNull(traversal, "traversal is required and cannot be null");
+            return this;
+        }
+
+        /**
+         * @param preserveReferences true to map every source instance of an object graph once per destination class,
+         *                           so shared references stay shared and cyclic references such as parent and child
+         *                           entities pointing at each other end instead of overflowing the stack. Costs an
+         *                           identity lookup per nested bean, mappers generated at compile time are not used.
+         *                           Defaults to false
+         * @return this builder
+         */
+        public Builder preserveReferences(final boolean preserveReferences) {
+            this.preserveReferences = preserveReferences;
+            return this;
+        }
+
+        /**
+         * @param planCacheSize number of plans the mapper keeps at most, counting every variant of a class pair such as
+         *                      the plans of options, merges and views. Bounds the memory of mappers seeing an open set
+         *                      of classes, defaults to no bound
+         * @return this builder
+         */
+        public Builder planCacheSize(final int planCacheSize) {
+            if (planCacheSize < 1) {
+                throw new IllegalArgumentException("plan cache size must be positive");
+            }
+            this.planCacheSize = planCacheSize;
+            return this;
+        }
+
+        /**
+         * @param evictionPolicy plan dropped once the cache of {@link #planCacheSize(int)} is full, defaults to
+         *                       {@link EvictionPolicy#LEAST_RECENTLY_USED}
+         * @return this builder
+         */
+        public Builder evictionPolicy(final EvictionPolicy evictionPolicy) {
+            this.evictionPolicy = Objects.requireNonNull(evictionPolicy,
+                    "eviction policy is required and cannot be null");
+            return this;
+        }
+
+        /**
+         * @param planSnapshot file of a {@link #writePlanSnapshot(Path)}, read memory mapped when the mapper is built so
+         *                     plans skip the reflective field and annotation scan, entries of changed classes are
+         *                     resolved anew. A missing or outdated file is written by {@link #warmUp(String...)}
+         * @return this builder
+         */
+        public Builder planSnapshot(final Path planSnapshot) {
+            this.planSnapshot = Objects.requireNonNull(planSnapshot, "plan snapshot is required and cannot be null");
+            return this;
+        }
+
+        /**
+         * @return configured mapper
+         */
+        public JModelMapper build() {
+            return new JModelMapper(this);
+        }
+    }
+}
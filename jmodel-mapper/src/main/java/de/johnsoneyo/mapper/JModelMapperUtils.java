@@ -0,0 +1,400 @@
+package de.johnsoneyo.mapper;
+
+import de.johnsoneyo.mapper.exception.BulkMappingException;
+import de.johnsoneyo.mapper.exception.JModelMapperException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ *
+ */
+final class JModelMapperUtils {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JModelMapperUtils.class);
+    private static final String GEN_ERROR_MESSAGE = "error occurred while mapping entity";
+
+    /**
+     * Holds the mapping plan of every class pair mapped so far through the static entry points
+     */
+    private static final MappingPlanCache PLANS = new MappingPlanCache(
+            MapperConfiguration.defaults(JModelMapperUtils.class.getClassLoader()));
+
+    /**
+     * @param object      source object to be converted
+     * @param outputClass destination class instance to map object
+     *                    <p>
+     *                    It is mandatory that the class has a no arg constructor, setters and getters are not necessary
+     *                    as it uses reflection to set the fields
+     *                    </p>
+     * @param <INPUT>     source input param
+     * @param <OUTPUT>    destination output param
+     * @return mapped object
+     * @throws JModelMapperException when matching fields are not of same data type
+     * @see JModelMapperException#getCause() when constructor of class is not defined in destination class
+     */
+    static <INPUT, OUTPUT> OUTPUT map(final INPUT object, final Class<OUTPUT> outputClass) {
+        return map(object, outputClass, PLANS);
+    }
+
+    /**
+     * @param object      source object to be converted
+     * @param outputClass destination class instance to map object
+     * @param plans       plan cache of the calling mapper
+     * @param <INPUT>     source input param
+     * @param <OUTPUT>    destination output param
+     * @return mapped object
+     * @see #map(Object, Class)
+     */
+    static <INPUT, OUTPUT> OUTPUT map(final INPUT object, final Class<OUTPUT> outputClass, final MappingPlanCache plans) {
+        return map(object, outputClass, MappingOptions.DEFAULT, plans);
+    }
+
+    /**
+     * @param options fields left out and null handling of the mapping
+     * @see #map(Object, Class, MappingPlanCache)
+     */
+    static <INPUT, OUTPUT> OUTPUT map(final INPUT object, final Class<OUTPUT> outputClass,
+                                      final MappingOptions options, final MappingPlanCache plans) {
+
+        Objects.requireNonNull(object, "source object is required and cannot be null");
+
+        try {
+            final MappingPlan plan = plans.plan(object.getClass(), outputClass, ReusePolicy.NONE, options);
+            if (plan.isConstructed()) {
+                return outputClass.cast(construct(object, plan));
+            }
+            final OUTPUT output = outputClass.cast(plan.newDestination());
+            map(object, output, plan);
+            return output;
+        } catch (Throwable throwable) {
+            // errors raised by a step itself carry no cause, they are kept as the cause instead
+            throw new JModelMapperException(GEN_ERROR_MESSAGE,
+                    throwable.getCause() != null ? throwable.getCause() : throwable);
+        }
+    }
+
+    /**
+     * @param object   source object
+     * @param output   destination object updated in place
+     * @param <INPUT>  source input param
+     * @param <OUTPUT> destination output param
+     * @throws JModelMapperException when a field of the source cannot be mapped
+     */
+    static <INPUT, OUTPUT> void map(final INPUT object, final OUTPUT output) {
+
+        // break chain when object is null
+        if (object == null) {
+            return;
+        }
+
+        map(object, output, PLANS.plan(object.getClass(), output.getClass()));
+    }
+
+    /**
+     * @param object      source object
+     * @param output      destination object updated in place
+     * @param reusePolicy treatment of nested beans and collections present on the destination
+     * @param options     fields left out and null handling of the mapping
+     * @param plans       plan cache of the calling mapper
+     * @param <INPUT>     source input param
+     * @param <OUTPUT>    destination output param
+     * @return the updated destination object
+     * @throws JModelMapperException when a field of the source cannot be mapped
+     */
+    static <INPUT, OUTPUT> OUTPUT mapInto(final INPUT object, final OUTPUT output, final ReusePolicy reusePolicy,
+                                          final MappingOptions options, final MappingPlanCache plans) {
+
+        Objects.requireNonNull(object, "source object is required and cannot be null");
+        Objects.requireNonNull(output, "target object is required and cannot be null");
+        Objects.requireNonNull(reusePolicy, "reuse policy is required and cannot be null");
+        Objects.requireNonNull(options, "mapping options are required and cannot be null");
+
+        map(object, output, plans.plan(object.getClass(), output.getClass(), reusePolicy, options));
+        return output;
+    }
+
+    /**
+     * @param object  source object
+     * @param output  destination object updated in place
+     * @param options fields left out and null handling of the merge
+     * @param plans   plan cache of the calling mapper
+     * @param <INPUT>  source input param
+     * @param <OUTPUT> destination output param
+     * @return fields of the destination written by the merge
+     * @throws JModelMapperException when a field of the source cannot be mapped
+     */
+    static <INPUT, OUTPUT> ChangeSet merge(final INPUT object, final OUTPUT output, final MappingOptions options,
+                                           final MappingPlanCache plans) {
+
+        Objects.requireNonNull(object, "source object is required and cannot be null");
+        Objects.requireNonNull(output, "target object is required and cannot be null");
+        Objects.requireNonNull(options, "mapping options are required and cannot be null");
+
+        try {
+            return plans.merge(object.getClass(), output.getClass(), options).mergeTopLevel(object, output);
+        } catch (Exception exception) {
+            LOG.error("error occurred mapping entity", exception);
+            throw new JModelMapperException(GEN_ERROR_MESSAGE, exception);
+        }
+    }
+
+    /**
+     * @param object source bean
+     * @param plans  plan cache of the calling mapper
+     * @return new map holding every field of the bean by its name
+     * @throws JModelMapperException when a field of the source cannot be read
+     */
+    static Map<String, Object> toMap(final Object object, final MappingPlanCache plans) {
+        Objects.requireNonNull(object, "source object is required and cannot be null");
+        try {
+            return plans.beanMap(object.getClass()).toMap(object);
+        } catch (Exception exception) {
+            LOG.error("error occurred mapping entity", exception);
+            throw new JModelMapperException(GEN_ERROR_MESSAGE, exception);
+        }
+    }
+
+    /**
+     * @param objects source beans, none of them null
+     * @param plans   plan cache of the calling mapper
+     * @return maps of the beans in source order, the plan is looked up again only when the bean class changes
+     * @throws BulkMappingException with the index of the first failing bean
+     */
+    static List<Map<String, Object>> toMaps(final Collection<?> objects, final MappingPlanCache plans) {
+        Objects.requireNonNull(objects, "source collection is required and cannot be null");
+        List<Map<String, Object>> maps = new ArrayList<>(objects.size());
+        BeanMapPlan plan = null;
+        int index = 0;
+        for (Object object : objects) {
+            try {
+                Objects.requireNonNull(object, "source object is required and cannot be null");
+                if (plan == null || plan.beanType() != object.getClass()) {
+                    plan = plans.beanMap(object.getClass());
+                }
+                maps.add(plan.toMap(object));
+            } catch (Exception exception) {
+                LOG.error("error occurred mapping entity", exception);
+                throw new BulkMappingException(GEN_ERROR_MESSAGE, index, exception);
+            }
+            index++;
+        }
+        return maps;
+    }
+
+    /**
+     * @param map         values by field name
+     * @param outputClass destination bean class
+     * @param plans       plan cache of the calling mapper
+     * @param <OUTPUT>    destination output param
+     * @return new bean holding the values of the map
+     * @throws JModelMapperException when the bean cannot be created or a value fits its field in no way
+     */
+    static <OUTPUT> OUTPUT fromMap(final Map<String, ?> map, final Class<OUTPUT> outputClass,
+                                   final MappingPlanCache plans) {
+        Objects.requireNonNull(map, "source map is required and cannot be null");
+        Objects.requireNonNull(outputClass, "target class is required and cannot be null");
+        try {
+            return outputClass.cast(plans.beanMap(outputClass).fromMap(map));
+        } catch (Exception exception) {
+            LOG.error("error occurred mapping entity", exception);
+            throw new JModelMapperException(GEN_ERROR_MESSAGE, exception);
+        }
+    }
+
+    /**
+     * @param maps        values by field name, none of them null
+     * @param outputClass destination bean class of every element
+     * @param plans       plan cache of the calling mapper
+     * @param <OUTPUT>    destination output param
+     * @return new beans in source order
+     * @throws BulkMappingException with the index of the first failing map
+     */
+    static <OUTPUT> List<OUTPUT> fromMaps(final Collection<? extends Map<String, ?>> maps,
+                                          final Class<OUTPUT> outputClass, final MappingPlanCache plans) {
+        Objects.requireNonNull(maps, "source collection is required and cannot be null");
+        Objects.requireNonNull(outputClass, "target class is required and cannot be null");
+        List<OUTPUT> outputs = new ArrayList<>(maps.size());
+        BeanMapPlan plan = null;
+        int index = 0;
+        for (Map<String, ?> map : maps) {
+            try {
+                Objects.requireNonNull(map, "source map is required and cannot be null");
+                if (plan == null) {
+                    plan = plans.beanMap(outputClass);
+                }
+                outputs.add(outputClass.cast(plan.fromMap(map)));
+            } catch (Exception exception) {
+                LOG.error("error occurred mapping entity", exception);
+                throw new BulkMappingException(GEN_ERROR_MESSAGE, index, exception);
+            }
+            index++;
+        }
+        return outputs;
+    }
+
+    private static Object construct(final Object object, final MappingPlan plan) {
+        try {
+            return plan.mapTopLevel(object);
+        } catch (Exception exception) {
+            LOG.error("error occurred mapping entity", exception);
+            throw new JModelMapperException(GEN_ERROR_MESSAGE, exception);
+        }
+    }
+
+    private static void map(final Object object, final Object output, final MappingPlan plan) {
+        try {
+            plan.executeTopLevel(object, output);
+        } catch (Exception exception) {
+            LOG.error("error occurred mapping entity", exception);
+            throw new JModelMapperException(GEN_ERROR_MESSAGE, exception);
+        }
+    }
+
+    /**
+     * Creates the destination collections and maps of the collection, array and map steps and recognizes the immutable
+     * collections of the java runtime
+     */
+    static class ImmutableCollectionFactory {
+
+        /**
+         * Classes of the collections returned by {@code List.of}, {@code Set.of}, {@code Map.of}, their {@code copyOf}
+         * counterparts and the empty collections of {@link Collections}
+         */
+        private static final Set<Class<?>> IMMUTABLE_TYPES = Set.copyOf(Stream.of(
+                        List.of(), List.of(1), List.of(1, 2, 3), List.of(1, 2, 3).subList(0, 2),
+                        Set.of(), Set.of(1), Set.of(1, 2, 3), Map.of(), Map.of(1, 1), Map.of(1, 1, 2, 2),
+                        Collections.emptyList(), Collections.emptySet(), Collections.emptyMap())
+                .map(Object::getClass)
+                .collect(Collectors.toSet()));
+
+        /**
+         * @param value collection or map
+         * @return true when the value is an immutable collection of the java runtime that is safe to share
+         */
+        static boolean isImmutable(final Object value) {
+            return IMMUTABLE_TYPES.contains(value.getClass());
+        }
+
+        /**
+         * @param type declared type of a destination field
+         * @return factory of collections assignable to the type pre-sized for the given number of elements, null when
+         * the type is an interface or abstract class without known implementation
+         */
+        @SuppressWarnings("unchecked")
+        static IntFunction<Collection<Object>> collectionFactory(final Class<?> type) {
+            if (type.isAssignableFrom(ArrayList.class)) {
+                return ArrayList::new;
+            }
+            if (type.isAssignableFrom(HashSet.class)) {
+                return size -> new HashSet<>(capacity(size));
+            }
+            if (type == LinkedHashSet.class) {
+                return size -> new LinkedHashSet<>(capacity(size));
+            }
+            if (type.isAssignableFrom(ArrayDeque.class)) {
+                return ArrayDeque::new;
+            }
+            if (type.isAssignableFrom(TreeSet.class)) {
+                return size -> new TreeSet<>();
+            }
+            return (IntFunction<Collection<Object>>) (IntFunction<?>) instantiator(type);
+        }
+
+        /**
+         * @param type declared type of a destination field
+         * @return factory of maps assignable to the type pre-sized for the given number of entries, null when the type
+         * is an interface or abstract class without known implementation
+         */
+        @SuppressWarnings("unchecked")
+        static IntFunction<Map<Object, Object>> mapFactory(final Class<?> type) {
+            if (type.isAssignableFrom(HashMap.class)) {
+                return size -> new HashMap<>(capacity(size));
+            }
+            if (type == LinkedHashMap.class) {
+                return size -> new LinkedHashMap<>(capacity(size));
+            }
+            if (type.isAssignableFrom(TreeMap.class)) {
+                return size -> new TreeMap<>();
+            }
+            if (type.isAssignableFrom(ConcurrentHashMap.class)) {
+                return ConcurrentHashMap::new;
+            }
+            return (IntFunction<Map<Object, Object>>) (IntFunction<?>) instantiator(type);
+        }
+
+        /**
+         * @return factory calling the no arg constructor of a concrete type, null when there is none
+         */
+        private static IntFunction<Object> instantiator(final Class<?> type) {
+            if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+                return null;
+            }
+            try {
+                Constructor<?> constructor = type.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                return size -> {
+                    try {
+                        return constructor.newInstance();
+                    } catch (ReflectiveOperationException e) {
+                        throw new IllegalStateException("cannot create " + type.getName(), e);
+                    }
+                };
+            } catch (NoSuchMethodException | RuntimeException e) {
+                return null;
+            }
+        }
+
+        /**
+         * @return initial capacity of a hash based collection holding the given number of elements without rehashing
+         */
+        private static int capacity(final int size) {
+            return size < 3 ? size + 1 : (int) (size / 0.75f + 1.0f);
+        }
+    }
+
+    /**
+     * Helper class for commons logic
+     */
+    static class Utils {
+
+
+        static <T> boolean isEmpty(T... t) {
+            return t == null || t.length == 0;
+        }
+
+        static <T> boolean isNotEmpty(T... t) {
+            return t != null && t.length > 0;
+        }
+
+        /**
+         * @param type class to check
+         * @return true when the class is a primitive or a java runtime class, which ends the mapping chain
+         */
+        static boolean isJavaType(Class<?> type) {
+            return type.isPrimitive() || type.getPackageName().startsWith("java");
+        }
+
+    }
+
+}
@@ -0,0 +1,70 @@
+package de.johnsoneyo.mapper;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Read only list of a {@link LazyView} property mapping every bean element on its first access
+ * <p>
+ * Elements of an interface type become nested views, elements of other classes are mapped through the plans of the
+ * mapper. Null source elements stay null.
+ * </p>
+ */
+final class LazyList extends AbstractList<Object> implements RandomAccess {
+
+    private final Class<?> elementType;
+    private final LazyViews views;
+    private final Object[] elements;
+    private List<?> source;
+
+    /**
+     * @param source      source elements, read by index
+     * @param elementType element type of the view property
+     * @param views       factory of nested views and beans
+     */
+    LazyList(final List<?> source, final Class<?> elementType, final LazyViews views) {
+        this.source = source;
+        this.elementType = elementType;
+        this.views = views;
+        this.elements = new Object[source.size()];
+    }
+
+    @Override
+    public Object get(final int index) {
+        Object element = elements[index];
+        if (element == null && source != null) {
+            Object value = source.get(index);
+            if (value != null) {
+                element = elementType.isInterface() ? views.view(value, elementType) : views.bean(value, elementType);
+                elements[index] = element;
+            }
+        }
+        return element;
+    }
+
+    @Override
+    public int size() {
+        return elements.length;
+    }
+
+    /**
+     * Maps a property value fully, nested views and lists included
+     *
+     * @param value value of a view property
+     */
+    static void materialize(final Object value) {
+        if (value instanceof LazyView) {
+            ((LazyView) value).materialize();
+        } else if (value instanceof LazyList) {
+            LazyList list = (LazyList) value;
+            if (list.source == null) {
+                return;
+            }
+            for (int i = 0; i < list.elements.length; i++) {
+                materialize(list.get(i));
+            }
+            list.source = null;
+        }
+    }
+}
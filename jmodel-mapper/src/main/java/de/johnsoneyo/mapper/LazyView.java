@@ -0,0 +1,26 @@
+package de.johnsoneyo.mapper;
+
+/**
+ * View returned by {@link JModelMapper#mapLazy(Object, Class)}, implemented by every lazy view next to its interface
+ * <p>
+ * Properties of a view are mapped from the source when they are first read and kept afterwards. Nested views and lists
+ * map their own properties and elements on first access in turn, so a view only pays for the parts of the graph that
+ * are actually read.
+ * </p>
+ */
+public interface LazyView {
+
+    /**
+     * Maps every property not read so far, including the ones of nested views and the elements of lists, and releases
+     * the source object. Call it before the view outlives the source or is handed to another thread.
+     *
+     * @return this view
+     * @throws de.johnsoneyo.mapper.exception.JModelMapperException when a property cannot be mapped
+     */
+    LazyView materialize();
+
+    /**
+     * @return true once {@link #materialize()} mapped every property
+     */
+    boolean isMaterialized();
+}
@@ -0,0 +1,48 @@
+package de.johnsoneyo.mapper;
+
+import de.johnsoneyo.mapper.JModelMapperUtils.Utils;
+
+import java.lang.reflect.Proxy;
+import java.util.Objects;
+
+/**
+ * Creates the {@link LazyView}s of a mapper, with the {@link ViewPlan} of every source class and view interface
+ * resolved once
+ */
+final class LazyViews {
+
+    private final MappingPlanCache plans;
+
+    /**
+     * @param plans plan cache holding the view plans and mapping the properties of classes other than interfaces
+     */
+    LazyViews(final MappingPlanCache plans) {
+        this.plans = plans;
+    }
+
+    /**
+     * @param source   source object, not null
+     * @param viewType view interface
+     * @return proxy implementing the view interface and {@link LazyView}, reading the source on first access
+     * @throws IllegalArgumentException when the view type is not an interface of beans or a getter cannot be read from
+     *                                  the source
+     */
+    Object view(final Object source, final Class<?> viewType) {
+        Objects.requireNonNull(source, "source object is required and cannot be null");
+        if (!viewType.isInterface() || Utils.isJavaType(viewType)) {
+            throw new IllegalArgumentException(viewType.getName() + " is not an interface a lazy view can implement");
+        }
+        ViewPlan plan = plans.view(source.getClass(), viewType);
+        return Proxy.newProxyInstance(viewType.getClassLoader(), new Class<?>[]{viewType, LazyView.class},
+                new ViewHandler(source, plan, this));
+    }
+
+    /**
+     * @param source      nested source bean, not null
+     * @param destination class the bean is mapped to eagerly
+     * @return mapped bean
+     */
+    Object bean(final Object source, final Class<?> destination) {
+        return JModelMapperUtils.map(source, destination, plans);
+    }
+}
@@ -0,0 +1,83 @@
+package de.johnsoneyo.mapper;
+
+import de.johnsoneyo.mapper.JModelMapperUtils.ImmutableCollectionFactory;
+
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Maps the entries of a source map into a destination map
+ * <p>
+ * The destination map is created for the type of the destination field and pre-sized to the number of source entries.
+ * Keys are copied as they are, values of a java runtime type too, bean values are mapped into new instances of the
+ * destination value type resolved from the generic type of the destination field. An immutable map of java runtime
+ * values is assigned as is when the mapper shares immutable collections. A map already present on the destination is
+ * replaced with {@link ReusePolicy#NONE} and cleared and refilled with {@link ReusePolicy#REFILL}. With
+ * {@link ReusePolicy#UPDATE} keys missing from the source are removed and bean values present under the same key are
+ * updated in place.
+ * </p>
+ */
+final class MapStep implements CopyStep {
+
+    private final FieldAccessor sourceField;
+    private final FieldAccessor destinationField;
+    private final Class<?> mapType;
+    private final IntFunction<Map<Object, Object>> mapFactory;
+    private final ElementPlan valuePlan;
+    private final ReusePolicy reusePolicy;
+    private final boolean shareImmutable;
+
+    /**
+     * @param mapType        declared type of the destination field
+     * @param mapFactory     creates a destination map for the given number of entries
+     * @param valuePlan      plan of the destination value type, null for java runtime values
+     * @param reusePolicy    treatment of a map already present on the destination
+     * @param shareImmutable true to assign immutable source maps instead of copying them, only honoured for java
+     *                       runtime values
+     */
+    MapStep(final FieldAccessor sourceField, final FieldAccessor destinationField, final Class<?> mapType,
+            final IntFunction<Map<Object, Object>> mapFactory, final ElementPlan valuePlan,
+            final ReusePolicy reusePolicy, final boolean shareImmutable) {
+        this.sourceField = sourceField;
+        this.destinationField = destinationField;
+        this.mapType = mapType;
+        this.mapFactory = mapFactory;
+        this.valuePlan = valuePlan;
+        this.reusePolicy = reusePolicy;
+        this.shareImmutable = shareImmutable && valuePlan == null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void copy(final Object source, final Object destination) throws Exception {
+        Map<Object, Object> values = (Map<Object, Object>) sourceField.get(source);
+        if (values == null) {
+            destinationField.set(destination, null);
+            return;
+        }
+
+        Map<Object, Object> map = (Map<Object, Object>) destinationField.get(destination);
+        // a map present on the destination is replaced unless the reuse policy keeps it
+        if (map == null || reusePolicy == ReusePolicy.NONE) {
+            if (shareImmutable && ImmutableCollectionFactory.isImmutable(values) && mapType.isInstance(values)) {
+                destinationField.set(destination, values);
+                return;
+            }
+            map = mapFactory.apply(values.size());
+            destinationField.set(destination, map);
+        } else if (reusePolicy == ReusePolicy.UPDATE) {
+            map.keySet().retainAll(values.keySet());
+        } else {
+            map.clear();
+        }
+
+        boolean update = reusePolicy == ReusePolicy.UPDATE;
+        for (Map.Entry<Object, Object> entry : values.entrySet()) {
+            Object value = entry.getValue();
+            if (value != null && valuePlan != null) {
+                value = valuePlan.map(value, update ? map.get(entry.getKey()) : null);
+            }
+            map.put(entry.getKey(), value);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package de.johnsoneyo.mapper;
+
+import de.johnsoneyo.mapper.MappingPlanCache.ClassPair;
+import de.johnsoneyo.mapper.metrics.MapperMetrics;
+
+import java.util.Map;
+
+/**
+ * Settings of a {@link JModelMapper} shared by the plans it builds
+ */
+final class MapperConfiguration {
+
+    private final MappingEngine engine;
+    private final GeneratedMappers generatedMappers;
+    private final TypeAdapterRegistry typeAdapters;
+    private final ConverterRegistry converters;
+    private final MapperMetrics metrics;
+    private final PlanSnapshot snapshot;
+    private final boolean preserveReferences;
+    private final Traversal traversal;
+    private final boolean shareImmutableCollections;
+    private final Map<ClassPair, MappingOptions> pairOptions;
+    private final boolean bidirectional;
+
+    MapperConfiguration(final MappingEngine engine, final GeneratedMappers generatedMappers,
+                        final TypeAdapterRegistry typeAdapters, final ConverterRegistry converters,
+                        final MapperMetrics metrics, final PlanSnapshot snapshot, final boolean preserveReferences,
+                        final Traversal traversal, final boolean shareImmutableCollections,
+                        final Map<ClassPair, MappingOptions> pairOptions, final boolean bidirectional) {
+        this.engine = engine;
+        this.generatedMappers = generatedMappers;
+        this.typeAdapters = typeAdapters;
+        this.converters = converters;
+        this.metrics = metrics;
+        this.snapshot = snapshot;
+        this.preserveReferences = preserveReferences;
+        this.traversal = traversal;
+        this.shareImmutableCollections = shareImmutableCollections;
+        this.pairOptions = pairOptions;
+        this.bidirectional = bidirectional;
+    }
+
+    /**
+     * @param classLoader loader to look up generated mappers with
+     * @return reflective configuration with the default converters and without registered adapters
+     */
+    static MapperConfiguration defaults(final ClassLoader classLoader) {
+        return new MapperConfiguration(MappingEngine.REFLECTION, new GeneratedMappers(classLoader),
+                new TypeAdapterRegistry(), ConverterRegistry.defaults(), MapperMetrics.none(),
+                PlanSnapshot.NONE, false, Traversal.RECURSIVE, false, Map.of(), false);
+    }
+
+    MappingEngine engine() {
+        return engine;
+    }
+
+    GeneratedMappers generatedMappers() {
+        return generatedMappers;
+    }
+
+    TypeAdapterRegistry typeAdapters() {
+        return typeAdapters;
+    }
+
+    ConverterRegistry converters() {
+        return converters;
+    }
+
+    MapperMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * @return recipes persisted by an earlier run, {@link PlanSnapshot#NONE} when the mapper has no snapshot file
+     */
+    PlanSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @return true when every source instance of a graph is mapped once and its destination shared by all references
+     */
+    boolean preservesReferences() {
+        return preserveReferences;
+    }
+
+    Traversal traversal() {
+        return traversal;
+    }
+
+    /**
+     * @return true when immutable java runtime collections of java runtime elements are assigned instead of copied
+     */
+    boolean sharesImmutableCollections() {
+        return shareImmutableCollections;
+    }
+
+    /**
+     * @return true when every plan is built together with the plan of the opposite direction
+     */
+    boolean isBidirectional() {
+        return bidirectional;
+    }
+
+    /**
+     * @param sourceType      source class
+     * @param destinationType destination class
+     * @return options registered for the class pair, {@link MappingOptions#DEFAULT} when none are
+     */
+    MappingOptions options(final Class<?> sourceType, final Class<?> destinationType) {
+        if (pairOptions.isEmpty()) {
+            return MappingOptions.DEFAULT;
+        }
+        return pairOptions.getOrDefault(new ClassPair(sourceType, destinationType), MappingOptions.DEFAULT);
+    }
+
+    /**
+     * @return true when plans report to a recorder, false when they run without any instrumentation
+     */
+    boolean isInstrumented() {
+        return metrics != MapperMetrics.none();
+    }
+}
@@ -0,0 +1,27 @@
+package de.johnsoneyo.mapper;
+
+/**
+ * Strategy used by {@link JModelMapper} to read and write fields and to create destination instances
+ */
+public enum MappingEngine {
+
+    /**
+     * Copies fields with {@link java.lang.reflect.Field#get(Object)} and {@link java.lang.reflect.Field#set(Object, Object)},
+     * works in every environment
+     */
+    REFLECTION,
+
+    /**
+     * Resolves every field once into a getter and setter {@link java.lang.invoke.MethodHandle} and the no arg
+     * constructor into a constructor handle, skipping the access checks of reflective calls. Does not generate classes,
+     * which suits environments where runtime class definition is not allowed
+     */
+    METHOD_HANDLE,
+
+    /**
+     * Generates a dedicated mapper class per class pair at runtime, copying accessible fields with plain field
+     * instructions the JIT can inline like handwritten code. Fields the generated class cannot access fall back to
+     * {@link #METHOD_HANDLE}
+     */
+    BYTECODE
+}
@@ -0,0 +1,190 @@
+package de.johnsoneyo.mapper;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Options of a partial or conditional mapping, passed per call, registered per class pair with
+ * {@link JModelMapper.Builder#options(Class, Class, MappingOptions)} or by name as a projection with
+ * {@link JModelMapper.Builder#projection(String, MappingOptions)}
+ * <p>
+ * Field paths name destination fields, nested fields are separated by dots such as {@code address.street}. Including a
+ * nested path maps its parent with only the included nested fields, excluding a path leaves the field untouched. Every
+ * distinct set of options compiles into a plan variant of its own, so fields left out cost nothing while mapping.
+ * </p>
+ */
+public final class MappingOptions {
+
+    /**
+     * Options of a plain mapping, every field is copied including null values
+     */
+    public static final MappingOptions DEFAULT = new MappingOptions(false, Set.of(), Set.of());
+
+    private final boolean skipNulls;
+    private final Set<String> includes;
+    private final Set<String> excludes;
+    private final int hash;
+
+    private MappingOptions(final boolean skipNulls, final Set<String> includes, final Set<String> excludes) {
+        this.skipNulls = skipNulls;
+        this.includes = includes;
+        this.excludes = excludes;
+        this.hash = Objects.hash(skipNulls, includes, excludes);
+    }
+
+    /**
+     * @return builder of options
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return true when null source values leave the destination field as it is
+     */
+    public boolean isSkipNulls() {
+        return skipNulls;
+    }
+
+    /**
+     * @return paths of the only fields mapped, empty when every field is mapped
+     */
+    public Set<String> getIncludes() {
+        return includes;
+    }
+
+    /**
+     * @return paths of the fields never mapped
+     */
+    public Set<String> getExcludes() {
+        return excludes;
+    }
+
+    boolean isDefault() {
+        return this == DEFAULT || equals(DEFAULT);
+    }
+
+    /**
+     * @param field name of a destination field of the current level
+     * @return true when the field or one of its nested fields is mapped
+     */
+    boolean includes(final String field) {
+        if (excludes.contains(field)) {
+            return false;
+        }
+        if (includes.isEmpty() || includes.contains(field)) {
+            return true;
+        }
+        String prefix = field + '.';
+        for (String include : includes) {
+            if (include.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param field name of a destination field of the current level
+     * @return options of the nested bean, collection element or map value behind the field
+     */
+    MappingOptions nested(final String field) {
+        String prefix = field + '.';
+        Set<String> nestedIncludes = includes.isEmpty() || includes.contains(field)
+                ? Set.of() : strip(includes, prefix);
+        Set<String> nestedExcludes = strip(excludes, prefix);
+        if (!skipNulls && nestedIncludes.isEmpty() && nestedExcludes.isEmpty()) {
+            return DEFAULT;
+        }
+        return new MappingOptions(skipNulls, nestedIncludes, nestedExcludes);
+    }
+
+    private static Set<String> strip(final Set<String> paths, final String prefix) {
+        Set<String> stripped = new LinkedHashSet<>();
+        for (String path : paths) {
+            if (path.startsWith(prefix)) {
+                stripped.add(path.substring(prefix.length()));
+            }
+        }
+        return stripped.isEmpty() ? Set.of() : Collections.unmodifiableSet(stripped);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MappingOptions)) return false;
+        MappingOptions that = (MappingOptions) o;
+        return skipNulls == that.skipNulls && includes.equals(that.includes) && excludes.equals(that.excludes);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "MappingOptions{skipNulls=" + skipNulls + ", includes=" + includes + ", excludes=" + excludes + '}';
+    }
+
+    /**
+     * Builder of {@link MappingOptions}
+     */
+    public static final class Builder {
+
+        private boolean skipNulls;
+        private final Set<String> includes = new LinkedHashSet<>();
+        private final Set<String> excludes = new LinkedHashSet<>();
+
+        private Builder() {
+        }
+
+        /**
+         * @param skipNulls true to keep the destination value of fields whose source value is null, such as for
+         *                  updates of the changed fields only. Defaults to false
+         * @return this builder
+         */
+        public Builder skipNulls(final boolean skipNulls) {
+            this.skipNulls = skipNulls;
+            return this;
+        }
+
+        /**
+         * @param paths destination field paths to map, every other field is left out. Defaults to every field
+         * @return this builder
+         */
+        public Builder include(final String... paths) {
+            includes.addAll(Arrays.asList(requirePaths(paths)));
+            return this;
+        }
+
+        /**
+         * @param paths destination field paths never to map, such as large nested collections
+         * @return this builder
+         */
+        public Builder exclude(final String... paths) {
+            excludes.addAll(Arrays.asList(requirePaths(paths)));
+            return this;
+        }
+
+        /**
+         * @return configured options
+         */
+        public MappingOptions build() {
+            return new MappingOptions(skipNulls, Collections.unmodifiableSet(new LinkedHashSet<>(includes)),
+                    Collections.unmodifiableSet(new LinkedHashSet<>(excludes)));
+        }
+
+        private static String[] requirePaths(final String[] paths) {
+            for (String path : Objects.requireNonNull(paths, "paths are required and cannot be null")) {
+                if (path == null || path.isEmpty()) {
+                    throw new IllegalArgumentException("field paths cannot be null or empty");
+                }
+            }
+            return paths;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package de.johnsoneyo.mapper;
+
+import de.johnsoneyo.mapper.metrics.MapperMetrics.PairMetrics;
+
+/**
+ * Compiled mapping of a source class onto a destination class
+ * <p>
+ * A plan is built once per class pair by {@link MappingPlanFactory} and holds every field pair, custom field redirect,
+ * type adapter and nested plan reference already resolved, so mapping an object only runs through a flat array of
+ * {@link CopyStep}s. Plans of a mapper configured with metrics additionally report every execution and every
+ * destination instance to the recorder of their pair.
+ * </p>
+ * <p>
+ * Destination classes without no arg constructor, such as records, are created through a {@link ConstructorInstantiator}
+ * instead. Their steps write into an argument array and the instance is created once the steps are done, so such a
+ * plan cannot map into an existing instance and maps its nested beans right away even for an iterative traversal.
+ * </p>
+ */
+final class MappingPlan {
+
+    private final Class<?> sourceType;
+    private final Class<?> destinationType;
+    private final Instantiator instantiator;
+    private final ConstructorInstantiator constructor;
+    private final CopyStep[] steps;
+    private final PairMetrics metrics;
+    private final int fieldsCopied;
+    private final PlanDiagnostics diagnostics;
+    private final PlanRecipe recipe;
+    private final boolean preserveReferences;
+    private final boolean iterative;
+
+    MappingPlan(final Class<?> sourceType, final Class<?> destinationType, final Instantiator instantiator,
+                final CopyStep[] steps) {
+        this(sourceType, destinationType, instantiator, null, steps, null, 0, PlanDiagnostics.NONE, null, false,
+                false);
+    }
+
+    /**
+     * @param constructor  creates the destination from the argument array the steps write into, null when the steps
+     *                     write into an instance of the instantiator
+     * @param metrics      recorder of the pair, null when the mapper has no metrics
+     * @param fieldsCopied java runtime values copied by the steps of the plan itself
+     * @param diagnostics  problems and nested class pairs found while the plan was built
+     * @param recipe             field pairs the steps were compiled from, null for generated mappers
+     * @param preserveReferences true when the steps map shared and cyclic references through a {@link ReferenceTable}
+     * @param iterative          true when nested plans are deferred to the {@link WorkStack} of the thread
+     */
+    MappingPlan(final Class<?> sourceType, final Class<?> destinationType, final Instantiator instantiator,
+                final ConstructorInstantiator constructor, final CopyStep[] steps, final PairMetrics metrics,
+                final int fieldsCopied,
+                final PlanDiagnostics diagnostics, final PlanRecipe recipe, final boolean preserveReferences,
+                final boolean iterative) {
+        this.sourceType = sourceType;
+        this.destinationType = destinationType;
+        this.instantiator = instantiator;
+        this.constructor = constructor;
+        this.steps = steps;
+        this.metrics = metrics;
+        this.fieldsCopied = fieldsCopied;
+        this.diagnostics = diagnostics;
+        this.recipe = recipe;
+        this.preserveReferences = preserveReferences;
+        this.iterative = iterative;
+    }
+
+    /**
+     * @return true when the destination is created through a constructor taking its fields
+     */
+    boolean isConstructed() {
+        return constructor != null;
+    }
+
+    /**
+     * Maps a nested source bean into a new destination created through its constructor
+     *
+     * @param source source object to read from
+     * @return new destination instance holding the mapped fields
+     * @throws Exception when one of the steps or the constructor fails
+     */
+    Object construct(final Object source) throws Exception {
+        if (metrics != null) {
+            metrics.instanceCreated();
+        }
+        Object[] arguments = constructor.newArguments();
+        execute(source, arguments);
+        return constructor.newInstance(arguments);
+    }
+
+    /**
+     * Maps the object a caller of the mapper passed in into a new destination instance
+     *
+     * @param source source object to read from
+     * @return new destination instance
+     * @throws Exception when the destination cannot be created or one of the steps fails
+     * @see #executeTopLevel(Object, Object)
+     */
+    Object mapTopLevel(final Object source) throws Exception {
+        if (constructor == null) {
+            Object destination = newDestination();
+            executeTopLevel(source, destination);
+            return destination;
+        }
+        ReferenceTable references = preserveReferences ? ReferenceTable.enter() : null;
+        try {
+            if (references != null) {
+                references.constructing(source, destinationType);
+            }
+            if (!iterative) {
+                return construct(source);
+            }
+            // mutable nested beans of the constructed destination are still deferred to the work stack
+            WorkStack work = WorkStack.current();
+            int base = work.size();
+            Object destination = construct(source);
+            work.drain(base);
+            return destination;
+        } finally {
+            if (references != null) {
+                references.exit();
+            }
+        }
+    }
+
+    /**
+     * @return new destination instance created through the no arg constructor
+     * @throws Exception when the destination class does not declare a no arg constructor or it fails
+     */
+    Object newDestination() throws Exception {
+        if (metrics != null) {
+            metrics.instanceCreated();
+        }
+        if (instantiator == null) {
+            // surfaces the same error a plain reflective lookup would
+            return destinationType.getDeclaredConstructor().newInstance();
+        }
+        return instantiator.newInstance();
+    }
+
+    /**
+     * @param source      source object to read from
+     * @param destination destination object to write to
+     * @throws Exception when one of the steps fails
+     */
+    void execute(final Object source, final Object destination) throws Exception {
+        if (metrics != null) {
+            executeMeasured(source, destination);
+            return;
+        }
+        for (CopyStep step : steps) {
+            step.copy(source, destination);
+        }
+    }
+
+    /**
+     * Maps the object a caller of the mapper passed in, opening the {@link ReferenceTable} of the thread for the nested
+     * steps when the plan preserves references and running the deferred nested plans of an iterative traversal
+     *
+     * @param source      source object to read from
+     * @param destination destination object to write to
+     * @throws Exception when one of the steps fails
+     */
+    void executeTopLevel(final Object source, final Object destination) throws Exception {
+        if (constructor != null) {
+            throw new UnsupportedOperationException(destinationType.getName()
+                    + " is created through its constructor and cannot be mapped into an existing instance");
+        }
+        if (!preserveReferences) {
+            traverse(source, destination);
+            return;
+        }
+        ReferenceTable references = ReferenceTable.enter();
+        try {
+            references.put(source, destinationType, destination);
+            traverse(source, destination);
+        } finally {
+            references.exit();
+        }
+    }
+
+    private void traverse(final Object source, final Object destination) throws Exception {
+        if (!iterative) {
+            execute(source, destination);
+            return;
+        }
+        WorkStack work = WorkStack.current();
+        int base = work.size();
+        work.push(this, source, destination);
+        work.drain(base);
+    }
+
+    /**
+     * Maps a nested bean reached by a step of the owning plan, right away or, for an iterative traversal, once the
+     * steps of the owning plan are done
+     *
+     * @param source      nested source bean
+     * @param destination nested destination bean, already assigned to its owner
+     * @throws Exception when one of the steps fails
+     */
+    void executeNested(final Object source, final Object destination) throws Exception {
+        if (iterative && constructor == null) {
+            WorkStack.current().push(this, source, destination);
+            return;
+        }
+        execute(source, destination);
+    }
+
+    private void executeMeasured(final Object source, final Object destination) throws Exception {
+        long start = System.nanoTime();
+        for (CopyStep step : steps) {
+            step.copy(source, destination);
+        }
+        metrics.mapped(System.nanoTime() - start, fieldsCopied);
+    }
+
+    /**
+     * @return problems and nested class pairs found while the plan was built
+     */
+    PlanDiagnostics diagnostics() {
+        return diagnostics;
+    }
+
+    /**
+     * @return field pairs the steps were compiled from, null when the plan runs a generated mapper
+     */
+    PlanRecipe recipe() {
+        return recipe;
+    }
+
+    CopyStep[] steps() {
+        return steps;
+    }
+
+    Class<?> sourceType() {
+        return sourceType;
+    }
+
+    Class<?> destinationType() {
+        return destinationType;
+    }
+}
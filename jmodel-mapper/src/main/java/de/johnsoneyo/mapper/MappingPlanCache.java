@@ -0,0 +1,279 @@
+package de.johnsoneyo.mapper;
+
+import de.johnsoneyo.mapper.metrics.MapperMetrics;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Concurrent cache of {@link MappingPlan}s keyed by source and destination class
+ * <p>
+ * Every {@link ReusePolicy} compiles its own plan variant of a class pair, plans compiled with other than the
+ * {@link MappingOptions#DEFAULT} options are variants of their own as well. A bidirectional mapper builds the plan of
+ * the opposite direction right after every default plan, from the same field pairs. {@link MergePlan}s,
+ * {@link BeanMapPlan}s and {@link ViewPlan}s are further variants of their class pair. All of them are kept in one
+ * {@link PlanStore}, which holds the plans of a class no longer than the class itself and at most the configured
+ * number of plans.
+ * </p>
+ */
+final class MappingPlanCache {
+
+    private static final Variant MERGE = new Variant(Kind.MERGE, ReusePolicy.NONE, MappingOptions.DEFAULT);
+    private static final Variant BEAN_MAP = new Variant(Kind.BEAN_MAP, ReusePolicy.NONE, MappingOptions.DEFAULT);
+    private static final Variant VIEW = new Variant(Kind.VIEW, ReusePolicy.NONE, MappingOptions.DEFAULT);
+
+    private final PlanStore store;
+    private final MappingPlanFactory factory;
+    private final TypeAdapterRegistry typeAdapters;
+    private final MapperMetrics metrics;
+    private final boolean bidirectional;
+
+    /**
+     * @param configuration settings of the mapper owning the cache
+     */
+    MappingPlanCache(final MapperConfiguration configuration) {
+        this(configuration, Integer.MAX_VALUE, EvictionPolicy.LEAST_RECENTLY_USED);
+    }
+
+    /**
+     * @param configuration  settings of the mapper owning the cache
+     * @param maximumSize    number of plans of all variants kept at most
+     * @param evictionPolicy plan dropped once the cache is full
+     */
+    MappingPlanCache(final MapperConfiguration configuration, final int maximumSize,
+                     final EvictionPolicy evictionPolicy) {
+        this.store = new PlanStore(configuration.generatedMappers().classLoader(), maximumSize, evictionPolicy);
+        this.factory = new MappingPlanFactory(this, configuration);
+        this.typeAdapters = configuration.typeAdapters();
+        this.metrics = configuration.isInstrumented() ? configuration.metrics() : null;
+        this.bidirectional = configuration.isBidirectional();
+    }
+
+    /**
+     * @param sourceType      source class
+     * @param destinationType destination class
+     * @return cached plan for the class pair creating new nested beans, built on first request
+     */
+    MappingPlan plan(final Class<?> sourceType, final Class<?> destinationType) {
+        return plan(sourceType, destinationType, ReusePolicy.NONE);
+    }
+
+    /**
+     * @param sourceType      source class
+     * @param destinationType destination class
+     * @param reusePolicy     treatment of nested beans and collections present on the destination
+     * @return cached plan variant for the class pair, built on first request
+     */
+    MappingPlan plan(final Class<?> sourceType, final Class<?> destinationType, final ReusePolicy reusePolicy) {
+        // the policy itself is the variant of a default plan, so the common lookup allocates no variant key
+        return plan(sourceType, destinationType, reusePolicy, reusePolicy, MappingOptions.DEFAULT);
+    }
+
+    /**
+     * @param sourceType      source class
+     * @param destinationType destination class
+     * @param reusePolicy     treatment of nested beans and collections present on the destination
+     * @param options         fields left out and null handling of the plan
+     * @return cached plan variant for the class pair and options, built on first request
+     */
+    MappingPlan plan(final Class<?> sourceType, final Class<?> destinationType, final ReusePolicy reusePolicy,
+                     final MappingOptions options) {
+        if (options.isDefault()) {
+            return plan(sourceType, destinationType, reusePolicy);
+        }
+        return plan(sourceType, destinationType, new Variant(Kind.PLAN, reusePolicy, options), reusePolicy, options);
+    }
+
+    private MappingPlan plan(final Class<?> sourceType, final Class<?> destinationType, final Object variant,
+                             final ReusePolicy reusePolicy, final MappingOptions options) {
+        MappingPlan plan = (MappingPlan) store.get(sourceType, destinationType, variant);
+        if (plan == null) {
+            long start = metrics != null ? System.nanoTime() : 0L;
+            // built outside of the store so nested lookups never re-enter a map update
+            MappingPlan created = factory.create(sourceType, destinationType, reusePolicy, options);
+            plan = (MappingPlan) store.putIfAbsent(sourceType, destinationType, variant, created);
+            if (plan == null) {
+                plan = created;
+                if (bidirectional && options.isDefault()) {
+                    reverse(created, reusePolicy);
+                }
+            }
+            if (metrics != null) {
+                metrics.planCacheMiss(System.nanoTime() - start);
+            }
+        } else if (metrics != null) {
+            metrics.planCacheHit();
+        }
+        return plan;
+    }
+
+    /**
+     * @param sourceType      source class
+     * @param destinationType runtime class of the destination merged into
+     * @param options         fields left out and null handling of the plan
+     * @return cached merge plan for the class pair and options, built on first request
+     */
+    MergePlan merge(final Class<?> sourceType, final Class<?> destinationType, final MappingOptions options) {
+        // merge plans always map values with new nested beans before comparing them
+        Variant variant = options.isDefault() ? MERGE : new Variant(Kind.MERGE, ReusePolicy.NONE, options);
+        MergePlan plan = (MergePlan) store.get(sourceType, destinationType, variant);
+        if (plan == null) {
+            MergePlan created = factory.merge(sourceType, destinationType, options);
+            plan = (MergePlan) store.putIfAbsent(sourceType, destinationType, variant, created);
+            if (plan == null) {
+                plan = created;
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * @param beanType bean class mapped to and from a map
+     * @return cached plan of the bean class, built on first request
+     */
+    BeanMapPlan beanMap(final Class<?> beanType) {
+        BeanMapPlan plan = (BeanMapPlan) store.get(beanType, beanType, BEAN_MAP);
+        if (plan == null) {
+            BeanMapPlan created = factory.beanMap(beanType);
+            plan = (BeanMapPlan) store.putIfAbsent(beanType, beanType, BEAN_MAP, created);
+            if (plan == null) {
+                plan = created;
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * @param sourceType source class
+     * @param viewType   view interface
+     * @return cached properties of the view resolved against the source class, built on first request
+     * @throws IllegalArgumentException when a getter cannot be produced from the source field of its property
+     */
+    ViewPlan view(final Class<?> sourceType, final Class<?> viewType) {
+        ViewPlan plan = (ViewPlan) store.get(sourceType, viewType, VIEW);
+        if (plan == null) {
+            ViewPlan created = factory.view(sourceType, viewType);
+            plan = (ViewPlan) store.putIfAbsent(sourceType, viewType, VIEW, created);
+            if (plan == null) {
+                plan = created;
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Builds the plan of the opposite direction from the field pairs of a plan just built, unless it exists already
+     */
+    private void reverse(final MappingPlan plan, final ReusePolicy reusePolicy) {
+        PlanRecipe recipe = plan.recipe();
+        if (recipe == null || plan.sourceType() == plan.destinationType()) {
+            return;
+        }
+        if (store.get(plan.destinationType(), plan.sourceType(), reusePolicy) == null) {
+            store.putIfAbsent(plan.destinationType(), plan.sourceType(), reusePolicy,
+                    factory.reverse(recipe, reusePolicy));
+        }
+    }
+
+    /**
+     * @return field pairs of every class pair with a plan cached, once per pair across all plan variants
+     */
+    Collection<PlanRecipe> recipes() {
+        Map<ClassPair, PlanRecipe> recipes = new HashMap<>();
+        for (Object plan : store.values(variant -> variant instanceof ReusePolicy)) {
+            PlanRecipe recipe = ((MappingPlan) plan).recipe();
+            if (recipe != null) {
+                recipes.putIfAbsent(new ClassPair(recipe.sourceType(), recipe.destinationType()), recipe);
+            }
+        }
+        return recipes.values();
+    }
+
+    /**
+     * @return number of plans cached across all variants
+     */
+    int size() {
+        return store.size();
+    }
+
+    /**
+     * Drops every cached plan and every adapter created for the plans, plans are built anew on their next use
+     */
+    void clear() {
+        store.clear();
+        typeAdapters.clear();
+    }
+
+    /**
+     * Kind of plan cached for a class pair
+     */
+    private enum Kind {
+        PLAN, MERGE, BEAN_MAP, VIEW
+    }
+
+    /**
+     * Cache key of a plan variant other than a default plan
+     */
+    private static final class Variant {
+
+        private final Kind kind;
+        private final ReusePolicy reusePolicy;
+        private final MappingOptions options;
+
+        private Variant(final Kind kind, final ReusePolicy reusePolicy, final MappingOptions options) {
+            this.kind = kind;
+            this.reusePolicy = reusePolicy;
+            this.options = options;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Variant)) return false;
+            Variant variant = (Variant) o;
+            return kind == variant.kind && reusePolicy == variant.reusePolicy && options.equals(variant.options);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, reusePolicy, options);
+        }
+    }
+
+    /**
+     * Cache key of a source and destination class
+     */
+    static final class ClassPair {
+
+        private final Class<?> sourceType;
+        private final Class<?> destinationType;
+
+        ClassPair(final Class<?> sourceType, final Class<?> destinationType) {
+            this.sourceType = sourceType;
+            this.destinationType = destinationType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ClassPair)) return false;
+            ClassPair classPair = (ClassPair) o;
+            return sourceType == classPair.sourceType && destinationType == classPair.destinationType;
+        }
+
+        Class<?> sourceType() {
+            return sourceType;
+        }
+
+        Class<?> destinationType() {
+            return destinationType;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sourceType, destinationType);
+        }
+    }
+}
@@ -0,0 +1,839 @@
+package de.johnsoneyo.mapper;
+
+import de.johnsoneyo.mapper.JModelMapperUtils.ImmutableCollectionFactory;
+import de.johnsoneyo.mapper.JModelMapperUtils.Utils;
+import de.johnsoneyo.mapper.decorator.BatchTypeAdapter;
+import de.johnsoneyo.mapper.decorator.BidirectionalTypeAdapter;
+import de.johnsoneyo.mapper.decorator.ClassFieldMapping;
+import de.johnsoneyo.mapper.decorator.SourceFieldMapping;
+import de.johnsoneyo.mapper.decorator.TransformToType;
+import de.johnsoneyo.mapper.decorator.TypeAdapter;
+import de.johnsoneyo.mapper.metrics.MapperMetrics.PairMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Resolves the {@link CopyStep}s of a {@link MappingPlan} for a source and destination class
+ * <p>
+ * All reflective lookups and annotation scans happen here, once per class pair. They first resolve the field pairs into
+ * a {@link PlanRecipe}, unless the {@link PlanSnapshot} of the mapper holds a current one, which is then compiled into
+ * the steps of the configured engine.
+ * </p>
+ */
+final class MappingPlanFactory {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MappingPlanFactory.class);
+
+    private final MappingPlanCache plans;
+    private final MapperConfiguration configuration;
+    private final MappingEngine engine;
+    private final boolean preserveReferences;
+    private final boolean iterative;
+    private final boolean shareImmutableCollections;
+
+    MappingPlanFactory(final MappingPlanCache plans, final MapperConfiguration configuration) {
+        this.plans = plans;
+        this.configuration = configuration;
+        this.engine = configuration.engine();
+        this.preserveReferences = configuration.preservesReferences();
+        this.iterative = configuration.traversal() == Traversal.ITERATIVE;
+        this.shareImmutableCollections = configuration.sharesImmutableCollections();
+    }
+
+    /**
+     * @param sourceType      source class
+     * @param destinationType destination class
+     * @param reusePolicy     treatment of nested beans and collections present on the destination
+     * @param options         fields left out and null handling, the options registered for the class pair apply in
+     *                        place of {@link MappingOptions#DEFAULT}
+     * @return plan with all field pairs of the classes resolved
+     */
+    MappingPlan create(final Class<?> sourceType, final Class<?> destinationType, final ReusePolicy reusePolicy,
+                       final MappingOptions options) {
+
+        return create(sourceType, destinationType, reusePolicy, options, null);
+    }
+
+    /**
+     * @param recipe      field pairs of a plan built before
+     * @param reusePolicy treatment of nested beans and collections present on the destination
+     * @return plan mapping the destination class of the recipe back onto its source class, from the reversed field
+     * pairs unless a mapper generated at compile time covers that direction
+     */
+    MappingPlan reverse(final PlanRecipe recipe, final ReusePolicy reusePolicy) {
+        return create(recipe.destinationType(), recipe.sourceType(), reusePolicy, MappingOptions.DEFAULT,
+                recipe.reverse());
+    }
+
+    private MappingPlan create(final Class<?> sourceType, final Class<?> destinationType,
+                               final ReusePolicy reusePolicy, final MappingOptions options,
+                               final PlanRecipe derived) {
+
+        MappingOptions planOptions = options.isDefault() ? configuration.options(sourceType, destinationType) : options;
+
+        // mappers generated at compile time replace the whole reflective plan, they always create nested beans with
+        // nested calls of their own, copy every field and convert through adapters they create themselves
+        GeneratedMapper<?, ?> generatedMapper = reusePolicy == ReusePolicy.NONE && !preserveReferences && !iterative
+                && planOptions.isDefault() ? configuration.generatedMappers().find(sourceType, destinationType) : null;
+        if (generatedMapper != null && usesRegisteredAdapter(generatedMapper)) {
+            generatedMapper = null;
+        }
+        PairMetrics metrics = configuration.isInstrumented()
+                ? configuration.metrics().pair(sourceType, destinationType) : null;
+        if (generatedMapper != null) {
+            return generated(generatedMapper, metrics);
+        }
+
+        // a derived or snapshot recipe saves the field scan and annotation lookups, stale or missing snapshot entries
+        // are resolved anew
+        PlanRecipe recipe = derived != null ? derived : configuration.snapshot().recipe(sourceType, destinationType);
+        if (recipe == null) {
+            recipe = recipe(sourceType, destinationType);
+        }
+        return compile(recipe, reusePolicy, planOptions, metrics);
+    }
+
+    /**
+     * @param sourceType      source class
+     * @param destinationType destination class
+     * @param options         fields left out and null handling, the options registered for the class pair apply in
+     *                        place of {@link MappingOptions#DEFAULT}
+     * @return merge plan running the steps of a regular plan per field, into a scratch slot compared with the
+     * destination value before it is written
+     */
+    MergePlan merge(final Class<?> sourceType, final Class<?> destinationType, final MappingOptions options) {
+
+        MappingOptions planOptions = options.isDefault() ? configuration.options(sourceType, destinationType) : options;
+        PairMetrics metrics = configuration.isInstrumented()
+                ? configuration.metrics().pair(sourceType, destinationType) : null;
+        PlanRecipe recipe = configuration.snapshot().recipe(sourceType, destinationType);
+        if (recipe == null) {
+            recipe = recipe(sourceType, destinationType);
+        }
+
+        // problems of the field pairs are reported by the regular plan already
+        PlanDiagnostics diagnostics = new PlanDiagnostics();
+        List<String> fields = new ArrayList<>(FieldHierarchy.fields(destinationType).keySet());
+        List<MergeStep> steps = new ArrayList<>(recipe.entries().size());
+        boolean immutable = false;
+        for (PlanRecipe.Entry entry : recipe.entries()) {
+            Field sourceField = entry.sourceField();
+            Field destinationField = entry.destinationField();
+            MappingOptions nested = selected(planOptions, List.of(), destinationField);
+            if (!entry.destinationPath().isEmpty() || nested == null) {
+                continue;
+            }
+            if (entry.kind() == PlanRecipe.Kind.FLATTEN) {
+                steps.add(new FlattenMergeStep(accessor(sourceField), new MergeReference(plans, planOptions)));
+                continue;
+            }
+            // the step maps the value with new nested beans and collections into the slot, compared before it is kept
+            CopyStep step = step(entry, new ArgumentSlot(destinationField, 0), destinationType, ReusePolicy.NONE,
+                    planOptions, nested, metrics, diagnostics);
+            if (step == null) {
+                continue;
+            }
+            FieldAccessor nonNullField = planOptions.isSkipNulls() && !sourceField.getType().isPrimitive()
+                    ? accessor(sourceField) : null;
+            immutable |= Modifier.isFinal(destinationField.getModifiers());
+            int slot = fields.indexOf(destinationField.getName());
+            MergeStep merge = new ValueMergeStep(step, accessors(entry.sourcePath(), null), nonNullField,
+                    accessor(destinationField), slot, iterative, plans);
+            if (entry.kind() == PlanRecipe.Kind.BEAN && entry.sourcePath().isEmpty()) {
+                merge = new BeanMergeStep(accessor(sourceField), accessor(destinationField), merge,
+                        new MergeReference(plans, nested), slot);
+            }
+            steps.add(merge);
+        }
+
+        return new MergePlan(sourceType, destinationType, fields.toArray(new String[0]),
+                steps.toArray(new MergeStep[0]), immutable, preserveReferences);
+    }
+
+    /**
+     * @param sourceType source class
+     * @param viewType   view interface
+     * @return properties of the view resolved against the source class
+     * @throws IllegalArgumentException when a getter cannot be produced from the source field of its property
+     */
+    ViewPlan view(final Class<?> sourceType, final Class<?> viewType) {
+        return ViewPlan.create(sourceType, viewType, configuration);
+    }
+
+    /**
+     * @param beanType bean class mapped to and from a map
+     * @return plan reading and writing every field of the class by its name
+     * @throws IllegalArgumentException when the class is a java runtime class
+     */
+    BeanMapPlan beanMap(final Class<?> beanType) {
+        if (Utils.isJavaType(beanType)) {
+            throw new IllegalArgumentException(beanType.getName() + " is no bean to map to or from a map");
+        }
+        Instantiator instantiator = instantiator(beanType);
+        ConstructorLayout layout = instantiator == null ? ConstructorLayout.of(beanType) : null;
+
+        Collection<Field> fields = FieldHierarchy.fields(beanType).values();
+        String[] keys = new String[fields.size()];
+        FieldAccessor[] accessors = new FieldAccessor[keys.length];
+        FieldAccessor[] destinations = new FieldAccessor[keys.length];
+        Class<?>[] types = new Class<?>[keys.length];
+        boolean[] beans = new boolean[keys.length];
+        int i = 0;
+        for (Field field : fields) {
+            keys[i] = field.getName();
+            accessors[i] = accessor(field);
+            // final fields outside the constructor are assigned by the constructor itself
+            destinations[i] = layout == null ? accessors[i]
+                    : layout.slot(field) < 0 ? null : new ArgumentSlot(field, layout.slot(field));
+            types[i] = field.getType();
+            beans[i] = !Utils.isJavaType(field.getType()) && !isContainer(field.getType())
+                    && !field.getType().isInterface() && !field.getType().isEnum();
+            i++;
+        }
+        return new BeanMapPlan(beanType, keys, accessors, destinations, types, beans, instantiator,
+                constructor(layout), plans, configuration.converters());
+    }
+
+    /**
+     * @param sourceType      source class
+     * @param destinationType destination class
+     * @return field pairs of the classes resolved from their declarations
+     */
+    static PlanRecipe recipe(final Class<?> sourceType, final Class<?> destinationType) {
+
+        // break chain when class is a java runtime class
+        if (Utils.isJavaType(sourceType)) {
+            return new PlanRecipe(sourceType, destinationType, List.of(), List.of());
+        }
+
+        Map<String, Field> sourceFields = FieldHierarchy.fields(sourceType);
+        Map<String, Field> destinationFields = FieldHierarchy.fields(destinationType);
+        Map<String, List<Field>> redirects = redirects(destinationFields.values());
+        List<PlanRecipe.Entry> pathEntries = pathEntries(sourceType, destinationType, sourceFields.values(),
+                destinationFields.values());
+
+        List<PlanRecipe.Entry> entries = new ArrayList<>();
+        List<String> unmapped = new ArrayList<>(0);
+        for (Field sourceField : sourceFields.values()) {
+
+            Field destinationField = destinationFields.get(sourceField.getName());
+            if (destinationField == null && (Utils.isJavaType(sourceField.getType())
+                    || isContainer(sourceField.getType()))
+                    && !redirects.containsKey(sourceField.getName()) && !isWrittenThroughPath(sourceField, pathEntries)) {
+                unmapped.add(sourceField.getName());
+            }
+
+            // collections, arrays and maps are mapped element by element
+            if (isContainer(sourceField.getType())) {
+                PlanRecipe.Entry entry = destinationField != null ? containerEntry(sourceField, destinationField) : null;
+                if (entry != null) {
+                    entries.add(entry);
+                }
+                continue;
+            }
+
+            if (destinationField == null) {
+                if (Utils.isJavaType(sourceField.getType())) {
+                    // custom field mapping declared on the destination
+                    for (Field redirect : redirects.getOrDefault(sourceField.getName(), List.of())) {
+                        entries.add(new PlanRecipe.Entry(PlanRecipe.Kind.VALUE, sourceField, redirect, null, null));
+                    }
+                } else {
+                    // fields of a nested bean without counterpart are mapped onto the destination itself
+                    entries.add(new PlanRecipe.Entry(PlanRecipe.Kind.FLATTEN, sourceField, null, null, null));
+                }
+                continue;
+            }
+
+            if (Utils.isJavaType(sourceField.getType())) {
+                entries.add(valueEntry(sourceField, destinationField));
+            } else {
+                entries.add(new PlanRecipe.Entry(PlanRecipe.Kind.BEAN, sourceField, destinationField, null, null));
+            }
+        }
+        entries.addAll(pathEntries);
+        return new PlanRecipe(sourceType, destinationType, entries, unmapped);
+    }
+
+    /**
+     * Resolves the dotted field paths declared with {@link SourceFieldMapping}. A path declared on a destination field
+     * reads a field of a nested source bean, a path declared on a source field writes into a field of a nested
+     * destination bean, so one declaration flattens and unflattens. Paths the other class cannot resolve are ignored
+     * like unmatched source field names.
+     *
+     * @return field pairs read or written through a path
+     */
+    private static List<PlanRecipe.Entry> pathEntries(final Class<?> sourceType, final Class<?> destinationType,
+                                                      final Collection<Field> sourceFields,
+                                                      final Collection<Field> destinationFields) {
+        List<PlanRecipe.Entry> entries = new ArrayList<>(0);
+        for (Field destinationField : destinationFields) {
+            for (String path : fieldPaths(destinationField)) {
+                List<Field> sourcePath = resolve(sourceType, path);
+                PlanRecipe.Entry entry = sourcePath != null
+                        ? pairEntry(sourcePath.remove(sourcePath.size() - 1), destinationField) : null;
+                if (entry != null) {
+                    entries.add(entry.along(List.copyOf(sourcePath), List.of()));
+                }
+            }
+        }
+        for (Field sourceField : sourceFields) {
+            for (String path : fieldPaths(sourceField)) {
+                List<Field> destinationPath = resolve(destinationType, path);
+                PlanRecipe.Entry entry = destinationPath != null
+                        ? pairEntry(sourceField, destinationPath.remove(destinationPath.size() - 1)) : null;
+                if (entry != null) {
+                    entries.add(entry.along(List.of(), List.copyOf(destinationPath)));
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static boolean isWrittenThroughPath(final Field sourceField, final List<PlanRecipe.Entry> pathEntries) {
+        for (PlanRecipe.Entry entry : pathEntries) {
+            if (entry.sourceField().equals(sourceField) && !entry.destinationPath().isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return entry of a field pair matched by name or path, null when the destination field cannot hold the value
+     */
+    private static PlanRecipe.Entry pairEntry(final Field sourceField, final Field destinationField) {
+        Class<?> type = sourceField.getType();
+        if (isContainer(type)) {
+            return containerEntry(sourceField, destinationField);
+        }
+        if (Utils.isJavaType(type)) {
+            return valueEntry(sourceField, destinationField);
+        }
+        return new PlanRecipe.Entry(PlanRecipe.Kind.BEAN, sourceField, destinationField, null, null);
+    }
+
+    /**
+     * @param type class the path starts at
+     * @param path dotted field names, every name but the last one of a nested bean field
+     * @return fields along the path, null when the class cannot resolve it
+     */
+    private static List<Field> resolve(final Class<?> type, final String path) {
+        String[] names = path.split("\\.");
+        List<Field> fields = new ArrayList<>(names.length);
+        Class<?> current = type;
+        for (int i = 0; i < names.length; i++) {
+            Field field = Utils.isJavaType(current) ? null : FieldHierarchy.fields(current).get(names[i]);
+            if (field == null || i < names.length - 1 && isContainer(field.getType())) {
+                return null;
+            }
+            fields.add(field);
+            current = field.getType();
+        }
+        return fields;
+    }
+
+    /**
+     * @return dotted field paths declared on the field with {@link ClassFieldMapping}
+     */
+    private static List<String> fieldPaths(final Field field) {
+        ClassFieldMapping classFieldMapping = field.getDeclaredAnnotation(ClassFieldMapping.class);
+        if (classFieldMapping == null) {
+            return List.of();
+        }
+        List<String> paths = new ArrayList<>(0);
+        for (SourceFieldMapping sfm : classFieldMapping.fields()) {
+            if (sfm.sourceField().indexOf('.') >= 0) {
+                paths.add(sfm.sourceField());
+            }
+        }
+        return paths;
+    }
+
+    private static boolean isContainer(final Class<?> type) {
+        return type.isArray() || Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type);
+    }
+
+    /**
+     * @return entry of a collection, array or map field pair, null when the destination field cannot hold the source
+     * elements
+     */
+    private static PlanRecipe.Entry containerEntry(final Field sourceField, final Field destinationField) {
+        Class<?> sourceType = sourceField.getType();
+        Class<?> destinationType = destinationField.getType();
+        if (Map.class.isAssignableFrom(sourceType)) {
+            return Map.class.isAssignableFrom(destinationType)
+                    ? new PlanRecipe.Entry(PlanRecipe.Kind.MAP, sourceField, destinationField,
+                    typeArgument(destinationField, 1), typeArgument(sourceField, 1))
+                    : null;
+        }
+        if (destinationType.isArray()) {
+            return new PlanRecipe.Entry(PlanRecipe.Kind.ARRAY, sourceField, destinationField,
+                    destinationType.getComponentType(), elementType(sourceField));
+        }
+        if (Collection.class.isAssignableFrom(destinationType)) {
+            return new PlanRecipe.Entry(PlanRecipe.Kind.COLLECTION, sourceField, destinationField,
+                    elementType(destinationField), elementType(sourceField));
+        }
+        return null;
+    }
+
+    private static PlanRecipe.Entry valueEntry(final Field sourceField, final Field destinationField) {
+        if (destinationField.getType() == sourceField.getType()) {
+            return new PlanRecipe.Entry(PlanRecipe.Kind.VALUE, sourceField, destinationField, null, null);
+        }
+        // declared adapters take precedence over the converters of the mapper
+        TransformToType transformToType = destinationField.getDeclaredAnnotation(TransformToType.class);
+        if (transformToType != null) {
+            return new PlanRecipe.Entry(PlanRecipe.Kind.ADAPTED, sourceField, destinationField,
+                    transformToType.typeAdapter(), null);
+        }
+        return new PlanRecipe.Entry(PlanRecipe.Kind.CONVERTED, sourceField, destinationField, null, null);
+    }
+
+    /**
+     * @param recipe      resolved field pairs
+     * @param reusePolicy treatment of nested beans and collections present on the destination
+     * @param options     fields left out and null handling of the plan
+     * @param metrics     recorder of the pair, null when the mapper has no metrics
+     * @return plan running the steps of the configured engine for the field pairs
+     */
+    private MappingPlan compile(final PlanRecipe recipe, final ReusePolicy reusePolicy, final MappingOptions options,
+                                final PairMetrics metrics) {
+
+        Class<?> sourceType = recipe.sourceType();
+        Class<?> destinationType = recipe.destinationType();
+        PlanDiagnostics diagnostics = new PlanDiagnostics();
+        Instantiator instantiator = instantiator(destinationType);
+        ConstructorLayout layout = instantiator == null ? ConstructorLayout.of(destinationType) : null;
+        if (instantiator == null && layout == null) {
+            diagnostics.problem(destinationType.getName() + " has neither a no arg constructor nor a constructor "
+                    + "taking its fields");
+        }
+
+        for (String fieldName : recipe.unmapped()) {
+            // reported once per plan instead of once per mapping
+            LOG.warn("field {} of {} not found in {}", fieldName, sourceType.getName(), destinationType.getName());
+            if (metrics != null) {
+                metrics.unmappedField(fieldName);
+            }
+        }
+
+        List<CopyStep> steps = new ArrayList<>(recipe.entries().size());
+        int fieldsCopied = 0;
+        for (PlanRecipe.Entry entry : recipe.entries()) {
+            Field sourceField = entry.sourceField();
+            Field destinationField = entry.destinationField();
+            List<Field> destinationPath = entry.destinationPath();
+            Field topField = destinationPath.isEmpty() ? destinationField : destinationPath.get(0);
+            if (layout != null && topField != null && layout.slot(topField) < 0) {
+                // final fields outside the constructor are assigned by the constructor itself
+                continue;
+            }
+            MappingOptions nested = selected(options, destinationPath, destinationField);
+            if (nested == null) {
+                // fields left out by the options get no step at all
+                continue;
+            }
+            // fields written through a path belong to a nested bean, never to the constructor arguments
+            ConstructorLayout fieldLayout = destinationPath.isEmpty() ? layout : null;
+            FieldAccessor destination = destinationField == null ? null : destination(destinationField, fieldLayout);
+            CopyStep step = step(entry, destination, destinationType, reusePolicy, options, nested, metrics,
+                    diagnostics);
+            if (step == null) {
+                continue;
+            }
+            if (step instanceof ValueStep || step instanceof PrimitiveStep || step instanceof AdaptedValueStep
+                    || step instanceof BatchedValueStep) {
+                fieldsCopied++;
+            }
+            // primitive fields are never null and keep their fusable steps, flattened beans and field paths skip null
+            // values anyway
+            if (options.isSkipNulls() && !sourceField.getType().isPrimitive() && !(step instanceof FlattenStep)
+                    && destinationPath.isEmpty()) {
+                step = new NonNullStep(accessor(sourceField), step);
+            }
+            if (!destinationPath.isEmpty()) {
+                step = pathWriteStep(sourceField, destinationPath, layout, step, diagnostics);
+            }
+            if (!entry.sourcePath().isEmpty() && step != null) {
+                step = new PathReadStep(accessors(entry.sourcePath(), null), step);
+            }
+            if (step != null) {
+                steps.add(step);
+            }
+        }
+
+        // steps of a constructed destination write into an argument array the generated copies cannot address
+        CopyStep[] compiled = engine == MappingEngine.BYTECODE && layout == null
+                ? BytecodeMapperGenerator.fuse(sourceType, destinationType, steps)
+                : steps.toArray(new CopyStep[0]);
+        return new MappingPlan(sourceType, destinationType, instantiator, constructor(layout), compiled, metrics,
+                fieldsCopied, diagnostics, recipe, preserveReferences, iterative);
+    }
+
+    /**
+     * @param entry           resolved field pair
+     * @param destination     accessor the step writes the mapped value through, null for flattened beans
+     * @param destinationType destination class of the plan
+     * @param options         options of the plan
+     * @param nested          options of the nested bean, elements or values behind the destination field
+     * @return step copying the field pair, null when the field pair cannot be mapped
+     */
+    @SuppressWarnings("unchecked")
+    private CopyStep step(final PlanRecipe.Entry entry, final FieldAccessor destination,
+                          final Class<?> destinationType, final ReusePolicy reusePolicy, final MappingOptions options,
+                          final MappingOptions nested, final PairMetrics metrics, final PlanDiagnostics diagnostics) {
+
+        Field sourceField = entry.sourceField();
+        Field destinationField = entry.destinationField();
+        switch (entry.kind()) {
+            case VALUE:
+                checkAssignable(sourceField, destinationField, diagnostics);
+                return new ValueStep(accessor(sourceField), destination);
+            case CONVERTED:
+                return convertedStep(sourceField, destinationField, destination, metrics, diagnostics);
+            case ADAPTED:
+                TypeAdapter<Object, Object> typeAdapter = configuration.typeAdapters()
+                        .get((Class<? extends TypeAdapter>) entry.type());
+                return adaptedStep(accessor(sourceField), destination, typeAdapter, metrics);
+            case REVERSE_ADAPTED:
+                TypeAdapter<Object, Object> reverseAdapter = configuration.typeAdapters()
+                        .get((Class<? extends TypeAdapter>) entry.type());
+                if (!(reverseAdapter instanceof BidirectionalTypeAdapter)) {
+                    diagnostics.problem("field " + destinationField.getName() + " of "
+                            + destinationField.getDeclaringClass().getName() + " cannot be mapped back from field "
+                            + sourceField.getName() + ", " + entry.type().getName() + " is no "
+                            + BidirectionalTypeAdapter.class.getSimpleName());
+                    return null;
+                }
+                BidirectionalTypeAdapter<Object, Object> bidirectional =
+                        (BidirectionalTypeAdapter<Object, Object>) reverseAdapter;
+                return new AdaptedValueStep(accessor(sourceField), destination,
+                        counted(bidirectional::reverse, metrics));
+            case BEAN:
+                diagnostics.dependency(sourceField.getType(), destinationField.getType());
+                return new BeanStep(accessor(sourceField), destination,
+                        new PlanReference(plans, destinationField.getType(), reusePolicy, nested), reusePolicy,
+                        preserveReferences);
+            case FLATTEN:
+                diagnostics.dependency(sourceField.getType(), destinationType);
+                // flattened fields land on the destination itself, so they share its options
+                return new FlattenStep(accessor(sourceField),
+                        new PlanReference(plans, destinationType, reusePolicy, options));
+            case COLLECTION:
+                IntFunction<Collection<Object>> collectionFactory =
+                        ImmutableCollectionFactory.collectionFactory(destinationField.getType());
+                if (collectionFactory == null) {
+                    unsupportedContainer(destinationField, diagnostics);
+                    return null;
+                }
+                return new CollectionStep(accessor(sourceField), destination, destinationField.getType(),
+                        collectionFactory, elementPlan(entry, reusePolicy, nested, diagnostics), reusePolicy,
+                        shareImmutableCollections);
+            case ARRAY:
+                Class<?> componentType = entry.type();
+                Class<?> sourceComponentType = sourceField.getType().getComponentType();
+                ElementPlan componentPlan = elementPlan(entry, reusePolicy, nested, diagnostics);
+                boolean bulk = componentPlan == null && sourceComponentType != null
+                        && (sourceComponentType == componentType || !sourceComponentType.isPrimitive()
+                        && !componentType.isPrimitive() && componentType.isAssignableFrom(sourceComponentType));
+                return new ArrayStep(accessor(sourceField), destination, componentType, componentPlan, bulk);
+            case MAP:
+                IntFunction<Map<Object, Object>> mapFactory =
+                        ImmutableCollectionFactory.mapFactory(destinationField.getType());
+                if (mapFactory == null) {
+                    unsupportedContainer(destinationField, diagnostics);
+                    return null;
+                }
+                return new MapStep(accessor(sourceField), destination, destinationField.getType(), mapFactory,
+                        elementPlan(entry, reusePolicy, nested, diagnostics), reusePolicy, shareImmutableCollections);
+            default:
+                throw new IllegalStateException("unknown field pair kind " + entry.kind());
+        }
+    }
+
+    /**
+     * @param destinationPath nested bean fields leading to the destination field
+     * @return options of the nested bean, elements or values behind the destination field, null when the options leave
+     * the field out
+     */
+    private static MappingOptions selected(final MappingOptions options, final List<Field> destinationPath,
+                                           final Field destinationField) {
+        if (destinationField == null) {
+            return options;
+        }
+        MappingOptions selected = options;
+        for (Field field : destinationPath) {
+            if (!selected.includes(field.getName())) {
+                return null;
+            }
+            selected = selected.nested(field.getName());
+        }
+        return selected.includes(destinationField.getName()) ? selected.nested(destinationField.getName()) : null;
+    }
+
+    /**
+     * @return step creating the missing nested beans of the path before writing the field, null when a nested bean has
+     * no no arg constructor
+     */
+    private CopyStep pathWriteStep(final Field sourceField, final List<Field> destinationPath,
+                                   final ConstructorLayout layout, final CopyStep step,
+                                   final PlanDiagnostics diagnostics) {
+        Instantiator[] instantiators = new Instantiator[destinationPath.size()];
+        for (int i = 0; i < instantiators.length; i++) {
+            Class<?> type = destinationPath.get(i).getType();
+            instantiators[i] = instantiator(type);
+            if (instantiators[i] == null) {
+                diagnostics.problem(type.getName() + " has no no arg constructor to create for field "
+                        + destinationPath.get(i).getName() + " of " + destinationPath.get(i).getDeclaringClass().getName());
+                return null;
+            }
+        }
+        FieldAccessor source = sourceField.getType().isPrimitive() ? null : accessor(sourceField);
+        return new PathWriteStep(source, accessors(destinationPath, layout), instantiators, step);
+    }
+
+    /**
+     * @param layout constructor of the class declaring the first field, null when it is created through its no arg
+     *               constructor
+     * @return accessors of the fields along a path
+     */
+    private FieldAccessor[] accessors(final List<Field> path, final ConstructorLayout layout) {
+        FieldAccessor[] accessors = new FieldAccessor[path.size()];
+        for (int i = 0; i < accessors.length; i++) {
+            accessors[i] = i == 0 ? destination(path.get(0), layout) : accessor(path.get(i));
+        }
+        return accessors;
+    }
+
+    /**
+     * @return plan of the bean elements of a collection, array or map entry, null for java runtime elements
+     */
+    private ElementPlan elementPlan(final PlanRecipe.Entry entry, final ReusePolicy reusePolicy,
+                                    final MappingOptions options, final PlanDiagnostics diagnostics) {
+        Class<?> elementType = entry.type();
+        if (Utils.isJavaType(elementType)) {
+            return null;
+        }
+        diagnostics.dependency(entry.sourceElementType(), elementType);
+        return new ElementPlan(new PlanReference(plans, elementType, reusePolicy, options), preserveReferences);
+    }
+
+    private static void unsupportedContainer(final Field destinationField, final PlanDiagnostics diagnostics) {
+        diagnostics.problem("field " + destinationField.getName() + " of "
+                + destinationField.getDeclaringClass().getName() + " (" + destinationField.getType().getName()
+                + ") has no known implementation to create");
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private boolean usesRegisteredAdapter(final GeneratedMapper<?, ?> generatedMapper) {
+        for (Class<?> adapterType : generatedMapper.adapterTypes()) {
+            if (configuration.typeAdapters().isRegistered(adapterType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static MappingPlan generated(final GeneratedMapper generatedMapper, final PairMetrics metrics) {
+        CopyStep step = new GeneratedCopyStep((source, destination) -> generatedMapper.map(source, destination));
+        return new MappingPlan(generatedMapper.sourceType(), generatedMapper.targetType(), generatedMapper::newTarget,
+                null, new CopyStep[]{step}, metrics, 0, PlanDiagnostics.NONE, null, false, false);
+    }
+
+    private CopyStep convertedStep(final Field sourceField, final Field destinationField,
+                                   final FieldAccessor destination, final PairMetrics metrics,
+                                   final PlanDiagnostics diagnostics) {
+
+        Class<?> sourceType = sourceField.getType();
+        Class<?> destinationType = destinationField.getType();
+        if (ConverterRegistry.isPrimitiveConversion(sourceType, destinationType)) {
+            return new PrimitiveStep(accessor(sourceField), destination);
+        }
+
+        TypeAdapter<Object, Object> converter = configuration.converters().find(sourceType, destinationType);
+        if (converter != null) {
+            return adaptedStep(accessor(sourceField), destination, converter, metrics);
+        }
+        checkAssignable(sourceField, destinationField, diagnostics);
+        return new ValueStep(accessor(sourceField), destination);
+    }
+
+    /**
+     * Reports field pairs of unrelated types, a value of a common super type may still fit and is left to the mapping
+     */
+    private static void checkAssignable(final Field sourceField, final Field destinationField,
+                                        final PlanDiagnostics diagnostics) {
+        Class<?> sourceType = Primitives.wrap(sourceField.getType());
+        Class<?> destinationType = Primitives.wrap(destinationField.getType());
+        if (!destinationType.isAssignableFrom(sourceType) && !sourceType.isAssignableFrom(destinationType)) {
+            diagnostics.problem("field " + sourceField.getName() + " of " + sourceField.getDeclaringClass().getName()
+                    + " (" + sourceField.getType().getName() + ") cannot be assigned to field "
+                    + destinationField.getName() + " of " + destinationField.getDeclaringClass().getName()
+                    + " (" + destinationField.getType().getName() + ")");
+        }
+    }
+
+    /**
+     * @return step converting through the adapter, deferred to the batch of a bulk mapping for a
+     * {@link BatchTypeAdapter}
+     */
+    @SuppressWarnings("unchecked")
+    private static CopyStep adaptedStep(final FieldAccessor sourceField, final FieldAccessor destinationField,
+                                        final TypeAdapter<Object, Object> typeAdapter, final PairMetrics metrics) {
+        // constructor arguments are consumed as soon as the plan ran, they cannot wait for the batch
+        if (typeAdapter instanceof BatchTypeAdapter && !(destinationField instanceof ArgumentSlot)) {
+            return new BatchedValueStep(sourceField, destinationField, (BatchTypeAdapter<Object, Object>) typeAdapter,
+                    metrics);
+        }
+        return new AdaptedValueStep(sourceField, destinationField, counted(typeAdapter, metrics));
+    }
+
+    /**
+     * @return the adapter, counting its invocations when the mapper has metrics
+     */
+    private static TypeAdapter<Object, Object> counted(final TypeAdapter<Object, Object> typeAdapter,
+                                                       final PairMetrics metrics) {
+        if (metrics == null) {
+            return typeAdapter;
+        }
+        return input -> {
+            metrics.adapterInvoked();
+            return typeAdapter.convert(input);
+        };
+    }
+
+    /**
+     * @param destinationFields fields of the destination class
+     * @return destination fields by the source field name declared in {@link ClassFieldMapping}
+     */
+    private static Map<String, List<Field>> redirects(final Collection<Field> destinationFields) {
+        Map<String, List<Field>> redirects = new HashMap<>();
+        for (Field destinationField : destinationFields) {
+            ClassFieldMapping classFieldMapping = destinationField.getDeclaredAnnotation(ClassFieldMapping.class);
+            if (classFieldMapping == null) {
+                continue;
+            }
+            for (SourceFieldMapping sfm : classFieldMapping.fields()) {
+                // dotted field paths are resolved by pathEntries
+                if (sfm.sourceField().indexOf('.') < 0) {
+                    redirects.computeIfAbsent(sfm.sourceField(), name -> new ArrayList<>()).add(destinationField);
+                }
+            }
+        }
+        return redirects;
+    }
+
+    /**
+     * @param field collection or array field
+     * @return component type of an array, element type of a collection
+     */
+    private static Class<?> elementType(final Field field) {
+        Class<?> componentType = field.getType().getComponentType();
+        return componentType != null ? componentType : typeArgument(field, 0);
+    }
+
+    /**
+     * @param field field of a generic type
+     * @param index position of the type argument
+     * @return raw class of the type argument, the upper bound of a wildcard, {@link Object} when not resolvable
+     */
+    private static Class<?> typeArgument(final Field field, final int index) {
+        Type genericType = field.getGenericType();
+        if (genericType instanceof ParameterizedType) {
+            Type[] arguments = ((ParameterizedType) genericType).getActualTypeArguments();
+            Type argument = index < arguments.length ? arguments[index] : Object.class;
+            if (argument instanceof WildcardType) {
+                argument = ((WildcardType) argument).getUpperBounds()[0];
+            }
+            if (argument instanceof Class) {
+                return (Class<?>) argument;
+            }
+            if (argument instanceof ParameterizedType) {
+                return (Class<?>) ((ParameterizedType) argument).getRawType();
+            }
+        }
+        return Object.class;
+    }
+
+    /**
+     * @param field resolved field
+     * @return accessor of the configured engine, reflective when the engine cannot resolve the field
+     */
+    private FieldAccessor accessor(final Field field) {
+        return accessor(field, engine);
+    }
+
+    /**
+     * @param field  resolved field
+     * @param engine engine reading and writing the field
+     * @return accessor of the engine, reflective when the engine cannot resolve the field
+     */
+    static FieldAccessor accessor(final Field field, final MappingEngine engine) {
+        if (engine != MappingEngine.REFLECTION) {
+            FieldAccessor accessor = MethodHandleAccess.accessor(field);
+            if (accessor != null) {
+                return accessor;
+            }
+        }
+        return new ReflectionFieldAccessor(field);
+    }
+
+    /**
+     * @param field  destination field
+     * @param layout constructor of the destination, null when it is created through its no arg constructor
+     * @return slot of the field in the constructor arguments, accessor of the field otherwise
+     */
+    private FieldAccessor destination(final Field field, final ConstructorLayout layout) {
+        return layout == null ? accessor(field) : new ArgumentSlot(field, layout.slot(field));
+    }
+
+    private ConstructorInstantiator constructor(final ConstructorLayout layout) {
+        if (layout == null) {
+            return null;
+        }
+        Field[] deferredFields = layout.deferred();
+        FieldAccessor[] deferred = new FieldAccessor[deferredFields.length];
+        for (int i = 0; i < deferredFields.length; i++) {
+            deferred[i] = accessor(deferredFields[i]);
+        }
+        MethodHandle handle = engine == MappingEngine.REFLECTION ? null : MethodHandleAccess.spreader(layout.constructor());
+        return new ConstructorInstantiator(layout, handle, deferred);
+    }
+
+    private Instantiator instantiator(final Class<?> type) {
+        Instantiator instantiator = null;
+        if (engine == MappingEngine.BYTECODE) {
+            instantiator = BytecodeMapperGenerator.instantiator(type);
+        }
+        if (instantiator == null && engine != MappingEngine.REFLECTION) {
+            instantiator = MethodHandleAccess.instantiator(type);
+        }
+        if (instantiator != null) {
+            return instantiator;
+        }
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor::newInstance;
+        } catch (NoSuchMethodException | RuntimeException e) {
+            // reported when a destination instance is requested, a plan may only be used to map into an instance
+            return null;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package de.johnsoneyo.mapper;
+
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@link Flow.Processor} mapping every item of its upstream publisher for a single downstream subscriber
+ * <p>
+ * Items are mapped one to one, so the processor keeps no buffer: demand of the subscriber is passed on to the
+ * upstream subscription as is and every item received is mapped and delivered right away. Demand signalled before the
+ * upstream subscription arrives is accumulated and requested once it does. A failing item cancels the upstream
+ * subscription and is delivered as {@code onError}.
+ * </p>
+ *
+ * @param <INPUT>  source input param
+ * @param <OUTPUT> destination output param
+ */
+final class MappingProcessor<INPUT, OUTPUT> implements Flow.Processor<INPUT, OUTPUT> {
+
+    private final ElementMapper<OUTPUT> mapper;
+    private final AtomicReference<Flow.Subscription> upstream = new AtomicReference<>();
+    private final AtomicLong pendingDemand = new AtomicLong();
+    private final AtomicBoolean terminalDelivered = new AtomicBoolean();
+    private final AtomicReference<Flow.Subscriber<? super OUTPUT>> downstream = new AtomicReference<>();
+
+    private volatile boolean cancelled;
+    private volatile boolean done;
+    private volatile Throwable error;
+
+    MappingProcessor(final ElementMapper<OUTPUT> mapper) {
+        this.mapper = mapper;
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super OUTPUT> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber is required and cannot be null");
+        if (!downstream.compareAndSet(null, subscriber)) {
+            subscriber.onSubscribe(new CancelledSubscription());
+            subscriber.onError(new IllegalStateException("mapping processor supports a single subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new DownstreamSubscription());
+        if (done) {
+            deliverTerminal();
+        }
+    }
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+        Objects.requireNonNull(subscription, "subscription is required and cannot be null");
+        if (!upstream.compareAndSet(null, subscription) || cancelled) {
+            subscription.cancel();
+            return;
+        }
+        requestPending(subscription);
+    }
+
+    @Override
+    public void onNext(final INPUT item) {
+        if (done) {
+            return;
+        }
+        OUTPUT output;
+        try {
+            output = mapper.apply(item);
+        } catch (RuntimeException exception) {
+            upstream.get().cancel();
+            onError(exception);
+            return;
+        }
+        downstream.get().onNext(output);
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        if (done) {
+            return;
+        }
+        error = Objects.requireNonNull(throwable, "error is required and cannot be null");
+        done = true;
+        deliverTerminal();
+    }
+
+    @Override
+    public void onComplete() {
+        if (done) {
+            return;
+        }
+        done = true;
+        deliverTerminal();
+    }
+
+    private void deliverTerminal() {
+        Flow.Subscriber<? super OUTPUT> subscriber = downstream.get();
+        // a publisher may complete before the subscriber arrives, whoever comes last signals
+        if (subscriber == null || !terminalDelivered.compareAndSet(false, true)) {
+            return;
+        }
+        Throwable throwable = error;
+        if (throwable != null) {
+            subscriber.onError(throwable);
+        } else {
+            subscriber.onComplete();
+        }
+    }
+
+    private void requestPending(final Flow.Subscription subscription) {
+        long demand = pendingDemand.getAndSet(0);
+        if (demand > 0) {
+            subscription.request(demand);
+        }
+    }
+
+    /**
+     * Subscription handed to the downstream subscriber
+     */
+    private final class DownstreamSubscription implements Flow.Subscription {
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                cancel();
+                onError(new IllegalArgumentException("requested demand must be positive, was " + n));
+                return;
+            }
+            Flow.Subscription subscription = upstream.get();
+            if (subscription != null) {
+                subscription.request(n);
+                return;
+            }
+            pendingDemand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            // the upstream subscription may have arrived meanwhile
+            subscription = upstream.get();
+            if (subscription != null) {
+                requestPending(subscription);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            Flow.Subscription subscription = upstream.get();
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+    }
+
+    /**
+     * Subscription handed to a rejected subscriber
+     */
+    private static final class CancelledSubscription implements Flow.Subscription {
+
+        @Override
+        public void request(final long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+    }
+}
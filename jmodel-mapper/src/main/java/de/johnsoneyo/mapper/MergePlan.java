@@ -0,0 +1,99 @@
+package de.johnsoneyo.mapper;
+
+/**
+ * Compiled merge of a source class into an existing destination instance, writing only the fields whose mapped value
+ * differs from the current one
+ * <p>
+ * A merge plan is built once per class pair by {@link MappingPlanFactory} from the same field pairs as a
+ * {@link MappingPlan}. Nested beans present on both sides are merged field by field, flattened beans merge into the
+ * destination itself. Fields written through a dotted field path are left out, as they belong to a nested bean of
+ * their own.
+ * </p>
+ */
+final class MergePlan {
+
+    private final Class<?> sourceType;
+    private final Class<?> destinationType;
+    private final String[] fields;
+    private final MergeStep[] steps;
+    private final boolean immutable;
+    private final boolean preserveReferences;
+
+    /**
+     * @param fields             names of the destination fields, indexed by the slots of the change set
+     * @param immutable          true when the steps would have to write final fields of the destination
+     * @param preserveReferences true when the steps map shared and cyclic references through a {@link ReferenceTable}
+     */
+    MergePlan(final Class<?> sourceType, final Class<?> destinationType, final String[] fields,
+              final MergeStep[] steps, final boolean immutable, final boolean preserveReferences) {
+        this.sourceType = sourceType;
+        this.destinationType = destinationType;
+        this.fields = fields;
+        this.steps = steps;
+        this.immutable = immutable;
+        this.preserveReferences = preserveReferences;
+    }
+
+    /**
+     * @return true when the destination holds final fields, such as a record, and cannot be merged into
+     */
+    boolean isImmutable() {
+        return immutable;
+    }
+
+    /**
+     * Merges the object a caller of the mapper passed in, opening the {@link ReferenceTable} of the thread for the
+     * steps when the plan preserves references
+     *
+     * @param source      source object to read from
+     * @param destination destination object updated in place
+     * @return fields of the destination written by the merge
+     * @throws Exception when one of the steps fails
+     */
+    ChangeSet mergeTopLevel(final Object source, final Object destination) throws Exception {
+        if (immutable) {
+            throw new UnsupportedOperationException(destinationType.getName()
+                    + " has final fields and cannot be merged into an existing instance");
+        }
+        if (!preserveReferences) {
+            return merge(source, destination);
+        }
+        ReferenceTable references = ReferenceTable.enter();
+        try {
+            references.put(source, destinationType, destination);
+            return merge(source, destination);
+        } finally {
+            references.exit();
+        }
+    }
+
+    /**
+     * @param source      nested source bean
+     * @param destination nested destination bean
+     * @return fields of the destination written by the merge
+     * @throws Exception when one of the steps fails
+     */
+    ChangeSet merge(final Object source, final Object destination) throws Exception {
+        ChangeSet changes = new ChangeSet(fields);
+        merge(source, destination, new Object[1], changes);
+        return changes;
+    }
+
+    /**
+     * @param changes change set of the destination, shared with the plan of a flattened bean
+     */
+    void merge(final Object source, final Object destination, final Object[] scratch, final ChangeSet changes)
+            throws Exception {
+        for (MergeStep step : steps) {
+            step.merge(source, destination, scratch, changes);
+        }
+    }
+
+    Class<?> sourceType() {
+        return sourceType;
+    }
+
+    Class<?> destinationType() {
+        return destinationType;
+    }
+}
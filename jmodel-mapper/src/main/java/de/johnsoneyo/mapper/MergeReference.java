@@ -0,0 +1,37 @@
+package de.johnsoneyo.mapper;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Lazily resolved reference to a nested {@link MergePlan}, keeping the last resolved plan weakly like a
+ * {@link PlanReference}
+ */
+final class MergeReference {
+
+    private final MappingPlanCache plans;
+    private final MappingOptions options;
+    private WeakReference<MergePlan> resolved;
+
+    /**
+     * @param options options of the nested merge plans, derived from the options of the owning plan
+     */
+    MergeReference(final MappingPlanCache plans, final MappingOptions options) {
+        this.plans = plans;
+        this.options = options;
+    }
+
+    /**
+     * @param sourceType      runtime class of the source value
+     * @param destinationType runtime class of the destination value
+     * @return plan merging the source value into the destination value
+     */
+    MergePlan forPair(final Class<?> sourceType, final Class<?> destinationType) {
+        WeakReference<MergePlan> reference = resolved;
+        MergePlan plan = reference != null ? reference.get() : null;
+        if (plan == null || plan.sourceType() != sourceType || plan.destinationType() != destinationType) {
+            plan = plans.merge(sourceType, destinationType, options);
+            resolved = new WeakReference<>(plan);
+        }
+        return plan;
+    }
+}
@@ -0,0 +1,17 @@
+package de.johnsoneyo.mapper;
+
+/**
+ * A single pre-resolved instruction of a {@link MergePlan}, writing one destination field only when its mapped value
+ * differs from the value the destination holds
+ */
+interface MergeStep {
+
+    /**
+     * @param source      source object the step reads from
+     * @param destination destination object the step updates
+     * @param scratch     single slot array the mapped value is produced into before it is compared
+     * @param changes     change set of the destination, marked for every field written
+     * @throws Exception when reading, converting or writing the field fails
+     */
+    void merge(Object source, Object destination, Object[] scratch, ChangeSet changes) throws Exception;
+}
@@ -0,0 +1,344 @@
+package de.johnsoneyo.mapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+
+/**
+ * Resolves fields and constructors into {@link MethodHandle}s for the {@link MappingEngine#METHOD_HANDLE} engine
+ * <p>
+ * Handles are adapted once to generic {@code (Object)Object}, {@code (Object,Object)void} and {@code ()Object} types
+ * and kept in final fields, so every call is an {@code invokeExact} that skips the access checks of
+ * {@link Field#get(Object)} and {@link Field#set(Object, Object)}.
+ * </p>
+ */
+final class MethodHandleAccess {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandleAccess.class);
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+    private static final MethodType SPREADER_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    private MethodHandleAccess() {
+    }
+
+    /**
+     * @param type class to look up members of
+     * @return lookup with private access to the class, null when its package is not open to the mapper
+     */
+    static MethodHandles.Lookup lookup(final Class<?> type) {
+        if (type.isPrimitive() || type.isArray() || type.getName().indexOf('/') >= 0) {
+            return null;
+        }
+        try {
+            return MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+        } catch (IllegalAccessException | RuntimeException e) {
+            LOG.debug("lookup: {} is not open to the mapper", type, e);
+            return null;
+        }
+    }
+
+    /**
+     * @param field field to resolve
+     * @return accessor invoking getter and setter handles of the field, null when the handles cannot be resolved
+     */
+    static FieldAccessor accessor(final Field field) {
+        MethodHandles.Lookup lookup = lookup(field.getDeclaringClass());
+        if (lookup == null) {
+            return null;
+        }
+        try {
+            MethodHandle getter = lookup.unreflectGetter(field);
+            MethodHandle setter = lookup.unreflectSetter(field);
+            return new FieldHandle(field, getter, setter);
+        } catch (IllegalAccessException | RuntimeException e) {
+            LOG.debug("accessor: no method handles for {}", field, e);
+            return null;
+        }
+    }
+
+    /**
+     * @param type class to instantiate
+     * @return instantiator invoking the no arg constructor handle, null when the constructor cannot be resolved
+     */
+    static Instantiator instantiator(final Class<?> type) {
+        MethodHandles.Lookup lookup = lookup(type);
+        if (lookup == null || type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            return null;
+        }
+        try {
+            MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class)).asType(CONSTRUCTOR_TYPE);
+            return () -> {
+                try {
+                    return (Object) constructor.invokeExact();
+                } catch (Throwable throwable) {
+                    throw rethrow(throwable);
+                }
+            };
+        } catch (NoSuchMethodException | IllegalAccessException | RuntimeException e) {
+            LOG.debug("instantiator: no constructor handle for {}", type, e);
+            return null;
+        }
+    }
+
+    /**
+     * @param constructor accessible constructor taking arguments
+     * @return handle of type {@code (Object[])Object} spreading the argument array over the constructor parameters,
+     * null when the handle cannot be resolved
+     */
+    static MethodHandle spreader(final Constructor<?> constructor) {
+        MethodHandles.Lookup lookup = lookup(constructor.getDeclaringClass());
+        if (lookup == null) {
+            return null;
+        }
+        try {
+            return lookup.unreflectConstructor(constructor)
+                    .asSpreader(Object[].class, constructor.getParameterCount())
+                    .asType(SPREADER_TYPE);
+        } catch (IllegalAccessException | RuntimeException e) {
+            LOG.debug("spreader: no constructor handle for {}", constructor, e);
+            return null;
+        }
+    }
+
+    static Exception rethrow(final Throwable throwable) {
+        if (throwable instanceof Error) {
+            throw (Error) throwable;
+        }
+        if (throwable instanceof Exception) {
+            return (Exception) throwable;
+        }
+        return new UndeclaredThrowableException(throwable);
+    }
+
+    /**
+     * Field accessor backed by a getter and a setter handle
+     * <p>
+     * Primitive fields additionally get a handle per primitive type they widen to or from, indexed as
+     * {@link Primitives#TYPES}, so primitive steps read and write them without boxing.
+     * </p>
+     */
+    static final class FieldHandle implements FieldAccessor {
+
+        private final Field field;
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+        private final MethodHandle[] primitiveGetters = new MethodHandle[Primitives.TYPES.size()];
+        private final MethodHandle[] primitiveSetters = new MethodHandle[Primitives.TYPES.size()];
+
+        FieldHandle(final Field field, final MethodHandle getter, final MethodHandle setter) {
+            this.field = field;
+            this.getter = getter.asType(GETTER_TYPE);
+            this.setter = setter.asType(SETTER_TYPE);
+            Class<?> type = field.getType();
+            if (type.isPrimitive()) {
+                for (Class<?> primitive : Primitives.TYPES) {
+                    int index = Primitives.index(primitive);
+                    if (Primitives.isAssignable(type, primitive)) {
+                        primitiveGetters[index] = getter.asType(MethodType.methodType(primitive, Object.class));
+                    }
+                    if (Primitives.isAssignable(primitive, type)) {
+                        primitiveSetters[index] = setter.asType(MethodType.methodType(void.class, Object.class, primitive));
+                    }
+                }
+            }
+        }
+
+        @Override
+        public Object get(final Object target) throws Exception {
+            try {
+                return (Object) getter.invokeExact(target);
+            } catch (Throwable throwable) {
+                throw rethrow(throwable);
+            }
+        }
+
+        @Override
+        public void set(final Object target, final Object value) throws Exception {
+            try {
+                setter.invokeExact(target, value);
+            } catch (ClassCastException | NullPointerException e) {
+                // same error surface as Field#set for incompatible values
+                throw new IllegalArgumentException("Can not set " + field.getType().getName() + " field "
+                        + field.getDeclaringClass().getName() + "." + field.getName() + " to "
+                        + (value == null ? "null value" : value.getClass().getName()), e);
+            } catch (Throwable throwable) {
+                throw rethrow(throwable);
+            }
+        }
+
+        @Override
+        public boolean getBoolean(final Object target) throws Exception {
+            try {
+                return (boolean) primitiveGetter(0).invokeExact(target);
+            } catch (Throwable throwable) {
+                throw rethrow(throwable);
+            }
+        }
+
+        @Override
+        public byte getByte(final Object target) throws Exception {
+            try {
+                return (byte) primitiveGetter(1).invokeExact(target);
+            } catch (Throwable throwable) {
+                throw rethrow(throwable);
+            }
+        }
+
+        @Override
+        public char getChar(final Object target) throws Exception {
+            try {
+                return (char) primitiveGetter(2).invokeExact(target);
+            } catch (Throwable throwable) {
+                throw rethrow(throwable);
+            }
+        }
+
+        @Override
+        public short getShort(final Object target) throws Exception {
+            try {
+                return (short) primitiveGetter(3).invokeExact(target);
+            } catch (Throwable throwable) {
+                throw rethrow(throwable);
+            }
+        }
+
+        @Override
+        public int getInt(final Object target) throws Exception {
+            try {
+                return (int) primitiveGetter(4).invokeExact(target);
+            } catch (Throwable throwable) {
+                throw rethrow(throwable);
+            }
+        }
+
+        @Override
+        public long getLong(final Object target) throws Exception {
+            try {
+                return (long) primitiveGetter(5).invokeExact(target);
+            } catch (Throwable throwable) {
+                throw rethrow(throwable);
+            }
+        }
+
+        @Override
+        public float getFloat(final Object target) throws Exception {
+            try {
+                return (float) primitiveGetter(6).invokeExact(target);
+            } catch (Throwable throwable) {
+                throw rethrow(throwable);
+            }
+        }
+
+        @Override
+        public double getDouble(final Object target) throws Exception {
+            try {
+                return (double) primitiveGetter(7).invokeExact(target);
+            } catch (Throwable throwable) {
+                throw rethrow(throwable);
+            }
+        }
+
+        @Override
+        public void setBoolean(final Object target, final boolean value) throws Exception {
+            try {
+                primitiveSetter(0).invokeExact(target, value);
+            } catch (Throwable throwable) {
+                throw rethrow(throwable);
+            }
+        }
+
+        @Override
+        public void setByte(final Object target, final byte value) throws Exception {
+            try {
+                primitiveSetter(1).invokeExact(target, value);
+            } catch (Throwable throwable) {
+                throw rethrow(throwable);
+            }
+        }
+
+        @Override
+        public void setChar(final Object target, final char value) throws Exception {
+            try {
+                primitiveSetter(2).invokeExact(target, value);
+            } catch (Throwable throwable) {
+                throw rethrow(throwable);
+            }
+        }
+
+        @Override
+        public void setShort(final Object target, final short value) throws Exception {
+            try {
+                primitiveSetter(3).invokeExact(target, value);
+            } catch (Throwable throwable) {
+                throw rethrow(throwable);
+            }
+        }
+
+        @Override
+        public void setInt(final Object target, final int value) throws Exception {
+            try {
+                primitiveSetter(4).invokeExact(target, value);
+            } catch (Throwable throwable) {
+                throw rethrow(throwable);
+            }
+        }
+
+        @Override
+        public void setLong(final Object target, final long value) throws Exception {
+            try {
+                primitiveSetter(5).invokeExact(target, value);
+            } catch (Throwable throwable) {
+                throw rethrow(throwable);
+            }
+        }
+
+        @Override
+        public void setFloat(final Object target, final float value) throws Exception {
+            try {
+                primitiveSetter(6).invokeExact(target, value);
+            } catch (Throwable throwable) {
+                throw rethrow(throwable);
+            }
+        }
+
+        @Override
+        public void setDouble(final Object target, final double value) throws Exception {
+            try {
+                primitiveSetter(7).invokeExact(target, value);
+            } catch (Throwable throwable) {
+                throw rethrow(throwable);
+            }
+        }
+
+        @Override
+        public Field field() {
+            return field;
+        }
+
+        private MethodHandle primitiveGetter(final int index) {
+            MethodHandle primitiveGetter = primitiveGetters[index];
+            if (primitiveGetter == null) {
+                throw new IllegalArgumentException("Can not get " + Primitives.TYPES.get(index) + " from field " + field);
+            }
+            return primitiveGetter;
+        }
+
+        private MethodHandle primitiveSetter(final int index) {
+            MethodHandle primitiveSetter = primitiveSetters[index];
+            if (primitiveSetter == null) {
+                throw new IllegalArgumentException("Can not set " + Primitives.TYPES.get(index) + " to field " + field);
+            }
+            return primitiveSetter;
+        }
+    }
+}
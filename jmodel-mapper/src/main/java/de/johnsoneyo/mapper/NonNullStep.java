@@ -0,0 +1,26 @@
+package de.johnsoneyo.mapper;
+
+/**
+ * Runs a step only when its source field holds a value, leaving the destination field as it is otherwise
+ * <p>
+ * Wraps the steps of reference typed fields of plans compiled with {@link MappingOptions#isSkipNulls()}, plans
+ * without the option never pay for the check.
+ * </p>
+ */
+final class NonNullStep implements CopyStep {
+
+    private final FieldAccessor sourceField;
+    private final CopyStep step;
+
+    NonNullStep(final FieldAccessor sourceField, final CopyStep step) {
+        this.sourceField = sourceField;
+        this.step = step;
+    }
+
+    @Override
+    public void copy(final Object source, final Object destination) throws Exception {
+        if (sourceField.get(source) != null) {
+            step.copy(source, destination);
+        }
+    }
+}
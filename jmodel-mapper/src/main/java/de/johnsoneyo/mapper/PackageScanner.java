@@ -0,0 +1,108 @@
+package de.johnsoneyo.mapper;
+
+import de.johnsoneyo.mapper.MappingPlanCache.ClassPair;
+import de.johnsoneyo.mapper.decorator.GenerateMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Finds the class pairs declared with {@link GenerateMapper} on the classes of a package and its sub packages
+ * <p>
+ * Directories and jar files of the class path are supported, classes are loaded without being initialized.
+ * </p>
+ */
+final class PackageScanner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PackageScanner.class);
+
+    private PackageScanner() {
+    }
+
+    /**
+     * @param classLoader loader to find and load the classes with
+     * @param packageName package to scan, e.g. {@code com.example.dto}
+     * @return class pairs declared in the package in no particular order
+     */
+    static List<ClassPair> declaredPairs(final ClassLoader classLoader, final String packageName) {
+        List<ClassPair> pairs = new ArrayList<>();
+        for (String className : classNames(classLoader, packageName)) {
+            Class<?> type;
+            try {
+                type = Class.forName(className, false, classLoader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                LOG.debug("declaredPairs: skipping {}", className, e);
+                continue;
+            }
+            for (GenerateMapper declaration : type.getAnnotationsByType(GenerateMapper.class)) {
+                pairs.add(new ClassPair(declaration.source(), declaration.target()));
+            }
+        }
+        return pairs;
+    }
+
+    private static List<String> classNames(final ClassLoader classLoader, final String packageName) {
+        String path = packageName.replace('.', '/');
+        List<String> classNames = new ArrayList<>();
+        try {
+            Enumeration<URL> roots = classLoader.getResources(path);
+            while (roots.hasMoreElements()) {
+                URL root = roots.nextElement();
+                if ("file".equals(root.getProtocol())) {
+                    classNames.addAll(directoryClassNames(Paths.get(root.toURI()), packageName));
+                } else if ("jar".equals(root.getProtocol())) {
+                    classNames.addAll(jarClassNames(root, path));
+                } else {
+                    LOG.warn("classNames: cannot scan {} of package {}", root, packageName);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("error occurred scanning package " + packageName, e);
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("error occurred scanning package " + packageName, e);
+        }
+        return classNames;
+    }
+
+    private static List<String> directoryClassNames(final Path directory, final String packageName) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".class"))
+                    .map(file -> {
+                        String relative = directory.relativize(file).toString().replace(file.getFileSystem().getSeparator(), ".");
+                        return packageName + '.' + relative.substring(0, relative.length() - ".class".length());
+                    })
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static List<String> jarClassNames(final URL root, final String path) throws IOException {
+        JarURLConnection connection = (JarURLConnection) root.openConnection();
+        connection.setUseCaches(false);
+        List<String> classNames = new ArrayList<>();
+        try (JarFile jar = connection.getJarFile()) {
+            Enumeration<JarEntry> entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                String name = entries.nextElement().getName();
+                if (name.startsWith(path + '/') && name.endsWith(".class")) {
+                    classNames.add(name.substring(0, name.length() - ".class".length()).replace('/', '.'));
+                }
+            }
+        }
+        return classNames;
+    }
+}
@@ -0,0 +1,36 @@
+package de.johnsoneyo.mapper;
+
+/**
+ * Runs a step on the nested source bean at the end of a field path, such as {@code customer.address} of a
+ * {@code customer.address.city} mapping
+ * <p>
+ * The path is walked through the accessors resolved when the plan was built. A null bean on the way ends the step and
+ * leaves the destination field as it is.
+ * </p>
+ */
+final class PathReadStep implements CopyStep {
+
+    private final FieldAccessor[] path;
+    private final CopyStep step;
+
+    /**
+     * @param path accessors of the nested bean fields from the source to the bean the step reads
+     * @param step step reading the nested bean and writing the destination
+     */
+    PathReadStep(final FieldAccessor[] path, final CopyStep step) {
+        this.path = path;
+        this.step = step;
+    }
+
+    @Override
+    public void copy(final Object source, final Object destination) throws Exception {
+        Object value = source;
+        for (FieldAccessor field : path) {
+            value = field.get(value);
+            if (value == null) {
+                return;
+            }
+        }
+        step.copy(value, destination);
+    }
+}
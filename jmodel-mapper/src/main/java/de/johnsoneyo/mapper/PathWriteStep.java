@@ -0,0 +1,48 @@
+package de.johnsoneyo.mapper;
+
+/**
+ * Runs a step on the nested destination bean at the end of a field path, creating missing beans on the way, such as
+ * {@code customer.address} of a {@code customer.address.city} mapping
+ * <p>
+ * A null source value ends the step before any bean is created, so unflattening an empty field leaves the destination
+ * graph as it is.
+ * </p>
+ */
+final class PathWriteStep implements CopyStep {
+
+    private final FieldAccessor sourceField;
+    private final FieldAccessor[] path;
+    private final Instantiator[] instantiators;
+    private final CopyStep step;
+
+    /**
+     * @param sourceField   source field read by the step, null when it is of a primitive type and never null
+     * @param path          accessors of the nested bean fields from the destination to the bean the step writes
+     * @param instantiators creators of the nested beans, in path order
+     * @param step          step reading the source and writing the nested bean
+     */
+    PathWriteStep(final FieldAccessor sourceField, final FieldAccessor[] path, final Instantiator[] instantiators,
+                  final CopyStep step) {
+        this.sourceField = sourceField;
+        this.path = path;
+        this.instantiators = instantiators;
+        this.step = step;
+    }
+
+    @Override
+    public void copy(final Object source, final Object destination) throws Exception {
+        if (sourceField != null && sourceField.get(source) == null) {
+            return;
+        }
+        Object target = destination;
+        for (int i = 0; i < path.length; i++) {
+            Object nested = path[i].get(target);
+            if (nested == null) {
+                nested = instantiators[i].newInstance();
+                path[i].set(target, nested);
+            }
+            target = nested;
+        }
+        step.copy(source, target);
+    }
+}
@@ -0,0 +1,43 @@
+package de.johnsoneyo.mapper;
+
+import de.johnsoneyo.mapper.MappingPlanCache.ClassPair;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Problems found while building a {@link MappingPlan} and the nested class pairs it maps through its declared field
+ * types
+ * <p>
+ * Collected once per plan and only read by {@link PlanWarmUp}, mapping itself never looks at them.
+ * </p>
+ */
+final class PlanDiagnostics {
+
+    static final PlanDiagnostics NONE = new PlanDiagnostics();
+
+    private final List<String> problems = new ArrayList<>(0);
+    private final List<ClassPair> dependencies = new ArrayList<>(0);
+
+    void problem(final String problem) {
+        problems.add(problem);
+    }
+
+    void dependency(final Class<?> sourceType, final Class<?> destinationType) {
+        dependencies.add(new ClassPair(sourceType, destinationType));
+    }
+
+    /**
+     * @return descriptions of the field pairs that fail when mapped
+     */
+    List<String> problems() {
+        return problems;
+    }
+
+    /**
+     * @return nested class pairs resolved from the declared field types
+     */
+    List<ClassPair> dependencies() {
+        return dependencies;
+    }
+}
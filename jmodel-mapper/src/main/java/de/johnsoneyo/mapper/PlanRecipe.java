@@ -0,0 +1,248 @@
+package de.johnsoneyo.mapper;
+
+import de.johnsoneyo.mapper.JModelMapperUtils.Utils;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Field pairs of a source and destination class as resolved from their declarations, before any accessor is created
+ * <p>
+ * A recipe only depends on the two classes, {@link MappingPlanFactory} compiles it into the steps of a plan for the
+ * engine, converters and reuse policy of a mapper. Recipes are what a {@link PlanSnapshot} persists.
+ * </p>
+ */
+final class PlanRecipe {
+
+    /**
+     * Kind of a field pair, decides the step it is compiled into
+     */
+    enum Kind {
+        /**
+         * same or assignable types, copied as they are
+         */
+        VALUE,
+        /**
+         * different java runtime types without declared adapter, widened or converted by the mapper
+         */
+        CONVERTED,
+        /**
+         * adapter declared with {@link de.johnsoneyo.mapper.decorator.TransformToType}
+         */
+        ADAPTED,
+        /**
+         * nested bean mapped onto a nested bean
+         */
+        BEAN,
+        /**
+         * nested bean without counterpart mapped onto the destination itself
+         */
+        FLATTEN,
+        /**
+         * collection or array mapped element by element onto a collection
+         */
+        COLLECTION,
+        /**
+         * collection or array mapped element by element onto an array
+         */
+        ARRAY,
+        /**
+         * map mapped entry by entry onto a map
+         */
+        MAP,
+        /**
+         * adapter declared with {@link de.johnsoneyo.mapper.decorator.TransformToType} on the source field, applied in
+         * reverse through {@link de.johnsoneyo.mapper.decorator.BidirectionalTypeAdapter#reverse(Object)}
+         */
+        REVERSE_ADAPTED
+    }
+
+    private final Class<?> sourceType;
+    private final Class<?> destinationType;
+    private final List<Entry> entries;
+    private final List<String> unmapped;
+
+    /**
+     * @param entries  field pairs in the order of the source fields
+     * @param unmapped names of the source fields without destination field
+     */
+    PlanRecipe(final Class<?> sourceType, final Class<?> destinationType, final List<Entry> entries,
+               final List<String> unmapped) {
+        this.sourceType = sourceType;
+        this.destinationType = destinationType;
+        this.entries = entries;
+        this.unmapped = unmapped;
+    }
+
+    Class<?> sourceType() {
+        return sourceType;
+    }
+
+    Class<?> destinationType() {
+        return destinationType;
+    }
+
+    List<Entry> entries() {
+        return entries;
+    }
+
+    List<String> unmapped() {
+        return unmapped;
+    }
+
+    /**
+     * Derives the field pairs of the opposite direction without scanning the classes again. Renames declared with
+     * {@link de.johnsoneyo.mapper.decorator.ClassFieldMapping} map back onto the field they were renamed from, adapters
+     * are applied in reverse, flattened beans have no reverse and are left out.
+     *
+     * @return field pairs mapping the destination class onto the source class
+     */
+    PlanRecipe reverse() {
+        if (Utils.isJavaType(sourceType) || Utils.isJavaType(destinationType)) {
+            return new PlanRecipe(destinationType, sourceType, List.of(), List.of());
+        }
+        List<Entry> reversed = new ArrayList<>(entries.size());
+        Set<Field> mapped = new HashSet<>();
+        for (Entry entry : entries) {
+            Entry reverse = entry.reverse();
+            if (reverse != null) {
+                reversed.add(reverse);
+                mapped.add(entry.destinationPath().isEmpty() ? entry.destinationField() : entry.destinationPath().get(0));
+            }
+        }
+        List<String> reverseUnmapped = new ArrayList<>(0);
+        for (Field field : FieldHierarchy.fields(destinationType).values()) {
+            if (!mapped.contains(field) && Utils.isJavaType(field.getType())) {
+                reverseUnmapped.add(field.getName());
+            }
+        }
+        return new PlanRecipe(destinationType, sourceType, reversed, reverseUnmapped);
+    }
+
+    /**
+     * Field pair of a recipe
+     */
+    static final class Entry {
+
+        private final Kind kind;
+        private final Field sourceField;
+        private final Field destinationField;
+        private final Class<?> type;
+        private final Class<?> sourceElementType;
+        private final List<Field> sourcePath;
+        private final List<Field> destinationPath;
+
+        /**
+         * @param destinationField destination field, null for {@link Kind#FLATTEN}
+         * @param type             adapter class for {@link Kind#ADAPTED} and {@link Kind#REVERSE_ADAPTED}, destination
+         *                         element type for {@link Kind#COLLECTION}, {@link Kind#ARRAY} and {@link Kind#MAP}
+         *                         values, null otherwise
+         * @param sourceElementType source element type for {@link Kind#COLLECTION}, {@link Kind#ARRAY} and
+         *                          {@link Kind#MAP} values, null otherwise
+         */
+        Entry(final Kind kind, final Field sourceField, final Field destinationField, final Class<?> type,
+              final Class<?> sourceElementType) {
+            this(kind, sourceField, destinationField, type, sourceElementType, List.of(), List.of());
+        }
+
+        /**
+         * @param sourcePath      nested bean fields leading from the source to the bean declaring the source field,
+         *                        empty when the source declares it
+         * @param destinationPath nested bean fields leading from the destination to the bean declaring the destination
+         *                        field, empty when the destination declares it
+         */
+        Entry(final Kind kind, final Field sourceField, final Field destinationField, final Class<?> type,
+              final Class<?> sourceElementType, final List<Field> sourcePath, final List<Field> destinationPath) {
+            this.kind = kind;
+            this.sourceField = sourceField;
+            this.destinationField = destinationField;
+            this.type = type;
+            this.sourceElementType = sourceElementType;
+            this.sourcePath = sourcePath;
+            this.destinationPath = destinationPath;
+        }
+
+        /**
+         * @param sourcePath      nested bean fields leading to the bean declaring the source field
+         * @param destinationPath nested bean fields leading to the bean declaring the destination field
+         * @return this field pair read and written through the paths
+         */
+        Entry along(final List<Field> sourcePath, final List<Field> destinationPath) {
+            return new Entry(kind, sourceField, destinationField, type, sourceElementType, sourcePath,
+                    destinationPath);
+        }
+
+        Kind kind() {
+            return kind;
+        }
+
+        Field sourceField() {
+            return sourceField;
+        }
+
+        Field destinationField() {
+            return destinationField;
+        }
+
+        Class<?> type() {
+            return type;
+        }
+
+        Class<?> sourceElementType() {
+            return sourceElementType;
+        }
+
+        List<Field> sourcePath() {
+            return sourcePath;
+        }
+
+        List<Field> destinationPath() {
+            return destinationPath;
+        }
+
+        /**
+         * @return true when the field pair reads from or writes into a nested bean through a field path
+         */
+        boolean hasPath() {
+            return !sourcePath.isEmpty() || !destinationPath.isEmpty();
+        }
+
+        /**
+         * @return field pair of the opposite direction, null when the pair cannot be reversed
+         */
+        private Entry reverse() {
+            Entry reverse = reverseFields();
+            return reverse == null || !hasPath() ? reverse : reverse.along(destinationPath, sourcePath);
+        }
+
+        private Entry reverseFields() {
+            switch (kind) {
+                case VALUE:
+                case CONVERTED:
+                case BEAN:
+                    return new Entry(kind, destinationField, sourceField, null, null);
+                case ADAPTED:
+                    return new Entry(Kind.REVERSE_ADAPTED, destinationField, sourceField, type, null);
+                case REVERSE_ADAPTED:
+                    return new Entry(Kind.ADAPTED, destinationField, sourceField, type, null);
+                case COLLECTION:
+                case ARRAY:
+                    Class<?> fieldType = sourceField.getType();
+                    if (fieldType.isArray()) {
+                        return new Entry(Kind.ARRAY, destinationField, sourceField, sourceElementType, type);
+                    }
+                    return Collection.class.isAssignableFrom(fieldType)
+                            ? new Entry(Kind.COLLECTION, destinationField, sourceField, sourceElementType, type)
+                            : null;
+                case MAP:
+                    return new Entry(Kind.MAP, destinationField, sourceField, sourceElementType, type);
+                default:
+                    return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package de.johnsoneyo.mapper;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Lazily resolved reference to a nested {@link MappingPlan}
+ * <p>
+ * Nested plans are looked up on first use rather than while the owning plan is built, which keeps self referencing
+ * classes from recursing endlessly during plan creation. The last resolved plan is kept so monomorphic fields skip
+ * the cache lookup altogether. It is kept weakly, so a plan of a resident class never pins the class loader of a
+ * polymorphic value mapped through it.
+ * </p>
+ */
+final class PlanReference {
+
+    private final MappingPlanCache plans;
+    private final Class<?> destinationType;
+    private final ReusePolicy reusePolicy;
+    private final MappingOptions options;
+    private WeakReference<MappingPlan> resolved;
+
+    PlanReference(final MappingPlanCache plans, final Class<?> destinationType) {
+        this(plans, destinationType, ReusePolicy.NONE);
+    }
+
+    /**
+     * @param reusePolicy policy of the owning plan, nested plans are resolved with the same policy
+     */
+    PlanReference(final MappingPlanCache plans, final Class<?> destinationType, final ReusePolicy reusePolicy) {
+        this(plans, destinationType, reusePolicy, MappingOptions.DEFAULT);
+    }
+
+    /**
+     * @param options options of the nested plans, derived from the options of the owning plan
+     */
+    PlanReference(final MappingPlanCache plans, final Class<?> destinationType, final ReusePolicy reusePolicy,
+                  final MappingOptions options) {
+        this.plans = plans;
+        this.destinationType = destinationType;
+        this.reusePolicy = reusePolicy;
+        this.options = options;
+    }
+
+    /**
+     * @param sourceType runtime class of the source value
+     * @return plan mapping the source value onto the destination type
+     */
+    MappingPlan forSource(final Class<?> sourceType) {
+        WeakReference<MappingPlan> reference = resolved;
+        MappingPlan plan = reference != null ? reference.get() : null;
+        if (plan == null || plan.sourceType() != sourceType) {
+            plan = plans.plan(sourceType, destinationType, reusePolicy, options);
+            resolved = new WeakReference<>(plan);
+        }
+        return plan;
+    }
+
+    Class<?> destinationType() {
+        return destinationType;
+    }
+}
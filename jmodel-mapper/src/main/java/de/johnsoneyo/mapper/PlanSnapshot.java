@@ -0,0 +1,398 @@
+package de.johnsoneyo.mapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary file of {@link PlanRecipe}s, read on later starts instead of scanning fields and annotations again
+ * <p>
+ * The file is memory mapped, only its string table and the position of every class pair are read when it is loaded,
+ * the field pairs of a class pair are decoded when its plan is first built. Field offsets and handles are not stable
+ * across JVM runs, so fields are stored by declaring class and name and resolved with a single lookup. Every class a
+ * recipe reads fields of is stored with the CRC32 of its class file, an entry whose classes changed since it was
+ * written is rejected and its pair resolved reflectively.
+ * </p>
+ * <pre>
+ * int magic, int version
+ * int count, count x (unsigned short length, UTF-8 bytes)             strings
+ * int count, count x (int class name, long fingerprint)                classes
+ * int count, count x (int source class, int destination class,         plans
+ *                     int count, count x entry,
+ *                     int count, count x int unmapped field name)
+ * entry: byte kind, int source field class, int source field name, int destination field class,
+ *        int destination field name, int type, int source element type, -1 where absent
+ * </pre>
+ */
+final class PlanSnapshot {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PlanSnapshot.class);
+
+    /**
+     * Snapshot of a mapper configured without snapshot file
+     */
+    static final PlanSnapshot NONE = new PlanSnapshot(null, null, new String[0], Map.of(), Map.of());
+
+    private static final int MAGIC = 0x4A4D5053;
+    private static final int VERSION = 3;
+    private static final int ENTRY_SIZE = 1 + 6 * Integer.BYTES;
+    private static final int ABSENT = -1;
+    private static final long NO_FINGERPRINT = -1L;
+    private static final PlanRecipe.Kind[] KINDS = PlanRecipe.Kind.values();
+
+    private final Path path;
+    private final ByteBuffer buffer;
+    private final String[] strings;
+    private final Map<String, Long> fingerprints;
+    private final Map<String, Integer> positions;
+    private final ClassValue<Boolean> current = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(final Class<?> type) {
+            Long fingerprint = fingerprints.get(type.getName());
+            return fingerprint != null && fingerprint == fingerprint(type);
+        }
+    };
+    private final AtomicBoolean incomplete = new AtomicBoolean();
+
+    private PlanSnapshot(final Path path, final ByteBuffer buffer, final String[] strings,
+                         final Map<String, Long> fingerprints, final Map<String, Integer> positions) {
+        this.path = path;
+        this.buffer = buffer;
+        this.strings = strings;
+        this.fingerprints = fingerprints;
+        this.positions = positions;
+    }
+
+    /**
+     * @param path snapshot file, missing on the first run
+     * @return snapshot of the file, empty when the file is missing or unreadable so every plan is resolved anew
+     */
+    static PlanSnapshot load(final Path path) {
+        if (!Files.isRegularFile(path)) {
+            return empty(path);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mapping stays valid once the channel is closed
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(path, buffer);
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("plan snapshot {} could not be read, plans are resolved anew", path, e);
+            return empty(path);
+        }
+    }
+
+    private static PlanSnapshot empty(final Path path) {
+        return new PlanSnapshot(path, null, new String[0], Map.of(), Map.of());
+    }
+
+    private static PlanSnapshot read(final Path path, final ByteBuffer buffer) {
+        ByteBuffer reader = buffer.duplicate();
+        if (reader.getInt() != MAGIC || reader.getInt() != VERSION) {
+            LOG.warn("plan snapshot {} has an unknown format, plans are resolved anew", path);
+            return empty(path);
+        }
+
+        String[] strings = new String[reader.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[Short.toUnsignedInt(reader.getShort())];
+            reader.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        int classCount = reader.getInt();
+        Map<String, Long> fingerprints = new HashMap<>(classCount * 2);
+        for (int i = 0; i < classCount; i++) {
+            fingerprints.put(strings[reader.getInt()], reader.getLong());
+        }
+
+        int planCount = reader.getInt();
+        Map<String, Integer> positions = new HashMap<>(planCount * 2);
+        for (int i = 0; i < planCount; i++) {
+            String key = key(strings[reader.getInt()], strings[reader.getInt()]);
+            positions.put(key, reader.position());
+            int entryCount = reader.getInt();
+            reader.position(reader.position() + entryCount * ENTRY_SIZE);
+            int unmappedCount = reader.getInt();
+            reader.position(reader.position() + unmappedCount * Integer.BYTES);
+        }
+        return new PlanSnapshot(path, buffer, strings, fingerprints, positions);
+    }
+
+    /**
+     * @param sourceType      source class
+     * @param destinationType destination class
+     * @return field pairs of the classes, null when the snapshot holds no current entry for them
+     */
+    PlanRecipe recipe(final Class<?> sourceType, final Class<?> destinationType) {
+        if (path == null) {
+            return null;
+        }
+        Integer position = positions.get(key(sourceType.getName(), destinationType.getName()));
+        if (position == null) {
+            incomplete.set(true);
+            return null;
+        }
+
+        PlanRecipe recipe = null;
+        try {
+            recipe = decode(position, sourceType, destinationType);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.debug("recipe: entry {} -> {} cannot be resolved", sourceType.getName(), destinationType.getName(), e);
+        }
+        if (recipe == null) {
+            LOG.info("plan snapshot entry {} -> {} is stale and resolved anew", sourceType.getName(),
+                    destinationType.getName());
+            incomplete.set(true);
+        }
+        return recipe;
+    }
+
+    private PlanRecipe decode(final int position, final Class<?> sourceType, final Class<?> destinationType)
+            throws ReflectiveOperationException {
+
+        // a field added to a superclass changes the recipe without touching the pair classes themselves
+        for (Class<?> type : hierarchies(sourceType, destinationType)) {
+            if (!isCurrent(type)) {
+                return null;
+            }
+        }
+        int offset = position;
+        int entryCount = buffer.getInt(offset);
+        offset += Integer.BYTES;
+
+        List<PlanRecipe.Entry> entries = new ArrayList<>(entryCount);
+        for (int i = 0; i < entryCount; i++, offset += ENTRY_SIZE) {
+            PlanRecipe.Kind kind = KINDS[buffer.get(offset)];
+            Field sourceField = field(sourceType, buffer.getInt(offset + 1), buffer.getInt(offset + 5));
+            int destinationOwner = buffer.getInt(offset + 9);
+            Field destinationField = destinationOwner == ABSENT
+                    ? null : field(destinationType, destinationOwner, buffer.getInt(offset + 13));
+            if (sourceField == null || (destinationOwner != ABSENT && destinationField == null)) {
+                return null;
+            }
+            entries.add(new PlanRecipe.Entry(kind, sourceField, destinationField,
+                    type(destinationType, buffer.getInt(offset + 17)), type(sourceType, buffer.getInt(offset + 21))));
+        }
+
+        int unmappedCount = buffer.getInt(offset);
+        offset += Integer.BYTES;
+        List<String> unmapped = new ArrayList<>(unmappedCount);
+        for (int i = 0; i < unmappedCount; i++, offset += Integer.BYTES) {
+            unmapped.add(strings[buffer.getInt(offset)]);
+        }
+        return new PlanRecipe(sourceType, destinationType, entries, unmapped);
+    }
+
+    /**
+     * @param anchor class of the pair the field belongs to, its loader resolves the declaring class
+     * @return accessible field, null when its declaring class changed since the snapshot was written
+     */
+    private Field field(final Class<?> anchor, final int owner, final int name) throws ReflectiveOperationException {
+        Class<?> declaringClass = type(anchor, owner);
+        if (!isCurrent(declaringClass)) {
+            return null;
+        }
+        Field field = declaringClass.getDeclaredField(strings[name]);
+        if (Modifier.isStatic(field.getModifiers())) {
+            return null;
+        }
+        field.setAccessible(true);
+        return field;
+    }
+
+    private Class<?> type(final Class<?> anchor, final int name) throws ClassNotFoundException {
+        if (name == ABSENT) {
+            return null;
+        }
+        String className = strings[name];
+        return className.equals(anchor.getName()) ? anchor : Class.forName(className, false, anchor.getClassLoader());
+    }
+
+    private boolean isCurrent(final Class<?> type) {
+        return current.get(type);
+    }
+
+    /**
+     * Writes the recipes of the mapper when some plan was not found current in this snapshot, failures are logged
+     * since the snapshot only speeds up later starts
+     *
+     * @param recipes field pairs of every plan built
+     */
+    void updateIfIncomplete(final Collection<PlanRecipe> recipes) {
+        if (path == null || !incomplete.compareAndSet(true, false)) {
+            return;
+        }
+        try {
+            write(path, recipes);
+        } catch (IOException e) {
+            LOG.warn("plan snapshot {} could not be written", path, e);
+        }
+    }
+
+    /**
+     * @param path    snapshot file, replaced atomically where the file system allows it
+     * @param recipes field pairs to persist, recipes reading fields of a class without class file or through field
+     *                paths are left out
+     * @throws IOException when the file cannot be written
+     */
+    static void write(final Path path, final Collection<PlanRecipe> recipes) throws IOException {
+
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        Map<String, Long> fingerprints = new LinkedHashMap<>();
+        ByteArrayOutputStream plans = new ByteArrayOutputStream();
+        DataOutputStream planOutput = new DataOutputStream(plans);
+        int planCount = 0;
+        for (PlanRecipe recipe : recipes) {
+            // field paths run through nested classes the entry format has no room for, such pairs are scanned anew
+            if (hasPaths(recipe) || !addFingerprints(recipe, fingerprints)) {
+                continue;
+            }
+            planCount++;
+            planOutput.writeInt(index(strings, recipe.sourceType()));
+            planOutput.writeInt(index(strings, recipe.destinationType()));
+            planOutput.writeInt(recipe.entries().size());
+            for (PlanRecipe.Entry entry : recipe.entries()) {
+                Field destinationField = entry.destinationField();
+                planOutput.writeByte(entry.kind().ordinal());
+                planOutput.writeInt(index(strings, entry.sourceField().getDeclaringClass()));
+                planOutput.writeInt(index(strings, entry.sourceField().getName()));
+                planOutput.writeInt(destinationField == null ? ABSENT : index(strings, destinationField.getDeclaringClass()));
+                planOutput.writeInt(destinationField == null ? ABSENT : index(strings, destinationField.getName()));
+                planOutput.writeInt(entry.type() == null ? ABSENT : index(strings, entry.type()));
+                planOutput.writeInt(entry.sourceElementType() == null ? ABSENT : index(strings, entry.sourceElementType()));
+            }
+            planOutput.writeInt(recipe.unmapped().size());
+            for (String fieldName : recipe.unmapped()) {
+                planOutput.writeInt(index(strings, fieldName));
+            }
+        }
+        for (String className : fingerprints.keySet()) {
+            index(strings, className);
+        }
+
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream(plans.size() + 64 * strings.size());
+        DataOutputStream output = new DataOutputStream(snapshot);
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeInt(strings.size());
+        for (String string : strings.keySet()) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            output.writeShort(bytes.length);
+            output.write(bytes);
+        }
+        output.writeInt(fingerprints.size());
+        for (Map.Entry<String, Long> fingerprint : fingerprints.entrySet()) {
+            output.writeInt(strings.get(fingerprint.getKey()));
+            output.writeLong(fingerprint.getValue());
+        }
+        output.writeInt(planCount);
+        plans.writeTo(output);
+        output.flush();
+
+        Path target = path.toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporary, snapshot.toByteArray());
+            try {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static List<Class<?>> hierarchies(final Class<?> sourceType, final Class<?> destinationType) {
+        List<Class<?>> classes = new ArrayList<>(FieldHierarchy.hierarchy(sourceType));
+        classes.addAll(FieldHierarchy.hierarchy(destinationType));
+        return classes;
+    }
+
+    private static boolean hasPaths(final PlanRecipe recipe) {
+        for (PlanRecipe.Entry entry : recipe.entries()) {
+            if (entry.hasPath()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return false when a class of the recipe has no class file to fingerprint
+     */
+    private static boolean addFingerprints(final PlanRecipe recipe, final Map<String, Long> fingerprints) {
+        List<Class<?>> classes = hierarchies(recipe.sourceType(), recipe.destinationType());
+        for (PlanRecipe.Entry entry : recipe.entries()) {
+            classes.add(entry.sourceField().getDeclaringClass());
+            if (entry.destinationField() != null) {
+                classes.add(entry.destinationField().getDeclaringClass());
+            }
+        }
+        Map<String, Long> added = new HashMap<>();
+        for (Class<?> type : classes) {
+            long fingerprint = fingerprint(type);
+            if (fingerprint == NO_FINGERPRINT) {
+                return false;
+            }
+            added.put(type.getName(), fingerprint);
+        }
+        fingerprints.putAll(added);
+        return true;
+    }
+
+    /**
+     * @return CRC32 of the class file, {@link #NO_FINGERPRINT} for classes defined at runtime
+     */
+    static long fingerprint(final Class<?> type) {
+        String name = type.getName();
+        try (InputStream input = type.getResourceAsStream(name.substring(name.lastIndexOf('.') + 1) + ".class")) {
+            if (input == null) {
+                return NO_FINGERPRINT;
+            }
+            CRC32 crc = new CRC32();
+            byte[] chunk = new byte[8192];
+            for (int read = input.read(chunk); read != -1; read = input.read(chunk)) {
+                crc.update(chunk, 0, read);
+            }
+            return crc.getValue();
+        } catch (IOException e) {
+            return NO_FINGERPRINT;
+        }
+    }
+
+    private static int index(final Map<String, Integer> strings, final Class<?> type) {
+        return index(strings, type.getName());
+    }
+
+    private static int index(final Map<String, Integer> strings, final String string) {
+        return strings.computeIfAbsent(string, key -> strings.size());
+    }
+
+    private static String key(final String sourceType, final String destinationType) {
+        return sourceType + " -> " + destinationType;
+    }
+}
@@ -0,0 +1,282 @@
+package de.johnsoneyo.mapper;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Bounded store of the plans of one mapper, keyed by source class, destination class and plan variant without
+ * pinning the class loaders of the classes
+ * <p>
+ * Plans reference the classes they map. Plans of classes loaded by the class loader of the mapper or one of its
+ * parents, which live at least as long as the mapper, are held by the store itself. Every other plan is kept in a
+ * {@link ClassValue} of the class whose class loader is the descendant of the other one, so it is only reachable
+ * through the class unloaded first, and a module or plugin class loader dropped by the application is unloaded together
+ * with the plans of its classes. Class pairs of unrelated class loaders are kept on the source class and keep the
+ * destination class loader alive until their plan is evicted or the store is cleared.
+ * </p>
+ * <p>
+ * Once the store holds its maximum number of plans, every new plan evicts the least recently used or the oldest plan.
+ * Finding the plan to evict scans the store and only happens on a cache miss. Recency is tracked per cache miss
+ * rather than per lookup, so lookups never write shared state.
+ * </p>
+ */
+final class PlanStore {
+
+    private final Map<Key, Entry> residents = new ConcurrentHashMap<>();
+    private final ClassValue<Map<Key, Entry>> owners = new ClassValue<>() {
+        @Override
+        protected Map<Key, Entry> computeValue(final Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+    // holds no reference to the store, so a discarded mapper is not pinned by the classes it mapped
+    private final ClassValue<Boolean> resident;
+    private final int maximumSize;
+    private final boolean leastRecentlyUsed;
+    private final AtomicInteger size = new AtomicInteger();
+    private final Queue<EntryReference> entries = new ConcurrentLinkedQueue<>();
+    private final ReferenceQueue<Entry> unloaded = new ReferenceQueue<>();
+    private final AtomicLong clock = new AtomicLong();
+
+    /**
+     * @param classLoader    class loader of the mapper, classes of it and its parents are held by the store itself
+     * @param maximumSize    number of plans kept at most
+     * @param evictionPolicy plan dropped once the store is full
+     */
+    PlanStore(final ClassLoader classLoader, final int maximumSize, final EvictionPolicy evictionPolicy) {
+        this.resident = new Residency(classLoader);
+        this.maximumSize = maximumSize;
+        this.leastRecentlyUsed = evictionPolicy == EvictionPolicy.LEAST_RECENTLY_USED;
+    }
+
+    /**
+     * @param variant plan variant, compared by equality
+     * @return stored plan, null when none is stored
+     */
+    Object get(final Class<?> sourceType, final Class<?> destinationType, final Object variant) {
+        Entry entry = plans(sourceType, destinationType).get(new Key(sourceType, destinationType, variant));
+        if (entry == null) {
+            return null;
+        }
+        // every lookup of another plan advances the clock, repeated lookups of the latest plan read only
+        if (leastRecentlyUsed && entry.used != clock.get()) {
+            entry.used = clock.incrementAndGet();
+        }
+        return entry.value;
+    }
+
+    /**
+     * @param plan plan to store unless a plan of the same key is stored already
+     * @return the plan stored before, null when the plan was stored
+     */
+    Object putIfAbsent(final Class<?> sourceType, final Class<?> destinationType, final Object variant,
+                       final Object plan) {
+        Map<Key, Entry> plans = plans(sourceType, destinationType);
+        Key key = new Key(sourceType, destinationType, variant);
+        // newer than every plan looked up so far
+        Entry created = new Entry(plans, key, plan, clock.incrementAndGet());
+        Entry existing = plans.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing.value;
+        }
+        entries.add(new EntryReference(created, unloaded));
+        expunge();
+        if (size.incrementAndGet() > maximumSize) {
+            evict();
+        }
+        return null;
+    }
+
+    /**
+     * @param variants filter of the plan variants to collect
+     * @return plans of the matching variants stored on classes not unloaded so far
+     */
+    List<Object> values(final Predicate<Object> variants) {
+        List<Object> values = new ArrayList<>();
+        for (EntryReference reference : entries) {
+            Entry entry = reference.get();
+            if (entry != null && variants.test(entry.key.variant)) {
+                values.add(entry.value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @return number of plans stored, including plans of classes unloaded since the last plan was stored
+     */
+    int size() {
+        return size.get();
+    }
+
+    /**
+     * Drops every plan
+     */
+    synchronized void clear() {
+        EntryReference reference;
+        while ((reference = entries.poll()) != null) {
+            remove(reference);
+        }
+    }
+
+    private synchronized void evict() {
+        while (size.get() > maximumSize) {
+            EntryReference victim = null;
+            long victimUsed = Long.MAX_VALUE;
+            for (EntryReference reference : entries) {
+                Entry entry = reference.get();
+                if (entry == null) {
+                    continue;
+                }
+                if (!leastRecentlyUsed) {
+                    // the queue is in insertion order
+                    victim = reference;
+                    break;
+                }
+                if (entry.used < victimUsed) {
+                    victim = reference;
+                    victimUsed = entry.used;
+                }
+            }
+            if (victim == null || !entries.remove(victim)) {
+                return;
+            }
+            remove(victim);
+        }
+    }
+
+    /**
+     * Forgets the plans whose class was unloaded
+     */
+    private void expunge() {
+        Object reference;
+        while ((reference = unloaded.poll()) != null) {
+            if (entries.remove(reference)) {
+                size.decrementAndGet();
+            }
+        }
+    }
+
+    private void remove(final EntryReference reference) {
+        Entry entry = reference.get();
+        if (entry != null) {
+            entry.plans.remove(entry.key, entry);
+        }
+        reference.clear();
+        size.decrementAndGet();
+    }
+
+    private Map<Key, Entry> plans(final Class<?> sourceType, final Class<?> destinationType) {
+        Class<?> owner = owner(sourceType, destinationType);
+        return resident.get(owner) ? residents : owners.get(owner);
+    }
+
+    /**
+     * @return the class of the pair unloaded first, whose class loader is a descendant of the other one or shares it
+     */
+    private static Class<?> owner(final Class<?> sourceType, final Class<?> destinationType) {
+        ClassLoader sourceLoader = sourceType.getClassLoader();
+        ClassLoader destinationLoader = destinationType.getClassLoader();
+        if (sourceLoader == destinationLoader || destinationLoader == null) {
+            return sourceType;
+        }
+        if (sourceLoader == null) {
+            return destinationType;
+        }
+        for (ClassLoader parent = destinationLoader.getParent(); parent != null; parent = parent.getParent()) {
+            if (parent == sourceLoader) {
+                return destinationType;
+            }
+        }
+        return sourceType;
+    }
+
+    /**
+     * Tells the classes loaded by a class loader or one of its parents
+     */
+    private static final class Residency extends ClassValue<Boolean> {
+
+        private final WeakReference<ClassLoader> classLoader;
+
+        private Residency(final ClassLoader classLoader) {
+            this.classLoader = new WeakReference<>(classLoader);
+        }
+
+        @Override
+        protected Boolean computeValue(final Class<?> type) {
+            ClassLoader typeLoader = type.getClassLoader();
+            for (ClassLoader loader = classLoader.get(); loader != null; loader = loader.getParent()) {
+                if (loader == typeLoader) {
+                    return Boolean.TRUE;
+                }
+            }
+            return typeLoader == null;
+        }
+    }
+
+    /**
+     * Key of a plan, held only by the map holding the plan
+     */
+    private static final class Key {
+
+        private final Class<?> sourceType;
+        private final Class<?> destinationType;
+        private final Object variant;
+        private final int hash;
+
+        private Key(final Class<?> sourceType, final Class<?> destinationType, final Object variant) {
+            this.sourceType = sourceType;
+            this.destinationType = destinationType;
+            this.variant = variant;
+            this.hash = 31 * (31 * sourceType.hashCode() + destinationType.hashCode()) + variant.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return sourceType == key.sourceType && destinationType == key.destinationType
+                    && variant.equals(key.variant);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Stored plan with the map holding it, reachable from the eviction order only weakly
+     */
+    private static final class Entry {
+
+        private final Map<Key, Entry> plans;
+        private final Key key;
+        private final Object value;
+        private volatile long used;
+
+        private Entry(final Map<Key, Entry> plans, final Key key, final Object value, final long used) {
+            this.plans = plans;
+            this.key = key;
+            this.value = value;
+            this.used = used;
+        }
+    }
+
+    private static final class EntryReference extends WeakReference<Entry> {
+
+        private EntryReference(final Entry entry, final ReferenceQueue<Entry> queue) {
+            super(entry, queue);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package de.johnsoneyo.mapper;
+
+import de.johnsoneyo.mapper.MappingPlanCache.ClassPair;
+import de.johnsoneyo.mapper.exception.MappingValidationException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Builds and validates the plans of a set of class pairs and of every nested pair they reach ahead of the first mapping
+ * <p>
+ * Pairs are built level by level, all plans of a level in parallel on the executor, the nested pairs declared by the
+ * field types of a level make up the next one. Problems of all plans are collected and raised together.
+ * </p>
+ */
+final class PlanWarmUp {
+
+    private PlanWarmUp() {
+    }
+
+    /**
+     * @param plans    plan cache of the mapper, filled with the plans built
+     * @param pairs    class pairs to build
+     * @param executor executor building the plans of a level
+     * @throws MappingValidationException with every problem found
+     */
+    static void warmUp(final MappingPlanCache plans, final Collection<ClassPair> pairs, final Executor executor) {
+
+        Set<ClassPair> visited = ConcurrentHashMap.newKeySet();
+        Set<String> problems = ConcurrentHashMap.newKeySet();
+        List<ClassPair> level = new ArrayList<>(pairs);
+        while (!level.isEmpty()) {
+            List<CompletableFuture<List<ClassPair>>> built = new ArrayList<>(level.size());
+            for (ClassPair pair : level) {
+                if (visited.add(pair)) {
+                    built.add(CompletableFuture.supplyAsync(() -> build(plans, pair, problems), executor));
+                }
+            }
+            level = new ArrayList<>();
+            for (CompletableFuture<List<ClassPair>> dependencies : built) {
+                level.addAll(dependencies.join());
+            }
+        }
+
+        if (!problems.isEmpty()) {
+            throw new MappingValidationException(new ArrayList<>(new TreeSet<>(problems)));
+        }
+    }
+
+    private static List<ClassPair> build(final MappingPlanCache plans, final ClassPair pair, final Set<String> problems) {
+        try {
+            PlanDiagnostics diagnostics = plans.plan(pair.sourceType(), pair.destinationType()).diagnostics();
+            problems.addAll(diagnostics.problems());
+            return diagnostics.dependencies();
+        } catch (RuntimeException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            problems.add(pair.sourceType().getName() + " -> " + pair.destinationType().getName() + ": "
+                    + e.getMessage() + " (" + cause + ")");
+            return List.of();
+        }
+    }
+}
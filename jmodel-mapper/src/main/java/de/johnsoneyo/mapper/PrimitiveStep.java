@@ -0,0 +1,148 @@
+package de.johnsoneyo.mapper;
+
+/**
+ * Copies a primitive or wrapper value onto a field of a wider primitive or wrapper type, such as {@code int} to
+ * {@code long} or {@code Integer} to {@code double}
+ * <p>
+ * Primitive fields are read and written through the typed methods of {@link FieldAccessor}, no wrapper is allocated
+ * unless one of the fields is declared with a wrapper type. A null wrapper value is copied as null and rejected by a
+ * primitive destination field like any other incompatible value.
+ * </p>
+ */
+final class PrimitiveStep implements CopyStep {
+
+    private static final int BOOLEAN = 0;
+    private static final int BYTE = 1;
+    private static final int CHAR = 2;
+    private static final int SHORT = 3;
+    private static final int INT = 4;
+    private static final int LONG = 5;
+    private static final int FLOAT = 6;
+    private static final int DOUBLE = 7;
+
+    private final FieldAccessor sourceField;
+    private final FieldAccessor destinationField;
+    private final boolean sourceBoxed;
+    private final boolean destinationBoxed;
+    private final int destinationKind;
+
+    PrimitiveStep(final FieldAccessor sourceField, final FieldAccessor destinationField) {
+        this.sourceField = sourceField;
+        this.destinationField = destinationField;
+        Class<?> sourceType = sourceField.field().getType();
+        Class<?> destinationType = destinationField.field().getType();
+        this.sourceBoxed = !sourceType.isPrimitive();
+        this.destinationBoxed = !destinationType.isPrimitive();
+        this.destinationKind = Primitives.index(Primitives.unwrap(destinationType));
+    }
+
+    @Override
+    public void copy(final Object source, final Object destination) throws Exception {
+
+        Object boxed = null;
+        if (sourceBoxed) {
+            boxed = sourceField.get(source);
+            if (boxed == null) {
+                destinationField.set(destination, null);
+                return;
+            }
+        }
+
+        switch (destinationKind) {
+            case BOOLEAN: {
+                boolean value = sourceBoxed ? (Boolean) boxed : sourceField.getBoolean(source);
+                if (destinationBoxed) {
+                    destinationField.set(destination, value);
+                } else {
+                    destinationField.setBoolean(destination, value);
+                }
+                return;
+            }
+            case BYTE: {
+                byte value = sourceBoxed ? (Byte) boxed : sourceField.getByte(source);
+                if (destinationBoxed) {
+                    destinationField.set(destination, value);
+                } else {
+                    destinationField.setByte(destination, value);
+                }
+                return;
+            }
+            case CHAR: {
+                char value = sourceBoxed ? (Character) boxed : sourceField.getChar(source);
+                if (destinationBoxed) {
+                    destinationField.set(destination, value);
+                } else {
+                    destinationField.setChar(destination, value);
+                }
+                return;
+            }
+            case SHORT: {
+                short value = sourceBoxed ? number(boxed).shortValue() : sourceField.getShort(source);
+                if (destinationBoxed) {
+                    destinationField.set(destination, value);
+                } else {
+                    destinationField.setShort(destination, value);
+                }
+                return;
+            }
+            case INT: {
+                int value = sourceBoxed ? number(boxed).intValue() : sourceField.getInt(source);
+                if (destinationBoxed) {
+                    destinationField.set(destination, value);
+                } else {
+                    destinationField.setInt(destination, value);
+                }
+                return;
+            }
+            case LONG: {
+                long value = sourceBoxed ? number(boxed).longValue() : sourceField.getLong(source);
+                if (destinationBoxed) {
+                    destinationField.set(destination, value);
+                } else {
+                    destinationField.setLong(destination, value);
+                }
+                return;
+            }
+            case FLOAT: {
+                float value = sourceBoxed ? number(boxed).floatValue() : sourceField.getFloat(source);
+                if (destinationBoxed) {
+                    destinationField.set(destination, value);
+                } else {
+                    destinationField.setFloat(destination, value);
+                }
+                return;
+            }
+            case DOUBLE: {
+                double value = sourceBoxed ? number(boxed).doubleValue() : sourceField.getDouble(source);
+                if (destinationBoxed) {
+                    destinationField.set(destination, value);
+                } else {
+                    destinationField.setDouble(destination, value);
+                }
+                return;
+            }
+            default:
+                throw new IllegalStateException("no primitive destination " + destinationField.field());
+        }
+    }
+
+    /**
+     * @return true when both fields are declared with a primitive type
+     */
+    boolean isUnboxed() {
+        return !sourceBoxed && !destinationBoxed;
+    }
+
+    FieldAccessor sourceField() {
+        return sourceField;
+    }
+
+    FieldAccessor destinationField() {
+        return destinationField;
+    }
+
+    private static Number number(final Object boxed) {
+        // char widens to int and wider, Character is no Number
+        return boxed instanceof Character ? (int) (Character) boxed : (Number) boxed;
+    }
+}
@@ -0,0 +1,100 @@
+package de.johnsoneyo.mapper;
+
+import java.lang.reflect.Array;
+import java.util.List;
+
+/**
+ * Primitive type helpers of the built-in primitive converters
+ */
+final class Primitives {
+
+    /**
+     * Primitive types in the order of their wrappers below
+     */
+    static final List<Class<?>> TYPES = List.of(boolean.class, byte.class, char.class, short.class, int.class,
+            long.class, float.class, double.class);
+    private static final List<Class<?>> WRAPPERS = List.of(Boolean.class, Byte.class, Character.class, Short.class,
+            Integer.class, Long.class, Float.class, Double.class);
+
+    private Primitives() {
+    }
+
+    /**
+     * @param type class to unwrap
+     * @return primitive type of a wrapper class, the class itself otherwise
+     */
+    static Class<?> unwrap(final Class<?> type) {
+        int index = WRAPPERS.indexOf(type);
+        return index < 0 ? type : TYPES.get(index);
+    }
+
+    /**
+     * @param type class to wrap
+     * @return wrapper class of a primitive type, the class itself otherwise
+     */
+    static Class<?> wrap(final Class<?> type) {
+        int index = TYPES.indexOf(type);
+        return index < 0 ? type : WRAPPERS.get(index);
+    }
+
+    /**
+     * @param type class of a value
+     * @return boxed zero value of a primitive type, null for other classes
+     */
+    static Object zero(final Class<?> type) {
+        // the single element of a new primitive array holds the zero value of its type
+        return type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null;
+    }
+
+    /**
+     * @param type primitive type
+     * @return index of the primitive type in {@link #TYPES}
+     */
+    static int index(final Class<?> type) {
+        return TYPES.indexOf(type);
+    }
+
+    /**
+     * @param from primitive source type
+     * @param to   primitive destination type
+     * @return true when the types are equal or a widening primitive conversion (JLS 5.1.2) exists
+     */
+    static boolean isAssignable(final Class<?> from, final Class<?> to) {
+        if (from == to) {
+            return true;
+        }
+        if (from == boolean.class || to == boolean.class || to == char.class || to == byte.class) {
+            return false;
+        }
+        if (from == char.class) {
+            return to == int.class || to == long.class || to == float.class || to == double.class;
+        }
+        if (to == short.class) {
+            return from == byte.class;
+        }
+        // byte < short < int < long < float < double
+        return index(from) < index(to);
+    }
+
+    /**
+     * @param value boxed primitive value
+     * @param type  primitive type the value widens to, see {@link #isAssignable(Class, Class)}
+     * @return value boxed in the wrapper of the type
+     */
+    static Object widen(final Object value, final Class<?> type) {
+        Number number = value instanceof Character ? (int) (Character) value : (Number) value;
+        if (type == short.class) {
+            return number.shortValue();
+        }
+        if (type == int.class) {
+            return number.intValue();
+        }
+        if (type == long.class) {
+            return number.longValue();
+        }
+        if (type == float.class) {
+            return number.floatValue();
+        }
+        return number.doubleValue();
+    }
+}
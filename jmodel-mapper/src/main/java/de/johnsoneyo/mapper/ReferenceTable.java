@@ -0,0 +1,162 @@
+package de.johnsoneyo.mapper;
+
+import de.johnsoneyo.mapper.exception.JModelMapperException;
+
+import java.util.Arrays;
+
+/**
+ * Identity map of the source instances mapped by the current top level mapping of a thread, used by mappers preserving
+ * shared references
+ * <p>
+ * Keys are a source instance compared by identity together with the destination class it was mapped to, so a shared
+ * source object is mapped once per destination class and a cycle ends at the destination already created for it.
+ * The table uses open addressing with linear probing over plain arrays and is kept per thread, it is cleared when the
+ * outermost mapping of the thread ends. Tables grown beyond {@link #RETAINED_CAPACITY} are released instead, so one
+ * large graph does not pin its arrays to the thread.
+ * </p>
+ */
+final class ReferenceTable {
+
+    private static final ThreadLocal<ReferenceTable> TABLES = ThreadLocal.withInitial(ReferenceTable::new);
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int RETAINED_CAPACITY = 1 << 13;
+    private static final Object CONSTRUCTING = new Object();
+
+    private Object[] sources;
+    private Class<?>[] types;
+    private Object[] targets;
+    private int size;
+    private int depth;
+
+    private ReferenceTable() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Opens a mapping on the table of the calling thread, every call has to be paired with {@link #exit()}
+     *
+     * @return table of the calling thread
+     */
+    static ReferenceTable enter() {
+        ReferenceTable table = TABLES.get();
+        table.depth++;
+        return table;
+    }
+
+    /**
+     * @return table of the calling thread, entered by the top level mapping running on it
+     */
+    static ReferenceTable current() {
+        return TABLES.get();
+    }
+
+    /**
+     * Closes a mapping, the table is emptied once the outermost mapping of the thread is closed
+     */
+    void exit() {
+        if (--depth > 0) {
+            return;
+        }
+        if (sources.length > RETAINED_CAPACITY) {
+            allocate(INITIAL_CAPACITY);
+        } else if (size > 0) {
+            Arrays.fill(sources, null);
+            Arrays.fill(types, null);
+            Arrays.fill(targets, null);
+        }
+        size = 0;
+    }
+
+    /**
+     * @param source          source instance
+     * @param destinationType destination class the source is mapped to
+     * @return destination already mapped from the source instance, null when it was not mapped yet
+     * @throws JModelMapperException when the source instance is reached again while its destination is constructed
+     */
+    Object get(final Object source, final Class<?> destinationType) {
+        int mask = sources.length - 1;
+        for (int index = index(source, destinationType, mask); ; index = (index + 1) & mask) {
+            Object key = sources[index];
+            if (key == null) {
+                return null;
+            }
+            if (key == source && types[index] == destinationType) {
+                if (targets[index] == CONSTRUCTING) {
+                    throw new JModelMapperException("cyclic reference back to " + source.getClass().getName()
+                            + " cannot be preserved, " + source.getClass().getName() + " -> "
+                            + destinationType.getName() + " is created through a constructor once its fields are "
+                            + "mapped", null);
+                }
+                return targets[index];
+            }
+        }
+    }
+
+    /**
+     * Registers a source instance whose destination is created through its constructor, so a cycle back to it fails
+     * instead of recursing until the stack overflows. Replaced by {@link #put(Object, Class, Object)} once constructed
+     *
+     * @param source          source instance
+     * @param destinationType destination class the source is mapped to
+     */
+    void constructing(final Object source, final Class<?> destinationType) {
+        put(source, destinationType, CONSTRUCTING);
+    }
+
+    /**
+     * @param source          source instance
+     * @param destinationType destination class the source is mapped to
+     * @param destination     destination mapped from the source, registered before its fields are mapped
+     */
+    void put(final Object source, final Class<?> destinationType, final Object destination) {
+        if ((size + 1) * 2 > sources.length) {
+            resize();
+        }
+        int mask = sources.length - 1;
+        int index = index(source, destinationType, mask);
+        while (sources[index] != null) {
+            if (sources[index] == source && types[index] == destinationType) {
+                targets[index] = destination;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        sources[index] = source;
+        types[index] = destinationType;
+        targets[index] = destination;
+        size++;
+    }
+
+    private void resize() {
+        Object[] oldSources = sources;
+        Class<?>[] oldTypes = types;
+        Object[] oldTargets = targets;
+        allocate(oldSources.length * 2);
+        int mask = sources.length - 1;
+        for (int i = 0; i < oldSources.length; i++) {
+            if (oldSources[i] == null) {
+                continue;
+            }
+            int index = index(oldSources[i], oldTypes[i], mask);
+            while (sources[index] != null) {
+                index = (index + 1) & mask;
+            }
+            sources[index] = oldSources[i];
+            types[index] = oldTypes[i];
+            targets[index] = oldTargets[i];
+        }
+    }
+
+    private void allocate(final int capacity) {
+        sources = new Object[capacity];
+        types = new Class<?>[capacity];
+        targets = new Object[capacity];
+    }
+
+    private static int index(final Object source, final Class<?> destinationType, final int mask) {
+        int hash = System.identityHashCode(source) * 31 + System.identityHashCode(destinationType);
+        // spread the high bits, identity hashes of consecutive allocations differ in few low bits
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,110 @@
+package de.johnsoneyo.mapper;
+
+import java.lang.reflect.Field;
+
+/**
+ * {@link FieldAccessor} of the {@link MappingEngine#REFLECTION} engine
+ */
+final class ReflectionFieldAccessor implements FieldAccessor {
+
+    private final Field field;
+
+    ReflectionFieldAccessor(final Field field) {
+        this.field = field;
+    }
+
+    @Override
+    public Object get(final Object target) throws IllegalAccessException {
+        return field.get(target);
+    }
+
+    @Override
+    public void set(final Object target, final Object value) throws IllegalAccessException {
+        field.set(target, value);
+    }
+
+    @Override
+    public boolean getBoolean(final Object target) throws IllegalAccessException {
+        return field.getBoolean(target);
+    }
+
+    @Override
+    public byte getByte(final Object target) throws IllegalAccessException {
+        return field.getByte(target);
+    }
+
+    @Override
+    public char getChar(final Object target) throws IllegalAccessException {
+        return field.getChar(target);
+    }
+
+    @Override
+    public short getShort(final Object target) throws IllegalAccessException {
+        return field.getShort(target);
+    }
+
+    @Override
+    public int getInt(final Object target) throws IllegalAccessException {
+        return field.getInt(target);
+    }
+
+    @Override
+    public long getLong(final Object target) throws IllegalAccessException {
+        return field.getLong(target);
+    }
+
+    @Override
+    public float getFloat(final Object target) throws IllegalAccessException {
+        return field.getFloat(target);
+    }
+
+    @Override
+    public double getDouble(final Object target) throws IllegalAccessException {
+        return field.getDouble(target);
+    }
+
+    @Override
+    public void setBoolean(final Object target, final boolean value) throws IllegalAccessException {
+        field.setBoolean(target, value);
+    }
+
+    @Override
+    public void setByte(final Object target, final byte value) throws IllegalAccessException {
+        field.setByte(target, value);
+    }
+
+    @Override
+    public void setChar(final Object target, final char value) throws IllegalAccessException {
+        field.setChar(target, value);
+    }
+
+    @Override
+    public void setShort(final Object target, final short value) throws IllegalAccessException {
+        field.setShort(target, value);
+    }
+
+    @Override
+    public void setInt(final Object target, final int value) throws IllegalAccessException {
+        field.setInt(target, value);
+    }
+
+    @Override
+    public void setLong(final Object target, final long value) throws IllegalAccessException {
+        field.setLong(target, value);
+    }
+
+    @Override
+    public void setFloat(final Object target, final float value) throws IllegalAccessException {
+        field.setFloat(target, value);
+    }
+
+    @Override
+    public void setDouble(final Object target, final double value) throws IllegalAccessException {
+        field.setDouble(target, value);
+    }
+
+    @Override
+    public Field field() {
+        return field;
+    }
+}
@@ -0,0 +1,26 @@
+package de.johnsoneyo.mapper;
+
+/**
+ * Defines how {@link JModelMapper#mapInto(Object, Object, ReusePolicy)} treats nested beans and collections already
+ * present on the target
+ */
+public enum ReusePolicy {
+
+    /**
+     * Creates a new destination bean for every nested source bean and a new collection or map for every source one,
+     * the behaviour of {@link JModelMapper#map(Object, Class)}
+     */
+    NONE,
+
+    /**
+     * Updates nested beans already present on the target in place, clears existing collections and refills them with
+     * newly mapped elements
+     */
+    REFILL,
+
+    /**
+     * Updates nested beans in place like {@link #REFILL} and updates the elements of existing lists position by
+     * position, only missing elements are created and surplus elements are removed
+     */
+    UPDATE
+}
@@ -0,0 +1,19 @@
+package de.johnsoneyo.mapper;
+
+/**
+ * Order in which {@link JModelMapper} walks the nested beans of a source object graph
+ */
+public enum Traversal {
+
+    /**
+     * Maps every nested bean and bean element with a nested call as soon as it is reached, the depth of a graph is
+     * limited by the thread stack size
+     */
+    RECURSIVE,
+
+    /**
+     * Creates nested beans and bean elements where they are reached but maps their fields later from an explicit work
+     * stack kept per thread, so the depth of a graph such as a long linked chain is limited by the heap only
+     */
+    ITERATIVE
+}
@@ -0,0 +1,90 @@
+package de.johnsoneyo.mapper;
+
+import de.johnsoneyo.mapper.decorator.TypeAdapter;
+import de.johnsoneyo.mapper.exception.JModelMapperException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Constructor;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds one shared {@link TypeAdapter} instance per adapter class for a {@link JModelMapper}
+ * <p>
+ * Instances registered through {@link JModelMapper.Builder#typeAdapter(TypeAdapter)} are used as they are, which
+ * allows stateful adapters, every other adapter class is created once through its no arg constructor on first use.
+ * Created adapters are kept in a {@link ClassValue} of their class, so they never keep the class loader of an adapter
+ * alive.
+ * </p>
+ */
+final class TypeAdapterRegistry {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TypeAdapterRegistry.class);
+
+    private final Map<Class<?>, TypeAdapter<?, ?>> adapters = new ConcurrentHashMap<>();
+    private volatile ClassValue<TypeAdapter<?, ?>> created = new Created();
+
+    /**
+     * @param adapter pre-built adapter used for every field decorated with its class
+     */
+    void register(final TypeAdapter<?, ?> adapter) {
+        adapters.put(adapter.getClass(), adapter);
+    }
+
+    /**
+     * @return registry holding the adapters registered so far and none of the created ones, unaffected by later
+     * registrations on this one
+     */
+    TypeAdapterRegistry copy() {
+        TypeAdapterRegistry registry = new TypeAdapterRegistry();
+        registry.adapters.putAll(adapters);
+        return registry;
+    }
+
+    /**
+     * @param adapterType adapter class
+     * @return true when an instance of exactly the class was registered
+     */
+    boolean isRegistered(final Class<?> adapterType) {
+        return adapters.containsKey(adapterType);
+    }
+
+    /**
+     * @param adapterType adapter class declared with {@link de.johnsoneyo.mapper.decorator.TransformToType}
+     * @return shared adapter instance of the class
+     * @throws JModelMapperException when the adapter cannot be created
+     */
+    @SuppressWarnings("unchecked")
+    TypeAdapter<Object, Object> get(final Class<? extends TypeAdapter> adapterType) {
+        TypeAdapter<?, ?> adapter = adapters.get(adapterType);
+        return (TypeAdapter<Object, Object>) (adapter != null ? adapter : created.get(adapterType));
+    }
+
+    /**
+     * Drops every created adapter, registered adapters are kept
+     */
+    void clear() {
+        created = new Created();
+    }
+
+    private static TypeAdapter<?, ?> create(final Class<? extends TypeAdapter> adapterType) {
+        try {
+            Constructor<? extends TypeAdapter> constructor = adapterType.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.error("create: error occurred in creating type adapter {}", adapterType, e);
+            throw new JModelMapperException("error occurred updating object in type adapter", e);
+        }
+    }
+
+    private static final class Created extends ClassValue<TypeAdapter<?, ?>> {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected TypeAdapter<?, ?> computeValue(final Class<?> type) {
+            return create((Class<? extends TypeAdapter>) type);
+        }
+    }
+}
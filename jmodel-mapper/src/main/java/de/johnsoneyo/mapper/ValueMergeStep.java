@@ -0,0 +1,77 @@
+package de.johnsoneyo.mapper;
+
+import java.util.Objects;
+
+/**
+ * Maps a field through the {@link CopyStep} of a regular plan into a scratch slot and writes the value onto the
+ * destination only when it differs from the current one
+ * <p>
+ * Values are compared by content through a {@link ContentComparison}, so a collection of new beans equal field by field
+ * to the beans present counts as unchanged. A null bean along the source field path and a skipped null value change
+ * nothing, as they leave the destination field as it is when mapped.
+ * </p>
+ */
+final class ValueMergeStep implements MergeStep {
+
+    private final CopyStep step;
+    private final FieldAccessor[] sourcePath;
+    private final FieldAccessor nonNullField;
+    private final FieldAccessor destinationField;
+    private final int slot;
+    private final boolean iterative;
+    private final MappingPlanCache plans;
+
+    /**
+     * @param step         step writing the mapped value into the scratch slot
+     * @param sourcePath   nested beans leading to the bean the step reads from, empty for a field of the source itself
+     * @param nonNullField source field whose null value is skipped, null when null values are merged as well
+     * @param slot         index of the destination field in the change set
+     * @param iterative    true when the step defers nested plans to the {@link WorkStack} of the thread, which is
+     *                     drained before the value is compared
+     * @param plans        plan cache resolving the fields of compared beans
+     */
+    ValueMergeStep(final CopyStep step, final FieldAccessor[] sourcePath, final FieldAccessor nonNullField,
+                   final FieldAccessor destinationField, final int slot, final boolean iterative,
+                   final MappingPlanCache plans) {
+        this.step = step;
+        this.sourcePath = sourcePath;
+        this.nonNullField = nonNullField;
+        this.destinationField = destinationField;
+        this.slot = slot;
+        this.iterative = iterative;
+        this.plans = plans;
+    }
+
+    @Override
+    public void merge(final Object source, final Object destination, final Object[] scratch,
+                      final ChangeSet changes) throws Exception {
+        Object current = source;
+        for (FieldAccessor field : sourcePath) {
+            current = field.get(current);
+            if (current == null) {
+                return;
+            }
+        }
+        if (nonNullField != null && nonNullField.get(current) == null) {
+            return;
+        }
+
+        scratch[0] = null;
+        if (iterative) {
+            WorkStack work = WorkStack.current();
+            int base = work.size();
+            step.copy(current, scratch);
+            work.drain(base);
+        } else {
+            step.copy(current, scratch);
+        }
+        Object value = scratch[0];
+        scratch[0] = null;
+        Object existing = destinationField.get(destination);
+        // equal java values and unchanged collections of java values need no content comparison
+        if (!Objects.deepEquals(value, existing) && !new ContentComparison(plans).equivalent(value, existing)) {
+            destinationField.set(destination, value);
+            changes.mark(slot);
+        }
+    }
+}
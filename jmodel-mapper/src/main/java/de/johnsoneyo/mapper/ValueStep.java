@@ -0,0 +1,28 @@
+package de.johnsoneyo.mapper;
+
+/**
+ * Copies a java runtime value from a source field onto a destination field as is
+ */
+final class ValueStep implements CopyStep {
+
+    private final FieldAccessor sourceField;
+    private final FieldAccessor destinationField;
+
+    ValueStep(final FieldAccessor sourceField, final FieldAccessor destinationField) {
+        this.sourceField = sourceField;
+        this.destinationField = destinationField;
+    }
+
+    @Override
+    public void copy(final Object source, final Object destination) throws Exception {
+        destinationField.set(destination, sourceField.get(source));
+    }
+
+    FieldAccessor sourceField() {
+        return sourceField;
+    }
+
+    FieldAccessor destinationField() {
+        return destinationField;
+    }
+}
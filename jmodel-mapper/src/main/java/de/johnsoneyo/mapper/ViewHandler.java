@@ -0,0 +1,92 @@
+package de.johnsoneyo.mapper;
+
+import de.johnsoneyo.mapper.exception.JModelMapperException;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * Answers the method calls of a {@link LazyView} proxy, mapping every property of the view on its first read
+ * <p>
+ * Mapped values are kept in an array indexed like the properties of the {@link ViewPlan}. A view is meant to be read by
+ * one thread at a time, concurrent first reads of a property may map it twice. Views of cyclic source graphs can be
+ * read but not materialized, every access along a cycle creates a further nested view.
+ * </p>
+ */
+final class ViewHandler implements InvocationHandler {
+
+    private static final String GEN_ERROR_MESSAGE = "error occurred while mapping entity";
+    private static final Object UNREAD = new Object();
+
+    private final ViewPlan plan;
+    private final LazyViews views;
+    private final Object[] values;
+    private Object source;
+
+    ViewHandler(final Object source, final ViewPlan plan, final LazyViews views) {
+        this.source = source;
+        this.plan = plan;
+        this.views = views;
+        this.values = new Object[plan.size()];
+        Arrays.fill(values, UNREAD);
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] arguments) throws Throwable {
+        Integer index = plan.index(method);
+        if (index != null) {
+            return value(index);
+        }
+        Class<?> declaringClass = method.getDeclaringClass();
+        if (declaringClass == LazyView.class) {
+            if (method.getName().equals("materialize")) {
+                materialize();
+                return proxy;
+            }
+            return source == null;
+        }
+        if (declaringClass == Object.class) {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == arguments[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return plan.viewType().getSimpleName() + " view of " + (source == null ? "materialized source"
+                            : source.getClass().getSimpleName());
+            }
+        }
+        if (method.isDefault()) {
+            return ViewPlan.invokeDefault(proxy, method, arguments);
+        }
+        throw new UnsupportedOperationException(method.getName() + " of " + plan.viewType().getName()
+                + " is not a property of the lazy view");
+    }
+
+    private Object value(final int index) {
+        Object value = values[index];
+        if (value == UNREAD) {
+            try {
+                value = plan.read(index, source, views);
+            } catch (JModelMapperException exception) {
+                throw exception;
+            } catch (Exception exception) {
+                throw new JModelMapperException(GEN_ERROR_MESSAGE, exception);
+            }
+            values[index] = value;
+        }
+        return value;
+    }
+
+    private void materialize() {
+        if (source == null) {
+            return;
+        }
+        for (int i = 0; i < values.length; i++) {
+            LazyList.materialize(value(i));
+        }
+        // every property is mapped, the source graph is no longer referenced by the view
+        source = null;
+    }
+}
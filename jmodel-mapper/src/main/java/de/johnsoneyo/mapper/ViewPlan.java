@@ -0,0 +1,240 @@
+package de.johnsoneyo.mapper;
+
+import de.johnsoneyo.mapper.JModelMapperUtils.Utils;
+import de.johnsoneyo.mapper.decorator.TypeAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Properties of a view interface resolved against a source class for {@link LazyView}s
+ * <p>
+ * Every getter of the interface, {@code getName()}, {@code isActive()} or {@code name()}, is resolved once per source
+ * class to the source field of the property name, including inherited fields. The kind of a property decides how its
+ * value is produced on first read: java runtime values are returned as they are, widened or converted by the converters
+ * of the mapper, interfaces become nested views, lists of beans become lists mapping their elements on access and other
+ * classes are mapped eagerly through the plans of the mapper. Getters without source field return null or the zero
+ * value of their primitive type.
+ * </p>
+ */
+final class ViewPlan {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ViewPlan.class);
+
+    private final Class<?> viewType;
+    private final Map<Method, Integer> indexes;
+    private final Property[] properties;
+
+    private ViewPlan(final Class<?> viewType, final Map<Method, Integer> indexes, final Property[] properties) {
+        this.viewType = viewType;
+        this.indexes = indexes;
+        this.properties = properties;
+    }
+
+    /**
+     * @param sourceType    source class
+     * @param viewType      view interface
+     * @param configuration settings of the mapper, engine and converters
+     * @return properties of the view resolved against the source class
+     * @throws IllegalArgumentException when a getter cannot be produced from the source field of its property
+     */
+    static ViewPlan create(final Class<?> sourceType, final Class<?> viewType,
+                           final MapperConfiguration configuration) {
+        Map<String, Field> fields = FieldHierarchy.fields(sourceType);
+        Map<Method, Integer> indexes = new HashMap<>();
+        List<Property> properties = new ArrayList<>();
+        for (Method method : viewType.getMethods()) {
+            if (method.isDefault() || Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 0
+                    || method.getReturnType() == void.class) {
+                continue;
+            }
+            String name = propertyName(method);
+            Field field = fields.get(name);
+            if (field == null) {
+                // reported once per view plan instead of once per read
+                LOG.warn("property {} of {} not found in {}", name, viewType.getName(), sourceType.getName());
+            }
+            indexes.put(method, properties.size());
+            properties.add(property(method, field, configuration));
+        }
+        return new ViewPlan(viewType, indexes, properties.toArray(new Property[0]));
+    }
+
+    /**
+     * @param method method invoked on a view
+     * @return index of the property read by the getter, null when the method is no property getter
+     */
+    Integer index(final Method method) {
+        return indexes.get(method);
+    }
+
+    /**
+     * @return number of properties of the view
+     */
+    int size() {
+        return properties.length;
+    }
+
+    /**
+     * @param index  property index
+     * @param source source object of the view
+     * @param views  factory of nested views and beans
+     * @return value of the property mapped from the source
+     * @throws Exception when the source field cannot be read or its value cannot be mapped
+     */
+    Object read(final int index, final Object source, final LazyViews views) throws Exception {
+        return properties[index].read(source, views);
+    }
+
+    Class<?> viewType() {
+        return viewType;
+    }
+
+    /**
+     * Invokes a default method of the view interface on the view itself
+     */
+    static Object invokeDefault(final Object view, final Method method, final Object[] arguments) throws Throwable {
+        Class<?> declaringClass = method.getDeclaringClass();
+        MethodHandle handle = MethodHandles.privateLookupIn(declaringClass, MethodHandles.lookup())
+                .unreflectSpecial(method, declaringClass);
+        return handle.bindTo(view).invokeWithArguments(arguments == null ? new Object[0] : arguments);
+    }
+
+    private static Property property(final Method method, final Field field, final MapperConfiguration configuration) {
+        Class<?> type = method.getReturnType();
+        Object empty = Primitives.zero(type);
+        if (field == null) {
+            return new Property(Kind.NONE, null, type, empty, null);
+        }
+        FieldAccessor accessor = MappingPlanFactory.accessor(field, configuration.engine());
+        Class<?> fieldType = field.getType();
+
+        if (!Utils.isJavaType(type)) {
+            return new Property(type.isInterface() ? Kind.VIEW : Kind.BEAN, accessor, type, empty, null);
+        }
+        if (type.isAssignableFrom(List.class) && type != Object.class && (Collection.class.isAssignableFrom(fieldType)
+                || fieldType.isArray() && !fieldType.getComponentType().isPrimitive())) {
+            Class<?> elementType = elementType(method.getGenericReturnType());
+            if (!Utils.isJavaType(elementType)) {
+                return new Property(Kind.LIST, accessor, elementType, empty, null);
+            }
+        }
+        if (Primitives.wrap(type).isAssignableFrom(Primitives.wrap(fieldType))) {
+            return new Property(Kind.VALUE, accessor, type, empty, null);
+        }
+        if (ConverterRegistry.isPrimitiveConversion(fieldType, type)) {
+            return new Property(Kind.WIDENED, accessor, Primitives.unwrap(type), empty, null);
+        }
+        TypeAdapter<Object, Object> converter = configuration.converters().find(fieldType, type);
+        if (converter != null) {
+            return new Property(Kind.CONVERTED, accessor, type, empty, converter);
+        }
+        throw new IllegalArgumentException("property " + field.getName() + " of " + method.getDeclaringClass().getName()
+                + " (" + type.getName() + ") cannot be read from field " + field.getName() + " of "
+                + field.getDeclaringClass().getName() + " (" + fieldType.getName() + ")");
+    }
+
+    private static String propertyName(final Method method) {
+        String name = method.getName();
+        if (name.startsWith("get") && name.length() > 3) {
+            return decapitalize(name.substring(3));
+        }
+        if (name.startsWith("is") && name.length() > 2 && Primitives.unwrap(method.getReturnType()) == boolean.class) {
+            return decapitalize(name.substring(2));
+        }
+        return name;
+    }
+
+    /**
+     * Lower cases the first character unless the name starts with an acronym such as {@code URL}, as bean properties do
+     */
+    private static String decapitalize(final String name) {
+        if (name.length() > 1 && Character.isUpperCase(name.charAt(1)) && Character.isUpperCase(name.charAt(0))) {
+            return name;
+        }
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static Class<?> elementType(final Type type) {
+        if (type instanceof ParameterizedType) {
+            Type argument = ((ParameterizedType) type).getActualTypeArguments()[0];
+            if (argument instanceof WildcardType) {
+                argument = ((WildcardType) argument).getUpperBounds()[0];
+            }
+            if (argument instanceof Class) {
+                return (Class<?>) argument;
+            }
+            if (argument instanceof ParameterizedType) {
+                return (Class<?>) ((ParameterizedType) argument).getRawType();
+            }
+        }
+        return Object.class;
+    }
+
+    /**
+     * How the value of a property is produced from its source field
+     */
+    private enum Kind {
+        NONE, VALUE, WIDENED, CONVERTED, VIEW, BEAN, LIST
+    }
+
+    private static final class Property {
+
+        private final Kind kind;
+        private final FieldAccessor accessor;
+        private final Class<?> type;
+        private final Object empty;
+        private final TypeAdapter<Object, Object> converter;
+
+        /**
+         * @param type  return type of the getter, element type for {@link Kind#LIST}, primitive type for
+         *              {@link Kind#WIDENED}
+         * @param empty value of a missing or null source field
+         */
+        private Property(final Kind kind, final FieldAccessor accessor, final Class<?> type, final Object empty,
+                         final TypeAdapter<Object, Object> converter) {
+            this.kind = kind;
+            this.accessor = accessor;
+            this.type = type;
+            this.empty = empty;
+            this.converter = converter;
+        }
+
+        private Object read(final Object source, final LazyViews views) throws Exception {
+            Object value = kind == Kind.NONE ? null : accessor.get(source);
+            if (value == null) {
+                return empty;
+            }
+            switch (kind) {
+                case WIDENED:
+                    return Primitives.widen(value, type);
+                case CONVERTED:
+                    return converter.convert(value);
+                case VIEW:
+                    return views.view(value, type);
+                case BEAN:
+                    return views.bean(value, type);
+                case LIST:
+                    return new LazyList(value instanceof List ? (List<?>) value
+                            : value instanceof Collection ? Arrays.asList(((Collection<?>) value).toArray())
+                            : Arrays.asList((Object[]) value), type, views);
+                default:
+                    return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package de.johnsoneyo.mapper;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Virtual thread executor of the running JVM, looked up reflectively so the library keeps running on Java 11
+ */
+final class VirtualThreads {
+
+    private static final Executor EXECUTOR = create();
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return executor starting a virtual thread per task, null when the JVM has no virtual threads
+     */
+    static Executor executor() {
+        return EXECUTOR;
+    }
+
+    private static Executor create() {
+        try {
+            return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // before Java 21, or a preview API that is not enabled
+            return null;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package de.johnsoneyo.mapper;
+
+import java.util.Arrays;
+
+/**
+ * Pending nested mappings of the {@link Traversal#ITERATIVE} traversal of a thread
+ * <p>
+ * Steps push the plan, source and destination of a nested bean instead of executing its plan, the top level mapping
+ * drains the stack down to the height it found on entry, so mappings started from within a type adapter keep their
+ * own segment. Arrays grown beyond {@link #RETAINED_CAPACITY} are released once the stack is empty.
+ * </p>
+ */
+final class WorkStack {
+
+    private static final ThreadLocal<WorkStack> STACKS = ThreadLocal.withInitial(WorkStack::new);
+
+    private static final int INITIAL_CAPACITY = 32;
+    private static final int RETAINED_CAPACITY = 1 << 12;
+
+    private MappingPlan[] plans;
+    private Object[] sources;
+    private Object[] destinations;
+    private int size;
+
+    private WorkStack() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @return stack of the calling thread
+     */
+    static WorkStack current() {
+        return STACKS.get();
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param plan        nested plan to execute
+     * @param source      nested source bean
+     * @param destination nested destination bean, already assigned to its owner
+     */
+    void push(final MappingPlan plan, final Object source, final Object destination) {
+        if (size == plans.length) {
+            plans = Arrays.copyOf(plans, size * 2);
+            sources = Arrays.copyOf(sources, size * 2);
+            destinations = Arrays.copyOf(destinations, size * 2);
+        }
+        plans[size] = plan;
+        sources[size] = source;
+        destinations[size] = destination;
+        size++;
+    }
+
+    /**
+     * Executes pending mappings, including the ones they push, until the stack is back at the given height
+     *
+     * @param base height of the stack when the top level mapping started
+     * @throws Exception when a nested plan fails, pending mappings of the segment are dropped
+     */
+    void drain(final int base) throws Exception {
+        try {
+            while (size > base) {
+                int top = --size;
+                MappingPlan plan = plans[top];
+                Object source = sources[top];
+                Object destination = destinations[top];
+                plans[top] = null;
+                sources[top] = null;
+                destinations[top] = null;
+                plan.execute(source, destination);
+            }
+        } finally {
+            truncate(base);
+        }
+    }
+
+    private void truncate(final int base) {
+        if (size > base) {
+            Arrays.fill(plans, base, size, null);
+            Arrays.fill(sources, base, size, null);
+            Arrays.fill(destinations, base, size, null);
+            size = base;
+        }
+        if (size == 0 && plans.length > RETAINED_CAPACITY) {
+            allocate(INITIAL_CAPACITY);
+        }
+    }
+
+    private void allocate(final int capacity) {
+        plans = new MappingPlan[capacity];
+        sources = new Object[capacity];
+        destinations = new Object[capacity];
+    }
+}
@@ -0,0 +1,27 @@
+package de.johnsoneyo.mapper.decorator;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link TypeAdapter} converting many values in one call, such as lookups against a service or cache
+ * <p>
+ * Bulk mappings of {@code JModelMapper}, {@code mapAll} and its asynchronous variants, collect the inputs of every
+ * field the adapter converts across the whole batch and pass each distinct input once to a single
+ * {@link #convertAll(List)} call. Other mappings convert one value at a time through {@link #convert(Object)}.
+ * </p>
+ */
+@FunctionalInterface
+public interface BatchTypeAdapter<INPUT, OUTPUT> extends TypeAdapter<INPUT, OUTPUT> {
+
+    /**
+     * @param inputs distinct non null sources
+     * @return destinations in the order of the sources, one for every source
+     */
+    List<OUTPUT> convertAll(List<INPUT> inputs);
+
+    @Override
+    default OUTPUT convert(INPUT input) {
+        return convertAll(Collections.singletonList(input)).get(0);
+    }
+}
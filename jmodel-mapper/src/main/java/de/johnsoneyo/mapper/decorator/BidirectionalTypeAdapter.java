@@ -0,0 +1,18 @@
+package de.johnsoneyo.mapper.decorator;
+
+/**
+ * {@link TypeAdapter} converting values in both directions, used by the reverse plans of a mapper built with
+ * {@code JModelMapper.Builder#bidirectional(boolean)} to map a field decorated with {@link TransformToType} back onto
+ * its source field
+ *
+ * @see IntegerToStringTypeAdapter
+ * @see StringToUUIDTypeAdapter
+ */
+public interface BidirectionalTypeAdapter<INPUT, OUTPUT> extends TypeAdapter<INPUT, OUTPUT> {
+
+    /**
+     * @param output destination
+     * @return source
+     */
+    INPUT reverse(OUTPUT output);
+}
@@ -0,0 +1,26 @@
+package de.johnsoneyo.mapper.decorator;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares a source and target class pair for which the jmodel-mapper-processor annotation processor generates a
+ * plain java mapper class at compile time
+ * <p>
+ * The generated mapper honours {@link ClassFieldMapping}, {@link SourceFieldMapping} and {@link TransformToType} and is
+ * picked up by {@link de.johnsoneyo.mapper.JModelMapper} through {@link java.util.ServiceLoader}. Pairs the processor
+ * cannot generate plain java code for are reported as compiler warnings and keep being mapped reflectively.
+ * </p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Repeatable(GenerateMappers.class)
+public @interface GenerateMapper {
+
+    Class<?> source();
+
+    Class<?> target();
+}
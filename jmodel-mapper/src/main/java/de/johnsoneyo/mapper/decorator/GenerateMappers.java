@@ -0,0 +1,16 @@
+package de.johnsoneyo.mapper.decorator;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Container of repeated {@link GenerateMapper} declarations
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface GenerateMappers {
+
+    GenerateMapper[] value();
+}
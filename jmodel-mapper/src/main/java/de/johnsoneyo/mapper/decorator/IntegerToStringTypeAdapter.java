@@ -5,11 +5,17 @@ import java.util.Objects;
 /**
  * Integer to String type adapter provided OOTB
  */
-public class IntegerToStringTypeAdapter implements TypeAdapter<Integer, String> {
+public class IntegerToStringTypeAdapter implements BidirectionalTypeAdapter<Integer, String> {
 
     @Override
     public String convert(final Integer integer) {
         Objects.requireNonNull(integer);
         return String.valueOf(integer);
     }
+
+    @Override
+    public Integer reverse(final String string) {
+        Objects.requireNonNull(string);
+        return Integer.valueOf(string);
+    }
 }
@@ -6,11 +6,17 @@ import java.util.UUID;
 /**
  * String to UUID adapter class provided OOTB
  */
-public class StringToUUIDTypeAdapter implements TypeAdapter<String, UUID> {
+public class StringToUUIDTypeAdapter implements BidirectionalTypeAdapter<String, UUID> {
 
     @Override
     public UUID convert(String string) {
         Objects.requireNonNull(string);
         return UUID.fromString(string);
     }
+
+    @Override
+    public String reverse(UUID uuid) {
+        Objects.requireNonNull(uuid);
+        return uuid.toString();
+    }
 }
@@ -0,0 +1,27 @@
+package de.johnsoneyo.mapper.exception;
+
+/**
+ * Raised by a bulk mapping when one of the source elements cannot be mapped
+ */
+public class BulkMappingException extends JModelMapperException {
+
+    private final int index;
+
+    /**
+     *
+     * @param message
+     * @param index   position of the failing element in the source collection or array
+     * @param cause
+     */
+    public BulkMappingException(String message, int index, Throwable cause) {
+        super(message + " at index " + index, cause);
+        this.index = index;
+    }
+
+    /**
+     * @return position of the failing element in the source collection or array
+     */
+    public int getIndex() {
+        return index;
+    }
+}
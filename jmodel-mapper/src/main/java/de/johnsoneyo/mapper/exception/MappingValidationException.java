@@ -0,0 +1,29 @@
+package de.johnsoneyo.mapper.exception;
+
+import java.util.List;
+
+/**
+ * Raised by {@link de.johnsoneyo.mapper.JModelMapper#warmUp(String...)} with every problem found in the mapping plans
+ * of the registered class pairs
+ */
+public class MappingValidationException extends JModelMapperException {
+
+    private final List<String> problems;
+
+    /**
+     *
+     * @param problems descriptions of the field pairs and classes that fail when mapped
+     */
+    public MappingValidationException(List<String> problems) {
+        super(problems.size() + " mapping problems found:" + System.lineSeparator() + " - "
+                + String.join(System.lineSeparator() + " - ", problems), null);
+        this.problems = List.copyOf(problems);
+    }
+
+    /**
+     * @return descriptions of the field pairs and classes that fail when mapped
+     */
+    public List<String> getProblems() {
+        return problems;
+    }
+}
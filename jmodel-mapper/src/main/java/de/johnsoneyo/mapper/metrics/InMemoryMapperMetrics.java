@@ -0,0 +1,168 @@
+package de.johnsoneyo.mapper.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lightweight {@link MapperMetrics} keeping {@link LongAdder} counters per class pair in memory
+ * <p>
+ * Latencies are counted in 64 power of two buckets, which keeps recording an execution to two clock reads and three
+ * uncontended additions. Register it with {@link #registerMBean(String)} to read the statistics through JMX.
+ * </p>
+ */
+public class InMemoryMapperMetrics implements MapperMetrics, InMemoryMapperMetricsMXBean {
+
+    private static final int BUCKETS = 64;
+
+    private final Map<String, Pair> pairs = new ConcurrentHashMap<>();
+    private final LongAdder planCacheHits = new LongAdder();
+    private final LongAdder planCacheMisses = new LongAdder();
+
+    @Override
+    public PairMetrics pair(final Class<?> sourceType, final Class<?> destinationType) {
+        // plan variants of the same pair share their statistics
+        return pairs.computeIfAbsent(sourceType.getName() + " -> " + destinationType.getName(),
+                key -> new Pair(sourceType.getName(), destinationType.getName()));
+    }
+
+    @Override
+    public void planCacheHit() {
+        planCacheHits.increment();
+    }
+
+    @Override
+    public void planCacheMiss(final long buildNanos) {
+        planCacheMisses.increment();
+    }
+
+    @Override
+    public long getPlanCacheHits() {
+        return planCacheHits.sum();
+    }
+
+    @Override
+    public long getPlanCacheMisses() {
+        return planCacheMisses.sum();
+    }
+
+    @Override
+    public List<PairStatistics> getPairs() {
+        List<PairStatistics> statistics = new ArrayList<>(pairs.size());
+        for (Pair pair : pairs.values()) {
+            statistics.add(pair.snapshot());
+        }
+        return statistics;
+    }
+
+    /**
+     * @param sourceType      source class
+     * @param destinationType destination class
+     * @return snapshot of the statistics of the pair, null when the pair was not mapped yet
+     */
+    public PairStatistics getPair(final Class<?> sourceType, final Class<?> destinationType) {
+        Pair pair = pairs.get(sourceType.getName() + " -> " + destinationType.getName());
+        return pair == null ? null : pair.snapshot();
+    }
+
+    @Override
+    public void reset() {
+        planCacheHits.reset();
+        planCacheMisses.reset();
+        for (Pair pair : pairs.values()) {
+            pair.reset();
+        }
+    }
+
+    /**
+     * @param name value of the {@code name} key of the object name, distinguishing several mappers
+     * @return object name the metrics were registered with in the platform MBean server
+     * @throws IllegalStateException when the MBean cannot be registered
+     */
+    public ObjectName registerMBean(final String name) {
+        try {
+            ObjectName objectName = new ObjectName("de.johnsoneyo.mapper:type=MapperMetrics,name=" + ObjectName.quote(name));
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(this, objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("error occurred registering mapper metrics " + name, e);
+        }
+    }
+
+    /**
+     * Counters of one class pair
+     */
+    private static final class Pair implements PairMetrics {
+
+        private final String sourceType;
+        private final String destinationType;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder fieldsCopied = new LongAdder();
+        private final LongAdder adapterInvocations = new LongAdder();
+        private final LongAdder instancesCreated = new LongAdder();
+        private final LongAdder[] latencies = new LongAdder[BUCKETS];
+        private final List<String> unmappedFields = new CopyOnWriteArrayList<>();
+
+        Pair(final String sourceType, final String destinationType) {
+            this.sourceType = sourceType;
+            this.destinationType = destinationType;
+            for (int i = 0; i < BUCKETS; i++) {
+                latencies[i] = new LongAdder();
+            }
+        }
+
+        @Override
+        public void unmappedField(final String fieldName) {
+            if (!unmappedFields.contains(fieldName)) {
+                unmappedFields.add(fieldName);
+            }
+        }
+
+        @Override
+        public void mapped(final long nanos, final int fieldsCopied) {
+            calls.increment();
+            totalNanos.add(nanos);
+            this.fieldsCopied.add(fieldsCopied);
+            latencies[Math.min(BUCKETS - 1, BUCKETS - Long.numberOfLeadingZeros(Math.max(0, nanos)))].increment();
+        }
+
+        @Override
+        public void adapterInvoked() {
+            adapterInvocations.increment();
+        }
+
+        @Override
+        public void instanceCreated() {
+            instancesCreated.increment();
+        }
+
+        void reset() {
+            calls.reset();
+            totalNanos.reset();
+            fieldsCopied.reset();
+            adapterInvocations.reset();
+            instancesCreated.reset();
+            for (LongAdder latency : latencies) {
+                latency.reset();
+            }
+        }
+
+        PairStatistics snapshot() {
+            long[] histogram = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                histogram[i] = latencies[i].sum();
+            }
+            return new PairStatistics(sourceType, destinationType, calls.sum(), totalNanos.sum(), fieldsCopied.sum(),
+                    adapterInvocations.sum(), instancesCreated.sum(), histogram, List.copyOf(unmappedFields));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package de.johnsoneyo.mapper.metrics;
+
+import java.util.List;
+
+/**
+ * JMX view of an {@link InMemoryMapperMetrics}
+ */
+public interface InMemoryMapperMetricsMXBean {
+
+    /**
+     * @return mappings that found their plan already built
+     */
+    long getPlanCacheHits();
+
+    /**
+     * @return mappings that built their plan
+     */
+    long getPlanCacheMisses();
+
+    /**
+     * @return snapshot of the statistics of every class pair mapped so far
+     */
+    List<PairStatistics> getPairs();
+
+    /**
+     * Resets every counter, unmapped fields reported while building plans are kept
+     */
+    void reset();
+}
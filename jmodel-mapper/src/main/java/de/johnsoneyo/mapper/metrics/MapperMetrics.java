@@ -0,0 +1,74 @@
+package de.johnsoneyo.mapper.metrics;
+
+/**
+ * Receives the mapping events of a {@link de.johnsoneyo.mapper.JModelMapper}
+ * <p>
+ * Plans are only instrumented when a recorder other than {@link #none()} is configured, a mapper without metrics
+ * runs the exact same code as before. Per pair recorders are resolved once when the plan of the pair is built, so no
+ * event of the hot path needs a lookup by class.
+ * </p>
+ *
+ * @see InMemoryMapperMetrics
+ */
+public interface MapperMetrics {
+
+    /**
+     * @return recorder ignoring every event, the mapper skips instrumentation altogether when configured with it
+     */
+    static MapperMetrics none() {
+        return NoMapperMetrics.INSTANCE;
+    }
+
+    /**
+     * Called once per plan built for the class pair
+     *
+     * @param sourceType      source class
+     * @param destinationType destination class
+     * @return recorder of the events of the pair
+     */
+    PairMetrics pair(Class<?> sourceType, Class<?> destinationType);
+
+    /**
+     * Called when a mapping finds the plan of its class pair already built
+     */
+    void planCacheHit();
+
+    /**
+     * Called when a mapping builds the plan of its class pair
+     *
+     * @param buildNanos time spent building the plan, nested plans are built on first use and not included
+     */
+    void planCacheMiss(long buildNanos);
+
+    /**
+     * Recorder of the events of one source and destination class pair
+     */
+    interface PairMetrics {
+
+        /**
+         * Called once while the plan is built for every source field without destination field, custom field
+         * mapping or nested bean to flatten
+         *
+         * @param fieldName name of the source field
+         */
+        void unmappedField(String fieldName);
+
+        /**
+         * Called after every execution of the plan, top level and nested alike
+         *
+         * @param nanos        time spent mapping, including the nested beans of the pair
+         * @param fieldsCopied java runtime values copied by the plan itself, nested beans report their own
+         */
+        void mapped(long nanos, int fieldsCopied);
+
+        /**
+         * Called for every value converted by a type adapter or a converter
+         */
+        void adapterInvoked();
+
+        /**
+         * Called for every destination instance created for the pair
+         */
+        void instanceCreated();
+    }
+}
@@ -0,0 +1,38 @@
+package de.johnsoneyo.mapper.metrics;
+
+/**
+ * Recorder ignoring every event, see {@link MapperMetrics#none()}
+ */
+enum NoMapperMetrics implements MapperMetrics, MapperMetrics.PairMetrics {
+
+    INSTANCE;
+
+    @Override
+    public PairMetrics pair(final Class<?> sourceType, final Class<?> destinationType) {
+        return this;
+    }
+
+    @Override
+    public void planCacheHit() {
+    }
+
+    @Override
+    public void planCacheMiss(final long buildNanos) {
+    }
+
+    @Override
+    public void unmappedField(final String fieldName) {
+    }
+
+    @Override
+    public void mapped(final long nanos, final int fieldsCopied) {
+    }
+
+    @Override
+    public void adapterInvoked() {
+    }
+
+    @Override
+    public void instanceCreated() {
+    }
+}
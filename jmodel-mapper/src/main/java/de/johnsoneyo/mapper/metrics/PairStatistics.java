@@ -0,0 +1,105 @@
+package de.johnsoneyo.mapper.metrics;
+
+import java.util.List;
+
+/**
+ * Snapshot of the statistics of one class pair recorded by {@link InMemoryMapperMetrics}
+ */
+public final class PairStatistics {
+
+    private final String sourceType;
+    private final String destinationType;
+    private final long calls;
+    private final long totalNanos;
+    private final long fieldsCopied;
+    private final long adapterInvocations;
+    private final long instancesCreated;
+    private final long[] latencyHistogram;
+    private final List<String> unmappedFields;
+
+    PairStatistics(final String sourceType, final String destinationType, final long calls, final long totalNanos,
+                   final long fieldsCopied, final long adapterInvocations, final long instancesCreated,
+                   final long[] latencyHistogram, final List<String> unmappedFields) {
+        this.sourceType = sourceType;
+        this.destinationType = destinationType;
+        this.calls = calls;
+        this.totalNanos = totalNanos;
+        this.fieldsCopied = fieldsCopied;
+        this.adapterInvocations = adapterInvocations;
+        this.instancesCreated = instancesCreated;
+        this.latencyHistogram = latencyHistogram;
+        this.unmappedFields = unmappedFields;
+    }
+
+    public String getSourceType() {
+        return sourceType;
+    }
+
+    public String getDestinationType() {
+        return destinationType;
+    }
+
+    /**
+     * @return executions of the plan of the pair
+     */
+    public long getCalls() {
+        return calls;
+    }
+
+    /**
+     * @return time spent in all executions, nested beans included
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getFieldsCopied() {
+        return fieldsCopied;
+    }
+
+    public long getAdapterInvocations() {
+        return adapterInvocations;
+    }
+
+    public long getInstancesCreated() {
+        return instancesCreated;
+    }
+
+    /**
+     * @return executions per latency bucket, bucket {@code i} counts executions of less than {@code 2^i} nanoseconds
+     * and at least {@code 2^(i-1)}
+     */
+    public long[] getLatencyHistogram() {
+        return latencyHistogram.clone();
+    }
+
+    /**
+     * @param quantile quantile between 0 and 1, e.g. 0.99
+     * @return upper bound in nanoseconds of the latency bucket holding the quantile, 0 without executions
+     */
+    public long getLatencyNanos(final double quantile) {
+        long target = (long) Math.ceil(calls * quantile);
+        long seen = 0;
+        for (int bucket = 0; bucket < latencyHistogram.length; bucket++) {
+            seen += latencyHistogram[bucket];
+            if (seen >= target && seen > 0) {
+                return bucket >= 63 ? Long.MAX_VALUE : 1L << bucket;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return names of the source fields without counterpart on the destination
+     */
+    public List<String> getUnmappedFields() {
+        return unmappedFields;
+    }
+
+    @Override
+    public String toString() {
+        return sourceType + " -> " + destinationType + " calls=" + calls + " totalNanos=" + totalNanos
+                + " fieldsCopied=" + fieldsCopied + " adapterInvocations=" + adapterInvocations
+                + " instancesCreated=" + instancesCreated + " unmappedFields=" + unmappedFields;
+    }
+}
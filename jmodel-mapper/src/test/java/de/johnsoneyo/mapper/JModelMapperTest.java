@@ -0,0 +1,1976 @@
+package de.johnsoneyo.mapper;
+
+import de.johnsoneyo.mapper.decorator.BatchTypeAdapter;
+import de.johnsoneyo.mapper.decorator.ClassFieldMapping;
+import de.johnsoneyo.mapper.decorator.GenerateMapper;
+import de.johnsoneyo.mapper.decorator.SourceFieldMapping;
+import de.johnsoneyo.mapper.decorator.StringToUUIDTypeAdapter;
+import de.johnsoneyo.mapper.decorator.TransformToType;
+import de.johnsoneyo.mapper.decorator.TypeAdapter;
+import de.johnsoneyo.mapper.exception.BulkMappingException;
+import de.johnsoneyo.mapper.exception.JModelMapperException;
+import de.johnsoneyo.mapper.exception.MappingValidationException;
+import de.johnsoneyo.mapper.metrics.InMemoryMapperMetrics;
+import de.johnsoneyo.mapper.metrics.MapperMetrics;
+import de.johnsoneyo.mapper.metrics.PairStatistics;
+import org.assertj.core.api.Condition;
+import org.assertj.core.data.Index;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ *
+ */
+@ExtendWith(MockitoExtension.class)
+class JModelMapperTest {
+
+    @Spy
+    JModelMapper modelMapper;
+
+    @Test
+    void map_ShouldNotThrowException_WhenMappingNestedObjects() {
+
+        // given
+        String name = "test-name";
+        Integer age = 1;
+        String sex = "test-sex";
+        Person expected = new Person(name, age, sex, List.of(new Person.Address("test-street-1", "test-zipcode-1",
+                        new Person.Address.ExtraInfo("11000011.000111")),
+                new Person.Address("test-street-2", "test-zipcode-2", new Person.Address.ExtraInfo("test-extra-info"))),
+                Map.of("key", "value"));
+
+        //when
+
+        PersonDto actual = modelMapper.map(expected, PersonDto.class);
+
+        // then
+        assertThat(actual)
+                .isNotNull()
+                .hasFieldOrPropertyWithValue("name", name).hasFieldOrPropertyWithValue("age", age).hasFieldOrPropertyWithValue("sex", sex);
+
+        Condition<PersonDto.AddressDto> addressDtoCondition = new Condition<>(addressDto ->
+                addressDto.getExtraInfo() != null && addressDto.getExtraInfo().coordinates == "11000011.000111", "extra info is not null");
+        assertThat(actual.getAddresses())
+                .isNotEmpty()
+                .hasSize(2)
+                .satisfies((addressDto -> assertThat(addressDto)
+                        .hasFieldOrPropertyWithValue("streetName", "test-street-1").has(addressDtoCondition)), Index.atIndex(0));
+    }
+
+    @Test
+    void map_ShouldThrowException_WhenMappingSameFieldOfDifferentJavaType() {
+
+        // given
+        Extra expected = new Extra(1L);
+
+        // then
+        assertThatThrownBy(() -> JModelMapperUtils.map(expected, ExtraDto.class))
+                .isInstanceOf(JModelMapperException.class)
+                .hasMessage("error occurred while mapping entity")
+                .hasCauseExactlyInstanceOf(IllegalArgumentException.class);
+    }
+
+    @ParameterizedTest
+    @EnumSource(MappingEngine.class)
+    void map_ShouldThrowException_WhenEngineMapsSameFieldOfDifferentJavaType(MappingEngine engine) {
+
+        // given
+        JModelMapper engineMapper = JModelMapper.builder().engine(engine).build();
+        Extra expected = new Extra(1L);
+
+        // then
+        assertThatThrownBy(() -> engineMapper.map(expected, ExtraDto.class))
+                .isInstanceOf(JModelMapperException.class)
+                .hasCauseExactlyInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void map_ShouldMapWithoutException_WhenStringToUUIDAdapterUsed() {
+
+        // given
+        String requesterId = "a0200f66-f5b2-4cc7-accd-9810f1b1471f";
+        Request request = new Request(requesterId);
+
+        // when
+        RequestDto requestDto = modelMapper.map(request, RequestDto.class);
+
+        // then
+        assertThat(requestDto.getRequesterId()).isEqualTo(UUID.fromString(requesterId));
+    }
+
+    @Test
+    void map_ShouldMapWithoutException_WhenCustomFieldMapIsUsed() {
+
+        // given
+        String requesterId = "a0200f66-f5b2-4cc7-accd-9810f1b1471f";
+        String id = "test-id";
+        Request request = new Request(requesterId, id);
+
+        // when
+        RequestDto requestDto = modelMapper.map(request, RequestDto.class);
+
+        // then
+        assertThat(requestDto.getRequesterId()).isEqualTo(UUID.fromString(requesterId));
+        assertThat(requestDto.getIdentifier()).isEqualTo(id);
+    }
+
+    @Test
+    void map_ShouldReuseMappingPlan_WhenMappingSameClassPairRepeatedly() {
+
+        // given
+        List<Person> people = List.of(
+                new Person("name-1", 1, "sex-1", List.of(), Map.of()),
+                new Person("name-2", 2, "sex-2", List.of(new Person.Address("street", "zip", null)), Map.of()));
+
+        InMemoryMapperMetrics metrics = new InMemoryMapperMetrics();
+        JModelMapper metricsMapper = JModelMapper.builder().metrics(metrics).build();
+
+        // when
+        PersonDto first = metricsMapper.map(people.get(0), PersonDto.class);
+        PersonDto second = metricsMapper.map(people.get(1), PersonDto.class);
+
+        // then
+        assertThat(first).hasFieldOrPropertyWithValue("name", "name-1").hasFieldOrPropertyWithValue("age", 1);
+        assertThat(first.getAddresses()).isEmpty();
+        assertThat(second).hasFieldOrPropertyWithValue("name", "name-2").hasFieldOrPropertyWithValue("age", 2);
+        assertThat(second.getAddresses())
+                .singleElement()
+                .hasFieldOrPropertyWithValue("streetName", "street")
+                .hasFieldOrPropertyWithValue("extraInfo", null);
+        // one miss for each of the person and the nested address pair, the second person reuses the plan
+        assertThat(metrics.getPlanCacheMisses()).isEqualTo(2);
+        assertThat(metrics.getPlanCacheHits()).isEqualTo(1);
+    }
+
+    @Test
+    void map_ShouldCopyJavaElements_WhenMappingCollectionOfJavaTypes() {
+
+        // given
+        Tagged tagged = new Tagged(List.of("tag-1", "tag-2"));
+
+        // when
+        TaggedDto actual = modelMapper.map(tagged, TaggedDto.class);
+
+        // then
+        assertThat(actual.tags).containsExactly("tag-1", "tag-2");
+    }
+
+    @ParameterizedTest
+    @EnumSource(MappingEngine.class)
+    void map_ShouldMapNestedAndPrimitiveFields_WhenEngineIsConfigured(MappingEngine engine) {
+
+        // given
+        JModelMapper engineMapper = JModelMapper.builder().engine(engine).build();
+        Person person = new Person("test-name", 1, "test-sex", List.of(new Person.Address("test-street-1",
+                "test-zipcode-1", new Person.Address.ExtraInfo("11000011.000111"))), Map.of("key", "value"));
+        Measurement measurement = new Measurement(7, 42L, 0.5d, true, "test-unit");
+
+        // when
+        PersonDto personDto = engineMapper.map(person, PersonDto.class);
+        MeasurementDto measurementDto = engineMapper.map(measurement, MeasurementDto.class);
+
+        // then
+        assertThat(personDto)
+                .hasFieldOrPropertyWithValue("name", "test-name")
+                .hasFieldOrPropertyWithValue("age", 1)
+                .hasFieldOrPropertyWithValue("attributes", Map.of("key", "value"));
+        assertThat(personDto.getAddresses())
+                .singleElement()
+                .hasFieldOrPropertyWithValue("streetName", "test-street-1")
+                .hasFieldOrPropertyWithValue("extraInfo.coordinates", "11000011.000111");
+        assertThat(measurementDto)
+                .hasFieldOrPropertyWithValue("count", 7)
+                .hasFieldOrPropertyWithValue("total", 42L)
+                .hasFieldOrPropertyWithValue("ratio", 0.5d)
+                .hasFieldOrPropertyWithValue("valid", true)
+                .hasFieldOrPropertyWithValue("unit", "test-unit");
+    }
+
+    @Test
+    void map_ShouldUseRegisteredAdapterInstance_WhenTypeAdapterIsRegistered() {
+
+        // given
+        CountingToUUIDTypeAdapter adapter = new CountingToUUIDTypeAdapter();
+        JModelMapper adapterMapper = JModelMapper.builder().typeAdapter(adapter).build();
+        String requesterId = "a0200f66-f5b2-4cc7-accd-9810f1b1471f";
+
+        // when
+        List<CountedRequestDto> actual = List.of(
+                adapterMapper.map(new Request(" " + requesterId + " "), CountedRequestDto.class),
+                adapterMapper.map(new Request(requesterId), CountedRequestDto.class));
+
+        // then
+        assertThat(actual).extracting(dto -> dto.requesterId).containsOnly(UUID.fromString(requesterId));
+        assertThat(adapter.conversions).isEqualTo(2);
+    }
+
+    @ParameterizedTest
+    @EnumSource(MappingEngine.class)
+    void map_ShouldWidenPrimitives_WhenDestinationTypeIsWider(MappingEngine engine) {
+
+        // given
+        JModelMapper engineMapper = JModelMapper.builder().engine(engine).build();
+        Reading reading = new Reading(3, 'a', 1.5f, 4L, 5, null);
+
+        // when
+        ReadingDto actual = engineMapper.map(reading, ReadingDto.class);
+
+        // then
+        assertThat(actual)
+                .hasFieldOrPropertyWithValue("count", 3L)
+                .hasFieldOrPropertyWithValue("code", 97)
+                .hasFieldOrPropertyWithValue("ratio", 1.5d)
+                .hasFieldOrPropertyWithValue("total", 4.0d)
+                .hasFieldOrPropertyWithValue("boxed", 5L)
+                .hasFieldOrPropertyWithValue("missing", null);
+    }
+
+    @Test
+    void map_ShouldFuseWideningCopies_WhenLongIsWidenedToFloatingPoint() throws Exception {
+
+        // given
+        MappingPlanCache bytecodePlans = new MappingPlanCache(new MapperConfiguration(MappingEngine.BYTECODE,
+                new GeneratedMappers(getClass().getClassLoader()), new TypeAdapterRegistry(),
+                ConverterRegistry.defaults(), MapperMetrics.none(), PlanSnapshot.NONE, false, Traversal.RECURSIVE,
+                false, Map.of(), false));
+        LongReading reading = new LongReading(16_777_217L, Long.MAX_VALUE);
+
+        // when
+        MappingPlan floatPlan = bytecodePlans.plan(LongReading.class, FloatReadingDto.class);
+        MappingPlan doublePlan = bytecodePlans.plan(LongReading.class, DoubleReadingDto.class);
+        FloatReadingDto floatReading = (FloatReadingDto) floatPlan.mapTopLevel(reading);
+        DoubleReadingDto doubleReading = (DoubleReadingDto) doublePlan.mapTopLevel(reading);
+
+        // then
+        assertThat(floatPlan.steps()).singleElement().isInstanceOf(GeneratedCopyStep.class);
+        assertThat(doublePlan.steps()).singleElement().isInstanceOf(GeneratedCopyStep.class);
+        assertThat(floatReading.count).isEqualTo(16_777_217f);
+        assertThat(doubleReading.total).isEqualTo((double) Long.MAX_VALUE);
+    }
+
+    @Test
+    void map_ShouldConvertWithDefaultConverter_WhenNoTypeAdapterIsDeclared() {
+
+        // given
+        Ticket ticket = new Ticket(42, "a0200f66-f5b2-4cc7-accd-9810f1b1471f");
+
+        // when
+        TicketDto actual = modelMapper.map(ticket, TicketDto.class);
+
+        // then
+        assertThat(actual.number).isEqualTo("42");
+        assertThat(actual.ownerId).isEqualTo(UUID.fromString("a0200f66-f5b2-4cc7-accd-9810f1b1471f"));
+    }
+
+    @Test
+    void map_ShouldUseRegisteredConverter_WhenConverterIsRegistered() {
+
+        // given
+        JModelMapper converterMapper = JModelMapper.builder()
+                .converter(Integer.class, String.class, number -> "#" + number)
+                .build();
+
+        // when
+        TicketDto actual = converterMapper.map(new Ticket(42, null), TicketDto.class);
+
+        // then
+        assertThat(actual.number).isEqualTo("#42");
+        assertThat(actual.ownerId).isNull();
+    }
+
+    @Test
+    void build_ShouldIsolateBuiltMappers_WhenBuilderIsConfiguredAfterBuild() {
+
+        // given
+        JModelMapper.Builder builder = JModelMapper.builder();
+        JModelMapper first = builder.build();
+        CountingToUUIDTypeAdapter adapter = new CountingToUUIDTypeAdapter();
+        builder.converter(Integer.class, String.class, number -> "#" + number).typeAdapter(adapter);
+        JModelMapper second = builder.build();
+        String requesterId = "a0200f66-f5b2-4cc7-accd-9810f1b1471f";
+
+        // when
+        TicketDto firstTicket = first.map(new Ticket(42, null), TicketDto.class);
+        TicketDto secondTicket = second.map(new Ticket(42, null), TicketDto.class);
+        first.map(new Request(requesterId), CountedRequestDto.class);
+        int conversionsOfFirst = adapter.conversions;
+        second.map(new Request(requesterId), CountedRequestDto.class);
+
+        // then
+        assertThat(firstTicket.number).isEqualTo("42");
+        assertThat(secondTicket.number).isEqualTo("#42");
+        assertThat(conversionsOfFirst).isZero();
+        assertThat(adapter.conversions).isEqualTo(1);
+    }
+
+    @Test
+    void mapAll_ShouldKeepSourceOrder_WhenBatchIsMappedInParallel() {
+
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        JModelMapper bulkMapper = JModelMapper.builder().parallelThreshold(100).executor(executor).build();
+        List<Ticket> tickets = IntStream.range(0, 1_000)
+                .mapToObj(number -> new Ticket(number, null))
+                .collect(Collectors.toList());
+
+        // when
+        List<TicketDto> actual;
+        try {
+            actual = bulkMapper.mapAll(tickets, TicketDto.class);
+        } finally {
+            executor.shutdown();
+        }
+
+        // then
+        assertThat(actual).extracting(dto -> dto.number)
+                .containsExactlyElementsOf(IntStream.range(0, 1_000).mapToObj(String::valueOf).collect(Collectors.toList()));
+    }
+
+    @Test
+    void mapAll_ShouldMapArray_WhenBatchIsBelowThreshold() {
+
+        // given
+        Ticket[] tickets = {new Ticket(1, null), new Ticket(2, "a0200f66-f5b2-4cc7-accd-9810f1b1471f")};
+
+        // when
+        List<TicketDto> actual = modelMapper.mapAll(tickets, TicketDto.class);
+
+        // then
+        assertThat(actual).extracting(dto -> dto.number).containsExactly("1", "2");
+        assertThat(actual.get(1).ownerId).isEqualTo(UUID.fromString("a0200f66-f5b2-4cc7-accd-9810f1b1471f"));
+    }
+
+    @Test
+    void mapAll_ShouldReportFailingIndex_WhenElementCannotBeMapped() {
+
+        // given
+        JModelMapper bulkMapper = JModelMapper.builder().parallelThreshold(10).build();
+        List<Ticket> tickets = IntStream.range(0, 100)
+                .mapToObj(number -> new Ticket(number, number == 42 ? "not-a-uuid" : null))
+                .collect(Collectors.toList());
+
+        // when, then
+        assertThatThrownBy(() -> bulkMapper.mapAll(tickets, TicketDto.class))
+                .isInstanceOf(BulkMappingException.class)
+                .hasMessage("error occurred while mapping entity at index 42")
+                .hasCauseInstanceOf(IllegalArgumentException.class)
+                .extracting(exception -> ((BulkMappingException) exception).getIndex())
+                .isEqualTo(42);
+    }
+
+    @Test
+    void mapStream_ShouldMapLazily_WhenStreamIsParallel() {
+
+        // given
+        AtomicInteger consumed = new AtomicInteger();
+        Stream<Ticket> tickets = IntStream.range(0, 10_000).parallel()
+                .mapToObj(number -> new Ticket(number, null))
+                .peek(ticket -> consumed.incrementAndGet());
+
+        // when
+        Stream<TicketDto> actual = modelMapper.mapStream(tickets, TicketDto.class);
+
+        // then
+        assertThat(consumed).hasValue(0);
+        assertThat(actual.map(dto -> dto.number).collect(Collectors.toList()))
+                .containsExactlyElementsOf(IntStream.range(0, 10_000).mapToObj(String::valueOf).collect(Collectors.toList()));
+    }
+
+    @Test
+    void mappingProcessor_ShouldMapItemsOnDemand_WhenSubscribedToPublisher() throws Exception {
+
+        // given
+        Flow.Processor<Ticket, TicketDto> processor = modelMapper.mappingProcessor(TicketDto.class);
+        OneByOneSubscriber<TicketDto> subscriber = new OneByOneSubscriber<>();
+        processor.subscribe(subscriber);
+
+        // when
+        try (SubmissionPublisher<Ticket> publisher = new SubmissionPublisher<>()) {
+            publisher.subscribe(processor);
+            for (int number = 0; number < 100; number++) {
+                publisher.submit(new Ticket(number, null));
+            }
+        }
+
+        // then
+        assertThat(subscriber.completion.get(5, TimeUnit.SECONDS)).extracting(dto -> dto.number)
+                .containsExactlyElementsOf(IntStream.range(0, 100).mapToObj(String::valueOf).collect(Collectors.toList()));
+    }
+
+    @Test
+    void mappingProcessor_ShouldSignalError_WhenItemCannotBeMapped() {
+
+        // given
+        Flow.Processor<Ticket, TicketDto> processor = modelMapper.mappingProcessor(TicketDto.class);
+        OneByOneSubscriber<TicketDto> subscriber = new OneByOneSubscriber<>();
+        processor.subscribe(subscriber);
+
+        // when
+        try (SubmissionPublisher<Ticket> publisher = new SubmissionPublisher<>()) {
+            publisher.subscribe(processor);
+            publisher.submit(new Ticket(1, "not-a-uuid"));
+        }
+
+        // then
+        assertThat(subscriber.completion).failsWithin(5, TimeUnit.SECONDS)
+                .withThrowableOfType(ExecutionException.class)
+                .havingCause()
+                .isInstanceOf(JModelMapperException.class)
+                .withCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void mapInto_ShouldUpdateNestedBeansAndListElementsInPlace_WhenReusePolicyIsUpdate() {
+
+        // given
+        PersonDto target = modelMapper.map(new Person("name-1", 1, "sex-1", List.of(
+                new Person.Address("street-1", "zip-1", new Person.Address.ExtraInfo("coordinates-1")),
+                new Person.Address("street-2", "zip-2", null)), Map.of()), PersonDto.class);
+        List<PersonDto.AddressDto> addresses = target.getAddresses();
+        PersonDto.AddressDto address = addresses.get(0);
+        PersonDto.AddressDto.ExtraInfoDto extraInfo = address.getExtraInfo();
+        Person update = new Person("name-2", 2, "sex-2", List.of(
+                new Person.Address("street-3", "zip-3", new Person.Address.ExtraInfo("coordinates-3"))), Map.of());
+
+        // when
+        PersonDto actual = modelMapper.mapInto(update, target, ReusePolicy.UPDATE);
+
+        // then
+        assertThat(actual).isSameAs(target).hasFieldOrPropertyWithValue("name", "name-2");
+        assertThat(actual.getAddresses()).isSameAs(addresses).singleElement().isSameAs(address)
+                .hasFieldOrPropertyWithValue("streetName", "street-3");
+        assertThat(address.getExtraInfo()).isSameAs(extraInfo).hasFieldOrPropertyWithValue("coordinates", "coordinates-3");
+    }
+
+    @ParameterizedTest
+    @EnumSource(MappingEngine.class)
+    void mapInto_ShouldCreateCollectionsAnew_WhenSameTargetIsMappedIntoTwice(MappingEngine engine) {
+
+        // given
+        JModelMapper engineMapper = JModelMapper.builder().engine(engine).build();
+        Person first = new Person("name-1", 1, "sex-1", List.of(new Person.Address("street-1", "zip-1", null),
+                new Person.Address("street-2", "zip-2", null)), Map.of("eyes", "blue", "hair", "dark"));
+        Person second = new Person("name-1", 1, "sex-1", List.of(new Person.Address("street-1", "zip-1", null),
+                new Person.Address("street-2", "zip-2", null)), Map.of("eyes", "blue"));
+        PersonDto target = new PersonDto();
+
+        // when
+        engineMapper.mapInto(first, target);
+        List<PersonDto.AddressDto> addresses = target.getAddresses();
+        engineMapper.mapInto(second, target);
+
+        // then
+        assertThat(target.getAddresses()).isNotSameAs(addresses)
+                .extracting("streetName").containsExactly("street-1", "street-2");
+        assertThat(target.attributes).containsExactly(Map.entry("eyes", "blue"));
+    }
+
+    @Test
+    void mapInto_ShouldRefillExistingList_WhenReusePolicyIsRefill() {
+
+        // given
+        PersonDto target = modelMapper.map(new Person("name-1", 1, "sex-1", List.of(
+                new Person.Address("street-1", "zip-1", null)), Map.of()), PersonDto.class);
+        List<PersonDto.AddressDto> addresses = target.getAddresses();
+        PersonDto.AddressDto address = addresses.get(0);
+        Person update = new Person("name-2", 2, "sex-2", List.of(new Person.Address("street-2", "zip-2", null),
+                new Person.Address("street-3", "zip-3", null)), Map.of());
+
+        // when
+        modelMapper.mapInto(update, target, ReusePolicy.REFILL);
+
+        // then
+        assertThat(target.getAddresses()).isSameAs(addresses)
+                .extracting("streetName").containsExactly("street-2", "street-3");
+        assertThat(target.getAddresses()).doesNotContain(address);
+    }
+
+    @Test
+    void map_ShouldRecordPairMetrics_WhenMetricsAreConfigured() {
+
+        // given
+        InMemoryMapperMetrics metrics = new InMemoryMapperMetrics();
+        JModelMapper metricsMapper = JModelMapper.builder().metrics(metrics).build();
+
+        // when
+        metricsMapper.map(new Ticket(1, "a0200f66-f5b2-4cc7-accd-9810f1b1471f"), TicketDto.class);
+        metricsMapper.map(new Ticket(2, null), TicketDto.class);
+        metricsMapper.map(new Ticket(3, null), TicketSummaryDto.class);
+
+        // then
+        PairStatistics tickets = metrics.getPair(Ticket.class, TicketDto.class);
+        assertThat(tickets.getCalls()).isEqualTo(2);
+        assertThat(tickets.getFieldsCopied()).isEqualTo(4);
+        assertThat(tickets.getAdapterInvocations()).isEqualTo(3);
+        assertThat(tickets.getInstancesCreated()).isEqualTo(2);
+        assertThat(tickets.getLatencyNanos(1.0)).isPositive();
+        assertThat(tickets.getUnmappedFields()).isEmpty();
+        assertThat(metrics.getPair(Ticket.class, TicketSummaryDto.class).getUnmappedFields()).containsExactly("ownerId");
+        assertThat(metrics.getPlanCacheMisses()).isEqualTo(2);
+        assertThat(metrics.getPlanCacheHits()).isEqualTo(1);
+    }
+
+    @Test
+    void registerMBean_ShouldExposeMetricsThroughJmx_WhenRegistered() throws Exception {
+
+        // given
+        InMemoryMapperMetrics metrics = new InMemoryMapperMetrics();
+        JModelMapper metricsMapper = JModelMapper.builder().metrics(metrics).build();
+        metricsMapper.map(new Ticket(1, null), TicketDto.class);
+
+        // when
+        ObjectName objectName = metrics.registerMBean("jmx-test");
+
+        // then
+        try {
+            assertThat(ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "PlanCacheMisses"))
+                    .isEqualTo(1L);
+        } finally {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        }
+    }
+
+    @Test
+    void warmUp_ShouldBuildRegisteredAndDeclaredPlans_WhenPairsAreValid() {
+
+        // given
+        InMemoryMapperMetrics metrics = new InMemoryMapperMetrics();
+        JModelMapper warmMapper = JModelMapper.builder().metrics(metrics).build()
+                .register(Person.class, PersonDto.class);
+
+        // when
+        warmMapper.warmUp("de.johnsoneyo.mapper");
+        long misses = metrics.getPlanCacheMisses();
+        warmMapper.map(new Person("test-name", 1, "test-sex", List.of(new Person.Address("test-street-1",
+                "test-zipcode-1", new Person.Address.ExtraInfo("11000011.000111"))), Map.of()), PersonDto.class);
+        warmMapper.map(new Ticket(1, null), TicketDto.class);
+
+        // then
+        assertThat(misses).isEqualTo(4);
+        assertThat(metrics.getPlanCacheMisses()).isEqualTo(misses);
+    }
+
+    @Test
+    void warmUp_ShouldReportEveryProblem_WhenRegisteredPairsCannotBeMapped() {
+
+        // given
+        modelMapper.register(Extra.class, ExtraDto.class).register(Ticket.class, NoDefaultConstructorDto.class);
+
+        // when, then
+        assertThatThrownBy(() -> modelMapper.warmUp())
+                .isInstanceOf(MappingValidationException.class)
+                .extracting(exception -> ((MappingValidationException) exception).getProblems())
+                .asList()
+                .containsExactly(NoDefaultConstructorDto.class.getName() + " has neither a no arg constructor nor a "
+                                + "constructor taking its fields",
+                        "field value of " + Extra.class.getName() + " (java.lang.Long) cannot be assigned to field "
+                                + "value of " + ExtraDto.class.getName() + " (java.lang.String)");
+    }
+
+    @Test
+    void planSnapshot_ShouldBuildPlansFromSnapshot_WhenWrittenByEarlierRun(@TempDir Path directory) throws Exception {
+
+        // given
+        Path file = directory.resolve("plans.snapshot");
+        JModelMapper.builder().planSnapshot(file).build().register(Person.class, PersonDto.class).warmUp();
+        Person person = new Person("test-name", 1, "test-sex", List.of(new Person.Address("test-street-1",
+                "test-zipcode-1", new Person.Address.ExtraInfo("11000011.000111"))), Map.of());
+
+        // when
+        PlanSnapshot snapshot = PlanSnapshot.load(file);
+        PersonDto personDto = JModelMapper.builder().planSnapshot(file).build().map(person, PersonDto.class);
+
+        // then
+        assertThat(snapshot.recipe(Person.class, PersonDto.class).entries())
+                .extracting(PlanRecipe.Entry::kind)
+                .contains(PlanRecipe.Kind.VALUE, PlanRecipe.Kind.COLLECTION);
+        assertThat(snapshot.recipe(Person.Address.class, PersonDto.AddressDto.class)).isNotNull();
+        assertThat(personDto.getName()).isEqualTo("test-name");
+        assertThat(personDto.getAddresses()).singleElement()
+                .hasFieldOrPropertyWithValue("streetName", "test-street-1")
+                .hasFieldOrPropertyWithValue("extraInfo.coordinates", "11000011.000111");
+    }
+
+    @Test
+    void planSnapshot_ShouldRejectEntry_WhenClassFingerprintChanged(@TempDir Path directory) throws Exception {
+
+        // given
+        Path file = directory.resolve("plans.snapshot");
+        modelMapper.map(new Ticket(1, null), TicketSummaryDto.class);
+        modelMapper.writePlanSnapshot(file);
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        bytes.position(2 * Integer.BYTES);
+        for (int strings = bytes.getInt(); strings > 0; strings--) {
+            int length = Short.toUnsignedInt(bytes.getShort());
+            bytes.position(bytes.position() + length);
+        }
+        bytes.getInt();
+        bytes.getInt();
+        bytes.putLong(bytes.position(), ~bytes.getLong(bytes.position()));
+        Files.write(file, bytes.array());
+        JModelMapper snapshotMapper = JModelMapper.builder().planSnapshot(file).build()
+                .register(Ticket.class, TicketSummaryDto.class);
+
+        // when
+        PlanRecipe stale = PlanSnapshot.load(file).recipe(Ticket.class, TicketSummaryDto.class);
+        TicketSummaryDto ticketSummaryDto = snapshotMapper.map(new Ticket(2, null), TicketSummaryDto.class);
+        snapshotMapper.warmUp();
+
+        // then
+        assertThat(stale).isNull();
+        assertThat(ticketSummaryDto.number).isEqualTo("2");
+        assertThat(PlanSnapshot.load(file).recipe(Ticket.class, TicketSummaryDto.class).unmapped())
+                .containsExactly("ownerId");
+    }
+
+    @Test
+    void map_ShouldKeepCyclesAndSharedReferences_WhenReferencesArePreserved() {
+
+        // given
+        JModelMapper referenceMapper = JModelMapper.builder().preserveReferences(true).build();
+        Department department = new Department("test-department");
+        List<Employee> employees = IntStream.range(0, 1000)
+                .mapToObj(i -> new Employee("employee-" + i, department))
+                .collect(Collectors.toList());
+        department.employees = employees;
+        department.head = employees.get(0);
+        department.deputies = List.of(employees.get(1), employees.get(2));
+
+        // when
+        DepartmentDto departmentDto = referenceMapper.map(department, DepartmentDto.class);
+        DepartmentDto nextDto = referenceMapper.map(department, DepartmentDto.class);
+
+        // then
+        assertThat(departmentDto.employees).hasSize(1000)
+                .allSatisfy(employeeDto -> assertThat(employeeDto.department).isSameAs(departmentDto));
+        assertThat(departmentDto.head).isSameAs(departmentDto.employees.get(0));
+        assertThat(departmentDto.deputies.get(1)).isSameAs(departmentDto.employees.get(2));
+        assertThat(departmentDto.employees.get(999).name).isEqualTo("employee-999");
+        assertThat(nextDto).isNotSameAs(departmentDto);
+        assertThat(nextDto.head).isNotSameAs(departmentDto.head).isSameAs(nextDto.employees.get(0));
+    }
+
+    @Test
+    void map_ShouldThrowException_WhenCycleReachesTargetsCreatedThroughConstructors() {
+
+        // given
+        JModelMapper referenceMapper = JModelMapper.builder().preserveReferences(true).build();
+        Department department = new Department("test-department");
+        Employee head = new Employee("test-head", department);
+        department.head = head;
+        Department roster = new Department("test-roster");
+        roster.employees = List.of(head);
+        String pair = Employee.class.getName() + " -> " + ImmutableEmployeeDto.class.getName();
+
+        // when
+        List<Throwable> failures = List.of(
+                catchThrowable(() -> referenceMapper.map(head, ImmutableEmployeeDto.class)),
+                catchThrowable(() -> referenceMapper.map(department, HeadedDepartmentDto.class)),
+                catchThrowable(() -> referenceMapper.map(roster, EmployeeRosterDto.class)));
+
+        // then
+        assertThat(failures).allSatisfy(failure -> assertThat(failure)
+                .isInstanceOf(JModelMapperException.class)
+                .hasStackTraceContaining(pair)
+                .hasStackTraceContaining("cannot be preserved"));
+    }
+
+    @Test
+    void map_ShouldMapChainDeeperThanStack_WhenTraversalIsIterative() {
+
+        // given
+        JModelMapper iterativeMapper = JModelMapper.builder().traversal(Traversal.ITERATIVE).build();
+        JModelMapper referenceMapper = JModelMapper.builder().traversal(Traversal.ITERATIVE).preserveReferences(true)
+                .build();
+        Link first = new Link("link-0", null);
+        Link last = first;
+        for (int i = 1; i < 200_000; i++) {
+            last.next = new Link("link-" + i, null);
+            last = last.next;
+        }
+        Department department = new Department("test-department");
+        department.head = new Employee("test-head", department);
+        department.employees = List.of(department.head);
+
+        // when
+        LinkDto firstDto = iterativeMapper.map(first, LinkDto.class);
+        DepartmentDto departmentDto = referenceMapper.map(department, DepartmentDto.class);
+
+        // then
+        LinkDto lastDto = firstDto;
+        int length = 1;
+        while (lastDto.next != null) {
+            lastDto = lastDto.next;
+            length++;
+        }
+        assertThat(length).isEqualTo(200_000);
+        assertThat(lastDto.value).isEqualTo("link-199999");
+        assertThat(departmentDto.head).isSameAs(departmentDto.employees.get(0));
+        assertThat(departmentDto.head.department).isSameAs(departmentDto);
+    }
+
+
+    @Test
+    void map_ShouldMapSetsDequesArraysAndMaps() {
+
+        // given
+        Employee first = new Employee("employee-1", null);
+        Employee second = new Employee("employee-2", null);
+        Roster roster = new Roster();
+        roster.codes = new int[]{1, 2, 3};
+        roster.members = new Employee[]{first, null, second};
+        roster.names = List.of("b", "a", "b");
+        roster.queue = List.of(first, second);
+        roster.byName = Map.of("employee-1", first, "employee-2", second);
+        roster.tags = List.of("x", "y");
+
+        // when
+        RosterDto rosterDto = modelMapper.map(roster, RosterDto.class);
+
+        // then
+        assertThat(rosterDto.codes).containsExactly(1, 2, 3).isNotSameAs(roster.codes);
+        assertThat(rosterDto.members).hasSize(3);
+        assertThat(rosterDto.members[0].name).isEqualTo("employee-1");
+        assertThat(rosterDto.members[1]).isNull();
+        assertThat(rosterDto.members[2].name).isEqualTo("employee-2");
+        assertThat(rosterDto.names).isInstanceOf(TreeSet.class).containsExactly("a", "b");
+        assertThat(rosterDto.queue).isInstanceOf(ArrayDeque.class).extracting(employeeDto -> employeeDto.name)
+                .containsExactly("employee-1", "employee-2");
+        assertThat(rosterDto.byName).isInstanceOf(HashMap.class).hasSize(2);
+        assertThat(rosterDto.byName.get("employee-2").name).isEqualTo("employee-2");
+        assertThat(rosterDto.tags).containsExactly("x", "y");
+    }
+
+    @Test
+    void map_ShouldShareImmutableCollections_WhenConfigured() {
+
+        // given
+        JModelMapper sharingMapper = JModelMapper.builder().shareImmutableCollections(true).build();
+        Roster roster = new Roster();
+        roster.names = List.of("a");
+        roster.queue = List.of(new Employee("employee-1", null));
+        roster.tags = List.of("x", "y");
+        roster.labels = List.of("z");
+
+        // when
+        RosterDto sharedDto = sharingMapper.map(roster, RosterDto.class);
+        RosterDto copiedDto = modelMapper.map(roster, RosterDto.class);
+
+        // then
+        assertThat(sharedDto.labels).isSameAs(roster.labels);
+        assertThat(sharedDto.tags).isNotSameAs(roster.tags).containsExactly("x", "y");
+        assertThat(sharedDto.queue.peek().name).isEqualTo("employee-1");
+        assertThat(copiedDto.labels).isNotSameAs(roster.labels).isInstanceOf(ArrayList.class);
+    }
+
+    @Test
+    void map_ShouldMapInheritedFields_WhenClassesExtendBaseClasses() {
+
+        // given
+        Customer customer = new Customer();
+        customer.id = 7L;
+        customer.createdBy = "test-user";
+        customer.name = "test-customer";
+
+        // when
+        CustomerDto customerDto = modelMapper.map(customer, CustomerDto.class);
+
+        // then
+        assertThat(customerDto.id).isEqualTo(7L);
+        assertThat(customerDto.createdBy).isEqualTo("test-user");
+        assertThat(customerDto.name).isEqualTo("test-customer");
+    }
+
+    @ParameterizedTest
+    @EnumSource(MappingEngine.class)
+    void map_ShouldCreateImmutableTargets_WhenTargetHasConstructorTakingItsFields(MappingEngine engine) {
+
+        // given
+        JModelMapper engineMapper = JModelMapper.builder().engine(engine).build();
+        Customer customer = new Customer();
+        customer.id = 7L;
+        customer.name = "test-customer";
+        Order order = new Order();
+        order.number = "test-order";
+        order.quantity = 3;
+        order.customer = customer;
+        order.lines = List.of(new Order.Line("test-item", 2), new Order.Line("other-item", 1));
+
+        // when
+        OrderView orderView = engineMapper.map(order, OrderView.class);
+        List<OrderView> orderViews = engineMapper.mapAll(List.of(order, order), OrderView.class);
+
+        // then
+        assertThat(orderView.number).isEqualTo("test-order");
+        assertThat(orderView.quantity).isEqualTo(3L);
+        assertThat(orderView.total).isZero();
+        assertThat(orderView.customer.id).isEqualTo(7L);
+        assertThat(orderView.customer.name).isEqualTo("test-customer");
+        assertThat(orderView.lines).extracting(line -> line.item + ":" + line.count)
+                .containsExactly("test-item:2", "other-item:1");
+        assertThat(orderView.note).isEqualTo("test-order");
+        assertThat(orderViews).hasSize(2).allSatisfy(view -> assertThat(view.lines).hasSize(2));
+        assertThatThrownBy(() -> engineMapper.mapInto(order, orderView))
+                .isInstanceOf(JModelMapperException.class)
+                .hasCauseInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void mapLazy_ShouldMapPropertiesOnFirstRead_WhenViewIsInterface() {
+
+        // given
+        InMemoryMapperMetrics metrics = new InMemoryMapperMetrics();
+        JModelMapper lazyMapper = JModelMapper.builder().metrics(metrics).build();
+        Department department = new Department("test-department");
+        department.employees = IntStream.range(0, 1000)
+                .mapToObj(i -> new Employee("employee-" + i, department))
+                .collect(Collectors.toList());
+        department.head = department.employees.get(0);
+        department.deputies = List.of(new Employee("deputy-1", null), new Employee("deputy-2", null));
+
+        // when
+        DepartmentView view = lazyMapper.mapLazy(department, DepartmentView.class);
+        String name = view.getName();
+        String label = view.getEmployees().get(999).label();
+        PairStatistics beforeMaterialize = metrics.getPair(Employee.class, EmployeeNameDto.class);
+        DepartmentView materialized = JModelMapper.materialize(view);
+
+        // then
+        assertThat(name).isEqualTo("test-department");
+        assertThat(label).isEqualTo("employee employee-999");
+        assertThat(view.getEmployees()).hasSize(1000);
+        assertThat(view.getHead().name()).isEqualTo("employee-0");
+        assertThat(beforeMaterialize).isNull();
+        assertThat(materialized).isSameAs(view);
+        assertThat(((LazyView) view).isMaterialized()).isTrue();
+        assertThat(view.getDeputies()).extracting(employeeDto -> employeeDto.name)
+                .containsExactly("deputy-1", "deputy-2");
+        assertThat(metrics.getPair(Employee.class, EmployeeNameDto.class).getCalls()).isEqualTo(2);
+        assertThatThrownBy(() -> lazyMapper.mapLazy(department, DepartmentDto.class))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void mapInto_ShouldKeepTargetValues_WhenSourceValuesAreNullAndNullsAreSkipped() {
+
+        // given
+        MappingOptions patch = MappingOptions.builder().skipNulls(true).build();
+        Department changes = new Department(null);
+        changes.head = new Employee("new-head", null);
+        DepartmentDto departmentDto = new DepartmentDto();
+        departmentDto.name = "test-department";
+        departmentDto.deputies = new ArrayList<>();
+
+        // when
+        modelMapper.mapInto(changes, departmentDto, ReusePolicy.NONE, patch);
+
+        // then
+        assertThat(departmentDto.name).isEqualTo("test-department");
+        assertThat(departmentDto.deputies).isEmpty();
+        assertThat(departmentDto.head.name).isEqualTo("new-head");
+    }
+
+    @Test
+    void map_ShouldMapSelectedFieldsOnly_WhenProjectionOrPairOptionsAreGiven() {
+
+        // given
+        JModelMapper projectingMapper = JModelMapper.builder()
+                .projection("summary", MappingOptions.builder().exclude("employees", "deputies").build())
+                .projection("detail", MappingOptions.builder().include("name", "head.name", "employees").build())
+                .options(Employee.class, EmployeeDto.class, MappingOptions.builder().exclude("department").build())
+                .build();
+        Department department = new Department("test-department");
+        department.head = new Employee("employee-0", department);
+        department.employees = List.of(department.head, new Employee("employee-1", department));
+        department.deputies = List.of(department.head);
+
+        // when
+        DepartmentDto summary = projectingMapper.map(department, DepartmentDto.class, "summary");
+        DepartmentDto detail = projectingMapper.map(department, DepartmentDto.class, "detail");
+        List<DepartmentDto> summaries = projectingMapper.mapAll(List.of(department), DepartmentDto.class, "summary");
+
+        // then
+        assertThat(summary.name).isEqualTo("test-department");
+        assertThat(summary.employees).isNull();
+        assertThat(summary.deputies).isNull();
+        assertThat(summary.head.name).isEqualTo("employee-0");
+        assertThat(summary.head.department).isNull();
+        assertThat(detail.head.name).isEqualTo("employee-0");
+        assertThat(detail.employees).extracting(employeeDto -> employeeDto.name)
+                .containsExactly("employee-0", "employee-1");
+        assertThat(detail.deputies).isNull();
+        assertThat(summaries).singleElement().extracting(departmentDto -> departmentDto.employees).isNull();
+        assertThatThrownBy(() -> projectingMapper.map(department, DepartmentDto.class, "unknown"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void map_ShouldMapBackWithReversePlan_WhenMapperIsBidirectional() {
+
+        // given
+        InMemoryMapperMetrics metrics = new InMemoryMapperMetrics();
+        JModelMapper bidirectionalMapper = JModelMapper.builder().bidirectional(true).metrics(metrics).build();
+        String requesterId = UUID.randomUUID().toString();
+        Request request = new Request(requesterId, "test-id");
+
+        // when
+        RequestDto requestDto = bidirectionalMapper.map(request, RequestDto.class);
+        long missesAfterFirstDirection = metrics.getPlanCacheMisses();
+        Request mappedBack = bidirectionalMapper.map(requestDto, Request.class);
+
+        // then
+        assertThat(requestDto.identifier).isEqualTo("test-id");
+        assertThat(mappedBack.requesterId).isEqualTo(requesterId);
+        assertThat(mappedBack.id).isEqualTo("test-id");
+        assertThat(metrics.getPlanCacheMisses()).isEqualTo(missesAfterFirstDirection);
+        assertThat(metrics.getPair(RequestDto.class, Request.class).getCalls()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @EnumSource(MappingEngine.class)
+    void map_ShouldFlattenAndUnflattenNestedFields_WhenFieldPathsAreDeclared(MappingEngine engine) {
+
+        // given
+        JModelMapper engineMapper = JModelMapper.builder().engine(engine).build();
+        ShippingOrder order = new ShippingOrder();
+        order.number = "order-1";
+        order.buyer = new Buyer();
+        order.buyer.name = "test-buyer";
+        order.buyer.address = new PostalAddress();
+        order.buyer.address.city = "test-city";
+        order.buyer.address.zip = 10115;
+        ShippingOrder orderWithoutBuyer = new ShippingOrder();
+        orderWithoutBuyer.number = "order-2";
+
+        // when
+        FlatShippingOrderDto flatDto = engineMapper.map(order, FlatShippingOrderDto.class);
+        FlatShippingOrderDto flatDtoWithoutBuyer = engineMapper.map(orderWithoutBuyer, FlatShippingOrderDto.class);
+        ShippingOrder unflattened = engineMapper.map(flatDto, ShippingOrder.class);
+
+        // then
+        assertThat(flatDto.number).isEqualTo("order-1");
+        assertThat(flatDto.buyerName).isEqualTo("test-buyer");
+        assertThat(flatDto.city).isEqualTo("test-city");
+        assertThat(flatDto.zip).isEqualTo(10115);
+        assertThat(flatDtoWithoutBuyer.number).isEqualTo("order-2");
+        assertThat(flatDtoWithoutBuyer.buyerName).isNull();
+        assertThat(flatDtoWithoutBuyer.city).isNull();
+        assertThat(unflattened.number).isEqualTo("order-1");
+        assertThat(unflattened.buyer.name).isEqualTo("test-buyer");
+        assertThat(unflattened.buyer.address.city).isEqualTo("test-city");
+        assertThat(unflattened.buyer.address.zip).isEqualTo(10115);
+    }
+
+    @Test
+    void mapAllAsync_ShouldConvertAllValuesInOneCall_WhenAdapterIsBatchTypeAdapter() throws Exception {
+
+        // given
+        CurrencyLookup lookup = new CurrencyLookup(Map.of(978, "EUR", 840, "USD", 826, "GBP"));
+        JModelMapper batchMapper = JModelMapper.builder().typeAdapter(lookup).parallelThreshold(500).build();
+        List<Integer> codes = List.of(978, 840, 826);
+        List<Payment> payments = IntStream.range(0, 5000)
+                .mapToObj(i -> new Payment("payment-" + i, codes.get(i % 3)))
+                .collect(Collectors.toList());
+
+        // when
+        List<PaymentDto> paymentDtos = batchMapper.mapAllAsync(payments, PaymentDto.class).get(10, TimeUnit.SECONDS);
+        int batchCalls = lookup.calls.get();
+        List<Integer> batchInputs = lookup.lastInputs;
+        PaymentDto paymentDto = batchMapper.mapAsync(payments.get(2), PaymentDto.class).get(10, TimeUnit.SECONDS);
+
+        // then
+        assertThat(paymentDtos).hasSize(5000);
+        assertThat(paymentDtos.get(0).currency).isEqualTo("EUR");
+        assertThat(paymentDtos.get(4999).currency).isEqualTo("USD");
+        assertThat(paymentDtos.get(4999).reference).isEqualTo("payment-4999");
+        assertThat(batchCalls).isEqualTo(1);
+        assertThat(batchInputs).containsExactlyInAnyOrder(978, 840, 826);
+        assertThat(paymentDto.currency).isEqualTo("GBP");
+        assertThat(lookup.calls.get()).isEqualTo(2);
+    }
+
+    @ParameterizedTest
+    @EnumSource(MappingEngine.class)
+    void merge_ShouldWriteChangedFieldsOnly_WhenTargetHoldsValuesAlready(MappingEngine engine) {
+
+        // given
+        JModelMapper engineMapper = JModelMapper.builder().engine(engine).build();
+        PostalAddress warehouse = new PostalAddress();
+        warehouse.city = "Berlin";
+        warehouse.zip = 10115;
+        PostalAddress supplier = new PostalAddress();
+        supplier.city = "Leipzig";
+        supplier.zip = 4109;
+        List<PostalAddress> suppliers = List.of(supplier);
+        Article article = new Article("Lamp", 5, List.of("home"), warehouse, suppliers);
+        PostalAddress movedWarehouse = new PostalAddress();
+        movedWarehouse.city = "Berlin";
+        movedWarehouse.zip = 10117;
+        PostalAddress sameSupplier = new PostalAddress();
+        sameSupplier.city = "Leipzig";
+        sameSupplier.zip = 4109;
+        ArticleDto articleDto = new ArticleDto("Lamp", 7, List.of("home"), movedWarehouse, List.of(sameSupplier));
+
+        // when
+        ChangeSet changes = engineMapper.merge(articleDto, article);
+        ChangeSet unchanged = engineMapper.merge(articleDto, article);
+        articleDto.warehouse = null;
+        ChangeSet cleared = engineMapper.merge(articleDto, article);
+
+        // then
+        assertThat(changes.paths()).containsExactly("stock", "warehouse.zip");
+        assertThat(changes.contains("warehouse.zip")).isTrue();
+        assertThat(changes.contains("warehouse.city")).isFalse();
+        assertThat(changes.contains("title")).isFalse();
+        assertThat(changes.contains("suppliers")).isFalse();
+        assertThat(changes.bits().stream().toArray()).containsExactly(1, 3);
+        assertThat(unchanged.isEmpty()).isTrue();
+        assertThat(cleared.paths()).containsExactly("warehouse");
+        assertThat(article.stock).isEqualTo(7);
+        assertThat(warehouse.zip).isEqualTo(10117);
+        assertThat(article.warehouse).isNull();
+        assertThat(article.suppliers).isSameAs(suppliers);
+    }
+
+    @ParameterizedTest
+    @EnumSource(MappingEngine.class)
+    void toMapAndFromMap_ShouldMapBeansToAndFromMaps_WhenPayloadIsKeyedByFieldName(MappingEngine engine) {
+
+        // given
+        JModelMapper engineMapper = JModelMapper.builder().engine(engine).build();
+        PostalAddress destination = new PostalAddress();
+        destination.city = "Hamburg";
+        destination.zip = 20095;
+        Shipment shipment = new Shipment("S-1", 1200L, 3, destination);
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", "S-2");
+        row.put("weight", 800);
+        row.put("parcels", 2);
+        row.put("destination", Map.of("city", "Bremen", "zip", 28195));
+        row.put("carrier", "unknown column");
+
+        // when
+        Map<String, Object> payload = engineMapper.toMap(shipment);
+        Shipment fromRow = engineMapper.fromMap(row, Shipment.class);
+        List<Shipment> roundTrip = engineMapper.fromMaps(engineMapper.toMaps(List.of(shipment, fromRow)),
+                Shipment.class);
+
+        // then
+        assertThat(payload).containsExactly(Map.entry("id", "S-1"), Map.entry("weight", 1200L),
+                Map.entry("parcels", 3), Map.entry("destination", Map.of("city", "Hamburg", "zip", 20095)));
+        assertThat(fromRow.id).isEqualTo("S-2");
+        assertThat(fromRow.weight).isEqualTo(800L);
+        assertThat(fromRow.parcels).isEqualTo(2);
+        assertThat(fromRow.destination.city).isEqualTo("Bremen");
+        assertThat(fromRow.destination.zip).isEqualTo(28195);
+        assertThat(roundTrip).extracting(s -> s.id).containsExactly("S-1", "S-2");
+        assertThat(roundTrip.get(0).destination.city).isEqualTo("Hamburg");
+        assertThatThrownBy(() -> engineMapper.fromMaps(List.of(row, Map.of("parcels", "three")), Shipment.class))
+                .isInstanceOf(BulkMappingException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class)
+                .extracting(exception -> ((BulkMappingException) exception).getIndex())
+                .isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @EnumSource(EvictionPolicy.class)
+    void map_ShouldRebuildEvictedAndClearedPlans_WhenPlanCacheIsBounded(EvictionPolicy evictionPolicy) {
+
+        // given
+        InMemoryMapperMetrics metrics = new InMemoryMapperMetrics();
+        JModelMapper boundedMapper = JModelMapper.builder().planCacheSize(1).evictionPolicy(evictionPolicy)
+                .metrics(metrics).build();
+
+        // when
+        boundedMapper.map(new Ticket(1, null), TicketDto.class);
+        boundedMapper.map(new Ticket(2, null), TicketDto.class);
+        boundedMapper.map(new Ticket(3, null), TicketSummaryDto.class);
+        TicketDto evicted = boundedMapper.map(new Ticket(4, null), TicketDto.class);
+        long missesBeforeClear = metrics.getPlanCacheMisses();
+        boundedMapper.clear();
+        TicketDto cleared = boundedMapper.map(new Ticket(5, null), TicketDto.class);
+
+        // then
+        assertThat(missesBeforeClear).isEqualTo(3);
+        assertThat(metrics.getPlanCacheHits()).isEqualTo(1);
+        assertThat(metrics.getPlanCacheMisses()).isEqualTo(4);
+        assertThat(evicted.number).isEqualTo("4");
+        assertThat(cleared.number).isEqualTo("5");
+    }
+
+    @ParameterizedTest
+    @CsvSource({"LEAST_RECENTLY_USED, 3", "FIRST_IN_FIRST_OUT, 4"})
+    void map_ShouldEvictPlanByPolicy_WhenOlderPlanIsLookedUpBeforeNextMiss(EvictionPolicy evictionPolicy,
+                                                                           long expectedMisses) {
+
+        // given
+        InMemoryMapperMetrics metrics = new InMemoryMapperMetrics();
+        JModelMapper boundedMapper = JModelMapper.builder().planCacheSize(2).evictionPolicy(evictionPolicy)
+                .metrics(metrics).build();
+
+        // when
+        boundedMapper.map(new Ticket(1, null), TicketDto.class);
+        boundedMapper.map(new Ticket(2, null), TicketSummaryDto.class);
+        for (int i = 3; i < 13; i++) {
+            boundedMapper.map(new Ticket(i, null), TicketDto.class);
+        }
+        boundedMapper.map(new LongReading(1, 2), FloatReadingDto.class);
+        boundedMapper.map(new Ticket(13, null), TicketDto.class);
+
+        // then
+        assertThat(metrics.getPlanCacheMisses()).isEqualTo(expectedMisses);
+    }
+
+    @Test
+    void map_ShouldNotPinClassLoader_WhenMapperOutlivesMappedClasses() throws Exception {
+
+        // given
+        InMemoryMapperMetrics metrics = new InMemoryMapperMetrics();
+        JModelMapper pluginMapper = JModelMapper.builder().metrics(metrics).build();
+
+        // when
+        WeakReference<ClassLoader> pluginLoader = mapPluginClass(pluginMapper);
+        for (int i = 0; i < 50 && pluginLoader.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+
+        // then
+        assertThat(pluginLoader.get()).isNull();
+        assertThat(metrics.getPlanCacheMisses()).isEqualTo(1);
+        assertThat(pluginMapper.map(new Ticket(1, null), TicketDto.class).number).isEqualTo("1");
+    }
+
+    private static WeakReference<ClassLoader> mapPluginClass(JModelMapper pluginMapper) throws Exception {
+        ClassLoader loader = new PluginClassLoader(PluginBean.class.getName());
+        Class<?> pluginType = loader.loadClass(PluginBean.class.getName());
+        assertThat(pluginType).isNotEqualTo(PluginBean.class);
+        Object bean = pluginType.getDeclaredConstructor().newInstance();
+        pluginType.getDeclaredField("name").set(bean, "plugin");
+
+        Object copy = pluginMapper.map(bean, pluginType);
+        Map<String, Object> payload = pluginMapper.toMap(copy);
+
+        assertThat(payload).containsExactly(Map.entry("name", "plugin"), Map.entry("version", 0));
+        return new WeakReference<>(loader);
+    }
+
+    @Test
+    void map_ShouldNotPinClassLoader_WhenResidentPlanMapsPluginValue() throws Exception {
+
+        // given
+        JModelMapper pluginMapper = JModelMapper.builder().build();
+
+        // when
+        WeakReference<ClassLoader> pluginLoader = mapPluginValue(pluginMapper);
+        for (int i = 0; i < 50 && pluginLoader.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+
+        // then
+        assertThat(pluginLoader.get()).isNull();
+        PluginBean resident = new PluginBean();
+        resident.name = "resident";
+        PluginHost host = new PluginHost();
+        host.plugin = resident;
+        assertThat(pluginMapper.map(host, PluginHostDto.class).plugin.name).isEqualTo("resident");
+    }
+
+    private static WeakReference<ClassLoader> mapPluginValue(JModelMapper pluginMapper) throws Exception {
+        ClassLoader loader = new PluginClassLoader(PluginBean.class.getName());
+        Class<?> pluginType = loader.loadClass(PluginBean.class.getName());
+        PluginHost host = new PluginHost();
+        host.plugin = (Plugin) pluginType.getDeclaredConstructor().newInstance();
+        pluginType.getDeclaredField("name").set(host.plugin, "plugin");
+        PluginHostDto merged = new PluginHostDto();
+        merged.plugin = new PluginDto();
+
+        PluginHostDto mapped = pluginMapper.map(host, PluginHostDto.class);
+        ChangeSet changes = pluginMapper.merge(host, merged);
+
+        assertThat(mapped.plugin.name).isEqualTo("plugin");
+        assertThat(changes.paths()).containsExactly("plugin.name");
+        return new WeakReference<>(loader);
+    }
+
+    /**
+     *
+     */
+    static class Person {
+
+        String name;
+        Integer age;
+        String sex;
+        List<Address> addresses;
+        Map<String, String> attributes;
+
+        public Person(String name, Integer age, String sex, List<Address> addresses, Map<String, String> attributes) {
+            this.name = name;
+            this.age = age;
+            this.sex = sex;
+            this.addresses = addresses;
+            this.attributes = attributes;
+        }
+
+        static class Address {
+
+            public Address(String streetName, String zipCode, ExtraInfo extraInfo) {
+                this.streetName = streetName;
+                this.zipCode = zipCode;
+                this.extraInfo = extraInfo;
+            }
+
+            String streetName;
+            String zipCode;
+
+            ExtraInfo extraInfo;
+
+            static class ExtraInfo {
+
+                public ExtraInfo(String coordinates) {
+                    this.coordinates = coordinates;
+                }
+
+                String coordinates;
+
+
+            }
+        }
+    }
+
+    static class PersonDto {
+
+        String name;
+        Integer age;
+        String sex;
+        List<AddressDto> addresses;
+        Map<String, String> attributes;
+
+        public PersonDto() {
+        }
+
+        public String getName() {
+            return name;
+        }
+
+
+        public List<AddressDto> getAddresses() {
+            return addresses;
+        }
+
+
+        @Override
+        public String toString() {
+            return "PersonDto{" +
+                    "name='" + name + '\'' +
+                    ", age=" + age +
+                    ", sex='" + sex + '\'' +
+                    ", addresses=" + addresses +
+                    ", attributes=" + attributes +
+                    '}';
+        }
+
+        static class AddressDto {
+
+            String streetName;
+            String zipCode;
+
+            ExtraInfoDto extraInfo;
+
+            public AddressDto() {
+            }
+
+            public ExtraInfoDto getExtraInfo() {
+                return extraInfo;
+            }
+
+            @Override
+            public String toString() {
+                return "AddressDto{" +
+                        "streetName='" + streetName + '\'' +
+                        ", zipCode='" + zipCode + '\'' +
+                        '}';
+            }
+
+            static class ExtraInfoDto {
+
+                String coordinates;
+
+                public ExtraInfoDto() {
+                }
+
+
+            }
+        }
+    }
+
+    static class Extra {
+
+        Long value;
+
+        public Extra(Long value) {
+            this.value = value;
+        }
+    }
+
+    static class ExtraDto {
+
+        String value;
+
+        public ExtraDto() {
+        }
+    }
+
+    static class Request {
+        String requesterId;
+        String id;
+
+        public Request(String requesterId, String id) {
+            this.requesterId = requesterId;
+            this.id = id;
+        }
+
+        public Request(String requesterId) {
+            this.requesterId = requesterId;
+        }
+    }
+
+    static class RequestDto {
+
+        @TransformToType(typeAdapter = StringToUUIDTypeAdapter.class)
+        UUID requesterId;
+
+        @ClassFieldMapping(fields = {@SourceFieldMapping(sourceField = "id")})
+        String identifier;
+
+        public RequestDto() {
+        }
+
+        public UUID getRequesterId() {
+            return requesterId;
+        }
+
+        public String getIdentifier() {
+            return identifier;
+        }
+    }
+
+    static class Tagged {
+
+        List<String> tags;
+
+        public Tagged(List<String> tags) {
+            this.tags = tags;
+        }
+    }
+
+    static class TaggedDto {
+
+        List<String> tags;
+
+        public TaggedDto() {
+        }
+    }
+
+    static class Measurement {
+
+        private final int count;
+        private final long total;
+        private final double ratio;
+        private final boolean valid;
+        private final String unit;
+
+        public Measurement(int count, long total, double ratio, boolean valid, String unit) {
+            this.count = count;
+            this.total = total;
+            this.ratio = ratio;
+            this.valid = valid;
+            this.unit = unit;
+        }
+    }
+
+    static class MeasurementDto {
+
+        private int count;
+        private long total;
+        private double ratio;
+        private boolean valid;
+        private String unit;
+
+        private MeasurementDto() {
+        }
+    }
+
+    static class CountingToUUIDTypeAdapter implements TypeAdapter<String, UUID> {
+
+        int conversions;
+
+        private String normalize(String string) {
+            return string.trim();
+        }
+
+        @Override
+        public UUID convert(String string) {
+            conversions++;
+            return UUID.fromString(normalize(string));
+        }
+    }
+
+    static class CountedRequestDto {
+
+        @TransformToType(typeAdapter = CountingToUUIDTypeAdapter.class)
+        UUID requesterId;
+
+        public CountedRequestDto() {
+        }
+    }
+
+    static class Reading {
+
+        int count;
+        char code;
+        float ratio;
+        long total;
+        Integer boxed;
+        Short missing;
+
+        Reading(int count, char code, float ratio, long total, Integer boxed, Short missing) {
+            this.count = count;
+            this.code = code;
+            this.ratio = ratio;
+            this.total = total;
+            this.boxed = boxed;
+            this.missing = missing;
+        }
+    }
+
+    static class ReadingDto {
+
+        long count;
+        int code;
+        double ratio;
+        double total;
+        long boxed;
+        Integer missing;
+    }
+
+    static class LongReading {
+
+        long count;
+        long total;
+
+        LongReading(long count, long total) {
+            this.count = count;
+            this.total = total;
+        }
+    }
+
+    static class FloatReadingDto {
+
+        float count;
+    }
+
+    static class DoubleReadingDto {
+
+        double total;
+    }
+
+    static class Ticket {
+
+        Integer number;
+        String ownerId;
+
+        Ticket(Integer number, String ownerId) {
+            this.number = number;
+            this.ownerId = ownerId;
+        }
+    }
+
+    static class TicketDto {
+
+        String number;
+        UUID ownerId;
+    }
+
+    static class TicketSummaryDto {
+
+        String number;
+    }
+
+    static class NoDefaultConstructorDto {
+
+        String number;
+
+        NoDefaultConstructorDto(int number) {
+            this.number = String.valueOf(number);
+        }
+    }
+
+    static class Department {
+
+        String name;
+        Employee head;
+        List<Employee> employees;
+        List<Employee> deputies;
+
+        Department(String name) {
+            this.name = name;
+        }
+    }
+
+    static class Employee {
+
+        String name;
+        Department department;
+
+        Employee(String name, Department department) {
+            this.name = name;
+            this.department = department;
+        }
+    }
+
+    static class DepartmentDto {
+
+        String name;
+        EmployeeDto head;
+        List<EmployeeDto> employees;
+        List<EmployeeDto> deputies;
+    }
+
+    static class EmployeeDto {
+
+        String name;
+        DepartmentDto department;
+    }
+
+    static class ImmutableEmployeeDto {
+
+        final String name;
+        final ImmutableDepartmentDto department;
+
+        ImmutableEmployeeDto(String name, ImmutableDepartmentDto department) {
+            this.name = name;
+            this.department = department;
+        }
+    }
+
+    static class ImmutableDepartmentDto {
+
+        final String name;
+        final ImmutableEmployeeDto head;
+
+        ImmutableDepartmentDto(String name, ImmutableEmployeeDto head) {
+            this.name = name;
+            this.head = head;
+        }
+    }
+
+    static class HeadedDepartmentDto {
+
+        String name;
+        ImmutableEmployeeDto head;
+    }
+
+    static class EmployeeRosterDto {
+
+        String name;
+        ImmutableEmployeeDto head;
+        List<ImmutableEmployeeDto> employees;
+    }
+
+    static class Link {
+
+        String value;
+        Link next;
+
+        Link(String value, Link next) {
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    static class LinkDto {
+
+        String value;
+        LinkDto next;
+    }
+
+    static class Roster {
+
+        int[] codes;
+        Employee[] members;
+        List<String> names;
+        List<Employee> queue;
+        Map<String, Employee> byName;
+        List<String> tags;
+        List<String> labels;
+    }
+
+    static class RosterDto {
+
+        int[] codes;
+        EmployeeDto[] members;
+        TreeSet<String> names;
+        Deque<EmployeeDto> queue;
+        Map<String, EmployeeDto> byName;
+        String[] tags;
+        List<String> labels;
+    }
+
+    static class ShippingOrder {
+
+        String number;
+        Buyer buyer;
+    }
+
+    static class Buyer {
+
+        String name;
+        PostalAddress address;
+    }
+
+    static class PostalAddress {
+
+        String city;
+        int zip;
+    }
+
+    static class FlatShippingOrderDto {
+
+        String number;
+
+        @ClassFieldMapping(fields = {@SourceFieldMapping(sourceField = "buyer.name")})
+        String buyerName;
+
+        @ClassFieldMapping(fields = {@SourceFieldMapping(sourceField = "buyer.address.city")})
+        String city;
+
+        @ClassFieldMapping(fields = {@SourceFieldMapping(sourceField = "buyer.address.zip")})
+        int zip;
+    }
+
+    static class Article {
+
+        String title;
+        int stock;
+        List<String> tags;
+        PostalAddress warehouse;
+        List<PostalAddress> suppliers;
+
+        Article(String title, int stock, List<String> tags, PostalAddress warehouse, List<PostalAddress> suppliers) {
+            this.title = title;
+            this.stock = stock;
+            this.tags = tags;
+            this.warehouse = warehouse;
+            this.suppliers = suppliers;
+        }
+    }
+
+    static class ArticleDto {
+
+        String title;
+        int stock;
+        List<String> tags;
+        PostalAddress warehouse;
+        List<PostalAddress> suppliers;
+
+        ArticleDto(String title, int stock, List<String> tags, PostalAddress warehouse, List<PostalAddress> suppliers) {
+            this.title = title;
+            this.stock = stock;
+            this.tags = tags;
+            this.warehouse = warehouse;
+            this.suppliers = suppliers;
+        }
+    }
+
+    static class Shipment {
+
+        String id;
+        long weight;
+        int parcels;
+        PostalAddress destination;
+
+        Shipment() {
+        }
+
+        Shipment(String id, long weight, int parcels, PostalAddress destination) {
+            this.id = id;
+            this.weight = weight;
+            this.parcels = parcels;
+            this.destination = destination;
+        }
+    }
+
+    public interface Plugin {
+    }
+
+    static class PluginHost {
+
+        Plugin plugin;
+    }
+
+    static class PluginHostDto {
+
+        PluginDto plugin;
+    }
+
+    static class PluginDto {
+
+        String name;
+        int version;
+    }
+
+    public static class PluginBean implements Plugin {
+
+        public String name;
+        public int version;
+    }
+
+    /**
+     * Defines one class itself instead of delegating to its parent, as a plugin or module class loader does
+     */
+    static class PluginClassLoader extends ClassLoader {
+
+        private final String className;
+
+        PluginClassLoader(String className) {
+            super(JModelMapperTest.class.getClassLoader());
+            this.className = className;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(className)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> type = findLoadedClass(name);
+                if (type == null) {
+                    try (InputStream bytes = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                        byte[] code = bytes.readAllBytes();
+                        type = defineClass(name, code, 0, code.length);
+                    } catch (IOException e) {
+                        throw new ClassNotFoundException(name, e);
+                    }
+                }
+                return type;
+            }
+        }
+    }
+
+    static class CurrencyLookup implements BatchTypeAdapter<Integer, String> {
+
+        final AtomicInteger calls = new AtomicInteger();
+        final Map<Integer, String> currencies;
+        volatile List<Integer> lastInputs;
+
+        CurrencyLookup(Map<Integer, String> currencies) {
+            this.currencies = currencies;
+        }
+
+        @Override
+        public List<String> convertAll(List<Integer> inputs) {
+            calls.incrementAndGet();
+            lastInputs = List.copyOf(inputs);
+            return inputs.stream().map(currencies::get).collect(Collectors.toList());
+        }
+    }
+
+    static class Payment {
+
+        String reference;
+        Integer currency;
+
+        Payment(String reference, Integer currency) {
+            this.reference = reference;
+            this.currency = currency;
+        }
+    }
+
+    static class PaymentDto {
+
+        String reference;
+
+        @TransformToType(typeAdapter = CurrencyLookup.class)
+        String currency;
+    }
+
+    static class BaseEntity {
+
+        Long id;
+        String createdBy;
+    }
+
+    static class Customer extends BaseEntity {
+
+        String name;
+    }
+
+    static class BaseDto {
+
+        Long id;
+    }
+
+    static class CustomerDto extends BaseDto {
+
+        String name;
+        String createdBy;
+    }
+
+    static class Order {
+
+        String number;
+        int quantity;
+        Customer customer;
+        List<Line> lines;
+
+        static class Line {
+
+            String item;
+            int count;
+
+            Line(String item, int count) {
+                this.item = item;
+                this.count = count;
+            }
+        }
+    }
+
+    static final class OrderView {
+
+        final String number;
+        final long quantity;
+        final double total;
+        final CustomerView customer;
+        final List<LineView> lines;
+        String note;
+
+        OrderView(String number, long quantity, double total, CustomerView customer, List<LineView> lines) {
+            this.number = number;
+            this.quantity = quantity;
+            this.total = total;
+            this.customer = customer;
+            this.lines = lines;
+            this.note = number;
+        }
+    }
+
+    static final class CustomerView {
+
+        final Long id;
+        final String name;
+
+        CustomerView(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    static final class LineView {
+
+        final String item;
+        final int count;
+
+        LineView(String item, int count) {
+            this.item = item;
+            this.count = count;
+        }
+    }
+
+    interface DepartmentView {
+
+        String getName();
+
+        EmployeeView getHead();
+
+        List<EmployeeView> getEmployees();
+
+        List<EmployeeNameDto> getDeputies();
+    }
+
+    static class EmployeeNameDto {
+
+        String name;
+    }
+
+    interface EmployeeView {
+
+        String name();
+
+        default String label() {
+            return "employee " + name();
+        }
+    }
+
+    @GenerateMapper(source = Ticket.class, target = TicketDto.class)
+    static class WarmUpDeclarations {
+    }
+
+    static class OneByOneSubscriber<T> implements Flow.Subscriber<T> {
+
+        final List<T> items = new ArrayList<>();
+        final CompletableFuture<List<T>> completion = new CompletableFuture<>();
+        Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(T item) {
+            items.add(item);
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            completion.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            completion.complete(items);
+        }
+    }
+}